@@ -88,30 +88,9 @@ public class CompressedSchema
   public final Attribute decodeAttribute(final ByteSequenceReader reader)
       throws DirectoryException
   {
-    // First decode the encoded attribute description id.
-    final int length = reader.readBERLength();
-    final byte[] idBytes = new byte[length];
-    reader.readBytes(idBytes);
-    final int id = decodeId(idBytes);
-
-    // Look up the attribute description.
-    Entry<AttributeType, Set<String>> ad = adDecodeMap.get(id);
-    if (ad == null)
-    {
-      throw new DirectoryException(DirectoryServer.getServerErrorResultCode(),
-          ERR_COMPRESSEDSCHEMA_UNRECOGNIZED_AD_TOKEN.get(id));
-    }
-
-    // Before returning the attribute, make sure that the attribute type is not
-    // stale.
-    AttributeType attrType = ad.getKey();
-    Set<String> options = ad.getValue();
-    if (attrType.isDirty())
-    {
-      ad = loadAttribute(idBytes, attrType.getNameOrOID(), options);
-      attrType = ad.getKey();
-      options = ad.getValue();
-    }
+    final Entry<AttributeType, Set<String>> ad = decodeAttributeDescription(reader);
+    final AttributeType attrType = ad.getKey();
+    final Set<String> options = ad.getValue();
 
     // Determine the number of values for the attribute.
     final int numValues = reader.readBERLength();
@@ -141,6 +120,45 @@ public class CompressedSchema
 
 
 
+  /**
+   * Decodes the description of the attribute at the current position, leaving
+   * the reader positioned on the number of values of the attribute.
+   *
+   * @param reader
+   *          The byte string reader containing the encoded entry.
+   * @return The attribute type and the options of the attribute.
+   * @throws DirectoryException
+   *           If the attribute description could not be decoded properly for
+   *           some reason.
+   */
+  public final Entry<AttributeType, Set<String>> decodeAttributeDescription(
+      final ByteSequenceReader reader) throws DirectoryException
+  {
+    // First decode the encoded attribute description id.
+    final int length = reader.readBERLength();
+    final byte[] idBytes = new byte[length];
+    reader.readBytes(idBytes);
+    final int id = decodeId(idBytes);
+
+    // Look up the attribute description.
+    Entry<AttributeType, Set<String>> ad = adDecodeMap.get(id);
+    if (ad == null)
+    {
+      throw new DirectoryException(DirectoryServer.getServerErrorResultCode(),
+          ERR_COMPRESSEDSCHEMA_UNRECOGNIZED_AD_TOKEN.get(id));
+    }
+
+    // Before returning the attribute description, make sure that the attribute
+    // type is not stale.
+    if (ad.getKey().isDirty())
+    {
+      ad = loadAttribute(idBytes, ad.getKey().getNameOrOID(), ad.getValue());
+    }
+    return ad;
+  }
+
+
+
   /**
    * Decodes an object class set from the provided byte string.
    *
@@ -521,6 +521,23 @@ public abstract class EntryCache<T extends EntryCacheCfg>
     return true;
   }
 
+  /**
+   * Indicates whether this entry cache backs the entry caches having a
+   * lower cache level. The entries stored in a lower level cache are
+   * also stored in a backing cache, and the entries found in a backing
+   * cache are promoted to the lower level caches. This is typically
+   * used for chaining a larger but slower cache behind an on-heap
+   * cache.
+   *
+   * @return  {@code true} if this entry cache backs the entry caches
+   *          having a lower cache level, or {@code false} if it only
+   *          holds the entries which are not held by these caches.
+   */
+  public boolean isBackingCache()
+  {
+    return false;
+  }
+
   /**
    * Return a verbose string representation of the current cache maps. This is
    * useful primary for debugging and diagnostic purposes such as in the entry
@@ -52,6 +52,9 @@ public class RebuildConfig
   private final List<String> rebuildList = new ArrayList<>();
   private String tmpDirectory;
   private boolean isClearDegradedState;
+  private boolean isOnline;
+  private int maxEntriesPerSecond;
+  private int threadCount;
 
   /**
    * Get the base DN to rebuild.
@@ -238,4 +241,73 @@ public class RebuildConfig
     this.isClearDegradedState = isClearDegradedState;
   }
 
+  /**
+   * Returns {@code true} if indexes should be rebuilt while the backend keeps
+   * serving requests.
+   *
+   * @return {@code true} if indexes should be rebuilt online.
+   */
+  public boolean isOnline()
+  {
+    return isOnline;
+  }
+
+  /**
+   * Sets whether indexes should be rebuilt while the backend keeps serving
+   * requests.
+   *
+   * @param isOnline
+   *          {@code true} if indexes should be rebuilt online.
+   */
+  public void setOnline(boolean isOnline)
+  {
+    this.isOnline = isOnline;
+  }
+
+  /**
+   * Returns the maximum number of entries indexed per second by an online
+   * rebuild.
+   *
+   * @return The maximum number of entries indexed per second, or 0 if the
+   *         rebuild is not throttled.
+   */
+  public int getMaxEntriesPerSecond()
+  {
+    return maxEntriesPerSecond;
+  }
+
+  /**
+   * Sets the maximum number of entries indexed per second by an online
+   * rebuild.
+   *
+   * @param maxEntriesPerSecond
+   *          The maximum number of entries indexed per second, or 0 if the
+   *          rebuild must not be throttled.
+   */
+  public void setMaxEntriesPerSecond(int maxEntriesPerSecond)
+  {
+    this.maxEntriesPerSecond = maxEntriesPerSecond;
+  }
+
+  /**
+   * Returns the number of threads used by an online rebuild.
+   *
+   * @return The number of threads, or 0 if the backend decides.
+   */
+  public int getThreadCount()
+  {
+    return threadCount;
+  }
+
+  /**
+   * Sets the number of threads used by an online rebuild.
+   *
+   * @param threadCount
+   *          The number of threads, or 0 to let the backend decide.
+   */
+  public void setThreadCount(int threadCount)
+  {
+    this.threadCount = threadCount;
+  }
+
 }
@@ -42,6 +42,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -304,6 +305,34 @@ public final class JEStorage implements Storage, Backupable, ConfigurationChange
       }
     }
 
+    @Override
+    public long putAll(final TreeName treeName, final SequentialCursor<ByteString, ByteString> sortedRecords)
+    {
+      // JE copies the entries on insertion: a single cursor and its entries are reused for the whole sorted run.
+      final DatabaseEntry dbKey = new DatabaseEntry();
+      final DatabaseEntry dbValue = new DatabaseEntry();
+      long nbRecords = 0;
+      com.sleepycat.je.Cursor cursor = null;
+      try
+      {
+        cursor = getOrOpenTree(treeName).openCursor(null, new CursorConfig());
+        while (sortedRecords.next())
+        {
+          cursor.put(reuse(dbKey, sortedRecords.getKey()), reuse(dbValue, sortedRecords.getValue()));
+          nbRecords++;
+        }
+        return nbRecords;
+      }
+      catch (DatabaseException e)
+      {
+        throw new StorageRuntimeException(e);
+      }
+      finally
+      {
+        closeSilently(cursor);
+      }
+    }
+
     @Override
     public ByteString read(final TreeName treeName, final ByteSequence key)
     {
@@ -463,6 +492,33 @@ public final class JEStorage implements Storage, Backupable, ConfigurationChange
       }
     }
 
+    @Override
+    public List<ByteString> readMany(final TreeName treeName, final List<? extends ByteSequence> keys)
+    {
+      // A single cursor visiting the keys in order keeps accessing neighbouring BINs.
+      com.sleepycat.je.Cursor cursor = null;
+      try
+      {
+        cursor = getOrOpenTree(treeName).openCursor(txn, CursorConfig.READ_COMMITTED);
+        final ByteString[] values = new ByteString[keys.size()];
+        final DatabaseEntry dbValue = new DatabaseEntry();
+        for (int i : sortedKeyPositions(keys))
+        {
+          final boolean isDefined = cursor.getSearchKey(db(keys.get(i)), dbValue, READ_COMMITTED) == SUCCESS;
+          values[i] = valueToBytes(dbValue, isDefined);
+        }
+        return Arrays.asList(values);
+      }
+      catch (DatabaseException e)
+      {
+        throw new StorageRuntimeException(e);
+      }
+      finally
+      {
+        closeSilently(cursor);
+      }
+    }
+
     @Override
     public boolean update(final TreeName treeName, final ByteSequence key, final UpdateFunction f)
     {
@@ -546,6 +602,12 @@ public final class JEStorage implements Storage, Backupable, ConfigurationChange
       return delegate.read(treeName, key);
     }
 
+    @Override
+    public List<ByteString> readMany(TreeName treeName, List<? extends ByteSequence> keys)
+    {
+      return delegate.readMany(treeName, keys);
+    }
+
     @Override
     public Cursor<ByteString, ByteString> openCursor(TreeName treeName)
     {
@@ -793,12 +855,38 @@ public final class JEStorage implements Storage, Backupable, ConfigurationChange
 
   @Override
   public void write(final WriteOperation operation) throws Exception
+  {
+    write0(operation, true);
+  }
+
+  @Override
+  public boolean supportsGroupCommit()
+  {
+    final Durability durability = envConfig != null ? envConfig.getDurability() : null;
+    return envConfig != null
+        && envConfig.getTransactional()
+        && (durability == null || durability.getLocalSync() == Durability.SyncPolicy.SYNC);
+  }
+
+  @Override
+  public void writeNoSync(final WriteOperation operation) throws Exception
+  {
+    write0(operation, false);
+  }
+
+  @Override
+  public void sync() throws Exception
+  {
+    env.flushLog(true);
+  }
+
+  private void write0(final WriteOperation operation, final boolean sync) throws Exception
   {
     final Transaction txn = beginTransaction();
     try
     {
       operation.run(newWriteableTransaction(txn));
-      commit(txn);
+      commit(txn, sync);
     }
     catch (final StorageRuntimeException e)
     {
@@ -825,11 +913,18 @@ public final class JEStorage implements Storage, Backupable, ConfigurationChange
     return null;
   }
 
-  private void commit(final Transaction txn)
+  private void commit(final Transaction txn, final boolean sync)
   {
     if (txn != null)
     {
-      txn.commit();
+      if (sync)
+      {
+        txn.commit();
+      }
+      else
+      {
+        txn.commitNoSync();
+      }
       logger.trace("commit txnid=%d", txn.getId());
     }
   }
@@ -1062,7 +1157,7 @@ public final class JEStorage implements Storage, Backupable, ConfigurationChange
   @Override
   public void createBackup(BackupConfig backupConfig) throws DirectoryException
   {
-    new BackupManager(config.getBackendId()).createBackup(this, backupConfig);
+    new BackupManager(config.getBackendId(), true).createBackup(this, backupConfig);
   }
 
   @Override
@@ -1250,6 +1345,19 @@ public final class JEStorage implements Storage, Backupable, ConfigurationChange
     return new DatabaseEntry(bs != null ? bs.toByteArray() : null);
   }
 
+  /** Copies the provided bytes into the entry, reusing its array when large enough. */
+  private static DatabaseEntry reuse(final DatabaseEntry entry, final ByteSequence bs)
+  {
+    byte[] data = entry.getData();
+    if (data == null || data.length < bs.length())
+    {
+      data = new byte[Math.max(bs.length(), data != null ? 2 * data.length : 0)];
+    }
+    bs.copyTo(data);
+    entry.setData(data, 0, bs.length());
+    return entry;
+  }
+
   private static ByteString valueToBytes(final DatabaseEntry dbValue, boolean isDefined)
   {
     if (isDefined)
@@ -95,6 +95,7 @@ import com.persistit.Exchange;
 import com.persistit.Key;
 import com.persistit.Persistit;
 import com.persistit.Transaction;
+import com.persistit.Transaction.CommitPolicy;
 import com.persistit.Value;
 import com.persistit.Volume;
 import com.persistit.VolumeSpecification;
@@ -377,6 +378,39 @@ public final class PDBStorage implements Storage, Backupable, ConfigurationChang
       }
     }
 
+    @Override
+    public long putAll(final TreeName treeName, final SequentialCursor<ByteString, ByteString> sortedRecords)
+    {
+      // Persistit copies keys and values on store: a single scratch array is reused for the whole sorted run.
+      byte[] scratch = new byte[256];
+      long nbRecords = 0;
+      try
+      {
+        final Exchange ex = getExchangeFromCache(treeName);
+        while (sortedRecords.next())
+        {
+          final ByteString key = sortedRecords.getKey();
+          final ByteString value = sortedRecords.getValue();
+          final int length = Math.max(key.length(), value.length());
+          if (scratch.length < length)
+          {
+            scratch = new byte[Math.max(length, 2 * scratch.length)];
+          }
+          key.copyTo(scratch);
+          ex.getKey().clear().appendByteArray(scratch, 0, key.length());
+          value.copyTo(scratch);
+          ex.getValue().clear().putByteArray(scratch, 0, value.length());
+          ex.store();
+          nbRecords++;
+        }
+        return nbRecords;
+      }
+      catch (final Exception e)
+      {
+        throw new StorageRuntimeException(e);
+      }
+    }
+
     @Override
     public ByteString read(final TreeName treeName, final ByteSequence key)
     {
@@ -549,6 +583,28 @@ public final class PDBStorage implements Storage, Backupable, ConfigurationChang
       }
     }
 
+    @Override
+    public List<ByteString> readMany(final TreeName treeName, final List<? extends ByteSequence> keys)
+    {
+      try
+      {
+        // Fetching keys in order lets the exchange reuse the pages cached by its previous fetch.
+        final Exchange ex = getExchangeFromCache(treeName);
+        final ByteString[] values = new ByteString[keys.size()];
+        for (int i : sortedKeyPositions(keys))
+        {
+          bytesToKey(ex.getKey(), keys.get(i));
+          ex.fetch();
+          values[i] = valueToBytes(ex.getValue());
+        }
+        return asList(values);
+      }
+      catch (final PersistitException | RollbackException e)
+      {
+        throw new StorageRuntimeException(e);
+      }
+    }
+
     @Override
     public boolean update(final TreeName treeName, final ByteSequence key, final UpdateFunction f)
     {
@@ -639,6 +695,12 @@ public final class PDBStorage implements Storage, Backupable, ConfigurationChang
       return delegate.read(treeName, key);
     }
 
+    @Override
+    public List<ByteString> readMany(TreeName treeName, List<? extends ByteSequence> keys)
+    {
+      return delegate.readMany(treeName, keys);
+    }
+
     @Override
     public Cursor<ByteString, ByteString> openCursor(TreeName treeName)
     {
@@ -908,6 +970,31 @@ public final class PDBStorage implements Storage, Backupable, ConfigurationChang
 
   @Override
   public void write(final WriteOperation operation) throws Exception
+  {
+    write0(operation, null);
+  }
+
+  @Override
+  public boolean supportsGroupCommit()
+  {
+    // Persistit already shares the journal flushes between concurrent commits with its GROUP commit policy.
+    return false;
+  }
+
+  @Override
+  public void writeNoSync(final WriteOperation operation) throws Exception
+  {
+    write0(operation, SOFT);
+  }
+
+  @Override
+  public void sync() throws Exception
+  {
+    db.flush();
+    db.force();
+  }
+
+  private void write0(final WriteOperation operation, final CommitPolicy commitPolicy) throws Exception
   {
     final Transaction txn = db.getTransaction();
     for (;;)
@@ -918,7 +1005,14 @@ public final class PDBStorage implements Storage, Backupable, ConfigurationChang
         try (final StorageImpl storageImpl = newStorageImpl())
         {
           operation.run(storageImpl);
-          txn.commit();
+          if (commitPolicy != null)
+          {
+            txn.commit(commitPolicy);
+          }
+          else
+          {
+            txn.commit();
+          }
           return;
         }
         catch (final StorageRuntimeException e)
@@ -1092,7 +1186,7 @@ public final class PDBStorage implements Storage, Backupable, ConfigurationChang
     }
     try
     {
-      new BackupManager(config.getBackendId()).createBackup(this, backupConfig);
+      new BackupManager(config.getBackendId(), true).createBackup(this, backupConfig);
     }
     finally
     {
@@ -668,6 +668,30 @@ class AttributeIndex implements ConfigurationChangeListener<BackendIndexCfg>, Cl
     }
   }
 
+  /**
+   * Estimates the number of entry IDs that might match a filter without reading the indexes.
+   *
+   * @param indexQueryFactory the index query factory to use for the estimation
+   * @param indexFilterType the index type filter
+   * @param filter The filter.
+   * @return the estimated number of candidate entry IDs, {@link IndexKeyStatistics#LIMIT_EXCEEDED} if the indexes
+   *         are not expected to return a defined set, or {@link IndexKeyStatistics#UNKNOWN} if no estimation is
+   *         available
+   */
+  static long estimateFilter(IndexQueryFactory<IndexQuery> indexQueryFactory, IndexFilterType indexFilterType,
+      SearchFilter filter)
+  {
+    try
+    {
+      return IndexQueryFactoryImpl.estimateCardinality(getIndexQuery(indexQueryFactory, indexFilterType, filter));
+    }
+    catch (DecodeException e)
+    {
+      logger.traceException(e);
+      return IndexKeyStatistics.LIMIT_EXCEEDED;
+    }
+  }
+
   private static IndexQuery getIndexQuery(IndexQueryFactory<IndexQuery> indexQueryFactory,
       IndexFilterType indexFilterType, SearchFilter filter) throws DecodeException
   {
@@ -31,11 +31,13 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.opends.server.admin.std.server.MonitorProviderCfg;
 import org.opends.server.api.MonitorProvider;
+import org.opends.server.backends.pluggable.OnlineIndexRebuilder.MonitoredRebuild;
 import org.opends.server.types.Attribute;
 import org.opends.server.types.AttributeBuilder;
 import org.opends.server.types.Attributes;
@@ -91,6 +93,8 @@ class BackendMonitor extends MonitorProvider<MonitorProviderCfg>
   private final HashMap<SearchFilter, FilterStats> filterToStats = new HashMap<>();
   private final AtomicInteger indexedSearchCount = new AtomicInteger();
   private final AtomicInteger unindexedSearchCount = new AtomicInteger();
+  /** The online index rebuilds in progress. */
+  private final List<MonitoredRebuild> rebuilds = new CopyOnWriteArrayList<>();
 
   /**
    * Creates a new backend monitor.
@@ -128,6 +132,19 @@ class BackendMonitor extends MonitorProvider<MonitorProviderCfg>
       monitorAttrs.add(needReindex.toAttribute());
     }
 
+    AttributeBuilder rebuildProgress = createRebuildProgress("rebuild-progress");
+    if (rebuildProgress.size() > 0)
+    {
+      monitorAttrs.add(rebuildProgress.toAttribute());
+    }
+
+    if (rootContainer.getStorage().supportsGroupCommit())
+    {
+      final GroupCommitter groupCommitter = rootContainer.getGroupCommitter();
+      monitorAttrs.add(createAttribute("group-commit-writes", groupCommitter.getCommitCount()));
+      monitorAttrs.add(createAttribute("group-commit-syncs", groupCommitter.getSyncCount()));
+    }
+
     if (filterUseEnabled)
     {
       monitorAttrs.add(createAttribute("filter-use-startTime", startTimeStamp));
@@ -155,6 +172,16 @@ class BackendMonitor extends MonitorProvider<MonitorProviderCfg>
     return needReindex;
   }
 
+  private AttributeBuilder createRebuildProgress(String attrName)
+  {
+    AttributeBuilder rebuildProgress = new AttributeBuilder(attrName);
+    for (MonitoredRebuild rebuild : rebuilds)
+    {
+      rebuildProgress.addAllStrings(rebuild.getProgress());
+    }
+    return rebuildProgress;
+  }
+
   private Attribute createFilterUse(String attrName)
   {
     AttributeBuilder builder = new AttributeBuilder(attrName);
@@ -307,6 +334,26 @@ class BackendMonitor extends MonitorProvider<MonitorProviderCfg>
     }
   }
 
+  /**
+   * Publishes the progress of an online index rebuild until it ends.
+   *
+   * @param rebuild The online index rebuild which started.
+   */
+  void rebuildStarted(MonitoredRebuild rebuild)
+  {
+    rebuilds.add(rebuild);
+  }
+
+  /**
+   * Stops publishing the progress of an online index rebuild.
+   *
+   * @param rebuild The online index rebuild which ended.
+   */
+  void rebuildEnded(MonitoredRebuild rebuild)
+  {
+    rebuilds.remove(rebuild);
+  }
+
   private void removeLowestHit()
   {
     while (!filterToStats.isEmpty() && filterToStats.size() > maxEntries)
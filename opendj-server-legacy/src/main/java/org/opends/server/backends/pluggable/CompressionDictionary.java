@@ -0,0 +1,246 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.backends.pluggable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.forgerock.util.Reject;
+
+/**
+ * A preset dictionary used to compress the entries stored in id2entry.
+ * <p>
+ * Entries of a directory share a lot of content: attribute descriptions, object classes, DN suffixes, common values...
+ * Compressing each entry independently cannot take advantage of this redundancy, unless the compressor is primed with
+ * a dictionary containing the most frequent content. Dictionaries are identified by an integer so that the records
+ * compressed with an old dictionary can still be decoded once a new one has been trained.
+ */
+final class CompressionDictionary
+{
+  /** Default size of a trained dictionary. */
+  static final int DEFAULT_SIZE = 16 * 1024;
+
+  /** Length of the byte strings counted when training a dictionary. */
+  private static final int KGRAM_LENGTH = 8;
+  /** Length of the sample segments which are candidates for the dictionary. */
+  private static final int SEGMENT_LENGTH = 64;
+  private static final int COUNT_TABLE_LOG = 20;
+
+  private final int id;
+  private final byte[] bytes;
+  private final int[] hashTable;
+
+  /**
+   * Creates a dictionary.
+   *
+   * @param id
+   *          the identifier of the dictionary, strictly positive
+   * @param bytes
+   *          the content of the dictionary
+   */
+  CompressionDictionary(int id, byte[] bytes)
+  {
+    Reject.ifFalse(id > 0, "id must be strictly positive");
+    this.id = id;
+    this.bytes = bytes;
+    this.hashTable = LZCodec.newHashTable(bytes);
+  }
+
+  /**
+   * Returns the identifier of this dictionary.
+   *
+   * @return the identifier of this dictionary
+   */
+  int getId()
+  {
+    return id;
+  }
+
+  /**
+   * Returns the content of this dictionary. The returned array must not be modified.
+   *
+   * @return the content of this dictionary
+   */
+  byte[] getBytes()
+  {
+    return bytes;
+  }
+
+  /**
+   * Returns a copy of the hash table indexing this dictionary, to be used with {@link LZCodec}.
+   *
+   * @param hashTable
+   *          where to copy the hash table
+   */
+  void copyHashTableTo(int[] hashTable)
+  {
+    System.arraycopy(this.hashTable, 0, hashTable, 0, this.hashTable.length);
+  }
+
+  /**
+   * Trains a dictionary from sample records.
+   * <p>
+   * The samples are split into segments which are scored by the number of other samples sharing their content. The
+   * best segments are then greedily selected, lowering the score of the content they cover so that the dictionary does
+   * not contain the same content twice. The best segments are put at the end of the dictionary, because compressors
+   * encode closer back references more efficiently.
+   *
+   * @param id
+   *          the identifier of the new dictionary
+   * @param samples
+   *          the uncompressed sample records
+   * @param size
+   *          the maximum size of the dictionary
+   * @return the new dictionary, or {@code null} if the samples do not share any content
+   */
+  static CompressionDictionary train(int id, List<byte[]> samples, int size)
+  {
+    final int[] counts = new int[1 << COUNT_TABLE_LOG];
+    final int[] lastSample = new int[counts.length];
+    Arrays.fill(lastSample, -1);
+    for (int s = 0; s < samples.size(); s++)
+    {
+      final byte[] sample = samples.get(s);
+      for (int pos = 0; pos + KGRAM_LENGTH <= sample.length; pos++)
+      {
+        final int h = hashKGram(sample, pos);
+        if (lastSample[h] != s)
+        {
+          // Count the number of samples containing the k-gram, not its number of occurrences.
+          lastSample[h] = s;
+          counts[h]++;
+        }
+      }
+    }
+
+    final List<Segment> segments = new ArrayList<>();
+    for (byte[] sample : samples)
+    {
+      for (int pos = 0; pos < sample.length; pos += SEGMENT_LENGTH)
+      {
+        final Segment segment = new Segment(sample, pos, Math.min(SEGMENT_LENGTH, sample.length - pos));
+        if (segment.score(counts) > 0)
+        {
+          segments.add(segment);
+        }
+      }
+    }
+    Collections.sort(segments, Segment.BY_DESCENDING_SCORE);
+
+    final List<Segment> selected = new ArrayList<>();
+    int dictionarySize = 0;
+    for (Segment segment : segments)
+    {
+      if (dictionarySize + segment.length > size)
+      {
+        continue;
+      }
+      // Scores only decrease, so re-scoring the segments lazily is enough to skip redundant content.
+      if (segment.score(counts) <= 0)
+      {
+        continue;
+      }
+      segment.clear(counts);
+      selected.add(segment);
+      dictionarySize += segment.length;
+      if (size - dictionarySize < KGRAM_LENGTH)
+      {
+        break;
+      }
+    }
+    if (selected.isEmpty())
+    {
+      return null;
+    }
+
+    final byte[] bytes = new byte[dictionarySize];
+    int pos = 0;
+    for (int i = selected.size() - 1; i >= 0; i--)
+    {
+      final Segment segment = selected.get(i);
+      System.arraycopy(segment.sample, segment.offset, bytes, pos, segment.length);
+      pos += segment.length;
+    }
+    return new CompressionDictionary(id, bytes);
+  }
+
+  private static int hashKGram(byte[] bytes, int pos)
+  {
+    long v = 0;
+    for (int i = 0; i < KGRAM_LENGTH; i++)
+    {
+      v = v << 8 | (bytes[pos + i] & 0xFF);
+    }
+    return (int) ((v * 0x9E3779B97F4A7C15L) >>> (64 - COUNT_TABLE_LOG));
+  }
+
+  /** A part of a sample, candidate for being included in a dictionary. */
+  private static final class Segment
+  {
+    private static final Comparator<Segment> BY_DESCENDING_SCORE = new Comparator<Segment>()
+    {
+      @Override
+      public int compare(Segment s1, Segment s2)
+      {
+        return Long.compare(s2.score, s1.score);
+      }
+    };
+
+    private final byte[] sample;
+    private final int offset;
+    private final int length;
+    private long score;
+
+    private Segment(byte[] sample, int offset, int length)
+    {
+      this.sample = sample;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    /** Sums the number of other samples sharing each k-gram of this segment. */
+    private long score(int[] counts)
+    {
+      score = 0;
+      for (int pos = offset; pos + KGRAM_LENGTH <= offset + length; pos++)
+      {
+        score += counts[hashKGram(sample, pos)] - 1;
+      }
+      return score;
+    }
+
+    private void clear(int[] counts)
+    {
+      for (int pos = offset; pos + KGRAM_LENGTH <= offset + length; pos++)
+      {
+        counts[hashKGram(sample, pos)] = 0;
+      }
+    }
+  }
+}
@@ -36,9 +36,60 @@ import org.opends.server.types.EntryEncodeConfig;
  */
 final class DataConfig
 {
+  /** The codecs which can be used to compress the data. */
+  enum CompressionCodec
+  {
+    /** The Deflate algorithm, as implemented by {@link java.util.zip.Deflater}. */
+    DEFLATE(1),
+    /** The faster but less efficient {@link LZCodec}. */
+    LZ(2);
+
+    private final int id;
+
+    CompressionCodec(int id)
+    {
+      this.id = id;
+    }
+
+    /**
+     * Returns the identifier of this codec, as stored in the compressed records.
+     *
+     * @return the identifier of this codec
+     */
+    int getId()
+    {
+      return id;
+    }
+
+    /**
+     * Returns the codec having the provided identifier.
+     *
+     * @param id
+     *          the identifier stored in a compressed record
+     * @return the codec having the provided identifier, or {@code null} if there is none
+     */
+    static CompressionCodec forId(int id)
+    {
+      for (CompressionCodec codec : values())
+      {
+        if (codec.id == id)
+        {
+          return codec;
+        }
+      }
+      return null;
+    }
+  }
+
   /** Indicates whether data should be compressed before writing to the storage. */
   private final boolean compressed;
 
+  /** The codec used to compress the data. */
+  private final CompressionCodec compressionCodec;
+
+  /** Indicates whether the data should be compressed with a dictionary trained from the existing data. */
+  private final boolean compressionDictionaryEnabled;
+
   /** The configuration to use when encoding entries in the tree. */
   private final EntryEncodeConfig encodeConfig;
 
@@ -53,7 +104,28 @@ final class DataConfig
    */
   DataConfig(boolean compressed, boolean compactEncoding, CompressedSchema compressedSchema)
   {
+    this(compressed, CompressionCodec.DEFLATE, false, compactEncoding, compressedSchema);
+  }
+
+  /**
+   * Construct a new DataConfig object with the specified settings.
+   *
+   * @param compressed true if data should be compressed, false if not.
+   * @param compressionCodec the codec to use when data is compressed.
+   * @param compressionDictionaryEnabled true if data should be compressed
+   * with a trained dictionary, false if not.
+   * @param compactEncoding true if data should be encoded in compact form,
+   * false if not.
+   * @param compressedSchema the compressed schema manager to use.  It must not
+   * be {@code null} if compactEncoding is {@code true}.
+   */
+  DataConfig(boolean compressed, CompressionCodec compressionCodec, boolean compressionDictionaryEnabled,
+      boolean compactEncoding, CompressedSchema compressedSchema)
+  {
+    Reject.ifNull(compressionCodec);
     this.compressed = compressed;
+    this.compressionCodec = compressionCodec;
+    this.compressionDictionaryEnabled = compressionDictionaryEnabled;
 
     if (compressedSchema == null)
     {
@@ -76,6 +148,25 @@ final class DataConfig
     return compressed;
   }
 
+  /**
+   * Get the codec to use when data is compressed.
+   * @return the codec to use when data is compressed.
+   */
+  CompressionCodec getCompressionCodec()
+  {
+    return compressionCodec;
+  }
+
+  /**
+   * Determine whether data should be compressed with a trained dictionary.
+   * @return true if data should be compressed with a trained dictionary,
+   * false if not.
+   */
+  boolean isCompressionDictionaryEnabled()
+  {
+    return compressed && compressionDictionaryEnabled;
+  }
+
   /**
    * Get the EntryEncodeConfig object in use by this configuration.
    * @return the EntryEncodeConfig object in use by this configuration.
@@ -95,6 +186,10 @@ final class DataConfig
     final StringBuilder builder = new StringBuilder();
     builder.append("DataConfig(compressed=");
     builder.append(compressed);
+    builder.append(", codec=");
+    builder.append(compressionCodec);
+    builder.append(", dictionary=");
+    builder.append(compressionDictionaryEnabled);
     builder.append(", ");
     encodeConfig.toString(builder);
     builder.append(")");
@@ -60,7 +60,8 @@ class DefaultIndex extends AbstractTree implements Index
   private final State state;
   private final EntryContainer entryContainer;
   private int indexEntryLimit;
-  private EntryIDSetCodec codec;
+  /** The codec of the records, which may be changed by {@link #upgradeEncoding} while the index is read. */
+  private volatile EntryIDSetCodec codec;
 
   /**
    * A flag to indicate if this index should be trusted to be consistent with the entries tree.
@@ -74,6 +75,16 @@ class DefaultIndex extends AbstractTree implements Index
    */
   private volatile boolean trusted;
 
+  /**
+   * A flag to indicate if this index is being rebuilt while the backend is online. The records of such an index are
+   * incomplete: they are never read, but entry IDs are added to missing keys as if the index was trusted so that the
+   * updates performed during the rebuild are not lost.
+   */
+  private volatile boolean rebuilding;
+
+  /** Cardinality of the recently accessed keys, allocated the first time an estimation is requested. */
+  private volatile IndexKeyStatistics keyStatistics;
+
   /**
    * Create a new index object.
    *
@@ -101,8 +112,9 @@ class DefaultIndex extends AbstractTree implements Index
   final void afterOpen(WriteableTransaction txn, boolean createOnDemand)
   {
     final EnumSet<IndexFlag> flags = state.getIndexFlags(txn, getName());
-    codec = flags.contains(COMPACTED) ? CODEC_V2 : CODEC_V1;
+    codec = getCodec(flags);
     trusted = flags.contains(TRUSTED);
+    rebuilding = flags.contains(REBUILDING);
     if (!trusted && entryContainer.getHighestEntryID(txn).longValue() == 0)
     {
       // If there are no entries in the entry container then there
@@ -111,6 +123,15 @@ class DefaultIndex extends AbstractTree implements Index
     }
   }
 
+  private static EntryIDSetCodec getCodec(EnumSet<IndexFlag> flags)
+  {
+    if (flags.contains(BITMAP))
+    {
+      return CODEC_V3;
+    }
+    return flags.contains(COMPACTED) ? CODEC_V2 : CODEC_V1;
+  }
+
   @Override
   public String valueToString(ByteString value)
   {
@@ -143,6 +164,12 @@ class DefaultIndex extends AbstractTree implements Index
         });
   }
 
+  @Override
+  public final EntryIDSetCodec getCodec()
+  {
+    return codec;
+  }
+
   EntryIDSet decodeValue(ByteSequence key, ByteString value)
   {
     return codec.decode(key, value);
@@ -167,7 +194,7 @@ class DefaultIndex extends AbstractTree implements Index
      * Avoid taking a write lock on a record which has hit all IDs because it is likely to be a
      * point of contention.
      */
-    if (!get(txn, key).isDefined())
+    if (!rebuilding && !get(txn, key).isDefined())
     {
       return;
     }
@@ -181,6 +208,7 @@ class DefaultIndex extends AbstractTree implements Index
         if (oldValue != null)
         {
           EntryIDSet entryIDSet = computeEntryIDSet(key, oldValue.toByteString(), deletedIDs, addedIDs);
+          recordCardinality(key, entryIDSet);
           /*
            * If there are no more IDs then return null indicating that the record should be removed.
            * If index is not trusted then this will cause all subsequent reads for this key to
@@ -188,14 +216,15 @@ class DefaultIndex extends AbstractTree implements Index
            */
           return entryIDSet.size() == 0 ? null : toValue(entryIDSet);
         }
-        else if (trusted)
+        else if (trusted || rebuilding)
         {
-          if (deletedIDs != null)
+          if (deletedIDs != null && trusted)
           {
             logIndexCorruptError(txn, key);
           }
           if (isNotEmpty(addedIDs))
           {
+            recordCardinality(key, addedIDs);
             return toValue(addedIDs);
           }
         }
@@ -257,14 +286,25 @@ class DefaultIndex extends AbstractTree implements Index
   @Override
   public final EntryIDSet get(ReadableTransaction txn, ByteSequence key)
   {
+    if (rebuilding)
+    {
+      return newUndefinedSet();
+    }
     try
     {
       ByteString value = txn.read(getName(), key);
       if (value != null)
       {
-        return decodeValue(key, value);
+        final EntryIDSet entryIDSet = decodeValue(key, value);
+        recordCardinality(key, entryIDSet);
+        return entryIDSet;
       }
-      return trusted ? newDefinedSet() : newUndefinedSet();
+      if (trusted)
+      {
+        recordCardinality(key, 0);
+        return newDefinedSet();
+      }
+      return newUndefinedSet();
     }
     catch (StorageRuntimeException e)
     {
@@ -273,11 +313,50 @@ class DefaultIndex extends AbstractTree implements Index
     }
   }
 
+  @Override
+  public final long getEstimatedCardinality(ByteSequence key)
+  {
+    IndexKeyStatistics statistics = keyStatistics;
+    if (statistics == null)
+    {
+      statistics = keyStatistics = new IndexKeyStatistics();
+    }
+    return trusted ? statistics.getCardinality(key) : IndexKeyStatistics.UNKNOWN;
+  }
+
+  private void recordCardinality(ByteSequence key, EntryIDSet entryIDSet)
+  {
+    final IndexKeyStatistics statistics = keyStatistics;
+    if (statistics != null && trusted)
+    {
+      statistics.record(key, entryIDSet);
+    }
+  }
+
+  private void recordCardinality(ByteSequence key, long cardinality)
+  {
+    final IndexKeyStatistics statistics = keyStatistics;
+    if (statistics != null)
+    {
+      statistics.record(key, cardinality);
+    }
+  }
+
+  private void clearKeyStatistics()
+  {
+    final IndexKeyStatistics statistics = keyStatistics;
+    if (statistics != null)
+    {
+      statistics.clear();
+    }
+  }
+
   @Override
   public final boolean setIndexEntryLimit(int indexEntryLimit)
   {
     final boolean rebuildRequired = this.indexEntryLimit < indexEntryLimit;
     this.indexEntryLimit = indexEntryLimit;
+    clearKeyStatistics();
     return rebuildRequired;
   }
 
@@ -291,9 +370,12 @@ class DefaultIndex extends AbstractTree implements Index
   public final synchronized void setTrusted(WriteableTransaction txn, boolean trusted) throws StorageRuntimeException
   {
     this.trusted = trusted;
+    clearKeyStatistics();
     if (trusted)
     {
+      rebuilding = false;
       state.addFlagsToIndex(txn, getName(), TRUSTED);
+      state.removeFlagsFromIndex(txn, getName(), REBUILDING);
     }
     else
     {
@@ -301,9 +383,32 @@ class DefaultIndex extends AbstractTree implements Index
     }
   }
 
+  @Override
+  public final synchronized void setRebuilding(WriteableTransaction txn) throws StorageRuntimeException
+  {
+    trusted = false;
+    rebuilding = true;
+    clearKeyStatistics();
+    state.removeFlagsFromIndex(txn, getName(), TRUSTED);
+    state.addFlagsToIndex(txn, getName(), REBUILDING);
+  }
+
+  @Override
+  public final synchronized void upgradeEncoding(WriteableTransaction txn) throws StorageRuntimeException
+  {
+    state.addFlagsToIndex(txn, getName(), COMPACTED, BITMAP);
+    codec = getCodec(state.getIndexFlags(txn, getName()));
+  }
+
   @Override
   public final boolean isTrusted()
   {
     return trusted;
   }
+
+  @Override
+  public final boolean isRebuilding()
+  {
+    return rebuilding;
+  }
 }
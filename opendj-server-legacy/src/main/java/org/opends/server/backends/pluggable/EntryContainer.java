@@ -37,6 +37,7 @@ import static org.opends.server.protocols.ldap.LDAPResultCode.*;
 import static org.opends.server.types.AdditionalLogItem.*;
 import static org.opends.server.util.StaticUtils.*;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -44,9 +45,18 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -73,6 +83,7 @@ import org.opends.server.api.EntryCache;
 import org.opends.server.api.VirtualAttributeProvider;
 import org.opends.server.api.plugin.PluginResult.SubordinateDelete;
 import org.opends.server.api.plugin.PluginResult.SubordinateModifyDN;
+import org.opends.server.backends.pluggable.DataConfig.CompressionCodec;
 import org.opends.server.backends.pluggable.spi.AccessMode;
 import org.opends.server.backends.pluggable.spi.Cursor;
 import org.opends.server.backends.pluggable.spi.ReadOperation;
@@ -136,6 +147,17 @@ public class EntryContainer
   /** The name of the state tree. */
   private static final String STATE_TREE_NAME = STATE_INDEX_NAME;
 
+  /** The number of candidate entries processed by each task of a parallel search. */
+  private static final int PARALLEL_SEARCH_PARTITION_SIZE = 256;
+  /** The number of candidate entries read by the first batched read of an indexed search. */
+  private static final int SEARCH_MIN_BATCH_SIZE = 16;
+  /** The maximum number of candidate entries read by a batched read of an indexed search. */
+  private static final int SEARCH_MAX_BATCH_SIZE = 256;
+  /** The initial capacity of the arrays collecting the entry IDs of a search scope. */
+  private static final int SCOPE_MIN_ID_SET_SIZE = 256;
+  /** Scope cardinality of a search which has not read it yet, {@code -1} meaning it cannot be read. */
+  private static final long SCOPE_CARDINALITY_NOT_READ = -2;
+
   /** The attribute index configuration manager. */
   private final AttributeIndexCfgManager attributeIndexCfgManager;
   /** The vlv index configuration manager. */
@@ -167,6 +189,8 @@ public class EntryContainer
   private final Map<AttributeType, AttributeIndex> attrIndexMap = new HashMap<>();
   /** The set of VLV (Virtual List View) indexes. */
   private final Map<String, VLVIndex> vlvIndexMap = new HashMap<>();
+  /** The sorted results of the server-side sort requests which could not be served by a VLV index. */
+  private final SortedResultCache sortedResultCache = new SortedResultCache();
 
   /**
    * Prevents name clashes for common indexes (like id2entry) across multiple suffixes.
@@ -448,14 +472,14 @@ public class EntryContainer
     boolean shouldCreate = accessMode.isWriteable();
     try
     {
-      DataConfig entryDataConfig = new DataConfig(
-          config.isEntriesCompressed(), config.isCompactEncoding(), rootContainer.getCompressedSchema());
+      DataConfig entryDataConfig = newEntryDataConfig(config);
 
-      id2entry = new ID2Entry(getIndexName(ID2ENTRY_TREE_NAME), entryDataConfig);
+      // id2entry reads its compression dictionaries from the state tree.
+      state.open(txn, shouldCreate);
+      id2entry = new ID2Entry(getIndexName(ID2ENTRY_TREE_NAME), entryDataConfig, state);
       id2entry.open(txn, shouldCreate);
       id2childrenCount.open(txn, shouldCreate);
       dn2id.open(txn, shouldCreate);
-      state.open(txn, shouldCreate);
       dn2uri.open(txn, shouldCreate);
 
       for (String idx : config.listBackendIndexes())
@@ -493,6 +517,13 @@ public class EntryContainer
     }
   }
 
+  private DataConfig newEntryDataConfig(PluggableBackendCfg cfg)
+  {
+    return new DataConfig(cfg.isEntriesCompressed(),
+        CompressionCodec.valueOf(cfg.getEntriesCompressionCodec().name()),
+        cfg.isEntriesCompressionDictionaryEnabled(), cfg.isCompactEncoding(), rootContainer.getCompressedSchema());
+  }
+
   /**
    * Closes the entry container.
    *
@@ -818,16 +849,52 @@ public class EntryContainer
             IndexFilter indexFilter = new IndexFilter(
                 EntryContainer.this, txn, searchOperation, debugBuffer, rootContainer.getMonitorProvider());
 
-            // Evaluate the filter against the attribute indexes.
-            entryIDSet = indexFilter.evaluate();
-
-            if (!isBelowFilterThreshold(entryIDSet))
+            final int lookThroughLimit = searchOperation.getClientConnection().getLookthroughLimit();
+            final int indexLimit =
+                config.getIndexEntryLimit() == 0 ? CURSOR_ENTRY_LIMIT : config.getIndexEntryLimit();
+            final int idSetLimit = lookThroughLimit > 0 ? Math.min(indexLimit, lookThroughLimit) : indexLimit;
+
+            // Only read the scope cardinality upfront when the filter is not expected to return few candidates.
+            long scopeCardinality = indexFilter.mayScopeBeCheaperThanIndexes()
+                ? getScopeCardinality(txn, aBaseDN, searchScope) : SCOPE_CARDINALITY_NOT_READ;
+            if (scopeCardinality != SCOPE_CARDINALITY_NOT_READ
+                && scopeCardinality <= idSetLimit
+                && indexFilter.isScopeCheaperThanIndexes(scopeCardinality))
+            {
+              // Walking the few entries of the scope is cheaper than reading the attribute indexes.
+              entryIDSet = getIDSetFromScope(txn, aBaseDN, searchScope, idSetLimit);
+              indexFilter.scopeReadInstead(scopeCardinality);
+              if (debugBuffer != null)
+              {
+                debugBuffer.append("plan=dn2id[ESTIMATE:").append(scopeCardinality).append("]");
+                debugBuffer.append(" scope=").append(searchScope);
+                entryIDSet.toString(debugBuffer);
+              }
+              candidatesAreInScope = entryIDSet.isDefined();
+            }
+            else
             {
-              final int lookThroughLimit = searchOperation.getClientConnection().getLookthroughLimit();
-              final int indexLimit =
-                  config.getIndexEntryLimit() == 0 ? CURSOR_ENTRY_LIMIT : config.getIndexEntryLimit();
-              final int idSetLimit = lookThroughLimit > 0 ? Math.min(indexLimit, lookThroughLimit) : indexLimit;
+              // Evaluate the filter against the attribute indexes.
+              entryIDSet = indexFilter.evaluate();
+            }
 
+            if (!candidatesAreInScope && !isBelowFilterThreshold(entryIDSet)
+                && scopeCardinality == SCOPE_CARDINALITY_NOT_READ)
+            {
+              scopeCardinality = getScopeCardinality(txn, aBaseDN, searchScope);
+            }
+            if (!candidatesAreInScope && !isBelowFilterThreshold(entryIDSet) && scopeCardinality > idSetLimit)
+            {
+              // Collecting the scope would only give an undefined set after reading idSetLimit dn2id records:
+              // stream the candidates instead and check the scope of each of them or walk dn2id when unindexed.
+              if (debugBuffer != null)
+              {
+                debugBuffer.append(" scope=").append(searchScope);
+                debugBuffer.append("[ESTIMATE:").append(scopeCardinality).append("][SKIPPED]");
+              }
+            }
+            else if (!candidatesAreInScope && !isBelowFilterThreshold(entryIDSet))
+            {
               final EntryIDSet scopeSet = getIDSetFromScope(txn, aBaseDN, searchScope, idSetLimit);
               entryIDSet.retainAll(scopeSet);
               if (debugBuffer != null)
@@ -959,6 +1026,26 @@ public class EntryContainer
           return new ServerSideSortResponseControl(resultCode, null);
         }
 
+        /**
+         * Returns the number of entries in the search scope when it can be read from the id2childrenCount tree
+         * without walking dn2id, or -1 otherwise.
+         */
+        private long getScopeCardinality(final ReadableTransaction txn, DN aBaseDN, SearchScope searchScope)
+        {
+          switch (searchScope.asEnum())
+          {
+          case SINGLE_LEVEL:
+            final EntryID baseID = dn2id.get(txn, aBaseDN);
+            return baseID != null ? id2childrenCount.getCount(txn, baseID) : -1;
+          case SUBORDINATES:
+            return aBaseDN.equals(baseDN) ? id2childrenCount.getTotalCount(txn) - 1 : -1;
+          case WHOLE_SUBTREE:
+            return aBaseDN.equals(baseDN) ? id2childrenCount.getTotalCount(txn) : -1;
+          default:
+            return -1;
+          }
+        }
+
         private EntryIDSet getIDSetFromScope(final ReadableTransaction txn, DN aBaseDN, SearchScope searchScope,
             int idSetLimit) throws DirectoryException
         {
@@ -1009,7 +1096,8 @@ public class EntryContainer
   private static EntryIDSet newIDSetFromCursor(SequentialCursor<?, EntryID> cursor, boolean includeCurrent,
       int idSetLimit)
   {
-    long entryIDs[] = new long[idSetLimit];
+    // Most scopes are much smaller than idSetLimit: grow the array as the IDs are read.
+    long entryIDs[] = new long[Math.min(idSetLimit, SCOPE_MIN_ID_SET_SIZE)];
     int offset = 0;
     if (includeCurrent)
     {
@@ -1018,6 +1106,10 @@ public class EntryContainer
 
     while(offset < idSetLimit && cursor.next())
     {
+      if (offset == entryIDs.length)
+      {
+        entryIDs = Arrays.copyOf(entryIDs, (int) Math.min(2L * offset, idSetLimit));
+      }
       entryIDs[offset++] = cursor.getValue().longValue();
     }
 
@@ -1025,7 +1117,7 @@ public class EntryContainer
     {
       return EntryIDSet.newUndefinedSet();
     }
-    else if (offset != idSetLimit)
+    else if (offset != entryIDs.length)
     {
       entryIDs = Arrays.copyOf(entryIDs, offset);
     }
@@ -1251,7 +1343,9 @@ public class EntryContainer
   }
 
   /**
-   * Returns the entry corresponding to the provided entryID.
+   * Returns the entry corresponding to the provided entryID. This is used by searches, so the attribute values of the
+   * entries read from id2entry are only decoded when the filter, the access control or the returned attributes need
+   * them.
    *
    * @param txn a non null transaction
    * @param entryID
@@ -1270,7 +1364,7 @@ public class EntryContainer
       return cacheEntry;
     }
 
-    final Entry entry = id2entry.get(txn, entryID);
+    final Entry entry = id2entry.get(txn, entryID, true);
     if (entry != null)
     {
       // Put the entry in the cache making sure not to overwrite a newer copy
@@ -1280,13 +1374,86 @@ public class EntryContainer
     return entry;
   }
 
+  /**
+   * Returns the entries corresponding to a range of the provided entry IDs. The entries missing from the entry
+   * cache are read from id2entry with a single batched read, lazily decoded like in
+   * {@link #getEntry(ReadableTransaction, EntryID)}, and then put in the cache.
+   *
+   * @param txn a non null transaction
+   * @param entryIDs
+   *          the ids of the entries to retrieve
+   * @param fromIndex
+   *          the index of the first entry ID to retrieve (inclusive)
+   * @param toIndex
+   *          the index of the last entry ID to retrieve (exclusive)
+   * @return the entries corresponding to the provided entry IDs, with null for the entries which do not exist
+   *         or could not be read
+   */
+  private Entry[] getEntries(ReadableTransaction txn, long[] entryIDs, int fromIndex, int toIndex)
+  {
+    final EntryCache<?> entryCache = getEntryCache();
+    final Entry[] entries = new Entry[toIndex - fromIndex];
+    final List<EntryID> missingIDs = new ArrayList<>(entries.length);
+    final int[] missingPositions = new int[entries.length];
+    for (int i = 0; i < entries.length; i++)
+    {
+      final long entryID = entryIDs[fromIndex + i];
+      entries[i] = entryCache.getEntry(backendID, entryID);
+      if (entries[i] == null)
+      {
+        missingPositions[missingIDs.size()] = i;
+        missingIDs.add(new EntryID(entryID));
+      }
+    }
+    if (missingIDs.isEmpty())
+    {
+      return entries;
+    }
+
+    final List<Entry> missingEntries;
+    try
+    {
+      missingEntries = id2entry.get(txn, missingIDs, true);
+    }
+    catch (Exception e)
+    {
+      // Read the entries one by one so that only the ones which cannot be read are skipped.
+      logger.traceException(e);
+      for (int i = 0; i < missingIDs.size(); i++)
+      {
+        try
+        {
+          entries[missingPositions[i]] = getEntry(txn, missingIDs.get(i));
+        }
+        catch (Exception e2)
+        {
+          logger.traceException(e2);
+        }
+      }
+      return entries;
+    }
+
+    for (int i = 0; i < missingIDs.size(); i++)
+    {
+      final Entry entry = missingEntries.get(i);
+      if (entry != null)
+      {
+        // Put the entry in the cache making sure not to overwrite a newer copy
+        // that may have been inserted since the time we read the cache.
+        entryCache.putEntryIfAbsent(entry, backendID, missingIDs.get(i).longValue());
+        entries[missingPositions[i]] = entry;
+      }
+    }
+    return entries;
+  }
+
   /**
    * We were able to obtain a set of candidate entry IDs for the search from the indexes.
    * <p>
    * Here we are relying on ID order to ensure children are returned after their parents.
    * <ul>
    * <li>Iterate through the candidate IDs
-   * <li>fetch entry by ID from cache or id2entry
+   * <li>fetch entries by ID from cache or id2entry, in batches
    * <li>put the entry in the cache if not present
    * <li>discard entries that are not in scope
    * <li>return entry if it matches the filter
@@ -1345,25 +1512,34 @@ public class EntryContainer
     }
 
     // Iterate through the index candidates.
-    if (continueSearch)
+    final int startIndex = findStartIndex(beginEntryID, entryIDReorderedSet);
+    final int parallelSearchThreshold = config.getParallelSearchThreshold();
+    if (continueSearch
+        && parallelSearchThreshold > 0
+        && entryIDReorderedSet.length - startIndex > parallelSearchThreshold)
+    {
+      if (searchIndexedInParallel(entryIDReorderedSet, startIndex, candidatesAreInScope, searchOperation, pageRequest))
+      {
+        // The current page is full.
+        return;
+      }
+      searchOperation.checkIfCanceled(false);
+    }
+    else if (continueSearch)
     {
       final SearchFilter filter = searchOperation.getFilter();
-      for (int i = findStartIndex(beginEntryID, entryIDReorderedSet); i < entryIDReorderedSet.length; i++)
+      // The batches grow so that searches returning few entries do not read many entries ahead.
+      int batchSize = SEARCH_MIN_BATCH_SIZE;
+      int batchStart = startIndex;
+      while (continueSearch && batchStart < entryIDReorderedSet.length)
       {
-        EntryID entryID = new EntryID(entryIDReorderedSet[i]);
-        Entry entry;
-        try
-        {
-          entry = getEntry(txn, entryID);
-        }
-        catch (Exception e)
+        final int batchEnd = (int) Math.min((long) batchStart + batchSize, entryIDReorderedSet.length);
+        final Entry[] entries = getEntries(txn, entryIDReorderedSet, batchStart, batchEnd);
+        for (int i = batchStart; i < batchEnd; i++)
         {
-          logger.traceException(e);
-          continue;
-        }
-
-        // Process the candidate entry.
-        if (entry != null
+          // Process the candidate entry.
+          final Entry entry = entries[i - batchStart];
+          if (entry != null
               && isInScope(candidatesAreInScope, searchScope, aBaseDN, entry)
               && (manageDsaIT || entry.getReferralURLs() == null)
               && filter.matchesEntry(entry))
@@ -1373,7 +1549,7 @@ public class EntryContainer
             {
               // The current page is full.
               // Set the cookie to remember where we were.
-              ByteString cookie = entryID.toByteString();
+              ByteString cookie = new EntryID(entryIDReorderedSet[i]).toByteString();
               Control control = new PagedResultsControl(pageRequest.isCritical(), 0, cookie);
               searchOperation.getResponseControls().add(control);
               return;
@@ -1384,9 +1560,13 @@ public class EntryContainer
               // We have been told to discontinue processing of the
               // search. This could be due to size limit exceeded or
               // operation cancelled.
+              continueSearch = false;
               break;
             }
           }
+        }
+        batchStart = batchEnd;
+        batchSize = Math.min(2 * batchSize, SEARCH_MAX_BATCH_SIZE);
       }
       searchOperation.checkIfCanceled(false);
     }
@@ -1412,6 +1592,195 @@ public class EntryContainer
     }
   }
 
+  /**
+   * Fetches and evaluates the candidate entries of an indexed search in parallel. The candidate entries are
+   * split into partitions which are processed by the search pool of the root container, each in its own read
+   * transaction. The entries matching the search are returned in the order of the candidates, and the number of
+   * partitions processed ahead of the returned entries is bounded.
+   *
+   * @param entryIDs
+   *          The candidate entry IDs.
+   * @param startIndex
+   *          The index of the first candidate to process.
+   * @param candidatesAreInScope
+   *          true if it is certain that every candidate entry is in the search scope.
+   * @param searchOperation
+   *          The search operation.
+   * @param pageRequest
+   *          A Paged Results control, or null if none.
+   * @return {@code true} if the search stopped because the current page is full
+   * @throws DirectoryException
+   *           If an error prevented the search from being processed.
+   * @throws CanceledOperationException
+   *           If the search has been cancelled.
+   */
+  private boolean searchIndexedInParallel(long[] entryIDs, int startIndex, boolean candidatesAreInScope,
+      SearchOperation searchOperation, PagedResultsControl pageRequest) throws DirectoryException,
+      CanceledOperationException
+  {
+    final ForkJoinPool searchPool = rootContainer.getSearchPool();
+    final int maxPendingPartitions = 2 * searchPool.getParallelism();
+    final AtomicBoolean stopped = new AtomicBoolean();
+    final ArrayDeque<CandidatePartition> pendingPartitions = new ArrayDeque<>(maxPendingPartitions);
+    int nextIndex = startIndex;
+    try
+    {
+      while (true)
+      {
+        // Keep the pool busy while entries are returned.
+        while (nextIndex < entryIDs.length && pendingPartitions.size() < maxPendingPartitions)
+        {
+          final int endIndex = (int) Math.min((long) nextIndex + PARALLEL_SEARCH_PARTITION_SIZE, entryIDs.length);
+          final CandidatePartition partition =
+              new CandidatePartition(entryIDs, nextIndex, endIndex, candidatesAreInScope, searchOperation, stopped);
+          partition.submit(searchPool);
+          pendingPartitions.addLast(partition);
+          nextIndex = endIndex;
+        }
+
+        final CandidatePartition partition = pendingPartitions.pollFirst();
+        if (partition == null)
+        {
+          return false;
+        }
+        searchOperation.checkIfCanceled(false);
+
+        final Entry[] matchingEntries = partition.getMatchingEntries();
+        for (int i = 0; i < matchingEntries.length; i++)
+        {
+          final Entry entry = matchingEntries[i];
+          if (entry == null)
+          {
+            continue;
+          }
+          if (pageRequest != null && searchOperation.getEntriesSent() == pageRequest.getSize())
+          {
+            // The current page is full.
+            // Set the cookie to remember where we were.
+            ByteString cookie = new EntryID(entryIDs[partition.startIndex + i]).toByteString();
+            Control control = new PagedResultsControl(pageRequest.isCritical(), 0, cookie);
+            searchOperation.getResponseControls().add(control);
+            return true;
+          }
+
+          if (!searchOperation.returnEntry(entry, null))
+          {
+            // We have been told to discontinue processing of the
+            // search. This could be due to size limit exceeded or
+            // operation cancelled.
+            return false;
+          }
+        }
+      }
+    }
+    finally
+    {
+      stopped.set(true);
+      for (CandidatePartition partition : pendingPartitions)
+      {
+        partition.result.cancel(false);
+      }
+    }
+  }
+
+  /** A partition of the candidate entries of an indexed search, processed by the search pool. */
+  private final class CandidatePartition implements Callable<Entry[]>, ReadOperation<Entry[]>
+  {
+    private final long[] entryIDs;
+    private final int startIndex;
+    private final int endIndex;
+    private final boolean candidatesAreInScope;
+    private final SearchOperation searchOperation;
+    /** Set when the search no longer needs the results of the pending partitions. */
+    private final AtomicBoolean stopped;
+    private Future<Entry[]> result;
+
+    private CandidatePartition(long[] entryIDs, int startIndex, int endIndex, boolean candidatesAreInScope,
+        SearchOperation searchOperation, AtomicBoolean stopped)
+    {
+      this.entryIDs = entryIDs;
+      this.startIndex = startIndex;
+      this.endIndex = endIndex;
+      this.candidatesAreInScope = candidatesAreInScope;
+      this.searchOperation = searchOperation;
+      this.stopped = stopped;
+    }
+
+    private void submit(ForkJoinPool searchPool)
+    {
+      try
+      {
+        result = searchPool.submit(this);
+      }
+      catch (RejectedExecutionException e)
+      {
+        // The pool has been replaced after a configuration change: process the partition in the search thread.
+        final FutureTask<Entry[]> task = new FutureTask<>(this);
+        task.run();
+        result = task;
+      }
+    }
+
+    @Override
+    public Entry[] call() throws Exception
+    {
+      return storage.read(this);
+    }
+
+    @Override
+    public Entry[] run(ReadableTransaction txn) throws Exception
+    {
+      final SearchScope searchScope = searchOperation.getScope();
+      final DN aBaseDN = searchOperation.getBaseDN();
+      final boolean manageDsaIT = isManageDsaITOperation(searchOperation);
+      final SearchFilter filter = searchOperation.getFilter();
+
+      if (stopped.get())
+      {
+        return new Entry[0];
+      }
+      // Entries which do not match the search are set to null.
+      final Entry[] matchingEntries = getEntries(txn, entryIDs, startIndex, endIndex);
+      for (int i = 0; i < matchingEntries.length; i++)
+      {
+        final Entry entry = matchingEntries[i];
+        if (entry != null
+            && !(isInScope(candidatesAreInScope, searchScope, aBaseDN, entry)
+                 && (manageDsaIT || entry.getReferralURLs() == null)
+                 && filter.matchesEntry(entry)))
+        {
+          matchingEntries[i] = null;
+        }
+      }
+      return matchingEntries;
+    }
+
+    private Entry[] getMatchingEntries() throws DirectoryException
+    {
+      try
+      {
+        return result.get();
+      }
+      catch (ExecutionException e)
+      {
+        final Throwable cause = e.getCause();
+        if (cause instanceof DirectoryException)
+        {
+          throw (DirectoryException) cause;
+        }
+        logger.traceException(cause);
+        throw new DirectoryException(getServerErrorResultCode(),
+            ERR_PARALLEL_SEARCH_FAILED.get(stackTraceToSingleLineString(cause)), cause);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        throw new DirectoryException(getServerErrorResultCode(),
+            ERR_PARALLEL_SEARCH_FAILED.get(stackTraceToSingleLineString(e)), e);
+      }
+    }
+  }
+
   private int findStartIndex(Long beginEntryID, long[] entryIDReorderedSet)
   {
     if (beginEntryID == null)
@@ -1491,7 +1860,7 @@ public class EntryContainer
 
     try
     {
-      storage.write(new WriteOperation()
+      rootContainer.getGroupCommitter().write(new WriteOperation()
       {
         @Override
         public void run(WriteableTransaction txn) throws Exception
@@ -1557,6 +1926,7 @@ public class EntryContainer
       writeTrustState(indexBuffer);
       throwAllowedExceptionTypes(e, DirectoryException.class, CanceledOperationException.class);
     }
+    sortedResultCache.apply(indexBuffer.getSortedResultChanges());
 
     final EntryCache<?> entryCache = DirectoryServer.getEntryCache();
     if (entryCache != null)
@@ -1593,7 +1963,7 @@ public class EntryContainer
     final IndexBuffer indexBuffer = IndexBuffer.newImportIndexBuffer(txn, entryID);
     insertEntryIntoIndexes(indexBuffer, entry, entryID);
     dn2id.put(txn, entry.getName(), entryID);
-    id2entry.put(txn, entryID, id2entry.encode(entry));
+    id2entry.put(txn, entryID, id2entry.encodeForImport(txn, entry));
     dn2uri.addEntry(txn, entry);
     indexBuffer.flush(txn);
   }
@@ -1620,7 +1990,7 @@ public class EntryContainer
     final IndexBuffer indexBuffer = new IndexBuffer();
     try
     {
-      storage.write(new WriteOperation()
+      rootContainer.getGroupCommitter().write(new WriteOperation()
       {
         @Override
         public void run(WriteableTransaction txn) throws Exception
@@ -1779,6 +2149,7 @@ public class EntryContainer
       writeTrustState(indexBuffer);
       throwAllowedExceptionTypes(e, DirectoryException.class, CanceledOperationException.class);
     }
+    sortedResultCache.apply(indexBuffer.getSortedResultChanges());
   }
 
   /**
@@ -1912,7 +2283,7 @@ public class EntryContainer
     final ByteString encodedNewEntry = id2entry.encode(newEntry);
     try
     {
-      storage.write(new WriteOperation()
+      rootContainer.getGroupCommitter().write(new WriteOperation()
       {
         @Override
         public void run(WriteableTransaction txn) throws Exception
@@ -2001,6 +2372,7 @@ public class EntryContainer
       writeTrustState(indexBuffer);
       throwAllowedExceptionTypes(e, DirectoryException.class, CanceledOperationException.class);
     }
+    sortedResultCache.apply(indexBuffer.getSortedResultChanges());
   }
 
   /**
@@ -2029,7 +2401,7 @@ public class EntryContainer
     final IndexBuffer indexBuffer = new IndexBuffer();
     try
     {
-      storage.write(new WriteOperation()
+      rootContainer.getGroupCommitter().write(new WriteOperation()
       {
         @Override
         public void run(WriteableTransaction txn) throws Exception
@@ -2251,6 +2623,7 @@ public class EntryContainer
       writeTrustState(indexBuffer);
       throwAllowedExceptionTypes(e, DirectoryException.class, CanceledOperationException.class);
     }
+    sortedResultCache.apply(indexBuffer.getSortedResultChanges());
   }
 
   /**
@@ -2302,6 +2675,10 @@ public class EntryContainer
     {
       vlvIndex.addEntry(buffer, entryID, entry);
     }
+    if (isSortedResultCacheEnabled())
+    {
+      buffer.entryAdded(entryID, entry);
+    }
   }
 
   /**
@@ -2325,6 +2702,10 @@ public class EntryContainer
     {
       vlvIndex.removeEntry(buffer, entryID, entry);
     }
+    if (isSortedResultCacheEnabled())
+    {
+      buffer.entryRemoved(entryID, entry);
+    }
   }
 
   /**
@@ -2357,6 +2738,16 @@ public class EntryContainer
     {
       vlvIndex.modifyEntry(buffer, entryID, oldEntry, newEntry, mods);
     }
+    if (isSortedResultCacheEnabled())
+    {
+      buffer.entryRemoved(entryID, oldEntry);
+      buffer.entryAdded(entryID, newEntry);
+    }
+  }
+
+  private boolean isSortedResultCacheEnabled()
+  {
+    return config.getSortCacheEntryLimit() > 0;
   }
 
   /**
@@ -2423,6 +2814,7 @@ public class EntryContainer
    */
   void delete(WriteableTransaction txn) throws StorageRuntimeException
   {
+    sortedResultCache.clear();
     for (Tree tree : listTrees())
     {
       tree.delete(txn);
@@ -2506,11 +2898,13 @@ public class EntryContainer
         @Override
         public void run(WriteableTransaction txn) throws Exception
         {
-          DataConfig entryDataConfig = new DataConfig(cfg.isEntriesCompressed(),
-              cfg.isCompactEncoding(), rootContainer.getCompressedSchema());
-          id2entry.setDataConfig(entryDataConfig);
+          id2entry.setDataConfig(newEntryDataConfig(cfg));
 
           EntryContainer.this.config = cfg;
+          if (cfg.getSortCacheEntryLimit() == 0)
+          {
+            sortedResultCache.clear();
+          }
         }
       });
     }
@@ -2654,21 +3048,38 @@ public class EntryContainer
     final SearchScope scope = searchOperation.getScope();
     final SearchFilter filter = searchOperation.getFilter();
 
-    final TreeMap<ByteString, EntryID> sortMap = new TreeMap<>();
-    for (EntryID id : entryIDSet)
+    final int sortCacheEntryLimit = config.getSortCacheEntryLimit();
+    final long sortCacheStamp = sortedResultCache.getStamp();
+    NavigableMap<ByteString, EntryID> sortMap =
+        sortCacheEntryLimit > 0 ? sortedResultCache.get(baseDN, scope, filter, sortOrder) : null;
+    if (sortMap != null)
     {
-      try
+      searchOperation.addAdditionalLogItem(keyOnly(getClass(), "sortCached"));
+    }
+    else
+    {
+      // The sorted result can be patched by concurrent updates once cached.
+      sortMap = sortCacheEntryLimit > 0 ? new ConcurrentSkipListMap<ByteString, EntryID>()
+                                        : new TreeMap<ByteString, EntryID>();
+      for (EntryID id : entryIDSet)
       {
-        Entry e = getEntry(txn, id);
-        if (e.matchesBaseAndScope(baseDN, scope) && filter.matchesEntry(e))
+        try
         {
-          sortMap.put(encodeVLVKey(sortOrder, e, id.longValue()), id);
+          Entry e = getEntry(txn, id);
+          if (e.matchesBaseAndScope(baseDN, scope) && filter.matchesEntry(e))
+          {
+            sortMap.put(encodeVLVKey(sortOrder, e, id.longValue()), id);
+          }
+        }
+        catch (Exception e)
+        {
+          LocalizableMessage message = ERR_ENTRYIDSORTER_CANNOT_EXAMINE_ENTRY.get(id, getExceptionMessage(e));
+          throw new DirectoryException(DirectoryServer.getServerErrorResultCode(), message, e);
         }
       }
-      catch (Exception e)
+      if (sortCacheEntryLimit > 0)
       {
-        LocalizableMessage message = ERR_ENTRYIDSORTER_CANNOT_EXAMINE_ENTRY.get(id, getExceptionMessage(e));
-        throw new DirectoryException(DirectoryServer.getServerErrorResultCode(), message, e);
+        sortedResultCache.put(baseDN, scope, filter, sortOrder, sortMap, sortCacheStamp, sortCacheEntryLimit);
       }
     }
 
@@ -2692,27 +3103,38 @@ public class EntryContainer
     int i = 0;
     for (EntryID entryID : entryIDs)
     {
+      if (i == array.length)
+      {
+        // Cached sorted results may have grown concurrently.
+        break;
+      }
       array[i++] = entryID.longValue();
     }
-    return array;
+    return i == array.length ? array : Arrays.copyOf(array, i);
   }
 
   private static final long[] sortByGreaterThanOrEqualAssertion(SearchOperation searchOperation,
-      VLVRequestControl vlvRequest, SortOrder sortOrder, final TreeMap<ByteString, EntryID> sortMap)
+      VLVRequestControl vlvRequest, SortOrder sortOrder, final NavigableMap<ByteString, EntryID> sortMap)
       throws DirectoryException
   {
+    // Cached sorted results may be updated concurrently.
+    final int size = sortMap.size();
     ByteString assertionValue = vlvRequest.getGreaterThanOrEqualAssertion();
     ByteSequence encodedTargetAssertion =
-        encodeTargetAssertion(sortOrder, assertionValue, searchOperation, sortMap.size());
+        encodeTargetAssertion(sortOrder, assertionValue, searchOperation, size);
 
     boolean targetFound = false;
     int index = 0;
     int targetIndex = 0;
     int startIndex = 0;
     int includedAfterCount = 0;
-    long[] idSet = new long[sortMap.size()];
+    long[] idSet = new long[size];
     for (Map.Entry<ByteString, EntryID> entry : sortMap.entrySet())
     {
+      if (index == idSet.length)
+      {
+        break;
+      }
       ByteString vlvKey = entry.getKey();
       EntryID id = entry.getValue();
       idSet[index++] = id.longValue();
@@ -2749,22 +3171,24 @@ public class EntryContainer
        * No entry was found to be greater than or equal to the sort key, so the target offset will
        * be one greater than the content count.
        */
-      targetIndex = sortMap.size() + 1;
+      targetIndex = size + 1;
       result = new long[0];
     }
-    searchOperation.addResponseControl(new VLVResponseControl(targetIndex, sortMap.size(), LDAPResultCode.SUCCESS));
+    searchOperation.addResponseControl(new VLVResponseControl(targetIndex, size, LDAPResultCode.SUCCESS));
     return result;
   }
 
   private static final long[] sortByOffset(SearchOperation searchOperation, VLVRequestControl vlvRequest,
-      TreeMap<ByteString, EntryID> sortMap) throws DirectoryException
+      NavigableMap<ByteString, EntryID> sortMap) throws DirectoryException
   {
+    // Cached sorted results may be updated concurrently.
+    final int size = sortMap.size();
     int targetOffset = vlvRequest.getOffset();
     if (targetOffset < 0)
     {
       // The client specified a negative target offset. This
       // should never be allowed.
-      searchOperation.addResponseControl(new VLVResponseControl(targetOffset, sortMap.size(),
+      searchOperation.addResponseControl(new VLVResponseControl(targetOffset, size,
           LDAPResultCode.OFFSET_RANGE_ERROR));
 
       LocalizableMessage message = ERR_ENTRYIDSORTER_NEGATIVE_START_POS.get();
@@ -2786,12 +3210,12 @@ public class EntryContainer
       startPos = 0;
       beforeCount = listOffset;
     }
-    else if (startPos >= sortMap.size())
+    else if (startPos >= size)
     {
       // The start position is beyond the end of the list. In this case, we'll assume that the start position was
       // one greater than the size of the list and will only return the beforeCount entries.
-      targetOffset = sortMap.size() + 1;
-      listOffset = sortMap.size();
+      targetOffset = size + 1;
+      listOffset = size;
       startPos = listOffset - beforeCount;
       afterCount = 0;
     }
@@ -2820,7 +3244,7 @@ public class EntryContainer
       sortedIDs = Arrays.copyOf(sortedIDs, arrayPos);
     }
 
-    searchOperation.addResponseControl(new VLVResponseControl(targetOffset, sortMap.size(), LDAPResultCode.SUCCESS));
+    searchOperation.addResponseControl(new VLVResponseControl(targetOffset, size, LDAPResultCode.SUCCESS));
     return sortedIDs;
   }
 
@@ -0,0 +1,1078 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.forgerock.util.Reject.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.forgerock.opendj.ldap.ByteSequenceReader;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+
+/**
+ * Compressed bitmap of entry IDs in the spirit of Roaring bitmaps.
+ * <p>
+ * The ID space is split in chunks of 65536 IDs sharing the same high order bits. Each chunk is stored in a container
+ * whose representation depends on its cardinality: sparse chunks are stored as a sorted array of 16 bits values while
+ * dense chunks are stored as a fixed size bitmap. Intersections, unions and differences are performed chunk per chunk
+ * directly on the compressed representation.
+ * <p>
+ * This class is not thread safe.
+ */
+final class EntryIDBitmap implements Iterable<EntryID>
+{
+  /** Maximum cardinality of an array container. Containers holding more values are stored as bitmaps. */
+  static final int ARRAY_CONTAINER_MAX_SIZE = 4096;
+  private static final int CHUNK_SIZE = 1 << 16;
+  private static final int BITMAP_WORDS = CHUNK_SIZE / Long.SIZE;
+
+  /** Sorted high order bits of the chunks. */
+  private long[] keys;
+  /** Containers holding the low order bits, keys[i] is the chunk of containers[i]. */
+  private Container[] containers;
+  private int nbContainers;
+
+  /** Creates a new empty bitmap. */
+  EntryIDBitmap()
+  {
+    this(4);
+  }
+
+  private EntryIDBitmap(int initialCapacity)
+  {
+    keys = new long[initialCapacity];
+    containers = new Container[initialCapacity];
+  }
+
+  /**
+   * Creates a new bitmap containing the provided IDs.
+   *
+   * @param sortedIDs
+   *          the IDs to add, sorted in ascending order.
+   * @return a new bitmap containing the provided IDs.
+   */
+  static EntryIDBitmap valueOf(long[] sortedIDs)
+  {
+    checkNotNull(sortedIDs, "sortedIDs must not be null");
+    final EntryIDBitmap bitmap = new EntryIDBitmap(Math.max(1, sortedIDs.length / ARRAY_CONTAINER_MAX_SIZE));
+    int start = 0;
+    while (start < sortedIDs.length)
+    {
+      final long key = highBits(sortedIDs[start]);
+      int end = start + 1;
+      while (end < sortedIDs.length && highBits(sortedIDs[end]) == key)
+      {
+        end++;
+      }
+      final int cardinality = end - start;
+      final Container container;
+      if (cardinality > ARRAY_CONTAINER_MAX_SIZE)
+      {
+        final BitmapContainer bitmapContainer = new BitmapContainer();
+        for (int i = start; i < end; i++)
+        {
+          bitmapContainer.set(lowBits(sortedIDs[i]));
+        }
+        container = bitmapContainer;
+      }
+      else
+      {
+        final char[] values = new char[cardinality];
+        for (int i = start; i < end; i++)
+        {
+          values[i - start] = (char) lowBits(sortedIDs[i]);
+        }
+        container = new ArrayContainer(values, cardinality);
+      }
+      bitmap.append(key, container);
+      start = end;
+    }
+    return bitmap;
+  }
+
+  /**
+   * Returns the number of IDs in this bitmap.
+   *
+   * @return the number of IDs in this bitmap.
+   */
+  long cardinality()
+  {
+    long cardinality = 0;
+    for (int i = 0; i < nbContainers; i++)
+    {
+      cardinality += containers[i].cardinality;
+    }
+    return cardinality;
+  }
+
+  boolean isEmpty()
+  {
+    return nbContainers == 0;
+  }
+
+  /**
+   * Returns the smallest ID of this bitmap.
+   *
+   * @return the smallest ID of this bitmap.
+   * @throws NoSuchElementException
+   *           if this bitmap is empty
+   */
+  long first()
+  {
+    if (nbContainers == 0)
+    {
+      throw new NoSuchElementException();
+    }
+    return toID(keys[0], containers[0].first());
+  }
+
+  /**
+   * Returns the greatest ID of this bitmap.
+   *
+   * @return the greatest ID of this bitmap.
+   * @throws NoSuchElementException
+   *           if this bitmap is empty
+   */
+  long last()
+  {
+    if (nbContainers == 0)
+    {
+      throw new NoSuchElementException();
+    }
+    return toID(keys[nbContainers - 1], containers[nbContainers - 1].last());
+  }
+
+  boolean contains(long id)
+  {
+    final int pos = indexOfKey(highBits(id));
+    return pos >= 0 && containers[pos].contains(lowBits(id));
+  }
+
+  /**
+   * Adds an ID to this bitmap.
+   *
+   * @param id
+   *          the ID to add
+   * @return {@code true} if the bitmap was changed
+   */
+  boolean add(long id)
+  {
+    final long key = highBits(id);
+    final int pos = indexOfKey(key);
+    if (pos >= 0)
+    {
+      final Container container = containers[pos];
+      final int before = container.cardinality;
+      containers[pos] = container.add(lowBits(id));
+      return containers[pos].cardinality != before;
+    }
+    final ArrayContainer container = new ArrayContainer(new char[] { (char) lowBits(id) }, 1);
+    insertAt(-(pos + 1), key, container);
+    return true;
+  }
+
+  /**
+   * Removes an ID from this bitmap.
+   *
+   * @param id
+   *          the ID to remove
+   * @return {@code true} if the bitmap was changed
+   */
+  boolean remove(long id)
+  {
+    final int pos = indexOfKey(highBits(id));
+    if (pos < 0)
+    {
+      return false;
+    }
+    final Container container = containers[pos];
+    final int before = container.cardinality;
+    final Container updated = container.remove(lowBits(id));
+    if (updated.cardinality == 0)
+    {
+      removeAt(pos);
+    }
+    else
+    {
+      containers[pos] = updated;
+    }
+    return updated.cardinality != before;
+  }
+
+  /**
+   * Retains in this bitmap only the IDs which are also contained in the provided one.
+   *
+   * @param that
+   *          the bitmap to intersect with, it will not be modified.
+   */
+  void and(EntryIDBitmap that)
+  {
+    int pos1 = 0, pos2 = 0, newSize = 0;
+    while (pos1 < nbContainers && pos2 < that.nbContainers)
+    {
+      final long key1 = keys[pos1];
+      final long key2 = that.keys[pos2];
+      if (key1 < key2)
+      {
+        pos1++;
+      }
+      else if (key1 > key2)
+      {
+        pos2++;
+      }
+      else
+      {
+        final Container result = and(containers[pos1], that.containers[pos2]);
+        if (result.cardinality > 0)
+        {
+          keys[newSize] = key1;
+          containers[newSize++] = result;
+        }
+        pos1++;
+        pos2++;
+      }
+    }
+    Arrays.fill(containers, newSize, nbContainers, null);
+    nbContainers = newSize;
+  }
+
+  /**
+   * Adds to this bitmap all the IDs contained in the provided one.
+   *
+   * @param that
+   *          the bitmap to merge with, it will not be modified.
+   */
+  void or(EntryIDBitmap that)
+  {
+    final int maxSize = nbContainers + that.nbContainers;
+    final long[] newKeys = new long[Math.max(1, maxSize)];
+    final Container[] newContainers = new Container[newKeys.length];
+    int pos1 = 0, pos2 = 0, newSize = 0;
+    while (pos1 < nbContainers || pos2 < that.nbContainers)
+    {
+      if (pos2 == that.nbContainers || (pos1 < nbContainers && keys[pos1] < that.keys[pos2]))
+      {
+        newKeys[newSize] = keys[pos1];
+        newContainers[newSize++] = containers[pos1++];
+      }
+      else if (pos1 == nbContainers || keys[pos1] > that.keys[pos2])
+      {
+        newKeys[newSize] = that.keys[pos2];
+        newContainers[newSize++] = that.containers[pos2++].copy();
+      }
+      else
+      {
+        newKeys[newSize] = keys[pos1];
+        newContainers[newSize++] = or(containers[pos1++], that.containers[pos2++]);
+      }
+    }
+    keys = newKeys;
+    containers = newContainers;
+    nbContainers = newSize;
+  }
+
+  /**
+   * Removes from this bitmap all the IDs contained in the provided one.
+   *
+   * @param that
+   *          the bitmap containing the IDs to remove, it will not be modified.
+   */
+  void andNot(EntryIDBitmap that)
+  {
+    int pos1 = 0, pos2 = 0, newSize = 0;
+    while (pos1 < nbContainers)
+    {
+      while (pos2 < that.nbContainers && that.keys[pos2] < keys[pos1])
+      {
+        pos2++;
+      }
+      Container result = containers[pos1];
+      if (pos2 < that.nbContainers && that.keys[pos2] == keys[pos1])
+      {
+        result = andNot(result, that.containers[pos2]);
+      }
+      if (result.cardinality > 0)
+      {
+        keys[newSize] = keys[pos1];
+        containers[newSize++] = result;
+      }
+      pos1++;
+    }
+    Arrays.fill(containers, newSize, nbContainers, null);
+    nbContainers = newSize;
+  }
+
+  /**
+   * Returns a deep copy of this bitmap.
+   *
+   * @return a deep copy of this bitmap.
+   */
+  EntryIDBitmap copy()
+  {
+    final EntryIDBitmap copy = new EntryIDBitmap(Math.max(1, nbContainers));
+    for (int i = 0; i < nbContainers; i++)
+    {
+      copy.keys[i] = keys[i];
+      copy.containers[i] = containers[i].copy();
+    }
+    copy.nbContainers = nbContainers;
+    return copy;
+  }
+
+  /**
+   * Returns all the IDs of this bitmap as a sorted array.
+   *
+   * @return a new array containing all the IDs of this bitmap, sorted in ascending order.
+   */
+  long[] toArray()
+  {
+    final long[] ids = new long[(int) cardinality()];
+    int pos = 0;
+    for (int i = 0; i < nbContainers; i++)
+    {
+      pos = containers[i].fill(keys[i], ids, pos);
+    }
+    return ids;
+  }
+
+  @Override
+  public Iterator<EntryID> iterator()
+  {
+    return new BitmapIterator(0, nbContainers > 0 ? containers[0].first() : 0);
+  }
+
+  /**
+   * Returns an iterator starting at the provided ID. If the provided ID does not belong to this bitmap, the iteration
+   * starts from the beginning, like the iterator of the array based entry ID sets.
+   *
+   * @param begin
+   *          the ID to start the iteration from
+   * @return an iterator over the IDs of this bitmap.
+   */
+  Iterator<EntryID> iterator(long begin)
+  {
+    final int pos = indexOfKey(highBits(begin));
+    if (pos >= 0 && containers[pos].contains(lowBits(begin)))
+    {
+      return new BitmapIterator(pos, lowBits(begin));
+    }
+    return iterator();
+  }
+
+  /**
+   * Returns an estimation of the number of bytes needed to encode this bitmap.
+   *
+   * @return an estimation of the number of bytes needed to encode this bitmap.
+   */
+  int getEstimatedEncodedSize()
+  {
+    int size = ByteStringBuilder.MAX_COMPACT_SIZE;
+    for (int i = 0; i < nbContainers; i++)
+    {
+      size += 2 * ByteStringBuilder.MAX_COMPACT_SIZE + containers[i].getEstimatedEncodedSize();
+    }
+    return size;
+  }
+
+  /**
+   * Appends the encoded form of this bitmap to the provided builder. The containers are written in ascending order,
+   * each of them being prefixed by the difference between its key and the key of the previous container, followed by
+   * its cardinality minus one. Array containers are then written as compacted deltas while bitmap containers are
+   * written as raw 64 bits words. Full containers have no payload at all.
+   *
+   * @param builder
+   *          the builder where to append the encoded bitmap
+   * @return the provided builder
+   */
+  ByteStringBuilder encode(ByteStringBuilder builder)
+  {
+    builder.appendCompactUnsigned(nbContainers);
+    long previousKey = 0;
+    for (int i = 0; i < nbContainers; i++)
+    {
+      builder.appendCompactUnsigned(keys[i] - previousKey);
+      builder.appendCompactUnsigned(containers[i].cardinality - 1);
+      containers[i].encode(builder);
+      previousKey = keys[i];
+    }
+    return builder;
+  }
+
+  /**
+   * Decodes a bitmap previously encoded with {@link #encode(ByteStringBuilder)}.
+   *
+   * @param reader
+   *          the reader positioned at the beginning of the encoded bitmap
+   * @return the decoded bitmap
+   */
+  static EntryIDBitmap decode(ByteSequenceReader reader)
+  {
+    checkNotNull(reader, "reader must not be null");
+    final int size = reader.readCompactUnsignedInt();
+    final EntryIDBitmap bitmap = new EntryIDBitmap(Math.max(1, size));
+    long key = 0;
+    for (int i = 0; i < size; i++)
+    {
+      key += reader.readCompactUnsignedLong();
+      final int cardinality = reader.readCompactUnsignedInt() + 1;
+      final Container container;
+      if (cardinality == CHUNK_SIZE)
+      {
+        container = BitmapContainer.full();
+      }
+      else if (cardinality > ARRAY_CONTAINER_MAX_SIZE)
+      {
+        final long[] words = new long[BITMAP_WORDS];
+        for (int w = 0; w < BITMAP_WORDS; w++)
+        {
+          words[w] = reader.readLong();
+        }
+        container = new BitmapContainer(words, cardinality);
+      }
+      else
+      {
+        final char[] values = new char[cardinality];
+        int value = reader.readCompactUnsignedInt();
+        values[0] = (char) value;
+        for (int v = 1; v < cardinality; v++)
+        {
+          value += reader.readCompactUnsignedInt();
+          values[v] = (char) value;
+        }
+        container = new ArrayContainer(values, cardinality);
+      }
+      bitmap.keys[i] = key;
+      bitmap.containers[i] = container;
+    }
+    bitmap.nbContainers = size;
+    return bitmap;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[COUNT:" + cardinality() + "]";
+  }
+
+  private static long highBits(long id)
+  {
+    return id >>> 16;
+  }
+
+  private static int lowBits(long id)
+  {
+    return (int) (id & 0xFFFF);
+  }
+
+  private static long toID(long key, int low)
+  {
+    return (key << 16) | low;
+  }
+
+  private int indexOfKey(long key)
+  {
+    // Fast path for appending at the end, which is the common case since entry IDs are allocated sequentially.
+    if (nbContainers > 0 && keys[nbContainers - 1] == key)
+    {
+      return nbContainers - 1;
+    }
+    return Arrays.binarySearch(keys, 0, nbContainers, key);
+  }
+
+  private void append(long key, Container container)
+  {
+    insertAt(nbContainers, key, container);
+  }
+
+  private void insertAt(int pos, long key, Container container)
+  {
+    if (nbContainers == keys.length)
+    {
+      final int newCapacity = Math.max(4, nbContainers * 2);
+      keys = Arrays.copyOf(keys, newCapacity);
+      containers = Arrays.copyOf(containers, newCapacity);
+    }
+    System.arraycopy(keys, pos, keys, pos + 1, nbContainers - pos);
+    System.arraycopy(containers, pos, containers, pos + 1, nbContainers - pos);
+    keys[pos] = key;
+    containers[pos] = container;
+    nbContainers++;
+  }
+
+  private void removeAt(int pos)
+  {
+    System.arraycopy(keys, pos + 1, keys, pos, nbContainers - pos - 1);
+    System.arraycopy(containers, pos + 1, containers, pos, nbContainers - pos - 1);
+    containers[--nbContainers] = null;
+  }
+
+  private static Container and(Container c1, Container c2)
+  {
+    if (c1 instanceof ArrayContainer)
+    {
+      return ((ArrayContainer) c1).and(c2);
+    }
+    else if (c2 instanceof ArrayContainer)
+    {
+      return ((ArrayContainer) c2).and(c1);
+    }
+    return ((BitmapContainer) c1).and((BitmapContainer) c2);
+  }
+
+  private static Container or(Container c1, Container c2)
+  {
+    if (c1 instanceof ArrayContainer && c2 instanceof ArrayContainer)
+    {
+      return ((ArrayContainer) c1).or((ArrayContainer) c2);
+    }
+    final BitmapContainer result = c1 instanceof BitmapContainer ? (BitmapContainer) c1.copy() : ((ArrayContainer) c1)
+        .toBitmapContainer();
+    result.or(c2);
+    return result;
+  }
+
+  private static Container andNot(Container c1, Container c2)
+  {
+    if (c1 instanceof ArrayContainer)
+    {
+      return ((ArrayContainer) c1).andNot(c2);
+    }
+    final BitmapContainer result = (BitmapContainer) c1.copy();
+    result.andNot(c2);
+    return result.normalize();
+  }
+
+  /** Stores the low order bits of the IDs of one chunk. */
+  private abstract static class Container
+  {
+    int cardinality;
+
+    abstract boolean contains(int low);
+
+    /** Returns the container holding the result, which may be a different instance. */
+    abstract Container add(int low);
+
+    /** Returns the container holding the result, which may be a different instance. */
+    abstract Container remove(int low);
+
+    abstract int first();
+
+    abstract int last();
+
+    /** Returns the smallest value greater than or equal to the provided one, or -1 if there is none. */
+    abstract int next(int fromLow);
+
+    abstract int fill(long key, long[] ids, int pos);
+
+    abstract Container copy();
+
+    abstract int getEstimatedEncodedSize();
+
+    abstract void encode(ByteStringBuilder builder);
+  }
+
+  /** Container storing the low order bits as a sorted array. */
+  private static final class ArrayContainer extends Container
+  {
+    private char[] values;
+
+    ArrayContainer(char[] values, int cardinality)
+    {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    boolean contains(int low)
+    {
+      return Arrays.binarySearch(values, 0, cardinality, (char) low) >= 0;
+    }
+
+    @Override
+    Container add(int low)
+    {
+      int pos = Arrays.binarySearch(values, 0, cardinality, (char) low);
+      if (pos >= 0)
+      {
+        return this;
+      }
+      if (cardinality == ARRAY_CONTAINER_MAX_SIZE)
+      {
+        final BitmapContainer bitmap = toBitmapContainer();
+        bitmap.set(low);
+        return bitmap;
+      }
+      pos = -(pos + 1);
+      if (cardinality == values.length)
+      {
+        values = Arrays.copyOf(values, Math.min(ARRAY_CONTAINER_MAX_SIZE, Math.max(4, cardinality * 2)));
+      }
+      System.arraycopy(values, pos, values, pos + 1, cardinality - pos);
+      values[pos] = (char) low;
+      cardinality++;
+      return this;
+    }
+
+    @Override
+    Container remove(int low)
+    {
+      final int pos = Arrays.binarySearch(values, 0, cardinality, (char) low);
+      if (pos >= 0)
+      {
+        System.arraycopy(values, pos + 1, values, pos, cardinality - pos - 1);
+        cardinality--;
+      }
+      return this;
+    }
+
+    @Override
+    int first()
+    {
+      return values[0];
+    }
+
+    @Override
+    int last()
+    {
+      return values[cardinality - 1];
+    }
+
+    @Override
+    int next(int fromLow)
+    {
+      int pos = Arrays.binarySearch(values, 0, cardinality, (char) fromLow);
+      if (pos < 0)
+      {
+        pos = -(pos + 1);
+      }
+      return pos < cardinality ? values[pos] : -1;
+    }
+
+    @Override
+    int fill(long key, long[] ids, int pos)
+    {
+      for (int i = 0; i < cardinality; i++)
+      {
+        ids[pos++] = toID(key, values[i]);
+      }
+      return pos;
+    }
+
+    @Override
+    Container copy()
+    {
+      return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+    }
+
+    @Override
+    int getEstimatedEncodedSize()
+    {
+      return cardinality * 3;
+    }
+
+    @Override
+    void encode(ByteStringBuilder builder)
+    {
+      int previous = 0;
+      for (int i = 0; i < cardinality; i++)
+      {
+        builder.appendCompactUnsigned(values[i] - previous);
+        previous = values[i];
+      }
+    }
+
+    Container and(Container other)
+    {
+      final char[] result = new char[Math.min(cardinality, other.cardinality)];
+      int size = 0;
+      if (other instanceof ArrayContainer)
+      {
+        final ArrayContainer that = (ArrayContainer) other;
+        int pos1 = 0, pos2 = 0;
+        while (pos1 < cardinality && pos2 < that.cardinality)
+        {
+          if (values[pos1] < that.values[pos2])
+          {
+            pos1++;
+          }
+          else if (values[pos1] > that.values[pos2])
+          {
+            pos2++;
+          }
+          else
+          {
+            result[size++] = values[pos1];
+            pos1++;
+            pos2++;
+          }
+        }
+      }
+      else
+      {
+        for (int i = 0; i < cardinality; i++)
+        {
+          if (other.contains(values[i]))
+          {
+            result[size++] = values[i];
+          }
+        }
+      }
+      return new ArrayContainer(result, size);
+    }
+
+    Container or(ArrayContainer that)
+    {
+      final char[] result = new char[cardinality + that.cardinality];
+      int pos1 = 0, pos2 = 0, size = 0;
+      while (pos1 < cardinality && pos2 < that.cardinality)
+      {
+        if (values[pos1] < that.values[pos2])
+        {
+          result[size++] = values[pos1++];
+        }
+        else if (values[pos1] > that.values[pos2])
+        {
+          result[size++] = that.values[pos2++];
+        }
+        else
+        {
+          result[size++] = values[pos1++];
+          pos2++;
+        }
+      }
+      System.arraycopy(values, pos1, result, size, cardinality - pos1);
+      size += cardinality - pos1;
+      System.arraycopy(that.values, pos2, result, size, that.cardinality - pos2);
+      size += that.cardinality - pos2;
+      return new ArrayContainer(result, size).normalize();
+    }
+
+    Container andNot(Container other)
+    {
+      final char[] result = new char[cardinality];
+      int size = 0;
+      for (int i = 0; i < cardinality; i++)
+      {
+        if (!other.contains(values[i]))
+        {
+          result[size++] = values[i];
+        }
+      }
+      return new ArrayContainer(result, size);
+    }
+
+    BitmapContainer toBitmapContainer()
+    {
+      final BitmapContainer bitmap = new BitmapContainer();
+      for (int i = 0; i < cardinality; i++)
+      {
+        bitmap.set(values[i]);
+      }
+      return bitmap;
+    }
+
+    private Container normalize()
+    {
+      return cardinality > ARRAY_CONTAINER_MAX_SIZE ? toBitmapContainer() : this;
+    }
+  }
+
+  /** Container storing the low order bits as a fixed size bitmap. */
+  private static final class BitmapContainer extends Container
+  {
+    private final long[] words;
+
+    BitmapContainer()
+    {
+      this(new long[BITMAP_WORDS], 0);
+    }
+
+    BitmapContainer(long[] words, int cardinality)
+    {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    static BitmapContainer full()
+    {
+      final long[] words = new long[BITMAP_WORDS];
+      Arrays.fill(words, -1L);
+      return new BitmapContainer(words, CHUNK_SIZE);
+    }
+
+    void set(int low)
+    {
+      final long before = words[low >>> 6];
+      final long after = before | (1L << low);
+      words[low >>> 6] = after;
+      if (before != after)
+      {
+        cardinality++;
+      }
+    }
+
+    @Override
+    boolean contains(int low)
+    {
+      return (words[low >>> 6] & (1L << low)) != 0;
+    }
+
+    @Override
+    Container add(int low)
+    {
+      set(low);
+      return this;
+    }
+
+    void clear(int low)
+    {
+      final long before = words[low >>> 6];
+      final long after = before & ~(1L << low);
+      words[low >>> 6] = after;
+      if (before != after)
+      {
+        cardinality--;
+      }
+    }
+
+    @Override
+    Container remove(int low)
+    {
+      clear(low);
+      return normalize();
+    }
+
+    @Override
+    int first()
+    {
+      return next(0);
+    }
+
+    @Override
+    int last()
+    {
+      for (int w = BITMAP_WORDS - 1; w >= 0; w--)
+      {
+        if (words[w] != 0)
+        {
+          return w * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(words[w]);
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    int next(int fromLow)
+    {
+      int w = fromLow >>> 6;
+      if (w >= BITMAP_WORDS)
+      {
+        return -1;
+      }
+      long word = words[w] & (-1L << fromLow);
+      while (true)
+      {
+        if (word != 0)
+        {
+          return w * Long.SIZE + Long.numberOfTrailingZeros(word);
+        }
+        if (++w == BITMAP_WORDS)
+        {
+          return -1;
+        }
+        word = words[w];
+      }
+    }
+
+    @Override
+    int fill(long key, long[] ids, int pos)
+    {
+      for (int w = 0; w < BITMAP_WORDS; w++)
+      {
+        long word = words[w];
+        while (word != 0)
+        {
+          ids[pos++] = toID(key, w * Long.SIZE + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return pos;
+    }
+
+    @Override
+    Container copy()
+    {
+      return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    int getEstimatedEncodedSize()
+    {
+      return cardinality == CHUNK_SIZE ? 0 : BITMAP_WORDS * Long.SIZE / Byte.SIZE;
+    }
+
+    @Override
+    void encode(ByteStringBuilder builder)
+    {
+      if (cardinality != CHUNK_SIZE)
+      {
+        for (long word : words)
+        {
+          builder.appendLong(word);
+        }
+      }
+    }
+
+    Container and(BitmapContainer that)
+    {
+      final long[] result = new long[BITMAP_WORDS];
+      int newCardinality = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++)
+      {
+        result[w] = words[w] & that.words[w];
+        newCardinality += Long.bitCount(result[w]);
+      }
+      return new BitmapContainer(result, newCardinality).normalize();
+    }
+
+    void or(Container other)
+    {
+      if (other instanceof BitmapContainer)
+      {
+        final long[] otherWords = ((BitmapContainer) other).words;
+        int newCardinality = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++)
+        {
+          words[w] |= otherWords[w];
+          newCardinality += Long.bitCount(words[w]);
+        }
+        cardinality = newCardinality;
+      }
+      else
+      {
+        final ArrayContainer array = (ArrayContainer) other;
+        for (int i = 0; i < array.cardinality; i++)
+        {
+          set(array.values[i]);
+        }
+      }
+    }
+
+    void andNot(Container other)
+    {
+      if (other instanceof BitmapContainer)
+      {
+        final long[] otherWords = ((BitmapContainer) other).words;
+        int newCardinality = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++)
+        {
+          words[w] &= ~otherWords[w];
+          newCardinality += Long.bitCount(words[w]);
+        }
+        cardinality = newCardinality;
+      }
+      else
+      {
+        final ArrayContainer array = (ArrayContainer) other;
+        for (int i = 0; i < array.cardinality; i++)
+        {
+          clear(array.values[i]);
+        }
+      }
+    }
+
+    private Container normalize()
+    {
+      if (cardinality > ARRAY_CONTAINER_MAX_SIZE)
+      {
+        return this;
+      }
+      final char[] values = new char[cardinality];
+      int size = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++)
+      {
+        long word = words[w];
+        while (word != 0)
+        {
+          values[size++] = (char) (w * Long.SIZE + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return new ArrayContainer(values, size);
+    }
+  }
+
+  /** Iterator over the IDs of the bitmap, in ascending order. */
+  private final class BitmapIterator implements Iterator<EntryID>
+  {
+    private int containerIndex;
+    private int nextLow;
+
+    BitmapIterator(int containerIndex, int nextLow)
+    {
+      this.containerIndex = containerIndex;
+      this.nextLow = nextLow;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+      while (containerIndex < nbContainers)
+      {
+        if (nextLow < CHUNK_SIZE)
+        {
+          final int low = containers[containerIndex].next(nextLow);
+          if (low >= 0)
+          {
+            nextLow = low;
+            return true;
+          }
+        }
+        containerIndex++;
+        nextLow = 0;
+      }
+      return false;
+    }
+
+    @Override
+    public EntryID next()
+    {
+      if (hasNext())
+      {
+        return new EntryID(toID(keys[containerIndex], nextLow++));
+      }
+      throw new NoSuchElementException();
+    }
+
+    @Override
+    public void remove()
+    {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
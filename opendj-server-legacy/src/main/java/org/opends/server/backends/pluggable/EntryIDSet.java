@@ -50,6 +50,7 @@ final class EntryIDSet implements Iterable<EntryID>
 {
   public static final EntryIDSetCodec CODEC_V1 = new EntryIDSetCodecV1();
   public static final EntryIDSetCodec CODEC_V2 = new EntryIDSetCodecV2();
+  public static final EntryIDSetCodec CODEC_V3 = new EntryIDSetCodecV3();
 
   private static final ByteSequence NO_KEY = ByteString.valueOfUtf8("<none>");
   private static final long[] EMPTY_LONG_ARRAY = new long[0];
@@ -287,6 +288,104 @@ final class EntryIDSet implements Iterable<EntryID>
     }
   }
 
+  /**
+   * Concrete implementation representing a set of EntryIDs stored in a compressed bitmap. Sets decoded from a
+   * {@link EntryIDSetCodecV3} record are backed by this implementation.
+   */
+  private static final class BitmapImpl implements EntryIDSetImplementor
+  {
+    /** \@NotNull */
+    private final EntryIDBitmap bitmap;
+
+    BitmapImpl(EntryIDBitmap bitmap)
+    {
+      Reject.ifNull(bitmap, "bitmap must not be null");
+      this.bitmap = bitmap;
+    }
+
+    @Override
+    public long size()
+    {
+      return bitmap.cardinality();
+    }
+
+    @Override
+    public void toString(StringBuilder buffer)
+    {
+      buffer.append("[COUNT:").append(size()).append("]");
+    }
+
+    @Override
+    public boolean isDefined()
+    {
+      return true;
+    }
+
+    @Override
+    public boolean add(EntryID entryID)
+    {
+      return bitmap.add(entryID.longValue());
+    }
+
+    @Override
+    public boolean remove(EntryID entryID)
+    {
+      return bitmap.remove(entryID.longValue());
+    }
+
+    @Override
+    public boolean contains(EntryID entryID)
+    {
+      return bitmap.contains(entryID.longValue());
+    }
+
+    @Override
+    public void addAll(EntryIDSet that)
+    {
+      if (that.size() != 0)
+      {
+        bitmap.or(that.asBitmap());
+      }
+    }
+
+    @Override
+    public void removeAll(EntryIDSet that)
+    {
+      if (that.size() != 0)
+      {
+        bitmap.andNot(that.asBitmap());
+      }
+    }
+
+    @Override
+    public Iterator<EntryID> iterator()
+    {
+      return bitmap.iterator();
+    }
+
+    @Override
+    public Iterator<EntryID> iterator(EntryID begin)
+    {
+      return begin == null ? bitmap.iterator() : bitmap.iterator(begin.longValue());
+    }
+
+    @Override
+    public long[] getRange()
+    {
+      if (!bitmap.isEmpty())
+      {
+        return new long[] { bitmap.first(), bitmap.last() };
+      }
+      return NO_ENTRY_IDS_RANGE;
+    }
+
+    @Override
+    public long[] getIDs()
+    {
+      return bitmap.toArray();
+    }
+  }
+
   /**
    * Concrete implementation where the EntryIDs are not defined, for example when the index entry
    * limit has been exceeded.
@@ -565,6 +664,45 @@ final class EntryIDSet implements Iterable<EntryID>
     }
   }
 
+  /**
+   * Compressed bitmap EntryIDSet codec implementation. The IDs are split in chunks of 65536 IDs sharing the same high
+   * order bits and each chunk is written either as a list of compacted deltas or as a raw bitmap depending on its
+   * density. Large sets of mostly consecutive IDs, like those of the objectClass equality index, are therefore stored
+   * using about one bit per ID. Decoded sets are backed by an {@link EntryIDBitmap} so that the intersections and
+   * unions performed while evaluating filters operate directly on the compressed representation.
+   *
+   * @see EntryIDBitmap#encode(ByteStringBuilder)
+   */
+  private static final class EntryIDSetCodecV3 implements EntryIDSetCodec
+  {
+    private static final byte UNDEFINED_SET = (byte) 0xFF;
+
+    @Override
+    public ByteString encode(EntryIDSet idSet)
+    {
+      checkNotNull(idSet, "idSet must not be null");
+      if (!idSet.isDefined())
+      {
+        return ByteString.valueOfBytes(new byte[] { UNDEFINED_SET });
+      }
+      final EntryIDBitmap bitmap = idSet.asBitmap();
+      final ByteStringBuilder builder = new ByteStringBuilder(bitmap.getEstimatedEncodedSize());
+      return ByteString.wrap(bitmap.encode(builder).getBackingArray(), 0, builder.length());
+    }
+
+    @Override
+    public EntryIDSet decode(ByteSequence key, ByteString value)
+    {
+      checkNotNull(key, "key must not be null");
+      checkNotNull(value, "value must not be null");
+      if (value.byteAt(0) == UNDEFINED_SET)
+      {
+        return newUndefinedSetWithKey(key);
+      }
+      return new EntryIDSet(new BitmapImpl(EntryIDBitmap.decode(value.asReader())));
+    }
+  }
+
   static EntryIDSet newUndefinedSet()
   {
     return newUndefinedSetWithKey(NO_KEY);
@@ -635,6 +773,7 @@ final class EntryIDSet implements Iterable<EntryID>
     int count = 0;
 
     boolean containsUndefinedSet = false;
+    boolean containsBitmapSet = false;
     for (EntryIDSet l : sets)
     {
       if (!l.isDefined())
@@ -645,6 +784,7 @@ final class EntryIDSet implements Iterable<EntryID>
         }
         containsUndefinedSet = true;
       }
+      containsBitmapSet |= l.concreteImpl instanceof BitmapImpl;
       count += l.size();
     }
 
@@ -653,6 +793,20 @@ final class EntryIDSet implements Iterable<EntryID>
       return newUndefinedSet();
     }
 
+    if (containsBitmapSet)
+    {
+      // Merge the compressed representations rather than decompressing every set into a single array.
+      final EntryIDBitmap union = new EntryIDBitmap();
+      for (EntryIDSet l : sets)
+      {
+        if (l.size() != 0)
+        {
+          union.or(l.asBitmap());
+        }
+      }
+      return new EntryIDSet(new BitmapImpl(union));
+    }
+
     boolean needSort = false;
     long[] n = new long[count];
     int pos = 0;
@@ -829,7 +983,10 @@ final class EntryIDSet implements Iterable<EntryID>
     checkNotNull(that, "that must not be null");
     if (!concreteImpl.isDefined())
     {
-      if ( that.isDefined() ) {
+      if (that.concreteImpl instanceof BitmapImpl) {
+        // Bitmaps are modified in place, so they must not be shared.
+        concreteImpl = new BitmapImpl(((BitmapImpl) that.concreteImpl).bitmap.copy());
+      } else if ( that.isDefined() ) {
         // NOTE: It's ok to share the same array instance here thanks to the copy-on-write
         // performed by the implementation.
         concreteImpl = new DefinedImpl(that.getIDs());
@@ -843,6 +1000,15 @@ final class EntryIDSet implements Iterable<EntryID>
       return;
     }
 
+    if (concreteImpl instanceof BitmapImpl || that.concreteImpl instanceof BitmapImpl)
+    {
+      final EntryIDBitmap retained = concreteImpl instanceof BitmapImpl ? ((BitmapImpl) concreteImpl).bitmap
+                                                                        : asBitmap();
+      retained.and(that.asBitmap());
+      concreteImpl = new BitmapImpl(retained);
+      return;
+    }
+
     final boolean thatSetOverlap = compareForOverlap(getRange(), that.getRange()) == 0;
     if (thatSetOverlap)
     {
@@ -899,6 +1065,19 @@ final class EntryIDSet implements Iterable<EntryID>
     return concreteImpl.getIDs();
   }
 
+  /**
+   * Returns the IDs of this defined set as a compressed bitmap. The returned bitmap must not be modified since it may
+   * be the one backing this set.
+   */
+  private EntryIDBitmap asBitmap()
+  {
+    if (concreteImpl instanceof BitmapImpl)
+    {
+      return ((BitmapImpl) concreteImpl).bitmap;
+    }
+    return EntryIDBitmap.valueOf(getIDs());
+  }
+
   private long[] getRange()
   {
     return concreteImpl.getRange();
@@ -26,17 +26,31 @@
  */
 package org.opends.server.backends.pluggable;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.ldap.ByteString;
 import org.opends.server.backends.pluggable.spi.Cursor;
 import org.opends.server.backends.pluggable.spi.ReadOperation;
 import org.opends.server.backends.pluggable.spi.ReadableTransaction;
+import org.opends.server.backends.pluggable.spi.Storage;
 import org.opends.server.backends.pluggable.spi.StorageRuntimeException;
 import org.opends.server.types.DN;
 import org.opends.server.types.Entry;
@@ -44,24 +58,41 @@ import org.opends.server.types.LDIFExportConfig;
 import org.opends.server.util.LDIFException;
 import org.opends.server.util.StaticUtils;
 
+import static org.forgerock.util.Utils.*;
 import static org.opends.messages.BackendMessages.*;
 
-/** Export a backend to LDIF. */
+/**
+ * Export a backend to LDIF.
+ * <p>
+ * When several threads are requested, the entry ID space of each entry container is split into blocks which are read,
+ * decoded and formatted by a pool of threads. Compressing the formatted blocks is a separate stage run by another pool
+ * of threads, each block becoming a gzip member of the output. Blocks are then written in entry ID order, either to the
+ * LDIF file or, when the LDIF is split, to the file holding the range of entry IDs they belong to.
+ */
 class ExportJob
 {
   private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
 
+  private static final String FORMATTER_THREAD_NAME = "EXPORT-FORMATTER-%d";
+  private static final String COMPRESSOR_THREAD_NAME = "EXPORT-COMPRESSOR-%d";
+
+  /** The default number of entry IDs covered by a block of entries exported by a single thread. */
+  private static final int DEFAULT_BLOCK_SIZE = 4096;
+
   /** The requested LDIF export configuration. */
   private final LDIFExportConfig exportConfig;
 
+  /** The number of entry IDs covered by a block of entries exported by a single thread. */
+  private final int blockSize;
+
   /** The number of milliseconds between job progress reports. */
   private final long progressInterval = 10000;
 
   /** The current number of entries exported. */
-  private long exportedCount;
+  private final AtomicLong exportedCount = new AtomicLong();
 
   /** The current number of entries skipped. */
-  private long skippedCount;
+  private final AtomicLong skippedCount = new AtomicLong();
 
   /**
    * Create a new export job.
@@ -69,8 +100,20 @@ class ExportJob
    * @param exportConfig The requested LDIF export configuration.
    */
   ExportJob(LDIFExportConfig exportConfig)
+  {
+    this(exportConfig, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * Create a new export job reading the entries by blocks of the provided size when several threads are requested.
+   *
+   * @param exportConfig The requested LDIF export configuration.
+   * @param blockSize The number of entry IDs covered by a block of entries exported by a single thread.
+   */
+  ExportJob(LDIFExportConfig exportConfig, int blockSize)
   {
     this.exportConfig = exportConfig;
+    this.blockSize = blockSize;
   }
 
   /**
@@ -119,33 +162,17 @@ class ExportJob
     timer.scheduleAtFixedRate(progressTask, progressInterval, progressInterval);
 
     // Iterate through the containers.
+    final int threadCount = getThreadCount();
     try
     {
-      rootContainer.getStorage().read(new ReadOperation<Void>()
+      if (threadCount > 1 || exportConfig.splitLDIF())
       {
-        @Override
-        public Void run(ReadableTransaction txn) throws Exception
-        {
-          for (EntryContainer exportContainer : exportContainers)
-          {
-            if (exportConfig.isCancelled())
-            {
-              break;
-            }
-
-            exportContainer.sharedLock.lock();
-            try
-            {
-              exportContainer(txn, exportContainer);
-            }
-            finally
-            {
-              exportContainer.sharedLock.unlock();
-            }
-          }
-          return null;
-        }
-      });
+        exportContainersInParallel(rootContainer.getStorage(), exportContainers, threadCount);
+      }
+      else
+      {
+        exportContainers(rootContainer.getStorage(), exportContainers);
+      }
     }
     catch (Exception e)
     {
@@ -162,10 +189,46 @@ class ExportJob
     float rate = 0;
     if (totalTime > 0)
     {
-      rate = 1000f*exportedCount / totalTime;
+      rate = 1000f*exportedCount.get() / totalTime;
     }
 
-    logger.info(NOTE_EXPORT_FINAL_STATUS, exportedCount, skippedCount, totalTime/1000, rate);
+    logger.info(NOTE_EXPORT_FINAL_STATUS, exportedCount.get(), skippedCount.get(), totalTime/1000, rate);
+  }
+
+  private int getThreadCount()
+  {
+    final int threadCount = exportConfig.getThreadCount();
+    return threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors();
+  }
+
+  /** Exports the containers with a single thread and a single cursor per container. */
+  private void exportContainers(Storage storage, final List<EntryContainer> exportContainers) throws Exception
+  {
+    storage.read(new ReadOperation<Void>()
+    {
+      @Override
+      public Void run(ReadableTransaction txn) throws Exception
+      {
+        for (EntryContainer exportContainer : exportContainers)
+        {
+          if (exportConfig.isCancelled())
+          {
+            break;
+          }
+
+          exportContainer.sharedLock.lock();
+          try
+          {
+            exportContainer(txn, exportContainer);
+          }
+          finally
+          {
+            exportContainer.sharedLock.unlock();
+          }
+        }
+        return null;
+      }
+    });
   }
 
   /**
@@ -191,63 +254,294 @@ class ExportJob
           break;
         }
 
-        ByteString key = cursor.getKey();
-        EntryID entryID = null;
-        try
+        Entry entry = decodeEntry(entryContainer, cursor.getKey(), cursor.getValue());
+        if (entry != null)
         {
-          entryID = new EntryID(key);
+          countExported(entry.toLDIF(exportConfig));
         }
-        catch (Exception e)
-        {
-          if (logger.isTraceEnabled())
-          {
-            logger.traceException(e);
+      }
+    }
+    finally
+    {
+      cursor.close();
+    }
+  }
 
-            logger.trace("Malformed id2entry ID %s.%n", StaticUtils.bytesToHex(key));
-          }
-          skippedCount++;
-          continue;
+  /**
+   * Decodes an id2entry record.
+   *
+   * @return the decoded entry, or {@code null} if the record does not hold an entry
+   */
+  private Entry decodeEntry(EntryContainer entryContainer, ByteString key, ByteString value)
+  {
+    EntryID entryID = null;
+    try
+    {
+      entryID = new EntryID(key);
+    }
+    catch (Exception e)
+    {
+      if (logger.isTraceEnabled())
+      {
+        logger.traceException(e);
+
+        logger.trace("Malformed id2entry ID %s.%n", StaticUtils.bytesToHex(key));
+      }
+      skippedCount.incrementAndGet();
+      return null;
+    }
+
+    if (entryID.longValue() == 0)
+    {
+      // This is the stored entry count.
+      return null;
+    }
+
+    try
+    {
+      return entryContainer.getID2Entry().decode(value,
+                   entryContainer.getRootContainer().getCompressedSchema());
+    }
+    catch (Exception e)
+    {
+      if (logger.isTraceEnabled())
+      {
+        logger.traceException(e);
+
+        logger.trace("Malformed id2entry record for ID %d:%n%s%n",
+                   entryID, StaticUtils.bytesToHex(value));
+      }
+      skippedCount.incrementAndGet();
+      return null;
+    }
+  }
+
+  private void countExported(boolean isExported)
+  {
+    if (isExported)
+    {
+      exportedCount.incrementAndGet();
+    }
+    else
+    {
+      skippedCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Exports the containers with several threads, writing either a single LDIF file or one LDIF file per thread when
+   * the LDIF is split.
+   */
+  private void exportContainersInParallel(Storage storage, List<EntryContainer> exportContainers, int threadCount)
+      throws Exception
+  {
+    final List<OutputStream> outputs = new ArrayList<>();
+    final ExecutorService formatters =
+        Executors.newFixedThreadPool(threadCount, newThreadFactory(null, FORMATTER_THREAD_NAME, true));
+    final ExecutorService compressors = exportConfig.compressData()
+        ? Executors.newFixedThreadPool(threadCount, newThreadFactory(null, COMPRESSOR_THREAD_NAME, true))
+        : null;
+    try
+    {
+      if (exportConfig.splitLDIF())
+      {
+        for (int part = 1; part <= threadCount; part++)
+        {
+          outputs.add(exportConfig.getOutputStream(part));
         }
+      }
+      else
+      {
+        outputs.add(exportConfig.getOutputStream());
+      }
 
-        if (entryID.longValue() == 0)
+      for (EntryContainer exportContainer : exportContainers)
+      {
+        if (exportConfig.isCancelled())
         {
-          // This is the stored entry count.
-          continue;
+          break;
         }
 
-        ByteString value = cursor.getValue();
-        Entry entry = null;
+        exportContainer.sharedLock.lock();
         try
         {
-          entry = ID2Entry.entryFromDatabase(value,
-                       entryContainer.getRootContainer().getCompressedSchema());
+          exportContainerInParallel(storage, exportContainer, outputs, formatters, compressors, threadCount);
         }
-        catch (Exception e)
+        finally
         {
-          if (logger.isTraceEnabled())
-          {
-            logger.traceException(e);
-
-            logger.trace("Malformed id2entry record for ID %d:%n%s%n",
-                       entryID, StaticUtils.bytesToHex(value));
-          }
-          skippedCount++;
-          continue;
+          exportContainer.sharedLock.unlock();
         }
+      }
+    }
+    finally
+    {
+      formatters.shutdownNow();
+      if (compressors != null)
+      {
+        compressors.shutdownNow();
+      }
+      if (exportConfig.splitLDIF())
+      {
+        StaticUtils.close(outputs);
+      }
+    }
+  }
 
-        if (entry.toLDIF(exportConfig))
-        {
-          exportedCount++;
-        }
-        else
+  /**
+   * Export the entries of a single entry container by blocks of entry IDs. The blocks are formatted, then compressed
+   * if needed, concurrently but they are written in entry ID order. When the LDIF is split, each output receives a
+   * contiguous range of blocks.
+   */
+  private void exportContainerInParallel(Storage storage, final EntryContainer entryContainer,
+      List<OutputStream> outputs, ExecutorService formatters, ExecutorService compressors, int threadCount)
+      throws Exception
+  {
+    final long highestID = storage.read(new ReadOperation<Long>()
+    {
+      @Override
+      public Long run(ReadableTransaction txn) throws Exception
+      {
+        return entryContainer.getHighestEntryID(txn).longValue();
+      }
+    });
+    final long blockCount = (highestID + blockSize - 1) / blockSize;
+
+    // Bound the number of formatted blocks waiting to be written
+    final Queue<PendingBlock> pendingBlocks = new ArrayDeque<>();
+    for (long block = 0; block < blockCount && !exportConfig.isCancelled(); block++)
+    {
+      final long lowID = 1 + block * blockSize;
+      // The last block also covers entries added since the export has started
+      final EntryID highID = block + 1 < blockCount ? new EntryID(lowID + blockSize) : null;
+      Future<byte[]> formattedBlock =
+          formatters.submit(new FormatBlockTask(storage, entryContainer, new EntryID(lowID), highID));
+      if (compressors != null)
+      {
+        formattedBlock = compressors.submit(new CompressBlockTask(formattedBlock));
+      }
+      final OutputStream output = outputs.get((int) (block * outputs.size() / blockCount));
+      pendingBlocks.add(new PendingBlock(formattedBlock, output));
+
+      if (pendingBlocks.size() >= 2 * threadCount)
+      {
+        pendingBlocks.remove().write();
+      }
+    }
+    while (!pendingBlocks.isEmpty())
+    {
+      pendingBlocks.remove().write();
+    }
+  }
+
+  /** Reads, decodes and formats the entries of a block of entry IDs. */
+  private final class FormatBlockTask implements Callable<byte[]>
+  {
+    private final Storage storage;
+    private final EntryContainer entryContainer;
+    private final EntryID lowID;
+    /** The entry ID following the block, or {@code null} if the block is the last one. */
+    private final EntryID highID;
+
+    private FormatBlockTask(Storage storage, EntryContainer entryContainer, EntryID lowID, EntryID highID)
+    {
+      this.storage = storage;
+      this.entryContainer = entryContainer;
+      this.lowID = lowID;
+      this.highID = highID;
+    }
+
+    @Override
+    public byte[] call() throws Exception
+    {
+      final ByteArrayOutputStream formattedEntries = new ByteArrayOutputStream();
+      final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(formattedEntries));
+      storage.read(new ReadOperation<Void>()
+      {
+        @Override
+        public Void run(ReadableTransaction txn) throws Exception
         {
-          skippedCount++;
+          final ByteString highKey = highID != null ? highID.toByteString() : null;
+          final Cursor<ByteString, ByteString> cursor = txn.openCursor(entryContainer.getID2Entry().getName());
+          try
+          {
+            boolean found = cursor.positionToKeyOrNext(lowID.toByteString());
+            for (; found && !exportConfig.isCancelled(); found = cursor.next())
+            {
+              final ByteString key = cursor.getKey();
+              if (highKey != null && key.compareTo(highKey) >= 0)
+              {
+                break;
+              }
+
+              final Entry entry = decodeEntry(entryContainer, key, cursor.getValue());
+              if (entry != null)
+              {
+                countExported(entry.toLDIF(exportConfig, writer));
+              }
+            }
+          }
+          finally
+          {
+            cursor.close();
+          }
+          return null;
         }
+      });
+      writer.flush();
+      return formattedEntries.toByteArray();
+    }
+  }
+
+  /** Compresses a formatted block into a gzip member, as soon as it has been formatted. */
+  private static final class CompressBlockTask implements Callable<byte[]>
+  {
+    private final Future<byte[]> formattedBlock;
+
+    private CompressBlockTask(Future<byte[]> formattedBlock)
+    {
+      this.formattedBlock = formattedBlock;
+    }
+
+    @Override
+    public byte[] call() throws Exception
+    {
+      final byte[] uncompressed = getBlock(formattedBlock);
+      final ByteArrayOutputStream compressed = new ByteArrayOutputStream(uncompressed.length / 4 + 64);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(compressed))
+      {
+        gzip.write(uncompressed);
       }
+      return compressed.toByteArray();
     }
-    finally
+  }
+
+  /** A block being formatted, and the output to which it must be written. */
+  private static final class PendingBlock
+  {
+    private final Future<byte[]> block;
+    private final OutputStream output;
+
+    private PendingBlock(Future<byte[]> block, OutputStream output)
     {
-      cursor.close();
+      this.block = block;
+      this.output = output;
+    }
+
+    private void write() throws Exception
+    {
+      output.write(getBlock(block));
+    }
+  }
+
+  private static byte[] getBlock(Future<byte[]> block) throws Exception
+  {
+    try
+    {
+      return block.get();
+    }
+    catch (ExecutionException e)
+    {
+      throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
     }
   }
 
@@ -270,7 +564,7 @@ class ExportJob
     @Override
     public void run()
     {
-      long latestCount = exportedCount;
+      long latestCount = exportedCount.get();
       long deltaCount = latestCount - previousCount;
       long latestTime = System.currentTimeMillis();
       long deltaTime = latestTime - previousTime;
@@ -282,7 +576,7 @@ class ExportJob
 
       float rate = 1000f*deltaCount / deltaTime;
 
-      logger.info(NOTE_EXPORT_PROGRESS_REPORT, latestCount, skippedCount, rate);
+      logger.info(NOTE_EXPORT_PROGRESS_REPORT, latestCount, skippedCount.get(), rate);
 
       previousCount = latestCount;
       previousTime = latestTime;
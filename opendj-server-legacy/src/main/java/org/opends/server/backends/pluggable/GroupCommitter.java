@@ -0,0 +1,204 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.opends.messages.BackendMessages.*;
+import static org.opends.server.util.StaticUtils.*;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.opends.server.backends.pluggable.spi.Storage;
+import org.opends.server.backends.pluggable.spi.StorageRuntimeException;
+import org.opends.server.backends.pluggable.spi.WriteOperation;
+
+/**
+ * Shares the cost of making write operations durable between concurrent writers.
+ * <p>
+ * Each write operation is committed without waiting for its changes to be durable. The writer then waits until a
+ * storage sync started after its commit has completed. A waiting writer syncs the storage on behalf of all the
+ * writers committed before it while the other writers wait, so the writers committing during a sync are all made
+ * durable by the next one: under concurrent load, the number of syncs does not grow with the number of writers.
+ * <p>
+ * When the storage does not support group commit, write operations are executed directly.
+ */
+final class GroupCommitter
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  private final Storage storage;
+  private final ReentrantLock lock = new ReentrantLock();
+  /** Signaled when a sync ends. */
+  private final Condition syncEnded = lock.newCondition();
+  /** The number of write operations committed so far, guarded by lock. */
+  private long commitCount;
+  /** The number of committed write operations known to be durable, guarded by lock. */
+  private long syncedCount;
+  /** Whether a writer is currently syncing the storage, guarded by lock. */
+  private boolean syncing;
+  /** The number of syncs performed, guarded by lock. */
+  private long syncCount;
+
+  GroupCommitter(Storage storage)
+  {
+    this.storage = storage;
+  }
+
+  /**
+   * Executes a write operation and waits until its changes are durable.
+   *
+   * @param writeOperation
+   *          the write operation to execute
+   * @throws Exception
+   *           if a problem occurs while executing the write operation
+   * @throws StorageRuntimeException
+   *           if the write operation has been committed, but its changes could not be made durable
+   */
+  void write(WriteOperation writeOperation) throws Exception
+  {
+    if (!storage.supportsGroupCommit())
+    {
+      storage.write(writeOperation);
+      return;
+    }
+
+    storage.writeNoSync(writeOperation);
+    lock.lock();
+    try
+    {
+      awaitDurable(++commitCount);
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of write operations committed with group commit.
+   *
+   * @return the number of write operations committed with group commit
+   */
+  long getCommitCount()
+  {
+    lock.lock();
+    try
+    {
+      return commitCount;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of storage syncs performed on behalf of the write operations.
+   *
+   * @return the number of storage syncs performed on behalf of the write operations
+   */
+  long getSyncCount()
+  {
+    lock.lock();
+    try
+    {
+      return syncCount;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /** Must be called with the lock held. */
+  private void awaitDurable(long commitNumber)
+  {
+    boolean interrupted = false;
+    try
+    {
+      while (syncedCount < commitNumber)
+      {
+        if (!syncing)
+        {
+          // Sync the storage for every writer committed so far.
+          sync();
+        }
+        else
+        {
+          try
+          {
+            syncEnded.await();
+          }
+          catch (InterruptedException e)
+          {
+            // The changes are committed: they must be made durable before returning.
+            interrupted = true;
+          }
+        }
+      }
+    }
+    finally
+    {
+      if (interrupted)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Must be called with the lock held. The lock is released while the storage is synced. */
+  private void sync()
+  {
+    final long target = commitCount;
+    syncing = true;
+    boolean synced = false;
+    lock.unlock();
+    try
+    {
+      storage.sync();
+      synced = true;
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      throw new StorageRuntimeException(
+          ERR_GROUP_COMMIT_SYNC_FAILED.get(stackTraceToSingleLineString(e)).toString(), e);
+    }
+    finally
+    {
+      lock.lock();
+      syncing = false;
+      if (synced)
+      {
+        syncedCount = Math.max(syncedCount, target);
+        syncCount++;
+      }
+      // After a failure, another waiting writer tries to sync again.
+      syncEnded.signalAll();
+    }
+  }
+}
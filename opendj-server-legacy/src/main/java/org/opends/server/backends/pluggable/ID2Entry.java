@@ -33,10 +33,16 @@ import static org.opends.server.core.DirectoryServer.*;
 import static org.opends.server.backends.pluggable.CursorTransformer.transformKeysAndValues;
 
 import java.io.IOException;
-import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.zip.DataFormatException;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.InflaterOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.io.ASN1;
@@ -49,8 +55,11 @@ import org.forgerock.opendj.ldap.DecodeException;
 import org.forgerock.util.Function;
 import org.forgerock.util.Reject;
 import org.opends.server.api.CompressedSchema;
+import org.opends.server.backends.pluggable.DataConfig.CompressionCodec;
 import org.opends.server.backends.pluggable.spi.Cursor;
+import org.opends.server.backends.pluggable.spi.Importer;
 import org.opends.server.backends.pluggable.spi.ReadableTransaction;
+import org.opends.server.backends.pluggable.spi.SequentialCursor;
 import org.opends.server.backends.pluggable.spi.StorageRuntimeException;
 import org.opends.server.backends.pluggable.spi.TreeName;
 import org.opends.server.backends.pluggable.spi.WriteableTransaction;
@@ -85,9 +94,27 @@ class ID2Entry extends AbstractTree
     }
   };
 
+  /** Number of entries sampled to train a compression dictionary. */
+  private static final int DICTIONARY_TRAINING_SAMPLES = 1000;
+  /**
+   * Maximum number of compression dictionaries stored for this tree. Older dictionaries cannot be removed while
+   * records compressed with them remain, so no new dictionary is trained by rebuild-index once this limit is reached.
+   */
+  private static final int MAX_DICTIONARIES = 16;
+
   /** Parameters for compression and encryption. */
   private DataConfig dataConfig;
 
+  /** Stores the compression dictionaries. */
+  private final State state;
+  /** All the compression dictionaries of this tree, by identifier, which are needed to decode older records. */
+  private final ConcurrentMap<Integer, CompressionDictionary> dictionaries = new ConcurrentHashMap<>();
+  /** The dictionary used to compress new records, or null if none has been trained yet. */
+  private volatile CompressionDictionary currentDictionary;
+  /** The samples collected from imported entries, or null if no dictionary needs to be trained during an import. */
+  private List<byte[]> trainingSamples;
+  private final Object trainingLock = new Object();
+
   /** Cached encoding buffers. */
   private static final ThreadLocal<EntryCodec> ENTRY_CODEC_CACHE = new ThreadLocal<EntryCodec>()
   {
@@ -115,7 +142,10 @@ class ID2Entry extends AbstractTree
   {
     /** The ASN1 tag for the ByteString type. */
     private static final byte TAG_TREE_ENTRY = 0x60;
+    /** The ASN1 tag for the ByteString type compressed with a codec and a dictionary. */
+    private static final byte TAG_TREE_ENTRY_V2 = 0x61;
     private static final int BUFFER_INIT_SIZE = 512;
+    private static final int NO_DICTIONARY_ID = 0;
 
     private final ByteStringBuilder encodedBuffer = new ByteStringBuilder();
     private final ByteStringBuilder entryBuffer = new ByteStringBuilder();
@@ -123,6 +153,17 @@ class ID2Entry extends AbstractTree
     private final ASN1Writer writer;
     private final int maxBufferSize;
 
+    /** Lazily created compressors, reused for all the entries encoded by this codec. */
+    private Deflater deflater;
+    private Inflater inflater;
+    private int[] hashTable;
+    private final byte[] deflateBuffer = new byte[BUFFER_INIT_SIZE];
+    /** The compressed bytes being decoded. */
+    private byte[] input = new byte[0];
+    /** The dictionary currently copied at the start of the window, followed by the uncompressed entry. */
+    private byte[] window = new byte[0];
+    private CompressionDictionary windowDictionary;
+
     private EntryCodec()
     {
       this.maxBufferSize = getMaxInternalBufferSize();
@@ -135,10 +176,20 @@ class ID2Entry extends AbstractTree
       encodedBuffer.clearAndTruncate(maxBufferSize, BUFFER_INIT_SIZE);
       entryBuffer.clearAndTruncate(maxBufferSize, BUFFER_INIT_SIZE);
       compressedEntryBuffer.clearAndTruncate(maxBufferSize, BUFFER_INIT_SIZE);
+      if (input.length > maxBufferSize)
+      {
+        input = new byte[0];
+      }
+      if (window.length > maxBufferSize + CompressionDictionary.DEFAULT_SIZE)
+      {
+        window = new byte[0];
+        windowDictionary = null;
+      }
     }
 
-    private Entry decode(ByteString bytes, CompressedSchema compressedSchema)
-        throws DirectoryException, DecodeException, IOException
+    private Entry decode(ByteString bytes, CompressedSchema compressedSchema,
+        Map<Integer, CompressionDictionary> dictionaries, boolean lazily)
+        throws DirectoryException, DecodeException, IOException, DataFormatException
     {
       // Get the format version.
       byte formatVersion = bytes.byteAt(0);
@@ -149,6 +200,10 @@ class ID2Entry extends AbstractTree
 
       // Read the ASN1 sequence.
       ASN1Reader reader = ASN1.getReader(bytes.subSequence(1, bytes.length()));
+      if (reader.peekType() == TAG_TREE_ENTRY_V2)
+      {
+        return decodeV2(reader, compressedSchema, dictionaries, lazily);
+      }
       reader.readStartSequence();
 
       // See if it was compressed.
@@ -157,39 +212,127 @@ class ID2Entry extends AbstractTree
       {
         // It was compressed.
         reader.readOctetString(compressedEntryBuffer);
-
-        OutputStream decompressor = null;
-        try
-        {
-          // TODO: Should handle the case where uncompress fails
-          decompressor = new InflaterOutputStream(entryBuffer.asOutputStream());
-          compressedEntryBuffer.copyTo(decompressor);
-        }
-        finally {
-          closeSilently(decompressor);
-        }
+        inflate(null, uncompressedSize);
 
         // Since we are used the cached buffers (ByteStringBuilders),
         // the decoded attribute values will not refer back to the
         // original buffer.
-        return Entry.decode(entryBuffer.asReader(), compressedSchema);
+        return decodeEntryBuffer(compressedSchema, lazily);
       }
       else
       {
         // Since we don't have to do any decompression, we can just decode
         // the entry directly.
         ByteString encodedEntry = reader.readOctetString();
+        if (lazily)
+        {
+          return Entry.decodeLazily(encodedEntry, compressedSchema);
+        }
         return Entry.decode(encodedEntry.asReader(), compressedSchema);
       }
     }
 
-    private ByteString encode(Entry entry, DataConfig dataConfig) throws DirectoryException
+    private Entry decodeV2(ASN1Reader reader, CompressedSchema compressedSchema,
+        Map<Integer, CompressionDictionary> dictionaries, boolean lazily)
+        throws DirectoryException, DecodeException, IOException, DataFormatException
     {
-      encodeVolatile(entry, dataConfig);
+      reader.readStartSequence();
+      final int codecID = (int) reader.readInteger();
+      final int dictionaryID = (int) reader.readInteger();
+      final int uncompressedSize = (int) reader.readInteger();
+      reader.readOctetString(compressedEntryBuffer);
+
+      final CompressionCodec codec = CompressionCodec.forId(codecID);
+      if (codec == null)
+      {
+        throw DecodeException.error(ERR_UNKNOWN_ENTRY_COMPRESSION_CODEC.get(codecID));
+      }
+      CompressionDictionary dictionary = null;
+      if (dictionaryID != NO_DICTIONARY_ID)
+      {
+        dictionary = dictionaries.get(dictionaryID);
+        if (dictionary == null)
+        {
+          throw DecodeException.error(ERR_UNKNOWN_ENTRY_COMPRESSION_DICTIONARY.get(dictionaryID));
+        }
+      }
+
+      switch (codec)
+      {
+      case LZ:
+        final int compressedSize = compressedEntryBuffer.length();
+        final int dictionaryLength = prepareWindow(dictionary, uncompressedSize);
+        input = ensureCapacity(input, compressedSize);
+        compressedEntryBuffer.copyTo(input);
+        LZCodec.decompress(input, 0, compressedSize, window, dictionaryLength, uncompressedSize);
+        entryBuffer.appendBytes(window, dictionaryLength, uncompressedSize);
+        break;
+      default:
+        inflate(dictionary, uncompressedSize);
+        break;
+      }
+      return decodeEntryBuffer(compressedSchema, lazily);
+    }
+
+    private Entry decodeEntryBuffer(CompressedSchema compressedSchema, boolean lazily) throws DirectoryException
+    {
+      if (lazily)
+      {
+        // A lazily decoded entry keeps reading its encoded form, which must not be a cached buffer.
+        return Entry.decodeLazily(entryBuffer.toByteString(), compressedSchema);
+      }
+      return Entry.decode(entryBuffer.asReader(), compressedSchema);
+    }
+
+    /** Inflates the content of compressedEntryBuffer into entryBuffer. */
+    private void inflate(CompressionDictionary dictionary, int uncompressedSize) throws DataFormatException
+    {
+      final int compressedSize = compressedEntryBuffer.length();
+      input = ensureCapacity(input, compressedSize);
+      compressedEntryBuffer.copyTo(input);
+      prepareWindow(null, uncompressedSize);
+
+      if (inflater == null)
+      {
+        inflater = new Inflater();
+      }
+      else
+      {
+        inflater.reset();
+      }
+      inflater.setInput(input, 0, compressedSize);
+      int length = 0;
+      while (length < uncompressedSize)
+      {
+        final int inflated = inflater.inflate(window, length, uncompressedSize - length);
+        if (inflated == 0)
+        {
+          if (dictionary == null || !inflater.needsDictionary())
+          {
+            throw new DataFormatException("Truncated compressed entry");
+          }
+          inflater.setDictionary(dictionary.getBytes());
+        }
+        length += inflated;
+      }
+      entryBuffer.appendBytes(window, 0, uncompressedSize);
+    }
+
+    private ByteString encode(Entry entry, DataConfig dataConfig, CompressionDictionary dictionary)
+        throws DirectoryException
+    {
+      encodeVolatile(entry, dataConfig, dictionary);
       return encodedBuffer.toByteString();
     }
 
-    private void encodeVolatile(Entry entry, DataConfig dataConfig) throws DirectoryException
+    private byte[] encodeUncompressed(Entry entry, DataConfig dataConfig) throws DirectoryException
+    {
+      entry.encode(entryBuffer, dataConfig.getEntryEncodeConfig());
+      return entryBuffer.toByteArray();
+    }
+
+    private void encodeVolatile(Entry entry, DataConfig dataConfig, CompressionDictionary dictionary)
+        throws DirectoryException
     {
       // Encode the entry for later use.
       entry.encode(entryBuffer, dataConfig.getEntryEncodeConfig());
@@ -199,19 +342,26 @@ class ID2Entry extends AbstractTree
 
       try
       {
+        final CompressionCodec codec = dataConfig.getCompressionCodec();
+        if (dataConfig.isCompressed() && (codec != CompressionCodec.DEFLATE || dictionary != null))
+        {
+          // Records which cannot be read by older versions use a distinct tag.
+          writer.writeStartSequence(TAG_TREE_ENTRY_V2);
+          writer.writeInteger(codec.getId());
+          writer.writeInteger(dictionary != null ? dictionary.getId() : NO_DICTIONARY_ID);
+          writer.writeInteger(entryBuffer.length());
+          compress(codec, dictionary);
+          writer.writeOctetString(compressedEntryBuffer);
+          writer.writeEndSequence();
+          return;
+        }
+
         // Then start the ASN1 sequence.
         writer.writeStartSequence(TAG_TREE_ENTRY);
 
         if (dataConfig.isCompressed())
         {
-          OutputStream compressor = null;
-          try {
-            compressor = new DeflaterOutputStream(compressedEntryBuffer.asOutputStream());
-            entryBuffer.copyTo(compressor);
-          }
-          finally {
-            closeSilently(compressor);
-          }
+          compress(codec, null);
 
           // Compression needed and successful.
           writer.writeInteger(entryBuffer.length());
@@ -231,6 +381,82 @@ class ID2Entry extends AbstractTree
         logger.traceException(ioe);
       }
     }
+
+    /** Compresses the content of entryBuffer into compressedEntryBuffer. */
+    private void compress(CompressionCodec codec, CompressionDictionary dictionary)
+    {
+      final int length = entryBuffer.length();
+      switch (codec)
+      {
+      case LZ:
+        final int dictionaryLength = prepareWindow(dictionary, length);
+        entryBuffer.copyTo(window, dictionaryLength);
+        if (hashTable == null)
+        {
+          hashTable = LZCodec.newHashTable(new byte[0]);
+        }
+        if (dictionary != null)
+        {
+          dictionary.copyHashTableTo(hashTable);
+        }
+        else
+        {
+          Arrays.fill(hashTable, -1);
+        }
+        LZCodec.compress(window, dictionaryLength, length, hashTable, compressedEntryBuffer);
+        break;
+      default:
+        prepareWindow(null, length);
+        entryBuffer.copyTo(window);
+        if (deflater == null)
+        {
+          deflater = new Deflater();
+        }
+        else
+        {
+          deflater.reset();
+        }
+        if (dictionary != null)
+        {
+          deflater.setDictionary(dictionary.getBytes());
+        }
+        deflater.setInput(window, 0, length);
+        deflater.finish();
+        while (!deflater.finished())
+        {
+          compressedEntryBuffer.appendBytes(deflateBuffer, 0, deflater.deflate(deflateBuffer));
+        }
+        break;
+      }
+    }
+
+    /**
+     * Ensures the window starts with the provided dictionary and has room for length bytes after it. The dictionary is
+     * only copied when it differs from the one used by the previous entry.
+     */
+    private int prepareWindow(CompressionDictionary dictionary, int length)
+    {
+      final int dictionaryLength = dictionary != null ? dictionary.getBytes().length : 0;
+      if (window.length < dictionaryLength + length)
+      {
+        window = new byte[Math.max(dictionaryLength + length, 2 * window.length)];
+        windowDictionary = null;
+      }
+      if (dictionary != windowDictionary)
+      {
+        if (dictionary != null)
+        {
+          System.arraycopy(dictionary.getBytes(), 0, window, 0, dictionaryLength);
+        }
+        windowDictionary = dictionary;
+      }
+      return dictionaryLength;
+    }
+
+    private static byte[] ensureCapacity(byte[] bytes, int length)
+    {
+      return bytes.length >= length ? bytes : new byte[Math.max(length, 2 * bytes.length)];
+    }
   }
 
   /**
@@ -239,12 +465,15 @@ class ID2Entry extends AbstractTree
    * @param name The name of the entry tree.
    * @param dataConfig The desired compression and encryption options for data
    * stored in the entry tree.
+   * @param state The state tree storing the compression dictionaries. It must
+   * be opened before this tree.
    * @throws StorageRuntimeException If an error occurs in the storage.
    */
-  ID2Entry(TreeName name, DataConfig dataConfig) throws StorageRuntimeException
+  ID2Entry(TreeName name, DataConfig dataConfig, State state) throws StorageRuntimeException
   {
     super(name);
     this.dataConfig = dataConfig;
+    this.state = state;
   }
 
   @Override
@@ -256,6 +485,39 @@ class ID2Entry extends AbstractTree
     {
       cursor.next();
     }
+
+    for (Map.Entry<Integer, byte[]> dictionary : state.getCompressionDictionaries(txn, getName()).entrySet())
+    {
+      // Dictionaries are sorted by identifier: the last one is the most recent.
+      registerDictionary(new CompressionDictionary(dictionary.getKey(), dictionary.getValue()));
+    }
+    synchronized (trainingLock)
+    {
+      trainingSamples = currentDictionary == null ? new ArrayList<byte[]>() : null;
+    }
+  }
+
+  @Override
+  void beforeDelete(WriteableTransaction txn) throws StorageRuntimeException
+  {
+    // The dictionaries are deleted along with the state tree.
+    synchronized (trainingLock)
+    {
+      dictionaries.clear();
+      currentDictionary = null;
+      trainingSamples = new ArrayList<>();
+    }
+  }
+
+  private void registerDictionary(CompressionDictionary dictionary)
+  {
+    dictionaries.put(dictionary.getId(), dictionary);
+    currentDictionary = dictionary;
+  }
+
+  private int nextDictionaryID()
+  {
+    return dictionaries.isEmpty() ? 1 : Collections.max(dictionaries.keySet()) + 1;
   }
 
   /**
@@ -270,7 +532,15 @@ class ID2Entry extends AbstractTree
    *                                         the data bytes.
    * }
    *
-   * ID2EntryValue ::= ByteString
+   * CompressedByteString ::= [APPLICATION 1] IMPLICIT SEQUENCE {
+   *  codec                 INTEGER,      -- 1 for Deflate, 2 for LZ.
+   *  dictionaryID          INTEGER,      -- A zero value means no dictionary.
+   *  uncompressedSize      INTEGER,
+   *  dataBytes             OCTET STRING  -- Compressed encoding of the data
+   *                                         bytes.
+   * }
+   *
+   * ID2EntryValue ::= ByteString | CompressedByteString
    *  -- Where dataBytes contains an encoding of DirectoryServerEntry.
    *
    * DirectoryServerEntry ::= [APPLICATION 1] IMPLICIT SEQUENCE {
@@ -296,11 +566,18 @@ class ID2Entry extends AbstractTree
   static Entry entryFromDatabase(ByteString bytes,
       CompressedSchema compressedSchema) throws DirectoryException,
       DecodeException, LDAPException, DataFormatException, IOException
+  {
+    return entryFromDatabase(bytes, compressedSchema, Collections.<Integer, CompressionDictionary> emptyMap(), false);
+  }
+
+  private static Entry entryFromDatabase(ByteString bytes, CompressedSchema compressedSchema,
+      Map<Integer, CompressionDictionary> dictionaries, boolean lazily) throws DirectoryException, DecodeException,
+      DataFormatException, IOException
   {
     EntryCodec codec = acquireEntryCodec();
     try
     {
-      return codec.decode(bytes, compressedSchema);
+      return codec.decode(bytes, compressedSchema, dictionaries, lazily);
     }
     finally
     {
@@ -308,6 +585,27 @@ class ID2Entry extends AbstractTree
     }
   }
 
+  /**
+   * Decodes an entry from its tree representation, which may have been
+   * compressed with one of the dictionaries of this tree.
+   *
+   * @param bytes A byte array containing the encoded tree value.
+   * @param compressedSchema The compressed schema manager to use when decoding.
+   * @return The decoded entry.
+   * @throws DecodeException If the data is not in the expected ASN.1 encoding
+   * format.
+   * @throws DataFormatException If an error occurs while trying to decompress
+   * compressed data.
+   * @throws DirectoryException If a Directory Server error occurs.
+   * @throws IOException if an error occurs while reading the ASN1 sequence.
+   * @see #entryFromDatabase(ByteString, CompressedSchema)
+   */
+  Entry decode(ByteString bytes, CompressedSchema compressedSchema) throws DirectoryException, DecodeException,
+      DataFormatException, IOException
+  {
+    return entryFromDatabase(bytes, compressedSchema, dictionaries, false);
+  }
+
   /**
    * Encodes an entry to the raw tree format, with optional compression.
    *
@@ -319,11 +617,30 @@ class ID2Entry extends AbstractTree
    *                              the entry.
    */
   static ByteString entryToDatabase(Entry entry, DataConfig dataConfig) throws DirectoryException
+  {
+    return entryToDatabase(entry, dataConfig, null);
+  }
+
+  private static ByteString entryToDatabase(Entry entry, DataConfig dataConfig, CompressionDictionary dictionary)
+      throws DirectoryException
+  {
+    EntryCodec codec = acquireEntryCodec();
+    try
+    {
+      return codec.encode(entry, dataConfig, dictionary);
+    }
+    finally
+    {
+      codec.release();
+    }
+  }
+
+  private static byte[] entryToUncompressedBytes(Entry entry, DataConfig dataConfig) throws DirectoryException
   {
     EntryCodec codec = acquireEntryCodec();
     try
     {
-      return codec.encode(entry, dataConfig);
+      return codec.encodeUncompressed(entry, dataConfig);
     }
     finally
     {
@@ -332,7 +649,94 @@ class ID2Entry extends AbstractTree
   }
 
   ByteString encode(Entry entry) throws DirectoryException {
-    return entryToDatabase(entry, dataConfig);
+    final DataConfig config = dataConfig;
+    return entryToDatabase(entry, config, config.isCompressionDictionaryEnabled() ? currentDictionary : null);
+  }
+
+  /**
+   * Encodes an entry being imported. When a compression dictionary must be
+   * trained, the first imported entries are sampled and the dictionary trained
+   * from them is stored with the provided transaction. The entries imported
+   * before are not compressed with the dictionary.
+   *
+   * @param txn a non null transaction
+   * @param entry The entry to encode.
+   * @return A ByteString containing the encoded tree value.
+   * @throws DirectoryException If a problem occurs while attempting to encode
+   *                            the entry.
+   */
+  ByteString encodeForImport(WriteableTransaction txn, Entry entry) throws DirectoryException
+  {
+    if (dataConfig.isCompressionDictionaryEnabled() && currentDictionary == null)
+    {
+      final List<byte[]> samples;
+      synchronized (trainingLock)
+      {
+        if (trainingSamples == null)
+        {
+          return encode(entry);
+        }
+        trainingSamples.add(entryToUncompressedBytes(entry, dataConfig));
+        if (trainingSamples.size() < DICTIONARY_TRAINING_SAMPLES)
+        {
+          return encode(entry);
+        }
+        samples = trainingSamples;
+        trainingSamples = null;
+      }
+
+      final CompressionDictionary dictionary =
+          CompressionDictionary.train(nextDictionaryID(), samples, CompressionDictionary.DEFAULT_SIZE);
+      if (dictionary != null)
+      {
+        state.putCompressionDictionary(txn, getName(), dictionary.getId(), dictionary.getBytes());
+        registerDictionary(dictionary);
+      }
+    }
+    return encode(entry);
+  }
+
+  /**
+   * Trains a new compression dictionary from a sample of the entries of this
+   * tree, if dictionary compression is enabled. The new dictionary is used for
+   * the records written from now on, older records still being decoded with
+   * the dictionary they have been compressed with. No dictionary is trained
+   * once {@link #MAX_DICTIONARIES} are stored.
+   *
+   * @param importer The importer used to read the entries and store the
+   * dictionary.
+   * @param entryCount The number of entries in this tree.
+   * @throws Exception If an error occurs while reading the entries.
+   */
+  void trainDictionary(Importer importer, long entryCount) throws Exception
+  {
+    if (!dataConfig.isCompressionDictionaryEnabled() || dictionaries.size() >= MAX_DICTIONARIES)
+    {
+      return;
+    }
+
+    final CompressedSchema compressedSchema = dataConfig.getEntryEncodeConfig().getCompressedSchema();
+    final long samplingInterval = Math.max(1, entryCount / DICTIONARY_TRAINING_SAMPLES);
+    final List<byte[]> samples = new ArrayList<>();
+    try (final SequentialCursor<ByteString, ByteString> cursor = importer.openCursor(getName()))
+    {
+      for (long i = 0; cursor.next() && samples.size() < DICTIONARY_TRAINING_SAMPLES; i++)
+      {
+        if (i % samplingInterval == 0)
+        {
+          samples.add(entryToUncompressedBytes(decode(cursor.getValue(), compressedSchema), dataConfig));
+        }
+      }
+    }
+
+    final CompressionDictionary dictionary =
+        CompressionDictionary.train(nextDictionaryID(), samples, CompressionDictionary.DEFAULT_SIZE);
+    if (dictionary != null)
+    {
+      importer.put(state.getName(), State.keyForCompressionDictionary(getName(), dictionary.getId()),
+          ByteString.wrap(dictionary.getBytes()));
+      registerDictionary(dictionary);
+    }
   }
 
   /**
@@ -382,10 +786,29 @@ class ID2Entry extends AbstractTree
    */
   public Entry get(ReadableTransaction txn, EntryID entryID)
        throws DirectoryException, StorageRuntimeException
+  {
+    return get(txn, entryID, false);
+  }
+
+  /**
+   * Fetch a record from the entry tree, optionally deferring the decoding of
+   * the attribute values until they are accessed.
+   *
+   * @param txn a non null transaction
+   * @param entryID The desired entry ID which forms the key.
+   * @param lazily Whether the attribute values should only be decoded when
+   *               they are first accessed.
+   * @return The requested entry, or null if there is no such record.
+   * @throws DirectoryException If a problem occurs while getting the entry.
+   * @throws StorageRuntimeException If an error occurs in the storage.
+   * @see Entry#decodeLazily(ByteString, CompressedSchema)
+   */
+  Entry get(ReadableTransaction txn, EntryID entryID, boolean lazily)
+       throws DirectoryException, StorageRuntimeException
   {
     try
     {
-      return get0(txn.read(getName(), entryID.toByteString()));
+      return get0(txn.read(getName(), entryID.toByteString()), lazily);
     }
     catch (Exception e)
     {
@@ -393,6 +816,62 @@ class ID2Entry extends AbstractTree
     }
   }
 
+  /**
+   * Fetch several records from the entry tree with a single batched read.
+   *
+   * @param txn a non null transaction
+   * @param entryIDs The desired entry IDs which form the keys.
+   * @return The requested entries, in the order of the provided entry IDs, with null for the entry IDs having no
+   *         record.
+   * @throws DirectoryException If a problem occurs while getting one of the entries.
+   * @throws StorageRuntimeException If an error occurs in the storage.
+   */
+  public List<Entry> get(ReadableTransaction txn, List<EntryID> entryIDs)
+       throws DirectoryException, StorageRuntimeException
+  {
+    return get(txn, entryIDs, false);
+  }
+
+  /**
+   * Fetch several records from the entry tree with a single batched read,
+   * optionally deferring the decoding of the attribute values until they are
+   * accessed.
+   *
+   * @param txn a non null transaction
+   * @param entryIDs The desired entry IDs which form the keys.
+   * @param lazily Whether the attribute values should only be decoded when
+   *               they are first accessed.
+   * @return The requested entries, in the order of the provided entry IDs, with null for the entry IDs having no
+   *         record.
+   * @throws DirectoryException If a problem occurs while getting one of the entries.
+   * @throws StorageRuntimeException If an error occurs in the storage.
+   */
+  List<Entry> get(ReadableTransaction txn, List<EntryID> entryIDs, boolean lazily)
+       throws DirectoryException, StorageRuntimeException
+  {
+    final List<ByteString> keys = new ArrayList<>(entryIDs.size());
+    for (EntryID entryID : entryIDs)
+    {
+      keys.add(entryID.toByteString());
+    }
+    final List<ByteString> values = txn.readMany(getName(), keys);
+
+    final List<Entry> entries = new ArrayList<>(values.size());
+    for (int i = 0; i < values.size(); i++)
+    {
+      try
+      {
+        entries.add(get0(values.get(i), lazily));
+      }
+      catch (Exception e)
+      {
+        throw new DirectoryException(
+            DirectoryServer.getServerErrorResultCode(), ERR_ENTRY_DATABASE_CORRUPT.get(entryIDs.get(i)));
+      }
+    }
+    return entries;
+  }
+
   Cursor<EntryID, Entry> openCursor(ReadableTransaction txn)
   {
     return transformKeysAndValues(txn.openCursor(getName()), TO_ENTRY_ID, TO_ENTRY);
@@ -416,12 +895,18 @@ class ID2Entry extends AbstractTree
   }
 
   private Entry get0(ByteString value) throws Exception
+  {
+    return get0(value, false);
+  }
+
+  private Entry get0(ByteString value, boolean lazily) throws Exception
   {
     if (value == null)
     {
       return null;
     }
-    final Entry entry = entryFromDatabase(value, dataConfig.getEntryEncodeConfig().getCompressedSchema());
+    final Entry entry = entryFromDatabase(
+        value, dataConfig.getEntryEncodeConfig().getCompressedSchema(), dictionaries, lazily);
     entry.processVirtualAttributes();
     return entry;
   }
@@ -28,6 +28,7 @@ package org.opends.server.backends.pluggable;
 
 import org.forgerock.opendj.ldap.ByteSequence;
 import org.forgerock.opendj.ldap.ByteString;
+import org.opends.server.backends.pluggable.EntryIDSet.EntryIDSetCodec;
 import org.opends.server.backends.pluggable.spi.Cursor;
 import org.opends.server.backends.pluggable.spi.ReadableTransaction;
 import org.opends.server.backends.pluggable.spi.WriteableTransaction;
@@ -41,15 +42,54 @@ interface Index extends Tree
 {
   EntryIDSet get(ReadableTransaction txn, ByteSequence key);
 
+  /**
+   * Returns the number of entry IDs last observed for the provided key, without reading the index. The estimation is
+   * learned from the previous reads and updates of the key and is only meant to choose in which order keys are read.
+   *
+   * @param key
+   *          the index key
+   * @return the number of entry IDs last observed for the key, {@link IndexKeyStatistics#LIMIT_EXCEEDED} if the key
+   *         exceeded the index entry limit, or {@link IndexKeyStatistics#UNKNOWN} if nothing is known about it
+   */
+  long getEstimatedCardinality(ByteSequence key);
+
   int getIndexEntryLimit();
 
+  EntryIDSetCodec getCodec();
+
   boolean isTrusted();
 
+  /**
+   * Returns whether this index is being rebuilt while the backend is online.
+   *
+   * @return {@code true} if this index records are incomplete and must not be read
+   */
+  boolean isRebuilding();
+
   Cursor<ByteString, EntryIDSet> openCursor(ReadableTransaction txn);
 
   boolean setIndexEntryLimit(int indexEntryLimit);
 
   void setTrusted(WriteableTransaction txn, boolean trusted);
 
+  /**
+   * Starts rebuilding this index while the backend is online. The index is no longer trusted and its records are not
+   * read anymore, while updates add entry IDs to missing keys as if it was trusted. The rebuild ends when the index is
+   * trusted again. This must only be called while the index is empty and no update is in progress.
+   *
+   * @param txn
+   *          a non null transaction
+   */
+  void setRebuilding(WriteableTransaction txn);
+
+  /**
+   * Switches this index to the most recent encoding of its entry ID sets. This must only be called while the index is
+   * empty, for example just before it is rebuilt, since existing records are not converted.
+   *
+   * @param txn
+   *          a non null transaction
+   */
+  void upgradeEncoding(WriteableTransaction txn);
+
   void update(WriteableTransaction txn, ByteString key, EntryIDSet deletedIDs, EntryIDSet addedIDs);
 }
@@ -36,6 +36,7 @@ import java.util.TreeSet;
 
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.util.Reject;
+import org.opends.server.backends.pluggable.EntryIDSet.EntryIDSetCodec;
 import org.opends.server.backends.pluggable.spi.StorageRuntimeException;
 import org.opends.server.backends.pluggable.spi.WriteableTransaction;
 import org.opends.server.types.DirectoryException;
@@ -282,20 +283,32 @@ class IndexBuffer
   {
     private final WriteableTransaction txn;
     private final EntryID expectedEntryID;
-    private final ByteString encodedEntryID;
+    /** Indexes of a container usually share the same codec: remember the last encoded value. */
+    private EntryIDSetCodec lastCodec;
+    private ByteString encodedEntryID;
 
     ImportIndexBuffer(WriteableTransaction txn, EntryID expectedEntryID)
     {
       this.txn = txn;
       this.expectedEntryID = expectedEntryID;
-      this.encodedEntryID = CODEC_V2.encode(EntryIDSet.newDefinedSet(expectedEntryID.longValue()));
+    }
+
+    private ByteString encodeEntryID(Index index)
+    {
+      final EntryIDSetCodec codec = index.getCodec();
+      if (codec != lastCodec)
+      {
+        encodedEntryID = codec.encode(EntryIDSet.newDefinedSet(expectedEntryID.longValue()));
+        lastCodec = codec;
+      }
+      return encodedEntryID;
     }
 
     @Override
     public void put(Index index, ByteString key, EntryID entryID)
     {
       Reject.ifFalse(this.expectedEntryID.equals(entryID), "Unexpected entryID");
-      txn.put(index.getName(), key, encodedEntryID);
+      txn.put(index.getName(), key, encodeEntryID(index));
     }
 
     @Override
@@ -336,6 +349,8 @@ class IndexBuffer
   }
 
   private final IndexBufferImplementor impl;
+  /** The entries added and removed through this buffer, patched into the sorted results once committed. */
+  private final SortedResultCache.Changes sortedResultChanges = new SortedResultCache.Changes();
 
   static IndexBuffer newImportIndexBuffer(WriteableTransaction txn, EntryID entryID)
   {
@@ -400,8 +415,24 @@ class IndexBuffer
     impl.remove(index, key, entryID);
   }
 
+  void entryAdded(EntryID entryID, org.opends.server.types.Entry entry)
+  {
+    sortedResultChanges.entryAdded(entryID, entry);
+  }
+
+  void entryRemoved(EntryID entryID, org.opends.server.types.Entry entry)
+  {
+    sortedResultChanges.entryRemoved(entryID, entry);
+  }
+
+  SortedResultCache.Changes getSortedResultChanges()
+  {
+    return sortedResultChanges;
+  }
+
   void reset()
   {
     impl.reset();
+    sortedResultChanges.clear();
   }
 }
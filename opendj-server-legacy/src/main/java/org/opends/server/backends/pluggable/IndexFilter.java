@@ -30,7 +30,9 @@ import static org.opends.messages.BackendMessages.*;
 import static org.opends.server.backends.pluggable.EntryIDSet.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.opends.server.backends.pluggable.AttributeIndex.IndexFilterType;
@@ -43,9 +45,40 @@ import org.opends.server.types.SearchFilter;
 /**
  * An index filter is used to apply a search operation to a set of indexes
  * to generate a set of candidate entries.
+ * <p>
+ * The components of AND and OR filters are planned using the cardinality estimated for each of them from the index key
+ * statistics, without reading the indexes: AND components are evaluated from the most selective to the least selective
+ * and the components which cannot shrink the candidate set are skipped, while OR components known to exceed the index
+ * entry limit are evaluated first so that the evaluation stops as early as possible. When {@code debugsearchindex} is
+ * requested, the estimation is written before the actual result of each evaluated component.
  */
 class IndexFilter
 {
+  /** A filter component along with its estimated cardinality. */
+  private static final class PlannedFilter implements Comparable<PlannedFilter>
+  {
+    private final SearchFilter filter;
+    private final long estimate;
+
+    private PlannedFilter(SearchFilter filter, long estimate)
+    {
+      this.filter = filter;
+      this.estimate = estimate;
+    }
+
+    /** Known cardinalities first, then the unknown ones, then the ones which exceeded the index entry limit. */
+    private long cost()
+    {
+      return estimate == IndexKeyStatistics.UNKNOWN ? IndexKeyStatistics.LIMIT_EXCEEDED - 1 : estimate;
+    }
+
+    @Override
+    public int compareTo(PlannedFilter o)
+    {
+      return Long.compare(cost(), o.cost());
+    }
+  }
+
   /**
    * Stop processing the filter against the indexes when the
    * number of candidates is smaller than this value.
@@ -55,6 +88,9 @@ class IndexFilter
   /** Limit on the number of entry IDs that may be retrieved by cursoring through an index. */
   static final int CURSOR_ENTRY_LIMIT = 100000;
 
+  /** Value of {@link #estimate} before the search filter has been estimated. */
+  private static final long NOT_ESTIMATED = Long.MIN_VALUE;
+
   /** The entry container holding the attribute indexes. */
   private final EntryContainer entryContainer;
   private final ReadableTransaction txn;
@@ -71,6 +107,8 @@ class IndexFilter
    */
   private final StringBuilder buffer;
   private final BackendMonitor monitor;
+  /** The estimated number of candidate entries of the search filter, computed once. */
+  private long estimate = NOT_ESTIMATED;
 
   /**
    * Construct an index filter for a search operation.
@@ -101,7 +139,73 @@ class IndexFilter
   EntryIDSet evaluate()
   {
     appendToDebugBuffer("filter=");
-    return evaluateFilter(searchOp.getFilter());
+    return evaluateFilter(searchOp.getFilter(), buffer != null ? estimate() : IndexKeyStatistics.UNKNOWN);
+  }
+
+  /**
+   * Estimates the number of candidate entries of the search operation without reading the indexes.
+   *
+   * @return the estimated number of candidate entries, {@link IndexKeyStatistics#LIMIT_EXCEEDED} if the indexes are
+   *         not expected to return a defined set, or {@link IndexKeyStatistics#UNKNOWN} if no estimation is available
+   */
+  long estimate()
+  {
+    if (estimate == NOT_ESTIMATED)
+    {
+      estimate = estimateFilter(searchOp.getFilter());
+    }
+    return estimate;
+  }
+
+  /**
+   * Returns whether walking the search scope in the dn2id tree may be cheaper than evaluating the filter against the
+   * attribute indexes, in which case the number of entries in the search scope is worth reading. Filters expected to
+   * return few candidates, or for which no estimation is available, are always evaluated against the indexes.
+   *
+   * @return {@code true} if the number of entries in the search scope should be compared with the indexes cost
+   */
+  boolean mayScopeBeCheaperThanIndexes()
+  {
+    return estimate() > FILTER_CANDIDATE_THRESHOLD;
+  }
+
+  /**
+   * Returns whether walking the search scope in the dn2id tree is expected to be cheaper than evaluating the filter
+   * against the attribute indexes.
+   *
+   * @param scopeCardinality
+   *          the number of entries in the search scope, or a negative value if it is not known
+   * @return {@code true} if the candidate entries should be read from the dn2id tree
+   */
+  boolean isScopeCheaperThanIndexes(long scopeCardinality)
+  {
+    if (scopeCardinality < 0)
+    {
+      return false;
+    }
+    if (scopeCardinality <= FILTER_CANDIDATE_THRESHOLD)
+    {
+      // The indexes would not be evaluated past this point anyway.
+      return true;
+    }
+    final long estimate = estimate();
+    return estimate != IndexKeyStatistics.UNKNOWN && scopeCardinality <= estimate;
+  }
+
+  /**
+   * Records in the filter use statistics that the search filter has not been
+   * evaluated against the indexes because the search scope is read from the
+   * dn2id tree instead.
+   *
+   * @param scopeCardinality
+   *          the number of entries in the search scope
+   */
+  void scopeReadInstead(long scopeCardinality)
+  {
+    if (monitor.isFilterUseEnabled())
+    {
+      monitor.updateStats(searchOp.getFilter(), INFO_INDEX_FILTER_SCOPE_READ_INSTEAD.get(scopeCardinality));
+    }
   }
 
   /**
@@ -111,15 +215,87 @@ class IndexFilter
    * @return A set of entry IDs representing candidate entries.
    */
   private EntryIDSet evaluateFilter(SearchFilter filter)
+  {
+    return evaluateFilter(filter, buffer != null ? estimateFilter(filter) : IndexKeyStatistics.UNKNOWN);
+  }
+
+  private EntryIDSet evaluateFilter(SearchFilter filter, long estimate)
   {
     EntryIDSet candidates = evaluateFilter0(filter);
     if (buffer != null)
     {
+      appendEstimate(estimate);
       candidates.toString(buffer);
     }
     return candidates;
   }
 
+  /**
+   * Estimates the number of entry IDs returned by the evaluation of a search filter against the indexes.
+   *
+   * @param filter The search filter to be estimated.
+   * @return the estimated number of entry IDs, {@link IndexKeyStatistics#LIMIT_EXCEEDED} if the indexes are not
+   *         expected to return a defined set, or {@link IndexKeyStatistics#UNKNOWN} if no estimation is available
+   */
+  private long estimateFilter(SearchFilter filter)
+  {
+    long estimate;
+    switch (filter.getFilterType())
+    {
+    case AND:
+      estimate = IndexKeyStatistics.LIMIT_EXCEEDED;
+      for (SearchFilter component : filter.getFilterComponents())
+      {
+        estimate = IndexKeyStatistics.intersect(estimate, estimateFilter(component));
+      }
+      return estimate;
+
+    case OR:
+      estimate = 0;
+      for (SearchFilter component : filter.getFilterComponents())
+      {
+        estimate = IndexKeyStatistics.union(estimate, estimateFilter(component));
+      }
+      return estimate;
+
+    case EQUALITY:
+      return estimateFilter(IndexFilterType.EQUALITY, filter);
+
+    case SUBSTRING:
+      return estimateFilter(IndexFilterType.SUBSTRING, filter);
+
+    case PRESENT:
+      return estimateFilter(IndexFilterType.PRESENCE, filter);
+
+    case APPROXIMATE_MATCH:
+      return estimateFilter(IndexFilterType.APPROXIMATE, filter);
+
+    case GREATER_OR_EQUAL:
+    case LESS_OR_EQUAL:
+      // Ranges are read with a cursor for which no statistics are kept.
+      return IndexKeyStatistics.UNKNOWN;
+
+    case EXTENSIBLE_MATCH:
+      // See evaluateExtensibleFilter()
+      return filter.getDNAttributes() ? IndexKeyStatistics.LIMIT_EXCEEDED : IndexKeyStatistics.UNKNOWN;
+
+    case NOT:
+    default:
+      return IndexKeyStatistics.LIMIT_EXCEEDED;
+    }
+  }
+
+  private long estimateFilter(IndexFilterType indexFilterType, SearchFilter filter)
+  {
+    AttributeIndex attributeIndex = entryContainer.getAttributeIndex(filter.getAttributeType());
+    if (attributeIndex != null)
+    {
+      final IndexQueryFactoryImpl indexQueryFactory = new IndexQueryFactoryImpl(txn, attributeIndex);
+      return AttributeIndex.estimateFilter(indexQueryFactory, indexFilterType, filter);
+    }
+    return IndexKeyStatistics.LIMIT_EXCEEDED;
+  }
+
   private EntryIDSet evaluateFilter0(SearchFilter filter)
   {
     switch (filter.getFilterType())
@@ -215,11 +391,15 @@ class IndexFilter
       }
     }
 
+    // Order the fast components, then the other (non-range) components, by their estimated cardinality.
+    // The fast components come first when nothing is known about the cardinalities.
+    final List<PlannedFilter> plan = new ArrayList<>(fastComps.size() + otherComps.size());
+    addToPlan(plan, fastComps);
+    addToPlan(plan, otherComps);
+    Collections.sort(plan);
+
     EntryIDSet results = newUndefinedSet();
-    // First, process the fast components.
-    results = applyFiltersUntilThreshold(results, fastComps);
-    // Next, process the other (non-range) components.
-    results = applyFiltersUntilThreshold(results, otherComps);
+    results = applyFiltersUntilThreshold(results, plan);
 
     if ( isBelowFilterThreshold(results) || rangeComps.isEmpty() ) {
       return results;
@@ -266,20 +446,47 @@ class IndexFilter
     }
 
     // Finally, process the remaining slow range components.
-    return applyFiltersUntilThreshold(results, remainComps);
+    final List<PlannedFilter> remainPlan = new ArrayList<>(remainComps.size());
+    addToPlan(remainPlan, remainComps);
+    return applyFiltersUntilThreshold(results, remainPlan);
   }
 
-  private EntryIDSet applyFiltersUntilThreshold(EntryIDSet results, ArrayList<SearchFilter> filters)
+  private void addToPlan(List<PlannedFilter> plan, List<SearchFilter> filters)
   {
-    for(SearchFilter filter : filters) {
+    for (SearchFilter filter : filters)
+    {
+      plan.add(new PlannedFilter(filter, estimateFilter(filter)));
+    }
+  }
+
+  private EntryIDSet applyFiltersUntilThreshold(EntryIDSet results, List<PlannedFilter> plan)
+  {
+    for (PlannedFilter planned : plan) {
       if (isBelowFilterThreshold(results)) {
         return results;
       }
-      results.retainAll(evaluateFilter(filter));
+      if (planned.estimate == IndexKeyStatistics.LIMIT_EXCEEDED && !monitor.isFilterUseEnabled())
+      {
+        // The indexes are expected to return an undefined set which cannot shrink the candidates.
+        // Still evaluate it when the filter use statistics are enabled, they tell why the filter is not indexed.
+        skipFilter(planned);
+        continue;
+      }
+      results.retainAll(evaluateFilter(planned.filter, planned.estimate));
     }
     return results;
   }
 
+  private void skipFilter(PlannedFilter planned)
+  {
+    if (buffer != null)
+    {
+      planned.filter.toString(buffer);
+      appendEstimate(planned.estimate);
+      buffer.append("[SKIPPED]");
+    }
+  }
+
   static boolean isBelowFilterThreshold(EntryIDSet set)
   {
     return set.isDefined() && set.size() <= FILTER_CANDIDATE_THRESHOLD;
@@ -295,9 +502,24 @@ class IndexFilter
   {
     ArrayList<EntryIDSet> candidateSets = new ArrayList<>(orFilter.getFilterComponents().size());
 
+    // Evaluate first the components which are expected to make the whole union undefined.
+    final List<PlannedFilter> plan = new ArrayList<>(orFilter.getFilterComponents().size());
     for (SearchFilter filter : orFilter.getFilterComponents())
     {
-      EntryIDSet set = evaluateFilter(filter);
+      final long estimate = estimateFilter(filter);
+      if (estimate == IndexKeyStatistics.LIMIT_EXCEEDED)
+      {
+        plan.add(0, new PlannedFilter(filter, estimate));
+      }
+      else
+      {
+        plan.add(new PlannedFilter(filter, estimate));
+      }
+    }
+
+    for (PlannedFilter planned : plan)
+    {
+      EntryIDSet set = evaluateFilter(planned.filter, planned.estimate);
       if (!set.isDefined())
       {
         // There is no point continuing.
@@ -359,6 +581,11 @@ class IndexFilter
     return IndexQueryFactoryImpl.createNullIndexQuery().evaluate(null, null);
   }
 
+  private void appendEstimate(long estimate)
+  {
+    buffer.append("[ESTIMATE:").append(IndexKeyStatistics.toString(estimate)).append("]");
+  }
+
   private void appendToDebugBuffer(String content)
   {
     if (buffer != null)
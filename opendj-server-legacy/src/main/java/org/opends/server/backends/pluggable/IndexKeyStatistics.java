@@ -0,0 +1,183 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.backends.pluggable;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.forgerock.opendj.ldap.ByteSequence;
+
+/**
+ * Bounded, lossy record of the number of entry IDs last observed for the keys of an index. The statistics are learned
+ * from the index reads and updates and are used to evaluate the rarest keys of an intersection first, for example the
+ * n-grams of a substring assertion, so that the keys which exceeded the index entry limit or which hold many entry IDs
+ * may not need to be read at all.
+ * <p>
+ * Each slot packs the hash of a key in its 32 high order bits and the observed cardinality in its 32 low order bits.
+ * Keys sharing the same slot simply replace each other: the statistics are only hints and a missing or stale value
+ * never affects the correctness of the search results, which are always verified against the filter.
+ */
+final class IndexKeyStatistics
+{
+  /** Returned by {@link #getCardinality(ByteSequence)} when no statistic is known for a key. */
+  static final long UNKNOWN = -1;
+  /** Cardinality recorded for the keys which exceeded the index entry limit. */
+  static final long LIMIT_EXCEEDED = Integer.MAX_VALUE;
+
+  private static final int DEFAULT_SIZE = 4096;
+  private static final long EMPTY_SLOT = 0;
+
+  private final AtomicLongArray slots;
+  private final int mask;
+
+  IndexKeyStatistics()
+  {
+    this(DEFAULT_SIZE);
+  }
+
+  IndexKeyStatistics(int size)
+  {
+    final int capacity = size > 1 ? Integer.highestOneBit(size - 1) << 1 : 1;
+    this.slots = new AtomicLongArray(capacity);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Records the cardinality observed for the provided key.
+   *
+   * @param key
+   *          the index key
+   * @param idSet
+   *          the entry IDs currently associated with the key
+   */
+  void record(ByteSequence key, EntryIDSet idSet)
+  {
+    record(key, idSet.isDefined() ? Math.min(idSet.size(), LIMIT_EXCEEDED - 1) : LIMIT_EXCEEDED);
+  }
+
+  void record(ByteSequence key, long cardinality)
+  {
+    final int hash = hash(key);
+    // Store cardinality + 1 so that an empty slot can be told apart from an empty set.
+    slots.set(hash & mask, ((long) hash << 32) | (cardinality + 1));
+  }
+
+  /**
+   * Returns the last cardinality observed for the provided key.
+   *
+   * @param key
+   *          the index key
+   * @return the number of entry IDs last observed for the key, {@link #LIMIT_EXCEEDED} if the key exceeded the index
+   *         entry limit, or {@link #UNKNOWN} if nothing is known about it
+   */
+  long getCardinality(ByteSequence key)
+  {
+    final int hash = hash(key);
+    final long slot = slots.get(hash & mask);
+    if (slot == EMPTY_SLOT || (int) (slot >>> 32) != hash)
+    {
+      return UNKNOWN;
+    }
+    return (slot & 0xFFFFFFFFL) - 1;
+  }
+
+  /** Forgets all the statistics, for example because the index content is going to be rebuilt. */
+  void clear()
+  {
+    for (int i = 0; i < slots.length(); i++)
+    {
+      slots.set(i, EMPTY_SLOT);
+    }
+  }
+
+  /**
+   * Combines the estimated cardinalities of two sets which are going to be intersected. The result of
+   * {@link #LIMIT_EXCEEDED} sets is only known when all the sets exceeded the limit, otherwise it is bounded by the
+   * smallest known cardinality.
+   *
+   * @param cardinality1
+   *          the estimated cardinality of the first set
+   * @param cardinality2
+   *          the estimated cardinality of the second set
+   * @return the estimated cardinality of the intersection
+   */
+  static long intersect(long cardinality1, long cardinality2)
+  {
+    if (cardinality1 == UNKNOWN)
+    {
+      return cardinality2 == LIMIT_EXCEEDED ? UNKNOWN : cardinality2;
+    }
+    if (cardinality2 == UNKNOWN)
+    {
+      return cardinality1 == LIMIT_EXCEEDED ? UNKNOWN : cardinality1;
+    }
+    return Math.min(cardinality1, cardinality2);
+  }
+
+  /**
+   * Combines the estimated cardinalities of two sets which are going to be merged.
+   *
+   * @param cardinality1
+   *          the estimated cardinality of the first set
+   * @param cardinality2
+   *          the estimated cardinality of the second set
+   * @return the estimated cardinality of the union
+   */
+  static long union(long cardinality1, long cardinality2)
+  {
+    if (cardinality1 == LIMIT_EXCEEDED || cardinality2 == LIMIT_EXCEEDED)
+    {
+      return LIMIT_EXCEEDED;
+    }
+    if (cardinality1 == UNKNOWN || cardinality2 == UNKNOWN)
+    {
+      return UNKNOWN;
+    }
+    return Math.min(cardinality1 + cardinality2, LIMIT_EXCEEDED - 1);
+  }
+
+  /**
+   * Returns a string representation of an estimated cardinality, as written in the {@code debugsearchindex} output.
+   *
+   * @param cardinality
+   *          the estimated cardinality
+   * @return a string representation of the estimated cardinality
+   */
+  static String toString(long cardinality)
+  {
+    if (cardinality == UNKNOWN)
+    {
+      return "UNKNOWN";
+    }
+    return cardinality == LIMIT_EXCEEDED ? "LIMIT-EXCEEDED" : Long.toString(cardinality);
+  }
+
+  private static int hash(ByteSequence key)
+  {
+    // Spread the bits since n-gram keys tend to only differ in their last bytes.
+    int h = key.hashCode() * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -32,6 +32,8 @@ import static org.opends.server.backends.pluggable.IndexFilter.*;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import org.forgerock.i18n.LocalizableMessageBuilder;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
@@ -52,13 +54,25 @@ import org.opends.server.types.AttributeType;
  */
 final class IndexQueryFactoryImpl implements IndexQueryFactory<IndexQuery>
 {
+  /** Implemented by the IndexQuery objects able to estimate their result without reading the indexes. */
+  private interface CardinalityEstimator
+  {
+    /**
+     * Returns the estimated number of entry IDs returned by this query.
+     *
+     * @return the estimated number of entry IDs, {@link IndexKeyStatistics#LIMIT_EXCEEDED} if the query is expected
+     *         to return an undefined set, or {@link IndexKeyStatistics#UNKNOWN} if no estimation is available
+     */
+    long getEstimatedCardinality();
+  }
+
   /**
    * This class creates a Null IndexQuery. It is used when there is no
    * record in the index. It may also be used when the index contains
    * all the records but an empty EntryIDSet should be returned as part
    * of the optimization.
    */
-  private static final class NullIndexQuery implements IndexQuery
+  private static final class NullIndexQuery implements IndexQuery, CardinalityEstimator
   {
     @Override
     public EntryIDSet evaluate(LocalizableMessageBuilder debugMessage, StringBuilder indexNameOut)
@@ -66,6 +80,12 @@ final class IndexQueryFactoryImpl implements IndexQueryFactory<IndexQuery>
       return newUndefinedSet();
     }
 
+    @Override
+    public long getEstimatedCardinality()
+    {
+      return IndexKeyStatistics.LIMIT_EXCEEDED;
+    }
+
     @Override
     public String toString()
     {
@@ -73,8 +93,15 @@ final class IndexQueryFactoryImpl implements IndexQueryFactory<IndexQuery>
     }
   }
 
-  /** This class creates an intersection IndexQuery from a collection of IndexQuery objects. */
-  private static final class IntersectionIndexQuery implements IndexQuery
+  /**
+   * This class creates an intersection IndexQuery from a collection of IndexQuery objects.
+   * <p>
+   * The sub-queries are not evaluated in the order they were provided: the keys known to hold the fewest entry IDs are
+   * read first so that the evaluation can stop as soon as the candidate set is small enough, and the keys known to have
+   * exceeded the index entry limit are not read at all. This is typically the case of the n-grams of a substring
+   * assertion: common n-grams do not narrow down the candidates which are verified against the whole filter anyway.
+   */
+  private static final class IntersectionIndexQuery implements IndexQuery, CardinalityEstimator
   {
     /** Collection of IndexQuery objects. */
     private final Collection<IndexQuery> subIndexQueries;
@@ -94,7 +121,7 @@ final class IndexQueryFactoryImpl implements IndexQueryFactory<IndexQuery>
     public EntryIDSet evaluate(LocalizableMessageBuilder debugMessage, StringBuilder indexNameOut)
     {
       final EntryIDSet entryIDs = newUndefinedSet();
-      for (IndexQuery query : subIndexQueries)
+      for (IndexQuery query : rarestFirst(debugMessage))
       {
         entryIDs.retainAll(query.evaluate(debugMessage, indexNameOut));
         if (isBelowFilterThreshold(entryIDs))
@@ -105,6 +132,45 @@ final class IndexQueryFactoryImpl implements IndexQueryFactory<IndexQuery>
       return entryIDs;
     }
 
+    /**
+     * The intersection holds at most as many entry IDs as its most selective sub-query. When one of the sub-queries
+     * cannot be estimated, the intersection may still be small even if all the others exceeded the index entry limit.
+     */
+    @Override
+    public long getEstimatedCardinality()
+    {
+      long cardinality = IndexKeyStatistics.LIMIT_EXCEEDED;
+      for (IndexQuery query : subIndexQueries)
+      {
+        cardinality = IndexKeyStatistics.intersect(cardinality, estimateCardinality(query));
+      }
+      return cardinality;
+    }
+
+    private List<IndexQuery> rarestFirst(LocalizableMessageBuilder debugMessage)
+    {
+      final List<RankedIndexQuery> rankedQueries = new ArrayList<>(subIndexQueries.size());
+      for (IndexQuery query : subIndexQueries)
+      {
+        final long cardinality = estimateCardinality(query);
+        if (cardinality == IndexKeyStatistics.LIMIT_EXCEEDED && query instanceof ExactMatchIndexQuery)
+        {
+          ((ExactMatchIndexQuery) query).skip(debugMessage);
+          continue;
+        }
+        rankedQueries.add(new RankedIndexQuery(query, cardinality));
+      }
+      // Stable sort: queries without statistics keep their relative order.
+      Collections.sort(rankedQueries);
+
+      final List<IndexQuery> queries = new ArrayList<>(rankedQueries.size());
+      for (RankedIndexQuery rankedQuery : rankedQueries)
+      {
+        queries.add(rankedQuery.query);
+      }
+      return queries;
+    }
+
     @Override
     public String toString()
     {
@@ -112,8 +178,99 @@ final class IndexQueryFactoryImpl implements IndexQueryFactory<IndexQuery>
     }
   }
 
+  /** Associates an IndexQuery with the estimated number of entry IDs it will return. */
+  private static final class RankedIndexQuery implements Comparable<RankedIndexQuery>
+  {
+    private final IndexQuery query;
+    /** Queries without statistics are evaluated after the ones known to be selective. */
+    private final long cost;
+
+    private RankedIndexQuery(IndexQuery query, long cardinality)
+    {
+      this.query = query;
+      this.cost = cardinality == IndexKeyStatistics.UNKNOWN ? Long.MAX_VALUE : cardinality;
+    }
+
+    @Override
+    public int compareTo(RankedIndexQuery o)
+    {
+      return Long.compare(cost, o.cost);
+    }
+  }
+
+  /** This class creates an IndexQuery reading the entry IDs of a single key. */
+  private final class ExactMatchIndexQuery implements IndexQuery, CardinalityEstimator
+  {
+    private final String indexID;
+    private final ByteSequence key;
+
+    private ExactMatchIndexQuery(String indexID, ByteSequence key)
+    {
+      this.indexID = indexID;
+      this.key = key;
+    }
+
+    @Override
+    public EntryIDSet evaluate(LocalizableMessageBuilder debugMessage, StringBuilder indexNameOut)
+    {
+      // Read the tree and get Record for the key.
+      // Select the right index to be used.
+      final Index index = attributeIndex.getNameToIndexes().get(indexID);
+      if (index == null)
+      {
+        appendDisabledIndexType(debugMessage, indexID, attributeIndex.getAttributeType());
+        return createMatchAllQuery().evaluate(debugMessage, indexNameOut);
+      }
+
+      final EntryIDSet entrySet = index.get(txn, key);
+      updateStatsForUndefinedResults(debugMessage, entrySet, index);
+      return entrySet;
+    }
+
+    /**
+     * Returns the number of entry IDs last observed for the key of this query, without reading the index.
+     *
+     * @see Index#getEstimatedCardinality(ByteSequence)
+     */
+    @Override
+    public long getEstimatedCardinality()
+    {
+      final Index index = attributeIndex.getNameToIndexes().get(indexID);
+      if (index == null)
+      {
+        return estimateCardinality(createMatchAllQuery());
+      }
+      return index.getEstimatedCardinality(key);
+    }
+
+    /**
+     * Reports the key of this query as not evaluated because it is known to have exceeded the index entry limit.
+     *
+     * @param debugMessage
+     *          the debug message, may be null
+     */
+    private void skip(LocalizableMessageBuilder debugMessage)
+    {
+      final Index index = attributeIndex.getNameToIndexes().get(indexID);
+      if (index != null)
+      {
+        updateStatsForUndefinedResults(debugMessage, newUndefinedSet(), index);
+      }
+      else
+      {
+        appendDisabledIndexType(debugMessage, indexID, attributeIndex.getAttributeType());
+      }
+    }
+
+    @Override
+    public String toString()
+    {
+      return "ExactMatch(" + indexID + "=" + key + ")";
+    }
+  }
+
   /** This class creates a union of IndexQuery objects. */
-  private static final class UnionIndexQuery implements IndexQuery
+  private static final class UnionIndexQuery implements IndexQuery, CardinalityEstimator
   {
     /** Collection containing IndexQuery objects. */
     private final Collection<IndexQuery> subIndexQueries;
@@ -144,6 +301,17 @@ final class IndexQueryFactoryImpl implements IndexQueryFactory<IndexQuery>
       return entryIDs;
     }
 
+    @Override
+    public long getEstimatedCardinality()
+    {
+      long cardinality = 0;
+      for (IndexQuery query : subIndexQueries)
+      {
+        cardinality = IndexKeyStatistics.union(cardinality, estimateCardinality(query));
+      }
+      return cardinality;
+    }
+
     @Override
     public String toString()
     {
@@ -177,31 +345,7 @@ final class IndexQueryFactoryImpl implements IndexQueryFactory<IndexQuery>
   @Override
   public IndexQuery createExactMatchQuery(final String indexID, final ByteSequence key)
   {
-    return new IndexQuery()
-      {
-        @Override
-        public EntryIDSet evaluate(LocalizableMessageBuilder debugMessage, StringBuilder indexNameOut)
-        {
-          // Read the tree and get Record for the key.
-          // Select the right index to be used.
-          final Index index = attributeIndex.getNameToIndexes().get(indexID);
-          if (index == null)
-          {
-            appendDisabledIndexType(debugMessage, indexID, attributeIndex.getAttributeType());
-            return createMatchAllQuery().evaluate(debugMessage, indexNameOut);
-          }
-
-          final EntryIDSet entrySet = index.get(txn, key);
-          updateStatsForUndefinedResults(debugMessage, entrySet, index);
-          return entrySet;
-        }
-
-        @Override
-        public String toString()
-        {
-          return "ExactMatch(" + indexID + "=" + key + ")";
-        }
-      };
+    return new ExactMatchIndexQuery(indexID, key);
   }
 
   @Override
@@ -347,34 +491,48 @@ final class IndexQueryFactoryImpl implements IndexQueryFactory<IndexQuery>
   @Override
   public IndexQuery createMatchAllQuery()
   {
-    return new IndexQuery()
+    return new MatchAllIndexQuery();
+  }
+
+  /** This class creates an IndexQuery reading the entry IDs of the presence index. */
+  private final class MatchAllIndexQuery implements IndexQuery, CardinalityEstimator
+  {
+    @Override
+    public EntryIDSet evaluate(LocalizableMessageBuilder debugMessage, StringBuilder indexNameOut)
+    {
+      final String indexID = PRESENCE_INDEX_KEY;
+      final Index index = attributeIndex.getNameToIndexes().get(indexID);
+      if (index == null)
       {
-        @Override
-        public EntryIDSet evaluate(LocalizableMessageBuilder debugMessage, StringBuilder indexNameOut)
-        {
-          final String indexID = PRESENCE_INDEX_KEY;
-          final Index index = attributeIndex.getNameToIndexes().get(indexID);
-          if (index == null)
-          {
-            appendDisabledIndexType(debugMessage, indexID, attributeIndex.getAttributeType());
-            return newUndefinedSet();
-          }
+        appendDisabledIndexType(debugMessage, indexID, attributeIndex.getAttributeType());
+        return newUndefinedSet();
+      }
 
-          final EntryIDSet entrySet = index.get(txn, AttributeIndex.PRESENCE_KEY);
-          updateStatsForUndefinedResults(debugMessage, entrySet, index);
-          if (indexNameOut != null)
-          {
-            indexNameOut.append(IndexFilterType.PRESENCE);
-          }
-          return entrySet;
-        }
+      final EntryIDSet entrySet = index.get(txn, AttributeIndex.PRESENCE_KEY);
+      updateStatsForUndefinedResults(debugMessage, entrySet, index);
+      if (indexNameOut != null)
+      {
+        indexNameOut.append(IndexFilterType.PRESENCE);
+      }
+      return entrySet;
+    }
 
-        @Override
-        public String toString()
-        {
-          return "MatchAll(" + PRESENCE_INDEX_KEY + ")";
-        }
-      };
+    @Override
+    public long getEstimatedCardinality()
+    {
+      final Index index = attributeIndex.getNameToIndexes().get(PRESENCE_INDEX_KEY);
+      if (index == null)
+      {
+        return IndexKeyStatistics.LIMIT_EXCEEDED;
+      }
+      return index.getEstimatedCardinality(AttributeIndex.PRESENCE_KEY);
+    }
+
+    @Override
+    public String toString()
+    {
+      return "MatchAll(" + PRESENCE_INDEX_KEY + ")";
+    }
   }
 
   private static void appendDisabledIndexType(LocalizableMessageBuilder debugMessage, String indexID,
@@ -391,7 +549,11 @@ final class IndexQueryFactoryImpl implements IndexQueryFactory<IndexQuery>
   {
     if (debugMessage != null && !idSet.isDefined())
     {
-      if (!index.isTrusted())
+      if (index.isRebuilding())
+      {
+        debugMessage.append(INFO_INDEX_FILTER_INDEX_REBUILD_IN_PROGRESS.get(index.getName()));
+      }
+      else if (!index.isTrusted())
       {
         debugMessage.append(INFO_INDEX_FILTER_INDEX_NOT_TRUSTED.get(index.getName()));
       }
@@ -417,4 +579,21 @@ final class IndexQueryFactoryImpl implements IndexQueryFactory<IndexQuery>
   {
     return new NullIndexQuery();
   }
+
+  /**
+   * Estimates the number of entry IDs returned by the provided IndexQuery without reading the indexes.
+   *
+   * @param query
+   *          the query to estimate
+   * @return the estimated number of entry IDs, {@link IndexKeyStatistics#LIMIT_EXCEEDED} if the query is expected to
+   *         return an undefined set, or {@link IndexKeyStatistics#UNKNOWN} if no estimation is available
+   */
+  static long estimateCardinality(IndexQuery query)
+  {
+    if (query instanceof CardinalityEstimator)
+    {
+      return ((CardinalityEstimator) query).getEstimatedCardinality();
+    }
+    return IndexKeyStatistics.UNKNOWN;
+  }
 }
@@ -0,0 +1,275 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.backends.pluggable;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+
+/**
+ * A fast LZ77 codec used to compress the entries stored in id2entry.
+ * <p>
+ * The format is close to the LZ4 block format: the compressed data is a list of sequences, each of them made of a
+ * token, the literals and a back reference. The token holds the number of literals in its four upper bits and the match
+ * length minus {@value #MIN_MATCH} in its four lower bits, the value 15 meaning that the length continues in the
+ * following bytes, each byte being added to the length until a byte different from 255 is found. The back reference
+ * is an offset on two bytes (little endian), followed by the continuation bytes of the match length, if any. The last
+ * sequence only contains literals.
+ * <p>
+ * Back references may point into a preset dictionary, which is why both methods work on a window starting with the
+ * dictionary bytes and followed by the uncompressed data.
+ */
+final class LZCodec
+{
+  /** Minimum length of a match. */
+  private static final int MIN_MATCH = 4;
+  /** The trailing bytes of the data are always encoded as literals. */
+  private static final int LAST_LITERALS = 5;
+  /** Maximum distance of a back reference. */
+  private static final int MAX_OFFSET = 0xFFFF;
+  private static final int HASH_LOG = 12;
+  private static final int HASH_TABLE_SIZE = 1 << HASH_LOG;
+  private static final int LENGTH_MASK = 0x0F;
+
+  private LZCodec()
+  {
+    // Utility class.
+  }
+
+  /**
+   * Returns a new hash table for compressing data with the provided dictionary.
+   *
+   * @param dictionary
+   *          the preset dictionary, may be empty
+   * @return a new hash table, referencing the positions of the dictionary bytes
+   */
+  static int[] newHashTable(byte[] dictionary)
+  {
+    final int[] hashTable = new int[HASH_TABLE_SIZE];
+    Arrays.fill(hashTable, -1);
+    for (int pos = 0; pos + MIN_MATCH <= dictionary.length; pos++)
+    {
+      hashTable[hash(dictionary, pos)] = pos;
+    }
+    return hashTable;
+  }
+
+  /**
+   * Compresses data.
+   *
+   * @param window
+   *          the preset dictionary followed by the data to compress
+   * @param dictionaryLength
+   *          the length of the preset dictionary at the start of the window
+   * @param length
+   *          the length of the data to compress
+   * @param hashTable
+   *          a hash table returned by {@link #newHashTable(byte[])} for the same dictionary. It is modified by this
+   *          method.
+   * @param out
+   *          where to append the compressed data
+   */
+  static void compress(byte[] window, int dictionaryLength, int length, int[] hashTable, ByteStringBuilder out)
+  {
+    final int end = dictionaryLength + length;
+    final int matchLimit = end - LAST_LITERALS;
+    int anchor = dictionaryLength;
+    int pos = dictionaryLength;
+    while (pos + MIN_MATCH <= matchLimit)
+    {
+      final int h = hash(window, pos);
+      final int ref = hashTable[h];
+      hashTable[h] = pos;
+      if (ref >= 0 && pos - ref <= MAX_OFFSET && readInt(window, ref) == readInt(window, pos))
+      {
+        int matchLength = MIN_MATCH;
+        while (pos + matchLength < matchLimit && window[ref + matchLength] == window[pos + matchLength])
+        {
+          matchLength++;
+        }
+        writeSequence(out, window, anchor, pos - anchor, pos - ref, matchLength);
+        pos += matchLength;
+        anchor = pos;
+      }
+      else
+      {
+        pos++;
+      }
+    }
+
+    final int literalLength = end - anchor;
+    out.appendByte(Math.min(literalLength, LENGTH_MASK) << 4);
+    writeLength(out, literalLength);
+    out.appendBytes(window, anchor, literalLength);
+  }
+
+  /**
+   * Decompresses data.
+   *
+   * @param in
+   *          the buffer containing the compressed data
+   * @param offset
+   *          the position of the compressed data in the buffer
+   * @param length
+   *          the length of the compressed data
+   * @param window
+   *          the preset dictionary, followed by enough room for the uncompressed data
+   * @param dictionaryLength
+   *          the length of the preset dictionary at the start of the window
+   * @param uncompressedLength
+   *          the expected length of the uncompressed data
+   * @throws DataFormatException
+   *           if the compressed data is corrupted
+   */
+  static void decompress(byte[] in, int offset, int length, byte[] window, int dictionaryLength,
+      int uncompressedLength) throws DataFormatException
+  {
+    final int inEnd = offset + length;
+    final int outEnd = dictionaryLength + uncompressedLength;
+    int ip = offset;
+    int op = dictionaryLength;
+    for (;;)
+    {
+      if (ip >= inEnd)
+      {
+        throw new DataFormatException("Truncated compressed data");
+      }
+      final int token = in[ip++] & 0xFF;
+
+      int literalLength = token >>> 4;
+      if (literalLength == LENGTH_MASK)
+      {
+        int b;
+        do
+        {
+          if (ip >= inEnd)
+          {
+            throw new DataFormatException("Truncated literal length");
+          }
+          b = in[ip++] & 0xFF;
+          literalLength += b;
+        }
+        while (b == 0xFF);
+      }
+      if (literalLength > inEnd - ip || literalLength > outEnd - op)
+      {
+        throw new DataFormatException("Invalid literal length " + literalLength);
+      }
+      System.arraycopy(in, ip, window, op, literalLength);
+      ip += literalLength;
+      op += literalLength;
+      if (ip == inEnd)
+      {
+        break;
+      }
+
+      if (inEnd - ip < 2)
+      {
+        throw new DataFormatException("Truncated match offset");
+      }
+      final int matchOffset = (in[ip] & 0xFF) | (in[ip + 1] & 0xFF) << 8;
+      ip += 2;
+      int matchLength = token & LENGTH_MASK;
+      if (matchLength == LENGTH_MASK)
+      {
+        int b;
+        do
+        {
+          if (ip >= inEnd)
+          {
+            throw new DataFormatException("Truncated match length");
+          }
+          b = in[ip++] & 0xFF;
+          matchLength += b;
+        }
+        while (b == 0xFF);
+      }
+      matchLength += MIN_MATCH;
+
+      final int ref = op - matchOffset;
+      if (matchOffset == 0 || ref < 0 || matchLength > outEnd - op)
+      {
+        throw new DataFormatException("Invalid match at offset " + matchOffset + " of length " + matchLength);
+      }
+      if (matchOffset >= matchLength)
+      {
+        System.arraycopy(window, ref, window, op, matchLength);
+      }
+      else
+      {
+        // Overlapping match: the bytes being copied are produced by the copy itself.
+        for (int i = 0; i < matchLength; i++)
+        {
+          window[op + i] = window[ref + i];
+        }
+      }
+      op += matchLength;
+    }
+
+    if (op != outEnd)
+    {
+      throw new DataFormatException("Uncompressed length mismatch: expected " + uncompressedLength + " but got "
+          + (op - dictionaryLength));
+    }
+  }
+
+  private static void writeSequence(ByteStringBuilder out, byte[] window, int literalOffset, int literalLength,
+      int matchOffset, int matchLength)
+  {
+    final int matchCode = matchLength - MIN_MATCH;
+    out.appendByte(Math.min(literalLength, LENGTH_MASK) << 4 | Math.min(matchCode, LENGTH_MASK));
+    writeLength(out, literalLength);
+    out.appendBytes(window, literalOffset, literalLength);
+    out.appendByte(matchOffset & 0xFF);
+    out.appendByte(matchOffset >>> 8);
+    writeLength(out, matchCode);
+  }
+
+  private static void writeLength(ByteStringBuilder out, int length)
+  {
+    if (length >= LENGTH_MASK)
+    {
+      int remaining = length - LENGTH_MASK;
+      while (remaining >= 0xFF)
+      {
+        out.appendByte(0xFF);
+        remaining -= 0xFF;
+      }
+      out.appendByte(remaining);
+    }
+  }
+
+  private static int hash(byte[] bytes, int pos)
+  {
+    return (readInt(bytes, pos) * -1640531535) >>> (32 - HASH_LOG);
+  }
+
+  private static int readInt(byte[] bytes, int pos)
+  {
+    return (bytes[pos] & 0xFF) | (bytes[pos + 1] & 0xFF) << 8 | (bytes[pos + 2] & 0xFF) << 16 | bytes[pos + 3] << 24;
+  }
+}
@@ -55,14 +55,12 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
-import java.util.NavigableSet;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TimerTask;
 import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.UUID;
 import java.util.WeakHashMap;
 import java.util.concurrent.ArrayBlockingQueue;
@@ -110,6 +108,7 @@ import org.opends.server.backends.pluggable.spi.ReadOperation;
 import org.opends.server.backends.pluggable.spi.ReadableTransaction;
 import org.opends.server.backends.pluggable.spi.SequentialCursor;
 import org.opends.server.backends.pluggable.spi.StorageRuntimeException;
+import org.opends.server.backends.pluggable.spi.StorageUtils;
 import org.opends.server.backends.pluggable.spi.TreeName;
 import org.opends.server.backends.pluggable.spi.UpdateFunction;
 import org.opends.server.backends.pluggable.spi.WriteOperation;
@@ -270,6 +269,10 @@ final class OnDiskMergeImporter
         clearDegradedState(entryContainer, indexesToRebuild);
         logger.info(NOTE_REBUILD_CLEARDEGRADEDSTATE_FINAL_STATUS, rebuildConfig.getRebuildList());
       }
+      else if (rebuildConfig.isOnline())
+      {
+        rebuildIndexOnline(entryContainer, rebuildConfig, indexesToRebuild);
+      }
       else
       {
         rebuildIndex(entryContainer, rebuildConfig.getTmpDirectory(), indexesToRebuild, totalEntries);
@@ -288,6 +291,18 @@ final class OnDiskMergeImporter
       });
     }
 
+    private void rebuildIndexOnline(EntryContainer entryContainer, RebuildConfig rebuildConfig,
+        Set<String> indexesToRebuild) throws Exception
+    {
+      if (indexesToRebuild.isEmpty())
+      {
+        logger.info(NOTE_REBUILD_NOTHING_TO_REBUILD);
+        return;
+      }
+      // The storage remains open: the indexes are rebuilt while the backend keeps serving requests
+      new OnlineIndexRebuilder(rootContainer, entryContainer, indexesToRebuild, rebuildConfig).rebuild();
+    }
+
     private void rebuildIndex(EntryContainer entryContainer, String tmpDirectory, Set<String> indexesToRebuild,
         long totalEntries) throws Exception
     {
@@ -317,6 +332,7 @@ final class OnDiskMergeImporter
         importer = new OnDiskMergeImporter(PHASE2_REBUILDER_THREAD_NAME, strategy);
         importer.doImport(
             new ID2EntrySource(entryContainer, dbStorage, PHASE1_REBUILDER_THREAD_NAME, threadCount, totalEntries));
+        entryContainer.getID2Entry().trainDictionary(dbStorage, totalEntries);
       }
       finally
       {
@@ -742,7 +758,7 @@ final class OnDiskMergeImporter
               try
               {
                 entryProcessor.processEntry(entryContainer,
-                    new EntryID(key), ID2Entry.entryFromDatabase(value, schema));
+                    new EntryID(key), entryContainer.getID2Entry().decode(value, schema));
                 nbEntriesProcessed.incrementAndGet();
               }
               catch (Exception e)
@@ -1146,6 +1162,12 @@ final class OnDiskMergeImporter
       return importer.read(treeName, key);
     }
 
+    @Override
+    public List<ByteString> readMany(TreeName treeName, List<? extends ByteSequence> keys)
+    {
+      return StorageUtils.readEach(this, treeName, keys);
+    }
+
     @Override
     public Cursor<ByteString, ByteString> openCursor(TreeName treeName)
     {
@@ -1180,6 +1202,7 @@ final class OnDiskMergeImporter
     {
       visitIndexes(entryContainer, visitOnlyIndexes(indexesToRebuild, setTrust(false, importer)));
       visitIndexes(entryContainer, visitOnlyIndexes(indexesToRebuild, deleteDatabase(importer)));
+      visitIndexes(entryContainer, visitOnlyIndexes(indexesToRebuild, upgradeEncoding(importer)));
     }
 
     @Override
@@ -1311,6 +1334,12 @@ final class OnDiskMergeImporter
       throw new UnsupportedOperationException();
     }
 
+    @Override
+    public List<ByteString> readMany(TreeName treeName, List<? extends ByteSequence> keys)
+    {
+      throw new UnsupportedOperationException();
+    }
+
     @Override
     public boolean update(TreeName treeName, ByteSequence key, UpdateFunction f)
     {
@@ -1872,7 +1901,10 @@ final class OnDiskMergeImporter
         // Nothing to do
       }
 
-      /** Cursor through the specific memory-mapped file's region. */
+      /**
+       * Cursor through the specific memory-mapped file's region. Keys are compared in place by
+       * {@link #compareKeyTo(FileRegionChunkCursor)}, a record is only copied out of the region when it is read.
+       */
       private final class FileRegionChunkCursor implements MeteredCursor<ByteString, ByteString>
       {
         private final ByteBuffer region;
@@ -1884,6 +1916,10 @@ final class OnDiskMergeImporter
             return region.get() & 0xFF;
           }
         };
+        /** Position of the current record's key in the region, -1 if this cursor is not defined. */
+        private int keyOffset = -1;
+        private int keyLength;
+        private int valueLength;
         private ByteString key, value;
 
         FileRegionChunkCursor(MappedByteBuffer data)
@@ -1894,14 +1930,13 @@ final class OnDiskMergeImporter
         @Override
         public boolean next()
         {
+          key = value = null;
           if (!region.hasRemaining())
           {
-            key = value = null;
+            keyOffset = -1;
             return false;
           }
 
-          final int keyLength;
-          final int valueLength;
           try
           {
             keyLength = (int) PackedLong.readCompactUnsignedLong(asInputStream);
@@ -1911,27 +1946,55 @@ final class OnDiskMergeImporter
           {
             throw new StorageRuntimeException(e);
           }
-          final int recordSize = keyLength + valueLength;
+          keyOffset = region.position();
+          region.position(keyOffset + keyLength + valueLength);
+          return true;
+        }
+
+        /**
+         * Compares the current key of this cursor with the one of the other cursor directly in their memory-mapped
+         * regions, using the same unsigned lexicographic order as {@link ByteString#compareTo(ByteSequence)}.
+         */
+        int compareKeyTo(FileRegionChunkCursor other)
+        {
+          final int length = Math.min(keyLength, other.keyLength);
+          for (int i = 0; i < length; i++)
+          {
+            final int cmp = (region.get(keyOffset + i) & 0xFF) - (other.region.get(other.keyOffset + i) & 0xFF);
+            if (cmp != 0)
+            {
+              return cmp;
+            }
+          }
+          return keyLength - other.keyLength;
+        }
 
-          final byte[] keyValueData = new byte[recordSize];
-          region.get(keyValueData, 0, recordSize);
+        private void copyRecord()
+        {
+          final byte[] keyValueData = new byte[keyLength + valueLength];
+          final int position = region.position();
+          region.position(keyOffset);
+          region.get(keyValueData);
+          region.position(position);
 
           key = ByteString.wrap(keyValueData, 0, keyLength);
           value = ByteString.wrap(keyValueData, keyLength, valueLength);
-
-          return true;
         }
 
         @Override
         public boolean isDefined()
         {
-          return key != null;
+          return keyOffset >= 0;
         }
 
         @Override
         public ByteString getKey() throws NoSuchElementException
         {
           throwIfUndefined(this);
+          if (key == null)
+          {
+            copyRecord();
+          }
           return key;
         }
 
@@ -1939,6 +2002,10 @@ final class OnDiskMergeImporter
         public ByteString getValue() throws NoSuchElementException
         {
           throwIfUndefined(this);
+          if (value == null)
+          {
+            copyRecord();
+          }
           return value;
         }
 
@@ -1951,6 +2018,7 @@ final class OnDiskMergeImporter
         @Override
         public void close()
         {
+          keyOffset = -1;
           key = value = null;
         }
 
@@ -2071,11 +2139,20 @@ final class OnDiskMergeImporter
       }
     }
 
-    /** Provides a globally sorted cursor from multiple sorted cursors. */
+    /**
+     * Provides a globally sorted cursor from multiple sorted cursors. Cursors are merged through a loser tree, which
+     * needs a single comparison per level of the tree to find the next lowest key and does not allocate anything while
+     * cursoring. Records having the same key are returned in the order of the cursors providing them.
+     */
     static final class CompositeCursor<K extends Comparable<? super K>, V> implements MeteredCursor<K, V>
     {
-      /** Contains the non empty and sorted cursors ordered in regards of their current key. */
-      private final NavigableSet<MeteredCursor<K, V>> orderedCursors;
+      /** The merged cursors, an exhausted cursor is replaced by {@code null}. */
+      private final List<MeteredCursor<K, V>> cursors;
+      /**
+       * The loser tree: the cursor holding the lowest key is at index 0, each other node contains the cursor which
+       * lost the comparison at this node. The leaf of cursor {@code i} is the virtual node {@code cursors.size() + i}.
+       */
+      private final int[] tree;
       private final String metricName;
       private final long totalBytes;
       private volatile long bytesRead;
@@ -2085,16 +2162,7 @@ final class OnDiskMergeImporter
       CompositeCursor(String metricName, Collection<MeteredCursor<K, V>> cursors)
       {
         this.metricName = metricName;
-        this.orderedCursors = new TreeSet<>(new Comparator<MeteredCursor<K, V>>()
-        {
-          @Override
-          public int compare(MeteredCursor<K, V> o1, MeteredCursor<K, V> o2)
-          {
-            final int cmp = o1.getKey().compareTo(o2.getKey());
-            // Never return 0. Otherwise both cursors are considered equal and only one of them is kept by this set
-            return cmp == 0 ? Integer.compare(System.identityHashCode(o1), System.identityHashCode(o2)) : cmp;
-          }
-        });
+        this.cursors = new ArrayList<>(cursors.size());
 
         long totalBytesSum = 0;
         for (MeteredCursor<K, V> cursor : cursors)
@@ -2102,11 +2170,9 @@ final class OnDiskMergeImporter
           long previousBytesRead = cursor.getNbBytesRead();
           if (cursor.isDefined() || cursor.next())
           {
-            if (orderedCursors.add(cursor))
-            {
-              bytesRead += (cursor.getNbBytesRead() - previousBytesRead);
-              totalBytesSum += cursor.getNbBytesTotal();
-            }
+            this.cursors.add(cursor);
+            bytesRead += (cursor.getNbBytesRead() - previousBytesRead);
+            totalBytesSum += cursor.getNbBytesTotal();
           }
           else
           {
@@ -2114,16 +2180,83 @@ final class OnDiskMergeImporter
           }
         }
         this.totalBytes = totalBytesSum;
+        this.tree = new int[Math.max(1, this.cursors.size())];
+        buildTree();
+      }
+
+      private void buildTree()
+      {
+        final int nbCursors = cursors.size();
+        if (nbCursors == 0)
+        {
+          tree[0] = -1;
+          return;
+        }
+        final int[] winners = new int[2 * nbCursors];
+        for (int i = 0; i < nbCursors; i++)
+        {
+          winners[nbCursors + i] = i;
+        }
+        for (int node = nbCursors - 1; node > 0; node--)
+        {
+          final int left = winners[2 * node];
+          final int right = winners[2 * node + 1];
+          final boolean leftWins = isLower(left, right);
+          winners[node] = leftWins ? left : right;
+          tree[node] = leftWins ? right : left;
+        }
+        tree[0] = winners[nbCursors > 1 ? 1 : nbCursors];
+      }
+
+      /** Replays the matches of the provided cursor from its leaf up to the root once its key has changed. */
+      private void replay(int cursorIndex)
+      {
+        int winner = cursorIndex;
+        for (int node = (cursors.size() + cursorIndex) / 2; node > 0; node /= 2)
+        {
+          if (isLower(tree[node], winner))
+          {
+            final int loser = winner;
+            winner = tree[node];
+            tree[node] = loser;
+          }
+        }
+        tree[0] = winner;
+      }
+
+      /** Exhausted cursors are greater than all others, ties are broken by cursor index to keep the merge stable. */
+      private boolean isLower(int cursorIndex1, int cursorIndex2)
+      {
+        final MeteredCursor<K, V> cursor1 = cursors.get(cursorIndex1);
+        final MeteredCursor<K, V> cursor2 = cursors.get(cursorIndex2);
+        if (cursor1 == null || cursor2 == null)
+        {
+          return cursor2 == null && (cursor1 != null || cursorIndex1 < cursorIndex2);
+        }
+        final int cmp = compareKeys(cursor1, cursor2);
+        return cmp < 0 || (cmp == 0 && cursorIndex1 < cursorIndex2);
+      }
+
+      private int compareKeys(MeteredCursor<K, V> cursor1, MeteredCursor<K, V> cursor2)
+      {
+        if (cursor1 instanceof FileRegionChunk.FileRegionChunkCursor
+            && cursor2 instanceof FileRegionChunk.FileRegionChunkCursor)
+        {
+          return ((FileRegionChunk.FileRegionChunkCursor) cursor1)
+              .compareKeyTo((FileRegionChunk.FileRegionChunkCursor) cursor2);
+        }
+        return cursor1.getKey().compareTo(cursor2.getKey());
       }
 
       /**
        * Try to get the next record from the cursor containing the lowest entry. If it reaches the end of the lowest
-       * cursor, it calls the close method and begins reading from the next lowest cursor.
+       * cursor, it calls the close method and replays the tree without it.
        */
       @Override
       public boolean next()
       {
-        final MeteredCursor<K, V> lowestCursor = orderedCursors.pollFirst();
+        final int lowestIndex = tree[0];
+        final MeteredCursor<K, V> lowestCursor = lowestIndex >= 0 ? cursors.get(lowestIndex) : null;
         if (lowestCursor == null)
         {
           key = null;
@@ -2138,12 +2271,13 @@ final class OnDiskMergeImporter
         if (lowestCursor.next())
         {
           bytesRead += (lowestCursor.getNbBytesRead() - previousBytesRead);
-          orderedCursors.add(lowestCursor);
         }
         else
         {
           lowestCursor.close();
+          cursors.set(lowestIndex, null);
         }
+        replay(lowestIndex);
         return true;
       }
 
@@ -2176,7 +2310,11 @@ final class OnDiskMergeImporter
       @Override
       public void close()
       {
-        closeSilently(orderedCursors);
+        for (int i = 0; i < cursors.size(); i++)
+        {
+          closeSilently(cursors.get(i));
+          cursors.set(i, null);
+        }
       }
 
       @Override
@@ -2225,7 +2363,7 @@ final class OnDiskMergeImporter
     {
       try (final SequentialCursor<ByteString, ByteString> sourceCursor = trackCursorProgress(reporter, source.flip()))
       {
-        copyIntoChunk(sourceCursor, asChunk(treeName, destination));
+        destination.putAll(treeName, sourceCursor);
       }
       return null;
     }
@@ -2252,7 +2390,7 @@ final class OnDiskMergeImporter
     {
       try (final SequentialCursor<ByteString, ByteString> sourceCursor = trackCursorProgress(reporter, source.flip()))
       {
-        final long nbRecords = copyIntoChunk(sourceCursor, asChunk(vlvIndex.getName(), destination));
+        final long nbRecords = destination.putAll(vlvIndex.getName(), sourceCursor);
         vlvIndex.importCount(destination, nbRecords);
         return null;
       }
@@ -2284,7 +2422,7 @@ final class OnDiskMergeImporter
     private final ID2ChildrenCount id2count;
     private final Collector<?, ByteString> id2countCollector;
     private final Chunk dn2IdSourceChunk;
-    private final Chunk dn2IdDestination;
+    private final boolean dn2idAlreadyImported;
 
     DN2IDImporterTask(PhaseTwoProgressReporter progressReporter, Importer importer, File tempDir, BufferPool bufferPool,
         DN2ID dn2id, Chunk dn2IdChunk, ID2ChildrenCount id2count, Collector<?, ByteString> id2countCollector,
@@ -2298,7 +2436,7 @@ final class OnDiskMergeImporter
       this.dn2IdSourceChunk = dn2IdChunk;
       this.id2count = id2count;
       this.id2countCollector = id2countCollector;
-      this.dn2IdDestination = dn2idAlreadyImported ? nullChunk() : asChunk(dn2id.getName(), importer);
+      this.dn2idAlreadyImported = dn2idAlreadyImported;
     }
 
     @Override
@@ -2314,10 +2452,16 @@ final class OnDiskMergeImporter
           final SequentialCursor<ByteString, ByteString> dn2idCursor =
               dn2id.openCursor(trackCursorProgress(reporter, chunkCursor), visitor))
       {
-        while (dn2idCursor.next())
+        if (dn2idAlreadyImported)
+        {
+          while (dn2idCursor.next())
+          {
+            totalNumberOfEntries++;
+          }
+        }
+        else
         {
-          dn2IdDestination.put(dn2idCursor.getKey(), dn2idCursor.getValue());
-          totalNumberOfEntries++;
+          totalNumberOfEntries = importer.putAll(dn2id.getName(), dn2idCursor);
         }
       }
       id2count.importPutTotalCount(asImporter(id2CountChunk), Math.max(0, totalNumberOfEntries));
@@ -2446,6 +2590,12 @@ final class OnDiskMergeImporter
       }
     }
 
+    @Override
+    public long putAll(TreeName treeName, SequentialCursor<ByteString, ByteString> sortedRecords)
+    {
+      return copyIntoChunk(sortedRecords, chunk);
+    }
+
     @Override
     public void clearTree(TreeName treeName)
     {
@@ -3104,7 +3254,7 @@ final class OnDiskMergeImporter
       // key conflicts == sum values
       return ID2ChildrenCount.getSumLongCollectorInstance();
     }
-    else if (isDN2ID(treeName) || isDN2URI(treeName) || isVLVIndex(entryContainer, treeName))
+    else if (isDN2ID(treeName) || isDN2URI(treeName) || isState(treeName) || isVLVIndex(entryContainer, treeName))
     {
       // key conflicts == exception
       return UniqueValueCollector.getInstance();
@@ -3127,6 +3277,12 @@ final class OnDiskMergeImporter
     return SuffixContainer.ID2ENTRY_INDEX_NAME.equals(treeName.getIndexId());
   }
 
+  /** The state tree receives the compression dictionary trained while importing id2entry. */
+  private static boolean isState(TreeName treeName)
+  {
+    return SuffixContainer.STATE_INDEX_NAME.equals(treeName.getIndexId());
+  }
+
   private static boolean isID2ChildrenCount(TreeName treeName)
   {
     return SuffixContainer.ID2CHILDREN_COUNT_NAME.equals(treeName.getIndexId());
@@ -3529,6 +3685,43 @@ final class OnDiskMergeImporter
     }
   }
 
+  private static IndexVisitor upgradeEncoding(Importer importer)
+  {
+    return new EncodingUpgrader(asWriteableTransaction(importer));
+  }
+
+  /**
+   * Switch the visited indexes to the most recent {@link EntryIDSet} encoding. Existing records are not converted, so
+   * this must only be applied on indexes whose database has just been deleted.
+   */
+  private static final class EncodingUpgrader implements IndexVisitor
+  {
+    private final WriteableTransaction txn;
+
+    EncodingUpgrader(WriteableTransaction txn)
+    {
+      this.txn = txn;
+    }
+
+    @Override
+    public void visitAttributeIndex(Index index)
+    {
+      index.upgradeEncoding(txn);
+    }
+
+    @Override
+    public void visitVLVIndex(VLVIndex index)
+    {
+      // VLV indexes don't store entry ID sets
+    }
+
+    @Override
+    public void visitSystemIndex(Tree index)
+    {
+      // System indexes don't store entry ID sets
+    }
+  }
+
   private static IndexVisitor visitOnlyDegraded(IndexVisitor delegate)
   {
     return new DegradedIndexFilter(delegate);
@@ -3716,6 +3909,12 @@ final class OnDiskMergeImporter
       return importer.read(treeName, key);
     }
 
+    @Override
+    public List<ByteString> readMany(TreeName treeName, List<? extends ByteSequence> keys)
+    {
+      return StorageUtils.readEach(this, treeName, keys);
+    }
+
     @Override
     public void put(TreeName treeName, ByteSequence key, ByteSequence value)
     {
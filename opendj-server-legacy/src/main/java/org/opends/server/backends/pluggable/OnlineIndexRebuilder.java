@@ -0,0 +1,495 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.forgerock.util.Utils.*;
+import static org.opends.messages.BackendMessages.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.ldap.ByteString;
+import org.opends.server.api.CompressedSchema;
+import org.opends.server.backends.RebuildConfig;
+import org.opends.server.backends.pluggable.AttributeIndex.MatchingRuleIndex;
+import org.opends.server.backends.pluggable.spi.Cursor;
+import org.opends.server.backends.pluggable.spi.ReadOperation;
+import org.opends.server.backends.pluggable.spi.ReadableTransaction;
+import org.opends.server.backends.pluggable.spi.Storage;
+import org.opends.server.backends.pluggable.spi.WriteOperation;
+import org.opends.server.backends.pluggable.spi.WriteableTransaction;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.Entry;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.LockManager.DNLock;
+
+/**
+ * Rebuilds attribute indexes while the backend keeps serving requests.
+ * <p>
+ * The indexes are emptied and flagged as being rebuilt while no update is in progress. From then on, searches ignore
+ * them while updates maintain them as if they were trusted. The entries which existed at that time are then indexed
+ * in entry ID order by a few threads, each one indexing a range of entry IDs with small write transactions. Entries
+ * are read locked while they are indexed, so that their concurrent updates are applied either before or after their
+ * indexing. The indexes are trusted again, and used by searches, once all the entries have been indexed.
+ * <p>
+ * The rebuild can be throttled by limiting the number of threads and the number of entries indexed per second. Its
+ * progress is published by the {@link BackendMonitor}. Indexes whose rebuild failed or was interrupted remain flagged
+ * as being rebuilt, and must be rebuilt again.
+ */
+final class OnlineIndexRebuilder
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  private static final String REBUILDER_THREAD_NAME = "ONLINE-REBUILDER-%d";
+
+  /** Number of entries indexed by each write transaction. */
+  private static final int BATCH_SIZE = 100;
+
+  /** Interval between two progress reports in milliseconds. */
+  private static final long PROGRESS_INTERVAL = 10000;
+
+  /** Time in milliseconds to wait for an update to release an entry before trying to lock it again. */
+  private static final long LOCKED_ENTRY_RETRY_DELAY = 10;
+
+  private final RootContainer rootContainer;
+  private final EntryContainer entryContainer;
+  private final Storage storage;
+  private final CompressedSchema schema;
+  /** The indexes to rebuild, mapped to the number of keys written so far. */
+  private final Map<MatchingRuleIndex, AtomicLong> indexes = new LinkedHashMap<>();
+  private final int threadCount;
+  private final int maxEntriesPerSecond;
+  private final AtomicLong entriesProcessed = new AtomicLong();
+  private volatile long totalEntries;
+  private volatile long startTime;
+  private volatile boolean cancelled;
+  private long lastReportTime;
+  private long lastReportCount;
+
+  /**
+   * Creates a rebuilder for the provided attribute indexes of an entry container.
+   *
+   * @param rootContainer
+   *          the root container of the backend, which must be open
+   * @param entryContainer
+   *          the entry container whose indexes are rebuilt
+   * @param indexNames
+   *          the names of the indexes to rebuild
+   * @param rebuildConfig
+   *          the rebuild configuration providing the throttling settings
+   * @throws InitializationException
+   *           if one of the indexes is not an attribute index
+   */
+  OnlineIndexRebuilder(RootContainer rootContainer, EntryContainer entryContainer, Set<String> indexNames,
+      RebuildConfig rebuildConfig) throws InitializationException
+  {
+    this.rootContainer = rootContainer;
+    this.entryContainer = entryContainer;
+    this.storage = rootContainer.getStorage();
+    this.schema = rootContainer.getCompressedSchema();
+    this.threadCount = rebuildConfig.getThreadCount() > 0
+        ? rebuildConfig.getThreadCount()
+        : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    this.maxEntriesPerSecond = rebuildConfig.getMaxEntriesPerSecond();
+
+    final List<String> remainingNames = new ArrayList<>();
+    for (String indexName : indexNames)
+    {
+      remainingNames.add(indexName.toLowerCase());
+    }
+    for (AttributeIndex attributeIndex : entryContainer.getAttributeIndexes())
+    {
+      for (MatchingRuleIndex index : attributeIndex.getNameToIndexes().values())
+      {
+        if (remainingNames.remove(index.getName().getIndexId().toLowerCase()))
+        {
+          indexes.put(index, new AtomicLong());
+        }
+      }
+    }
+    if (!remainingNames.isEmpty())
+    {
+      throw new InitializationException(ERR_REBUILD_ONLINE_UNSUPPORTED_INDEX.get(remainingNames.get(0)));
+    }
+  }
+
+  /**
+   * Rebuilds the indexes and waits until they are trusted again.
+   *
+   * @throws Exception
+   *           if the rebuild failed, in which case the indexes remain degraded
+   */
+  void rebuild() throws Exception
+  {
+    final MonitoredRebuild monitored = new MonitoredRebuild();
+    rootContainer.getMonitorProvider().rebuildStarted(monitored);
+    try
+    {
+      final long highestEntryID = startRebuild();
+      startTime = lastReportTime = System.currentTimeMillis();
+      indexEntries(highestEntryID);
+      endRebuild();
+
+      final long totalTime = System.currentTimeMillis() - startTime;
+      final float rate = totalTime > 0 ? 1000f * entriesProcessed.get() / totalTime : 0;
+      logger.info(NOTE_REBUILD_FINAL_STATUS, entriesProcessed.get(), totalTime / 1000, rate);
+    }
+    finally
+    {
+      rootContainer.getMonitorProvider().rebuildEnded(monitored);
+    }
+  }
+
+  /** Empties the indexes and flags them as being rebuilt while no update is in progress. */
+  private long startRebuild() throws Exception
+  {
+    final AtomicLong highestEntryID = new AtomicLong();
+    entryContainer.exclusiveLock.lock();
+    try
+    {
+      storage.write(new WriteOperation()
+      {
+        @Override
+        public void run(WriteableTransaction txn) throws Exception
+        {
+          for (MatchingRuleIndex index : indexes.keySet())
+          {
+            entryContainer.deleteTree(txn, index);
+            index.open(txn, true);
+            index.upgradeEncoding(txn);
+            index.setRebuilding(txn);
+          }
+          highestEntryID.set(entryContainer.getHighestEntryID(txn).longValue());
+          totalEntries = entryContainer.getID2Entry().getRecordCount(txn);
+        }
+      });
+    }
+    finally
+    {
+      entryContainer.exclusiveLock.unlock();
+    }
+    return highestEntryID.get();
+  }
+
+  /** Indexes the entries up to the provided entry ID, splitting the entry IDs in one range per thread. */
+  private void indexEntries(long highestEntryID) throws Exception
+  {
+    final ExecutorService executor =
+        Executors.newFixedThreadPool(threadCount, newThreadFactory(null, REBUILDER_THREAD_NAME, true));
+    try
+    {
+      final long rangeSize = Math.max(1, (highestEntryID + threadCount - 1) / threadCount);
+      final List<Future<Void>> futures = new ArrayList<>(threadCount);
+      for (long from = 1; from <= highestEntryID; from += rangeSize)
+      {
+        final long first = from;
+        final long last = Math.min(highestEntryID, from + rangeSize - 1);
+        futures.add(executor.submit(new Callable<Void>()
+        {
+          @Override
+          public Void call() throws Exception
+          {
+            indexRange(first, last);
+            return null;
+          }
+        }));
+      }
+      waitForRanges(futures);
+    }
+    finally
+    {
+      executor.shutdownNow();
+      executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+  }
+
+  private void waitForRanges(List<Future<Void>> futures) throws Exception
+  {
+    try
+    {
+      for (Future<Void> future : futures)
+      {
+        future.get();
+      }
+    }
+    catch (Exception e)
+    {
+      cancelled = true;
+      throw e;
+    }
+  }
+
+  private void indexRange(long first, long last) throws Exception
+  {
+    long next = first;
+    while (next <= last && !cancelled)
+    {
+      final long from = next;
+      entryContainer.sharedLock.lock();
+      try
+      {
+        next = indexBatch(from, last);
+      }
+      finally
+      {
+        entryContainer.sharedLock.unlock();
+      }
+      if (next == from)
+      {
+        // The next entry is being updated: let the update complete before trying again.
+        Thread.sleep(LOCKED_ENTRY_RETRY_DELAY);
+      }
+      throttle();
+    }
+  }
+
+  /**
+   * Indexes the next entries of a range.
+   *
+   * @return the entry ID from which the range must be indexed next
+   */
+  private long indexBatch(final long from, final long last) throws Exception
+  {
+    // Read the next entries without locking them, in order to know which ones must be locked.
+    final List<EntryID> entryIDs = new ArrayList<>(BATCH_SIZE);
+    final List<ByteString> encodedEntries = new ArrayList<>(BATCH_SIZE);
+    storage.read(new ReadOperation<Void>()
+    {
+      @Override
+      public Void run(ReadableTransaction txn) throws Exception
+      {
+        try (Cursor<ByteString, ByteString> cursor = txn.openCursor(entryContainer.getID2Entry().getName()))
+        {
+          boolean found = cursor.positionToKeyOrNext(new EntryID(from).toByteString());
+          while (found && entryIDs.size() < BATCH_SIZE)
+          {
+            final EntryID entryID = new EntryID(cursor.getKey());
+            if (entryID.longValue() > last)
+            {
+              break;
+            }
+            entryIDs.add(entryID);
+            encodedEntries.add(cursor.getValue());
+            found = cursor.next();
+          }
+        }
+        return null;
+      }
+    });
+    if (entryIDs.isEmpty())
+    {
+      return last + 1;
+    }
+
+    final List<Entry> entries = new ArrayList<>(entryIDs.size());
+    final List<DNLock> locks = new ArrayList<>(entryIDs.size());
+    try
+    {
+      for (ByteString encodedEntry : encodedEntries)
+      {
+        final Entry entry = entryContainer.getID2Entry().decode(encodedEntry, schema);
+        final DNLock lock = DirectoryServer.getLockManager().tryReadLockEntry(entry.getName());
+        if (lock == null)
+        {
+          // Index the entries locked so far, the caller lets the lock owner proceed before trying again.
+          final int locked = entries.size();
+          return locked > 0
+              ? indexLockedEntries(entryIDs.subList(0, locked), encodedEntries.subList(0, locked), entries)
+              : from;
+        }
+        entries.add(entry);
+        locks.add(lock);
+      }
+      return indexLockedEntries(entryIDs, encodedEntries, entries);
+    }
+    finally
+    {
+      for (DNLock lock : locks)
+      {
+        lock.unlock();
+      }
+    }
+  }
+
+  private long indexLockedEntries(final List<EntryID> entryIDs, final List<ByteString> encodedEntries,
+      final List<Entry> entries) throws Exception
+  {
+    final AtomicLong next = new AtomicLong();
+    final WriteOperation writeOperation = new WriteOperation()
+    {
+      @Override
+      public void run(WriteableTransaction txn) throws Exception
+      {
+        final IndexBuffer buffer = new IndexBuffer();
+        final Map<MatchingRuleIndex, Long> keyCounts = new LinkedHashMap<>();
+        int indexed = 0;
+        for (; indexed < entryIDs.size(); indexed++)
+        {
+          final EntryID entryID = entryIDs.get(indexed);
+          final ByteString encodedEntry = txn.read(entryContainer.getID2Entry().getName(), entryID.toByteString());
+          if (encodedEntry == null)
+          {
+            // Deleted before it was locked.
+            continue;
+          }
+          if (!encodedEntry.equals(encodedEntries.get(indexed)))
+          {
+            // Updated before it was locked, possibly renamed: index it with the next batch.
+            break;
+          }
+          for (MatchingRuleIndex index : indexes.keySet())
+          {
+            final Set<ByteString> keys = index.indexEntry(entries.get(indexed));
+            for (ByteString key : keys)
+            {
+              buffer.put(index, key, entryID);
+            }
+            final Long count = keyCounts.get(index);
+            keyCounts.put(index, (count != null ? count : 0) + keys.size());
+          }
+        }
+        buffer.flush(txn);
+
+        for (Map.Entry<MatchingRuleIndex, Long> keyCount : keyCounts.entrySet())
+        {
+          indexes.get(keyCount.getKey()).addAndGet(keyCount.getValue());
+        }
+        entriesProcessed.addAndGet(indexed);
+        next.set(indexed < entryIDs.size()
+            ? entryIDs.get(indexed).longValue()
+            : entryIDs.get(indexed - 1).longValue() + 1);
+      }
+    };
+    // The rebuild is only made durable once complete: an interrupted rebuild must start again anyway.
+    if (storage.supportsGroupCommit())
+    {
+      storage.writeNoSync(writeOperation);
+    }
+    else
+    {
+      storage.write(writeOperation);
+    }
+    return next.get();
+  }
+
+  /** Sleeps as long as needed to stay below the maximum number of entries indexed per second. */
+  private void throttle() throws InterruptedException
+  {
+    reportProgress();
+    if (maxEntriesPerSecond > 0)
+    {
+      final long expectedTime = 1000 * entriesProcessed.get() / maxEntriesPerSecond;
+      final long sleepTime = expectedTime - (System.currentTimeMillis() - startTime);
+      if (sleepTime > 0)
+      {
+        Thread.sleep(sleepTime);
+      }
+    }
+  }
+
+  private synchronized void reportProgress()
+  {
+    final long now = System.currentTimeMillis();
+    if (now - lastReportTime >= PROGRESS_INTERVAL)
+    {
+      final long processed = entriesProcessed.get();
+      final float rate = 1000f * (processed - lastReportCount) / (now - lastReportTime);
+      logger.info(NOTE_REBUILD_PROGRESS_REPORT, getProgressPercent(processed), processed, totalEntries, rate);
+      lastReportTime = now;
+      lastReportCount = processed;
+    }
+  }
+
+  private float getProgressPercent(long processed)
+  {
+    final long total = totalEntries;
+    return total > 0 ? Math.min(100f, 100f * processed / total) : 100f;
+  }
+
+  /** Trusts the indexes again, which makes them available to searches. */
+  private void endRebuild() throws Exception
+  {
+    if (cancelled)
+    {
+      return;
+    }
+    if (storage.supportsGroupCommit())
+    {
+      storage.sync();
+    }
+    entryContainer.sharedLock.lock();
+    try
+    {
+      storage.write(new WriteOperation()
+      {
+        @Override
+        public void run(WriteableTransaction txn) throws Exception
+        {
+          for (MatchingRuleIndex index : indexes.keySet())
+          {
+            index.setTrusted(txn, true);
+          }
+        }
+      });
+    }
+    finally
+    {
+      entryContainer.sharedLock.unlock();
+    }
+  }
+
+  /** Exposes the progress of this rebuild to the {@link BackendMonitor}. */
+  final class MonitoredRebuild
+  {
+    /**
+     * Returns the progress of the rebuild of each index.
+     *
+     * @return one human readable progress report per index
+     */
+    Collection<String> getProgress()
+    {
+      final long processed = entriesProcessed.get();
+      final List<String> progress = new ArrayList<>(indexes.size());
+      for (Map.Entry<MatchingRuleIndex, AtomicLong> index : indexes.entrySet())
+      {
+        progress.add(String.format("%s %.1f%% entries:%d/%d keys:%d", index.getKey().getName(),
+            getProgressPercent(processed), processed, totalEntries, index.getValue().get()));
+      }
+      return progress;
+    }
+  }
+}
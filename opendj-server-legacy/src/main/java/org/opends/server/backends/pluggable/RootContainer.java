@@ -33,9 +33,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.forgerock.i18n.LocalizableMessage;
@@ -72,6 +75,8 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
 
   /** The tree storage. */
   private final Storage storage;
+  /** Shares the storage syncs between the concurrent entry updates. */
+  private final GroupCommitter groupCommitter;
 
   /** The ID of the backend to which this entry root container belongs. */
   private final String backendId;
@@ -89,6 +94,11 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
   /** The compressed schema manager for this backend. */
   private PersistentCompressedSchema compressedSchema;
 
+  /** The pool shared by the parallel searches of this backend, created on first use. */
+  private ForkJoinPool searchPool;
+  /** The configured number of parallel search threads, or null to let the server decide. */
+  private Integer searchThreads;
+
   /**
    * Creates a new RootContainer object representing a storage.
    *
@@ -102,10 +112,12 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
   {
     this.backendId = backendID;
     this.storage = storage;
+    this.groupCommitter = new GroupCommitter(storage);
     this.config = config;
 
     getMonitorProvider().enableFilterUseStats(config.isIndexFilterAnalyzerEnabled());
     getMonitorProvider().setMaxEntries(config.getIndexFilterAnalyzerMaxFilters());
+    searchThreads = config.getParallelSearchThreads();
 
     config.addPluggableChangeListener(this);
   }
@@ -120,6 +132,16 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
     return storage;
   }
 
+  /**
+   * Returns the group committer of the storage.
+   *
+   * @return the group committer of the storage
+   */
+  GroupCommitter getGroupCommitter()
+  {
+    return groupCommitter;
+  }
+
   /**
    * Opens the root container.
    *
@@ -337,6 +359,7 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
       }
     }
     config.removePluggableChangeListener(this);
+    shutdownSearchPool();
     if (storage != null)
     {
       storage.close();
@@ -455,10 +478,52 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
   {
     getMonitorProvider().enableFilterUseStats(configuration.isIndexFilterAnalyzerEnabled());
     getMonitorProvider().setMaxEntries(configuration.getIndexFilterAnalyzerMaxFilters());
+    synchronized (this)
+    {
+      if (!Objects.equals(searchThreads, configuration.getParallelSearchThreads()))
+      {
+        // Searches in progress keep using the previous pool until they complete.
+        searchThreads = configuration.getParallelSearchThreads();
+        shutdownSearchPool();
+      }
+    }
 
     return new ConfigChangeResult();
   }
 
+  /**
+   * Returns the pool used for processing the candidate entries of parallel searches.
+   *
+   * @return the pool used for processing the candidate entries of parallel searches
+   */
+  synchronized ForkJoinPool getSearchPool()
+  {
+    if (searchPool == null)
+    {
+      final int parallelism = searchThreads != null ? searchThreads : Runtime.getRuntime().availableProcessors();
+      searchPool = new ForkJoinPool(parallelism, new ForkJoinPool.ForkJoinWorkerThreadFactory()
+      {
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool)
+        {
+          final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+          thread.setName("Parallel search " + backendId + " " + thread.getPoolIndex());
+          return thread;
+        }
+      }, null, false);
+    }
+    return searchPool;
+  }
+
+  private synchronized void shutdownSearchPool()
+  {
+    if (searchPool != null)
+    {
+      searchPool.shutdown();
+      searchPool = null;
+    }
+  }
+
   /**
    * Checks the storage has enough resources for an operation.
    *
@@ -0,0 +1,301 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.opends.server.backends.pluggable.VLVIndex.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.opends.server.types.DN;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.Entry;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.types.SortOrder;
+
+/**
+ * Bounded cache of the sorted results computed for the server-side sort requests which cannot be served by a VLV
+ * index, so that paging through such results does not fetch and sort the whole candidate set for every page.
+ * <p>
+ * Results are keyed by search base, scope, filter and sort order and map the VLV keys of the matching entries to their
+ * entry IDs. They are patched after each committed update, from the entries added and removed through the
+ * {@link IndexBuffer} of the update, and evicted in least recently used order when the total number of cached entries
+ * exceeds the limit.
+ * <p>
+ * A result computed while an update is committed may miss this update. Such results are detected with a stamp
+ * incremented by each update: a result is only cached if no update was applied since its computation started.
+ */
+final class SortedResultCache
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** Maximum number of sorted results held by the cache. */
+  private static final int MAX_RESULTS = 16;
+  /** Updates changing more entries, like subtree deletes or renames, invalidate the whole cache instead. */
+  private static final int MAX_RECORDED_CHANGES = 1000;
+
+  /** The entries added and removed by an update, recorded until the update is committed. */
+  static final class Changes
+  {
+    private final List<EntryID> entryIDs = new ArrayList<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final List<Boolean> added = new ArrayList<>();
+    private boolean overflow;
+
+    void entryAdded(EntryID entryID, Entry entry)
+    {
+      record(entryID, entry, true);
+    }
+
+    void entryRemoved(EntryID entryID, Entry entry)
+    {
+      record(entryID, entry, false);
+    }
+
+    private void record(EntryID entryID, Entry entry, boolean isAdded)
+    {
+      if (entryIDs.size() >= MAX_RECORDED_CHANGES)
+      {
+        overflow = true;
+        return;
+      }
+      entryIDs.add(entryID);
+      entries.add(entry);
+      added.add(isAdded);
+    }
+
+    void clear()
+    {
+      entryIDs.clear();
+      entries.clear();
+      added.clear();
+      overflow = false;
+    }
+
+    private boolean isEmpty()
+    {
+      return entryIDs.isEmpty() && !overflow;
+    }
+  }
+
+  /** Identifies a sorted result. */
+  private static final class Key
+  {
+    private final DN baseDN;
+    private final SearchScope scope;
+    private final SearchFilter filter;
+    private final SortOrder sortOrder;
+
+    private Key(DN baseDN, SearchScope scope, SearchFilter filter, SortOrder sortOrder)
+    {
+      this.baseDN = baseDN;
+      this.scope = scope;
+      this.filter = filter;
+      this.sortOrder = sortOrder;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (this == obj)
+      {
+        return true;
+      }
+      if (!(obj instanceof Key))
+      {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return baseDN.equals(other.baseDN)
+          && scope.equals(other.scope)
+          && filter.equals(other.filter)
+          && sortOrder.equals(other.sortOrder);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(baseDN, scope, filter, sortOrder);
+    }
+
+    @Override
+    public String toString()
+    {
+      return baseDN + " " + scope + " " + filter + " " + sortOrder;
+    }
+  }
+
+  /** Guarded by this. Iteration order is the access order. */
+  private final Map<Key, NavigableMap<ByteString, EntryID>> results = new LinkedHashMap<>(MAX_RESULTS, 0.75f, true);
+  /** Guarded by this. */
+  private long stamp;
+
+  /**
+   * Returns the current stamp of this cache, to be provided to
+   * {@link #put(DN, SearchScope, SearchFilter, SortOrder, NavigableMap, long, int)} once the result is computed.
+   *
+   * @return the current stamp of this cache
+   */
+  synchronized long getStamp()
+  {
+    return stamp;
+  }
+
+  /**
+   * Returns the cached sorted result for the provided search.
+   *
+   * @param baseDN
+   *          the search base DN
+   * @param scope
+   *          the search scope
+   * @param filter
+   *          the search filter
+   * @param sortOrder
+   *          the requested sort order
+   * @return the VLV keys of the matching entries mapped to their entry IDs, or {@code null} if not cached. The
+   *         returned map must not be modified and may reflect the updates committed while it is being read.
+   */
+  synchronized NavigableMap<ByteString, EntryID> get(DN baseDN, SearchScope scope, SearchFilter filter,
+      SortOrder sortOrder)
+  {
+    return results.get(new Key(baseDN, scope, filter, sortOrder));
+  }
+
+  /**
+   * Caches a sorted result, unless an update was applied since the provided stamp was read or the result holds more
+   * entries than the limit.
+   *
+   * @param baseDN
+   *          the search base DN
+   * @param scope
+   *          the search scope
+   * @param filter
+   *          the search filter
+   * @param sortOrder
+   *          the requested sort order
+   * @param sortMap
+   *          the VLV keys of the matching entries mapped to their entry IDs, which must be safe for concurrent access
+   * @param computationStamp
+   *          the stamp read before the computation of the result started
+   * @param entryLimit
+   *          the maximum number of entries held by the whole cache
+   */
+  synchronized void put(DN baseDN, SearchScope scope, SearchFilter filter, SortOrder sortOrder,
+      NavigableMap<ByteString, EntryID> sortMap, long computationStamp, int entryLimit)
+  {
+    final int size = sortMap.size();
+    if (computationStamp != stamp || size > entryLimit)
+    {
+      return;
+    }
+    results.put(new Key(baseDN, scope, filter, sortOrder), sortMap);
+
+    long cachedEntries = 0;
+    for (NavigableMap<ByteString, EntryID> result : results.values())
+    {
+      cachedEntries += result.size();
+    }
+    final Iterator<NavigableMap<ByteString, EntryID>> it = results.values().iterator();
+    while (it.hasNext() && (cachedEntries > entryLimit || results.size() > MAX_RESULTS))
+    {
+      final NavigableMap<ByteString, EntryID> eldest = it.next();
+      if (eldest != sortMap)
+      {
+        cachedEntries -= eldest.size();
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * Patches the cached results with the changes of a committed update.
+   *
+   * @param changes
+   *          the entries added and removed by the update
+   */
+  synchronized void apply(Changes changes)
+  {
+    stamp++;
+    if (results.isEmpty() || changes.isEmpty())
+    {
+      return;
+    }
+    if (changes.overflow)
+    {
+      results.clear();
+      return;
+    }
+
+    final Iterator<Map.Entry<Key, NavigableMap<ByteString, EntryID>>> it = results.entrySet().iterator();
+    while (it.hasNext())
+    {
+      final Map.Entry<Key, NavigableMap<ByteString, EntryID>> result = it.next();
+      try
+      {
+        patch(result.getKey(), result.getValue(), changes);
+      }
+      catch (DirectoryException e)
+      {
+        logger.traceException(e);
+        it.remove();
+      }
+    }
+  }
+
+  private static void patch(Key key, NavigableMap<ByteString, EntryID> sortMap, Changes changes)
+      throws DirectoryException
+  {
+    for (int i = 0; i < changes.entryIDs.size(); i++)
+    {
+      final EntryID entryID = changes.entryIDs.get(i);
+      final Entry entry = changes.entries.get(i);
+      final ByteString vlvKey = encodeVLVKey(key.sortOrder, entry, entryID.longValue());
+      if (!changes.added.get(i))
+      {
+        sortMap.remove(vlvKey);
+      }
+      else if (entry.matchesBaseAndScope(key.baseDN, key.scope) && key.filter.matchesEntry(entry))
+      {
+        sortMap.put(vlvKey, entryID);
+      }
+    }
+  }
+
+  /** Removes all the cached results. */
+  synchronized void clear()
+  {
+    stamp++;
+    results.clear();
+  }
+}
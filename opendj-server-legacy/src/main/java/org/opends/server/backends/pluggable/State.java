@@ -33,9 +33,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.forgerock.opendj.ldap.ByteSequence;
 import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.opends.server.backends.pluggable.spi.Cursor;
 import org.opends.server.backends.pluggable.spi.ReadableTransaction;
 import org.opends.server.backends.pluggable.spi.StorageRuntimeException;
 import org.opends.server.backends.pluggable.spi.TreeName;
@@ -50,11 +54,11 @@ import org.opends.server.util.StaticUtils;
 class State extends AbstractTree
 {
   /**
-   * Use COMPACTED serialization for new indexes.
-   * @see {@link EntryIDSet.EntryIDSetCodecV2}
+   * Use COMPACTED and BITMAP serialization for new indexes.
+   * @see {@link EntryIDSet.EntryIDSetCodecV3}
    */
   private static final Collection<IndexFlag> DEFAULT_FLAGS = Collections.unmodifiableCollection(Arrays
-      .asList(IndexFlag.COMPACTED));
+      .asList(IndexFlag.COMPACTED, IndexFlag.BITMAP));
 
   /**
    * Bit-field containing possible flags that an index can have
@@ -65,7 +69,16 @@ class State extends AbstractTree
     TRUSTED(0x01),
 
     /** Use compact encoding for indexes' ID storage. */
-    COMPACTED(0x02);
+    COMPACTED(0x02),
+
+    /** Use compressed bitmap encoding for indexes' ID storage. Takes precedence over {@link #COMPACTED}. */
+    BITMAP(0x04),
+
+    /**
+     * The index is being rebuilt while the backend is online: its records are incomplete and must not be read until
+     * the index is trusted again.
+     */
+    REBUILDING(0x08);
 
     static final EnumSet<IndexFlag> ALL_FLAGS = EnumSet.allOf(IndexFlag.class);
 
@@ -86,11 +99,80 @@ class State extends AbstractTree
     super(name);
   }
 
+  /** Prefix of the keys of the compression dictionaries, which cannot be mistaken for a tree name. */
+  private static final String DICTIONARY_KEY_PREFIX = "dictionary:";
+
   private static ByteString keyForIndex(TreeName indexTreeName) throws StorageRuntimeException
   {
     return ByteString.wrap(StaticUtils.getBytes(indexTreeName.toString()));
   }
 
+  private static ByteStringBuilder keyPrefixForDictionaries(TreeName treeName)
+  {
+    return new ByteStringBuilder().appendUtf8(DICTIONARY_KEY_PREFIX).appendUtf8(treeName.toString());
+  }
+
+  /**
+   * Returns the key of a compression dictionary in the state tree.
+   *
+   * @param treeName The name of the tree compressed with the dictionary.
+   * @param dictionaryID The identifier of the dictionary.
+   * @return The key of the dictionary.
+   */
+  static ByteString keyForCompressionDictionary(TreeName treeName, int dictionaryID)
+  {
+    return keyPrefixForDictionaries(treeName).appendInt(dictionaryID).toByteString();
+  }
+
+  /**
+   * Stores a compression dictionary.
+   * @param txn a non null transaction
+   * @param treeName The name of the tree compressed with the dictionary.
+   * @param dictionaryID The identifier of the dictionary.
+   * @param dictionary The content of the dictionary.
+   * @throws NullPointerException if txn, treeName or dictionary is null
+   * @throws StorageRuntimeException If an error occurs in the storage.
+   */
+  void putCompressionDictionary(WriteableTransaction txn, TreeName treeName, int dictionaryID, byte[] dictionary)
+  {
+    checkNotNull(txn, "txn must not be null");
+    checkNotNull(treeName, "treeName must not be null");
+    checkNotNull(dictionary, "dictionary must not be null");
+
+    txn.put(getName(), keyForCompressionDictionary(treeName, dictionaryID), ByteString.wrap(dictionary));
+  }
+
+  /**
+   * Fetch all the compression dictionaries of a tree.
+   * @param txn a non null transaction
+   * @param treeName The name of the tree compressed with the dictionaries.
+   * @return The content of the dictionaries, sorted by identifier.
+   * @throws NullPointerException if txn or treeName is null
+   * @throws StorageRuntimeException If an error occurs in the storage.
+   */
+  Map<Integer, byte[]> getCompressionDictionaries(ReadableTransaction txn, TreeName treeName)
+  {
+    checkNotNull(txn, "txn must not be null");
+    checkNotNull(treeName, "treeName must not be null");
+
+    final ByteString prefix = keyPrefixForDictionaries(treeName).toByteString();
+    final Map<Integer, byte[]> dictionaries = new TreeMap<>();
+    try (Cursor<ByteString, ByteString> cursor = txn.openCursor(getName()))
+    {
+      boolean found = cursor.positionToKeyOrNext(prefix);
+      while (found && cursor.getKey().startsWith(prefix))
+      {
+        final ByteString key = cursor.getKey();
+        if (key.length() == prefix.length() + 4)
+        {
+          dictionaries.put(key.subSequence(prefix.length(), key.length()).toInt(), cursor.getValue().toByteArray());
+        }
+        found = cursor.next();
+      }
+    }
+    return dictionaries;
+  }
+
   /**
    * Fetch index flags from the tree.
    * @param txn The transaction or null if none.
@@ -186,6 +268,10 @@ class State extends AbstractTree
   @Override
   public String valueToString(ByteString value)
   {
+    if (value.length() > 1)
+    {
+      return "compression dictionary of " + value.length() + " bytes";
+    }
     return joinAsString(" ", decodeFlagsOrGetDefault(value));
   }
 
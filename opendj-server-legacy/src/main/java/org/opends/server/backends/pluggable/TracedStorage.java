@@ -25,6 +25,7 @@
  */
 package org.opends.server.backends.pluggable;
 
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
@@ -227,6 +228,15 @@ final class TracedStorage implements Storage
       traceLeave("put", "name", name, "key", hex(key), "value", hex(value));
     }
 
+    @Override
+    public long putAll(final TreeName name, final SequentialCursor<ByteString, ByteString> sortedRecords)
+    {
+      traceEnter("putAll", "name", name);
+      final long nbRecords = importer.putAll(name, sortedRecords);
+      traceLeave("putAll", "name", name, "nbRecords", nbRecords);
+      return nbRecords;
+    }
+
     @Override
     public ByteString read(TreeName name, ByteSequence key)
     {
@@ -306,6 +316,15 @@ final class TracedStorage implements Storage
       return value;
     }
 
+    @Override
+    public List<ByteString> readMany(final TreeName name, final List<? extends ByteSequence> keys)
+    {
+      traceEnter("readMany", "name", name, "keys", keys.size());
+      final List<ByteString> values = txn.readMany(name, keys);
+      traceLeave("readMany", "name", name, "keys", keys.size());
+      return values;
+    }
+
     private int id()
     {
       return System.identityHashCode(this);
@@ -392,6 +411,15 @@ final class TracedStorage implements Storage
       return value;
     }
 
+    @Override
+    public List<ByteString> readMany(final TreeName name, final List<? extends ByteSequence> keys)
+    {
+      traceEnter("readMany", "name", name, "keys", keys.size());
+      final List<ByteString> values = txn.readMany(name, keys);
+      traceLeave("readMany", "name", name, "keys", keys.size());
+      return values;
+    }
+
     @Override
     public boolean update(final TreeName name, final ByteSequence key, final UpdateFunction f)
     {
@@ -547,6 +575,38 @@ final class TracedStorage implements Storage
     storage.write(op);
   }
 
+  @Override
+  public boolean supportsGroupCommit()
+  {
+    return storage.supportsGroupCommit();
+  }
+
+  @Override
+  public void writeNoSync(final WriteOperation writeOperation) throws Exception
+  {
+    WriteOperation op = writeOperation;
+    if (logger.isTraceEnabled())
+    {
+      op = new WriteOperation()
+      {
+        @Override
+        public void run(final WriteableTransaction txn) throws Exception
+        {
+          writeOperation.run(new TracedWriteableTransaction(txn));
+        }
+      };
+    }
+    storage.writeNoSync(op);
+  }
+
+  @Override
+  public void sync() throws Exception
+  {
+    traceEnter("sync");
+    storage.sync();
+    traceLeave("sync");
+  }
+
   @Override
   public void createBackup(BackupConfig backupConfig) throws DirectoryException
   {
@@ -383,7 +383,7 @@ class VerifyJob
         Entry entry;
         try
         {
-          entry = ID2Entry.entryFromDatabase(value, rootContainer.getCompressedSchema());
+          entry = id2entry.decode(value, rootContainer.getCompressedSchema());
         }
         catch (Exception e)
         {
@@ -62,6 +62,20 @@ public interface Importer extends Closeable
    */
   void put(TreeName treeName, ByteSequence key, ByteSequence value);
 
+  /**
+   * Creates a record for each of the key/value pairs returned by the provided cursor in the tree identified by the
+   * provided name. The records are returned in ascending key order and their keys are unique, which allows
+   * implementations to load them in bulk rather than one at a time. The records are guaranteed to be persisted only
+   * after {@link #close()}. The cursor is not closed by this method.
+   *
+   * @param treeName
+   *          the tree name
+   * @param sortedRecords
+   *          the records to create, sorted by key
+   * @return the number of records created
+   */
+  long putAll(TreeName treeName, SequentialCursor<ByteString, ByteString> sortedRecords);
+
   /**
    * Reads the record's value associated to the provided key, in the tree whose name is provided.
    *
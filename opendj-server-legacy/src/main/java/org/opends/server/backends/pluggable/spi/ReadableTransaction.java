@@ -25,6 +25,8 @@
  */
 package org.opends.server.backends.pluggable.spi;
 
+import java.util.List;
+
 import org.forgerock.opendj.ldap.ByteSequence;
 import org.forgerock.opendj.ldap.ByteString;
 
@@ -44,6 +46,21 @@ public interface ReadableTransaction
    */
   ByteString read(TreeName treeName, ByteSequence key);
 
+  /**
+   * Reads the records' values associated to the provided keys, in the tree whose name is provided.
+   * <p>
+   * Implementations should read the records in key order, so that reading many records turns random
+   * accesses to the storage into mostly sequential accesses.
+   *
+   * @param treeName
+   *          the tree name
+   * @param keys
+   *          the records' keys, in any order
+   * @return the records' values in the same order as the provided keys, with {@code null} for the
+   *         records which do not exist
+   */
+  List<ByteString> readMany(TreeName treeName, List<? extends ByteSequence> keys);
+
   /**
    * Opens a cursor on the tree whose name is provided.
    *
@@ -90,6 +90,34 @@ public interface Storage extends Closeable
    */
   void write(WriteOperation writeOperation) throws Exception;
 
+  /**
+   * Returns whether this storage supports group commit: several write operations executed with
+   * {@link #writeNoSync(WriteOperation)} are then made durable together by a single call to {@link #sync()}.
+   * Storages whose commits are not durable, or which already group durable commits, return {@code false}.
+   *
+   * @return {@code true} if this storage supports group commit, {@code false} otherwise
+   */
+  boolean supportsGroupCommit();
+
+  /**
+   * Executes a write operation like {@link #write(WriteOperation)}, but does not wait for its changes to be
+   * durable when committing them. The changes become durable on the next call to {@link #sync()}.
+   *
+   * @param writeOperation
+   *          the write operation to execute
+   * @throws Exception
+   *           if a problem occurs with the underlying storage engine
+   */
+  void writeNoSync(WriteOperation writeOperation) throws Exception;
+
+  /**
+   * Makes durable the changes of all the write operations committed so far.
+   *
+   * @throws Exception
+   *           if a problem occurs with the underlying storage engine
+   */
+  void sync() throws Exception;
+
   /**
    * Remove all files for a backend of this storage.
    *
@@ -29,10 +29,15 @@ import static org.opends.messages.ConfigMessages.*;
 import static org.opends.server.util.StaticUtils.*;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.opendj.config.server.ConfigChangeResult;
 import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.ldap.ByteSequence;
+import org.forgerock.opendj.ldap.ByteString;
 import org.opends.server.core.DirectoryServer;
 import org.opends.server.types.DN;
 import org.opends.server.types.FilePermission;
@@ -45,6 +50,52 @@ public final class StorageUtils
     // do not instantiate utility classes
   }
 
+  /**
+   * Returns the positions of the provided keys, sorted in the order of the keys. This allows
+   * {@link ReadableTransaction#readMany(TreeName, List)} implementations to read records in key order
+   * while returning the values in the order of the keys.
+   *
+   * @param keys the keys to sort
+   * @return the positions of the provided keys, sorted in the order of the keys
+   */
+  public static Integer[] sortedKeyPositions(final List<? extends ByteSequence> keys)
+  {
+    final Integer[] positions = new Integer[keys.size()];
+    for (int i = 0; i < positions.length; i++)
+    {
+      positions[i] = i;
+    }
+    Arrays.sort(positions, new Comparator<Integer>()
+    {
+      @Override
+      public int compare(Integer i1, Integer i2)
+      {
+        return keys.get(i1).compareTo(keys.get(i2));
+      }
+    });
+    return positions;
+  }
+
+  /**
+   * Reads the provided keys one by one in key order. This implements
+   * {@link ReadableTransaction#readMany(TreeName, List)} for transactions which cannot do better.
+   *
+   * @param txn the transaction used to read the records
+   * @param treeName the tree name
+   * @param keys the records' keys
+   * @return the records' values in the same order as the provided keys
+   */
+  public static List<ByteString> readEach(ReadableTransaction txn, TreeName treeName,
+      List<? extends ByteSequence> keys)
+  {
+    final ByteString[] values = new ByteString[keys.size()];
+    for (int i : sortedKeyPositions(keys))
+    {
+      values[i] = txn.read(treeName, keys.get(i));
+    }
+    return Arrays.asList(values);
+  }
+
   /**
    * Returns a database directory file from the provided parent database directory and backendId.
    *
@@ -4183,6 +4183,24 @@ public final class ConfigConstants
 
 
 
+  /**
+   * The name of the attribute in an export task definition that specifies
+   * the number of threads used to export the entries.
+   */
+  public static final String ATTR_TASK_EXPORT_THREAD_COUNT =
+       NAME_PREFIX_TASK + "export-thread-count";
+
+
+
+  /**
+   * The name of the attribute in an export task definition that specifies
+   * whether the LDIF data should be split into one file per export thread.
+   */
+  public static final String ATTR_TASK_EXPORT_SPLIT_LDIF =
+       NAME_PREFIX_TASK + "export-split-ldif";
+
+
+
   /**
    * The name of the objectclass that will be used for a Directory Server
    * restore task definition.
@@ -4280,6 +4298,16 @@ public final class ConfigConstants
    */
   public static final String ATTR_TASK_BACKUP_SIGN_HASH =
        NAME_PREFIX_TASK + "backup-sign-hash";
+
+
+
+  /**
+   * The name of the attribute in a backup task definition that specifies
+   * whether the backup should store the backed up files as chunks shared with
+   * the other backups of the backup directory.
+   */
+  public static final String ATTR_TASK_BACKUP_BLOCK_LEVEL =
+       NAME_PREFIX_TASK + "backup-block-level";
   /**
    * The name of the attribute in the add schema file task definition that
    * specifies the name of the schema file to be added.
@@ -4340,6 +4368,27 @@ public final class ConfigConstants
   public static final String ATTR_REBUILD_TMP_DIRECTORY =
        NAME_PREFIX_TASK + "rebuild-tmp-directory";
 
+  /**
+   * The name of the attribute in an rebuild task definition that specifies
+   * whether the indexes are rebuilt while the backend keeps serving requests.
+   */
+  public static final String ATTR_REBUILD_ONLINE =
+       NAME_PREFIX_TASK + "rebuild-online";
+
+  /**
+   * The name of the attribute in an rebuild task definition that specifies the
+   * maximum number of entries indexed per second by an online rebuild.
+   */
+  public static final String ATTR_REBUILD_MAX_ENTRIES_PER_SECOND =
+       NAME_PREFIX_TASK + "rebuild-max-entries-per-second";
+
+  /**
+   * The name of the attribute in an rebuild task definition that specifies the
+   * number of threads used by an online rebuild.
+   */
+  public static final String ATTR_REBUILD_THREAD_COUNT =
+       NAME_PREFIX_TASK + "rebuild-thread-count";
+
   /**
    * Used to specify that the rebuild all boolean should be set.
    */
@@ -149,6 +149,7 @@ import org.opends.server.loggers.TextErrorLogPublisher;
 import org.opends.server.loggers.TextWriter;
 import org.opends.server.monitors.BackendMonitor;
 import org.opends.server.monitors.ConnectionHandlerMonitor;
+import org.opends.server.monitors.LockManagerMonitor;
 import org.opends.server.protocols.internal.InternalClientConnection;
 import org.opends.server.protocols.internal.InternalConnectionHandler;
 import org.opends.server.schema.BooleanEqualityMatchingRuleFactory;
@@ -716,7 +717,7 @@ public final class DirectoryServer
   private DiskSpaceMonitor diskSpaceMonitor;
 
   /** The lock manager which will be used for coordinating access to LDAP entries. */
-  private final LockManager lockManager = new LockManager();
+  private final LockManager lockManager = newLockManager();
 
   /** The maximum size that internal buffers will be allowed to grow to until they are trimmed. */
   private int maxInternalBufferSize = DEFAULT_MAX_INTERNAL_BUFFER_SIZE;
@@ -1436,6 +1437,10 @@ public final class DirectoryServer
       monitorConfigManager = new MonitorConfigManager(serverContext);
       monitorConfigManager.initializeMonitorProviders();
 
+      LockManagerMonitor lockManagerMonitor = new LockManagerMonitor(lockManager);
+      lockManagerMonitor.initializeMonitorProvider(null);
+      registerMonitorProvider(lockManagerMonitor);
+
       initializeAuthenticationPolicyComponents();
 
       pluginConfigManager.initializeUserPlugins(null);
@@ -7740,4 +7745,25 @@ public final class DirectoryServer
   {
     return directoryServer.lockManager;
   }
+
+  /**
+   * Creates the lock manager using the lock table implementation and
+   * concurrency level specified by the
+   * {@code PROPERTY_LOCK_MANAGER_IMPLEMENTATION} and
+   * {@code PROPERTY_LOCK_MANAGER_CONCURRENCY_LEVEL} system properties, if
+   * present.
+   */
+  private static LockManager newLockManager()
+  {
+    final LockManager.LockTableImplementation implementation =
+        "concurrent".equalsIgnoreCase(System.getProperty(PROPERTY_LOCK_MANAGER_IMPLEMENTATION))
+            ? LockManager.LockTableImplementation.CONCURRENT
+            : LockManager.LockTableImplementation.BUCKETS;
+    final Integer concurrencyLevel = Integer.getInteger(PROPERTY_LOCK_MANAGER_CONCURRENCY_LEVEL);
+    if (concurrencyLevel != null && concurrencyLevel > 0)
+    {
+      return new LockManager(implementation, concurrencyLevel);
+    }
+    return new LockManager(implementation);
+  }
 }
@@ -121,11 +121,13 @@ public class DefaultEntryCache
   @Override
   public Entry getEntry(String backendID, long entryID)
   {
-    for (EntryCache<? extends EntryCacheCfg> entryCache : cacheOrder)
+    EntryCache<? extends EntryCacheCfg>[] caches = cacheOrder;
+    for (int level = 0; level < caches.length; level++)
     {
-      Entry entry = entryCache.getEntry(backendID, entryID);
+      Entry entry = caches[level].getEntry(backendID, entryID);
       if (entry != null)
       {
+        promoteEntry(caches, level, entry, backendID, entryID);
         return entry.duplicate(true);
       }
     }
@@ -142,11 +144,21 @@ public class DefaultEntryCache
   @Override
   public Entry getEntry(DN entryDN)
   {
-    for (EntryCache<? extends EntryCacheCfg> entryCache : cacheOrder)
+    EntryCache<? extends EntryCacheCfg>[] caches = cacheOrder;
+    for (int level = 0; level < caches.length; level++)
     {
-      Entry entry = entryCache.getEntry(entryDN);
+      Entry entry = caches[level].getEntry(entryDN);
       if (entry != null)
       {
+        if (level > 0 && caches[level].isBackingCache())
+        {
+          Backend<?> backend = DirectoryServer.getBackend(entryDN);
+          long entryID = caches[level].getEntryID(entryDN);
+          if (backend != null && entryID != -1)
+          {
+            promoteEntry(caches, level, entry, backend.getBackendID(), entryID);
+          }
+        }
         return entry.duplicate(true);
       }
     }
@@ -193,11 +205,17 @@ public class DefaultEntryCache
   @Override
   public void putEntry(Entry entry, String backendID, long entryID)
   {
-    for (EntryCache<?> entryCache : cacheOrder) {
+    EntryCache<?>[] caches = cacheOrder;
+    for (int level = 0; level < caches.length; level++) {
       // The first cache in the order which can take this entry
-      // gets it.
-      if (entryCache.filtersAllowCaching(entry)) {
-        entryCache.putEntry(entry.duplicate(false), backendID, entryID);
+      // gets it, as well as the caches backing it.
+      if (caches[level].filtersAllowCaching(entry)) {
+        caches[level].putEntry(entry.duplicate(false), backendID, entryID);
+        for (int i = level + 1; i < caches.length; i++) {
+          if (caches[i].isBackingCache() && caches[i].filtersAllowCaching(entry)) {
+            caches[i].putEntry(entry.duplicate(false), backendID, entryID);
+          }
+        }
         break;
       }
     }
@@ -207,26 +225,53 @@ public class DefaultEntryCache
   @Override
   public boolean putEntryIfAbsent(Entry entry, String backendID, long entryID)
   {
-    for (EntryCache<?> entryCache : cacheOrder) {
+    EntryCache<?>[] caches = cacheOrder;
+    for (int level = 0; level < caches.length; level++) {
       // The first cache in the order which can take this entry
-      // gets it.
-      if (entryCache.filtersAllowCaching(entry)) {
-        return entryCache.putEntryIfAbsent(entry.duplicate(false),
+      // gets it, as well as the caches backing it.
+      if (caches[level].filtersAllowCaching(entry)) {
+        boolean added = caches[level].putEntryIfAbsent(entry.duplicate(false),
                 backendID, entryID);
+        if (added) {
+          for (int i = level + 1; i < caches.length; i++) {
+            if (caches[i].isBackingCache() && caches[i].filtersAllowCaching(entry)) {
+              caches[i].putEntryIfAbsent(entry.duplicate(false), backendID, entryID);
+            }
+          }
+        }
+        return added;
       }
     }
 
     return false;
   }
 
+  /**
+   * Stores an entry found in a backing cache in the first lower level cache
+   * which can take it, so that subsequent retrievals are faster.
+   */
+  private static void promoteEntry(EntryCache<?>[] caches, int level, Entry entry,
+      String backendID, long entryID)
+  {
+    if (!caches[level].isBackingCache()) {
+      return;
+    }
+    for (int i = 0; i < level; i++) {
+      if (caches[i].filtersAllowCaching(entry)) {
+        caches[i].putEntryIfAbsent(entry.duplicate(false), backendID, entryID);
+        return;
+      }
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   public void removeEntry(DN entryDN)
   {
+    // The entry may be held both by a cache and by the caches backing it.
     for (EntryCache<?> entryCache : cacheOrder) {
       if (entryCache.containsEntry(entryDN)) {
         entryCache.removeEntry(entryDN);
-        break;
       }
     }
   }
@@ -0,0 +1,793 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ExtensionMessages.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.DataFormatException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigChangeResult;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.util.Utils;
+import org.opends.server.admin.server.ConfigurationChangeListener;
+import org.opends.server.admin.std.server.EntryCacheCfg;
+import org.opends.server.admin.std.server.OffHeapEntryCacheCfg;
+import org.opends.server.api.Backend;
+import org.opends.server.api.EntryCache;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.Attribute;
+import org.opends.server.types.Attributes;
+import org.opends.server.types.DN;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.Entry;
+import org.opends.server.types.EntryEncodeConfig;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.util.ServerConstants;
+
+/**
+ * This class defines a Directory Server entry cache which stores entries
+ * outside of the JVM heap, so that it can hold many more entries than the heap
+ * could without increasing garbage collection pauses.
+ * <BR><BR>
+ * Entries are stored in the same compact form as in the pluggable backends:
+ * object classes and attribute descriptions are replaced by the tokens of the
+ * server compressed schema, and the encoded entry may optionally be deflated.
+ * The encoded entries are appended to direct memory slabs, and only decoded
+ * when they are retrieved from the cache. When all the slabs are full, the
+ * oldest slab is purged and reused, so that eviction is first in, first out at
+ * the granularity of a slab.
+ * <BR><BR>
+ * This cache is intended to be configured with a higher cache level than an
+ * on-heap entry cache: the default entry cache then also stores in this cache
+ * the entries it stores in the on-heap cache, and promotes the entries found
+ * in this cache to the on-heap cache.
+ */
+public class OffHeapEntryCache
+       extends EntryCache<OffHeapEntryCacheCfg>
+       implements ConfigurationChangeListener<OffHeapEntryCacheCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** Thread local buffers used for encoding entries. */
+  private static final ThreadLocal<ByteStringBuilder[]> ENCODE_BUFFERS = new ThreadLocal<ByteStringBuilder[]>()
+  {
+    @Override
+    protected ByteStringBuilder[] initialValue()
+    {
+      return new ByteStringBuilder[] { new ByteStringBuilder(), new ByteStringBuilder() };
+    }
+  };
+
+  /** A direct memory slab to which encoded entries are appended. */
+  private static final class Slab
+  {
+    private final ByteBuffer buffer;
+    /** The entries stored in this slab, some of which may have been removed from the cache since. */
+    private final List<Location> locations = new ArrayList<>();
+
+    private Slab(int size)
+    {
+      buffer = ByteBuffer.allocateDirect(size);
+    }
+
+    private int remaining()
+    {
+      return buffer.remaining();
+    }
+  }
+
+  /** The location of a cached entry in the slabs. */
+  private static final class Location
+  {
+    private final DN dn;
+    private final String backendID;
+    private final long entryID;
+    private final Slab slab;
+    private final int offset;
+    private final int length;
+    /** The length of the entry before compression, or 0 if it is not compressed. */
+    private final int uncompressedLength;
+
+    private Location(DN dn, String backendID, long entryID, Slab slab, int offset, int length,
+        int uncompressedLength)
+    {
+      this.dn = dn;
+      this.backendID = backendID;
+      this.entryID = entryID;
+      this.slab = slab;
+      this.offset = offset;
+      this.length = length;
+      this.uncompressedLength = uncompressedLength;
+    }
+  }
+
+  /** The mapping between DNs and the location of cached entries. */
+  private final Map<DN, Location> dnMap = new HashMap<>();
+  /** The mapping between entry backends/IDs and the location of cached entries. */
+  private final Map<String, Map<Long, Location>> idMap = new HashMap<>();
+
+  /**
+   * The lock used to provide threadsafe access when changing the contents of
+   * the cache.
+   */
+  private final ReadWriteLock cacheLock = new ReentrantReadWriteLock(true);
+  private final Lock cacheWriteLock = cacheLock.writeLock();
+  private final Lock cacheReadLock = cacheLock.readLock();
+
+  /** The slabs, used as a ring buffer. */
+  private Slab[] slabs;
+  private int currentSlab;
+  private long maxMemorySize;
+  private int slabSize;
+  /** The total size of the entries currently cached. */
+  private long cacheSize;
+  private long evictedSlabs;
+  private volatile boolean entriesCompressed;
+
+  /** The configuration to use when encoding entries. */
+  private EntryEncodeConfig encodeConfig;
+
+  /** Currently registered configuration object. */
+  private OffHeapEntryCacheCfg registeredConfiguration;
+
+  /** The maximum length of time to try to obtain a lock before giving up. */
+  private long lockTimeout = 2000;
+
+  /** Creates a new instance of this off heap entry cache. */
+  public OffHeapEntryCache()
+  {
+    super();
+    // All initialization should be performed in the initializeEntryCache.
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void initializeEntryCache(OffHeapEntryCacheCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    registeredConfiguration = configuration;
+    configuration.addOffHeapChangeListener(this);
+    encodeConfig = new EntryEncodeConfig(false, true, true, DirectoryServer.getDefaultCompressedSchema());
+
+    // Read configuration and apply changes.
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_INIT, null, errorMessages
+          );
+    if (!processEntryCacheConfig(configuration, applyChanges, errorHandler)) {
+      String buffer = Utils.joinAsString(".  ", errorMessages);
+      throw new ConfigException(ERR_OFFHEAPCACHE_CANNOT_INITIALIZE.get(buffer));
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void finalizeEntryCache()
+  {
+    cacheWriteLock.lock();
+    try {
+      registeredConfiguration.removeOffHeapChangeListener(this);
+      clearMaps();
+      // Let the garbage collector release the direct memory.
+      slabs = null;
+    } finally {
+      cacheWriteLock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isBackingCache()
+  {
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean containsEntry(DN entryDN)
+  {
+    if (entryDN == null) {
+      return false;
+    }
+
+    cacheReadLock.lock();
+    try {
+      return dnMap.containsKey(entryDN);
+    } finally {
+      cacheReadLock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Entry getEntry(DN entryDN)
+  {
+    Location location;
+    byte[] bytes;
+    cacheReadLock.lock();
+    try {
+      location = dnMap.get(entryDN);
+      if (location == null) {
+        // Indicate cache miss.
+        cacheMisses.getAndIncrement();
+        return null;
+      }
+      bytes = new byte[location.length];
+      ByteBuffer buffer = location.slab.buffer.duplicate();
+      buffer.position(location.offset);
+      buffer.get(bytes);
+    } finally {
+      cacheReadLock.unlock();
+    }
+
+    // Decode the entry outside of the lock.
+    try {
+      Entry entry = decode(bytes, location.uncompressedLength);
+      // Indicate cache hit.
+      cacheHits.getAndIncrement();
+      return entry;
+    } catch (Exception e) {
+      logger.traceException(e);
+      // This should never happen, but if it does then the cached entry is unusable.
+      // Only drop the copy which failed to decode: the entry may have been cached again since.
+      cacheWriteLock.lock();
+      try {
+        removeLocation(location);
+      } finally {
+        cacheWriteLock.unlock();
+      }
+      cacheMisses.getAndIncrement();
+      return null;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getEntryID(DN entryDN)
+  {
+    cacheReadLock.lock();
+    try {
+      Location location = dnMap.get(entryDN);
+      return location != null ? location.entryID : -1;
+    } finally {
+      cacheReadLock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public DN getEntryDN(String backendID, long entryID)
+  {
+    cacheReadLock.lock();
+    try {
+      Map<Long, Location> backendMap = idMap.get(backendID);
+      if (backendMap != null) {
+        Location location = backendMap.get(entryID);
+        if (location != null) {
+          return location.dn;
+        }
+      }
+      return null;
+    } finally {
+      cacheReadLock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void putEntry(Entry entry, String backendID, long entryID)
+  {
+    put(entry, backendID, entryID, false);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean putEntryIfAbsent(Entry entry, String backendID, long entryID)
+  {
+    return put(entry, backendID, entryID, true);
+  }
+
+  /**
+   * Stores the provided entry in the cache.
+   *
+   * @return {@code false} if the entry was already present and {@code ifAbsent}
+   *         is {@code true}, or if the lock could not be obtained.
+   */
+  private boolean put(Entry entry, String backendID, long entryID, boolean ifAbsent)
+  {
+    // Encode the entry before taking the lock.
+    ByteStringBuilder[] buffers = ENCODE_BUFFERS.get();
+    byte[] bytes;
+    int uncompressedLength = 0;
+    try {
+      entry.encode(buffers[0], encodeConfig);
+      ByteStringBuilder encoded = buffers[0];
+      if (entriesCompressed) {
+        OutputStream compressor = null;
+        try {
+          compressor = new DeflaterOutputStream(buffers[1].asOutputStream());
+          buffers[0].copyTo(compressor);
+        } finally {
+          Utils.closeSilently(compressor);
+        }
+        if (buffers[1].length() < buffers[0].length()) {
+          encoded = buffers[1];
+          uncompressedLength = buffers[0].length();
+        }
+      }
+      bytes = encoded.toByteArray();
+    } catch (DirectoryException | IOException e) {
+      logger.traceException(e);
+      return false;
+    } finally {
+      buffers[0].clearAndTruncate(ServerConstants.DEFAULT_MAX_INTERNAL_BUFFER_SIZE,
+          ServerConstants.DEFAULT_MAX_INTERNAL_BUFFER_SIZE);
+      buffers[1].clearAndTruncate(ServerConstants.DEFAULT_MAX_INTERNAL_BUFFER_SIZE,
+          ServerConstants.DEFAULT_MAX_INTERNAL_BUFFER_SIZE);
+    }
+
+    // Obtain a lock on the cache.  If this fails, then don't do anything.
+    try {
+      if (!cacheWriteLock.tryLock(lockTimeout, TimeUnit.MILLISECONDS)) {
+        return false;
+      }
+    } catch (Exception e) {
+      logger.traceException(e);
+      return false;
+    }
+
+    try {
+      DN entryDN = entry.getName();
+      if (ifAbsent && dnMap.containsKey(entryDN)) {
+        return false;
+      }
+      removeLocation(dnMap.get(entryDN));
+      if (slabs == null || bytes.length > slabSize) {
+        // The entry is too big to be cached.
+        return ifAbsent;
+      }
+
+      Slab slab = slabs[currentSlab];
+      if (slab.remaining() < bytes.length) {
+        currentSlab = (currentSlab + 1) % slabs.length;
+        slab = slabs[currentSlab];
+        evictSlab(slab);
+      }
+
+      int offset = slab.buffer.position();
+      slab.buffer.put(bytes);
+      Location location =
+          new Location(entryDN, backendID, entryID, slab, offset, bytes.length, uncompressedLength);
+      slab.locations.add(location);
+      dnMap.put(entryDN, location);
+      Map<Long, Location> backendMap = idMap.get(backendID);
+      if (backendMap == null) {
+        backendMap = new HashMap<>();
+        idMap.put(backendID, backendMap);
+      }
+      backendMap.put(entryID, location);
+      cacheSize += location.length;
+      return true;
+    } finally {
+      cacheWriteLock.unlock();
+    }
+  }
+
+  private Entry decode(byte[] bytes, int uncompressedLength) throws DirectoryException, DataFormatException
+  {
+    if (uncompressedLength > 0) {
+      byte[] uncompressed = new byte[uncompressedLength];
+      Inflater inflater = new Inflater();
+      try {
+        inflater.setInput(bytes);
+        inflater.inflate(uncompressed);
+      } finally {
+        inflater.end();
+      }
+      bytes = uncompressed;
+    }
+    return Entry.decode(ByteString.wrap(bytes).asReader(), DirectoryServer.getDefaultCompressedSchema());
+  }
+
+  /**
+   * Removes all the entries still stored in the provided slab and empties it.
+   * The caller must hold the write lock.
+   */
+  private void evictSlab(Slab slab)
+  {
+    for (Location location : slab.locations) {
+      removeLocation(location);
+    }
+    if (!slab.locations.isEmpty()) {
+      evictedSlabs++;
+    }
+    slab.locations.clear();
+    slab.buffer.clear();
+  }
+
+  /**
+   * Removes the provided location from the maps if it is still current. The
+   * space used in the slab is reclaimed when the slab is evicted. The caller
+   * must hold the write lock.
+   */
+  private void removeLocation(Location location)
+  {
+    if (location == null || dnMap.get(location.dn) != location) {
+      return;
+    }
+    dnMap.remove(location.dn);
+    Map<Long, Location> backendMap = idMap.get(location.backendID);
+    if (backendMap != null) {
+      backendMap.remove(location.entryID);
+      if (backendMap.isEmpty()) {
+        idMap.remove(location.backendID);
+      }
+    }
+    cacheSize -= location.length;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void removeEntry(DN entryDN)
+  {
+    cacheWriteLock.lock();
+    try {
+      removeLocation(dnMap.get(entryDN));
+    } finally {
+      cacheWriteLock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void clear()
+  {
+    cacheWriteLock.lock();
+    try {
+      clearMaps();
+    } finally {
+      cacheWriteLock.unlock();
+    }
+  }
+
+  /** The caller must hold the write lock. */
+  private void clearMaps()
+  {
+    dnMap.clear();
+    idMap.clear();
+    cacheSize = 0;
+    if (slabs != null) {
+      for (Slab slab : slabs) {
+        slab.locations.clear();
+        slab.buffer.clear();
+      }
+    }
+    currentSlab = 0;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void clearBackend(String backendID)
+  {
+    cacheWriteLock.lock();
+    try {
+      Map<Long, Location> backendMap = idMap.get(backendID);
+      if (backendMap != null) {
+        for (Location location : new ArrayList<>(backendMap.values())) {
+          removeLocation(location);
+        }
+      }
+    } finally {
+      cacheWriteLock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void clearSubtree(DN baseDN)
+  {
+    // Determine which backend should be used for the provided base DN.  If
+    // there is none, then we don't need to do anything.
+    Backend<?> backend = DirectoryServer.getBackend(baseDN);
+    if (backend == null) {
+      return;
+    }
+
+    cacheWriteLock.lock();
+    try {
+      clearSubtree(baseDN, backend);
+    } finally {
+      cacheWriteLock.unlock();
+    }
+  }
+
+  /**
+   * Clears all entries at or below the specified base DN that are associated
+   * with the given backend.  The caller must already hold the cache lock.
+   *
+   * @param  baseDN   The base DN below which all entries should be flushed.
+   * @param  backend  The backend for which to remove the appropriate entries.
+   */
+  private void clearSubtree(DN baseDN, Backend<?> backend)
+  {
+    Map<Long, Location> backendMap = idMap.get(backend.getBackendID());
+    if (backendMap != null) {
+      for (Location location : new ArrayList<>(backendMap.values())) {
+        if (location.dn.isDescendantOf(baseDN)) {
+          removeLocation(location);
+        }
+      }
+    }
+
+    // See if the backend has any subordinate backends.  If so, then process
+    // them recursively.
+    for (Backend<?> subBackend : backend.getSubordinateBackends()) {
+      for (DN subBase : subBackend.getBaseDNs()) {
+        if (subBase.isDescendantOf(baseDN)) {
+          clearSubtree(baseDN, subBackend);
+          break;
+        }
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void handleLowMemory()
+  {
+    // This cache does not use the JVM heap for storing entries, apart from
+    // the maps which are purged along with the slabs.
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isConfigurationAcceptable(EntryCacheCfg configuration,
+                                           List<LocalizableMessage> unacceptableReasons)
+  {
+    OffHeapEntryCacheCfg config = (OffHeapEntryCacheCfg) configuration;
+    return isConfigurationChangeAcceptable(config, unacceptableReasons);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isConfigurationChangeAcceptable(
+      OffHeapEntryCacheCfg configuration,
+      List<LocalizableMessage> unacceptableReasons
+      )
+  {
+    boolean applyChanges = false;
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_ACCEPTABLE,
+          unacceptableReasons,
+          null
+        );
+    processEntryCacheConfig (configuration, applyChanges, errorHandler);
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public ConfigChangeResult applyConfigurationChange(OffHeapEntryCacheCfg configuration)
+  {
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_APPLY, null, errorMessages
+          );
+
+    // Do not apply changes unless this cache is enabled.
+    if (configuration.isEnabled()) {
+      processEntryCacheConfig (configuration, applyChanges, errorHandler);
+    }
+
+    final ConfigChangeResult changeResult = new ConfigChangeResult();
+    changeResult.setResultCode(errorHandler.getResultCode());
+    changeResult.setAdminActionRequired(errorHandler.getIsAdminActionRequired());
+    changeResult.getMessages().addAll(errorHandler.getErrorMessages());
+    return changeResult;
+  }
+
+  /**
+   * Parses the provided configuration and configure the entry cache.
+   *
+   * @param configuration  The new configuration containing the changes.
+   * @param applyChanges   If true then take into account the new configuration.
+   * @param errorHandler   An handler used to report errors.
+   *
+   * @return  <CODE>true</CODE> if configuration is acceptable,
+   *          or <CODE>false</CODE> otherwise.
+   */
+  private boolean processEntryCacheConfig(
+      OffHeapEntryCacheCfg                configuration,
+      boolean                             applyChanges,
+      EntryCacheCommon.ConfigErrorHandler errorHandler
+      )
+  {
+    // Local variables to read configuration.
+    Set<SearchFilter> newIncludeFilters = null;
+    Set<SearchFilter> newExcludeFilters = null;
+
+    // Read configuration.
+    DN newConfigEntryDN = configuration.dn();
+    long newMaxMemorySize = configuration.getMaxMemorySize();
+    long newSlabSize = configuration.getSlabSize();
+    boolean newEntriesCompressed = configuration.isEntriesCompressed();
+
+    // Get include and exclude filters.
+    switch (errorHandler.getConfigPhase())
+    {
+    case PHASE_INIT:
+    case PHASE_ACCEPTABLE:
+    case PHASE_APPLY:
+      newIncludeFilters = EntryCacheCommon.getFilters (
+          configuration.getIncludeFilter(),
+          ERR_CACHE_INVALID_INCLUDE_FILTER,
+          errorHandler,
+          newConfigEntryDN
+          );
+      newExcludeFilters = EntryCacheCommon.getFilters (
+          configuration.getExcludeFilter(),
+          ERR_CACHE_INVALID_EXCLUDE_FILTER,
+          errorHandler,
+          newConfigEntryDN
+          );
+      break;
+    }
+
+    // At least two slabs are needed so that evicting a slab does not empty the cache.
+    if (newSlabSize * 2 > newMaxMemorySize)
+    {
+      errorHandler.reportError(ERR_OFFHEAPCACHE_INVALID_SLAB_SIZE.get(
+          newSlabSize, newConfigEntryDN, newMaxMemorySize), false, ResultCode.UNWILLING_TO_PERFORM);
+    }
+
+    if (applyChanges && errorHandler.getIsAcceptable())
+    {
+      cacheWriteLock.lock();
+      try
+      {
+        if (slabs == null || newMaxMemorySize != maxMemorySize || newSlabSize != slabSize)
+        {
+          // Release the current slabs before allocating new ones.
+          clearMaps();
+          slabs = null;
+          maxMemorySize = newMaxMemorySize;
+          slabSize = (int) newSlabSize;
+          slabs = new Slab[(int) (maxMemorySize / slabSize)];
+          for (int i = 0; i < slabs.length; i++)
+          {
+            slabs[i] = new Slab(slabSize);
+          }
+        }
+      }
+      catch (OutOfMemoryError e)
+      {
+        // Not enough direct memory: leave the cache empty and unusable.
+        logger.traceException(e);
+        slabs = null;
+        errorHandler.reportError(ERR_OFFHEAPCACHE_CANNOT_INITIALIZE.get(e.getMessage()), false,
+            DirectoryServer.getServerErrorResultCode());
+      }
+      finally
+      {
+        cacheWriteLock.unlock();
+      }
+      entriesCompressed = newEntriesCompressed;
+      setIncludeFilters(newIncludeFilters);
+      setExcludeFilters(newExcludeFilters);
+      registeredConfiguration = configuration;
+    }
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public List<Attribute> getMonitorData()
+  {
+    cacheReadLock.lock();
+    try {
+      List<Attribute> attrs = EntryCacheCommon.getGenericMonitorData(
+        Long.valueOf(cacheHits.longValue()),
+        // If cache misses is maintained by default cache
+        // get it from there and if not point to itself.
+        DirectoryServer.getEntryCache().getCacheMisses(),
+        Long.valueOf(cacheSize),
+        Long.valueOf(maxMemorySize),
+        Long.valueOf(dnMap.size()),
+        null
+        );
+      attrs.add(Attributes.create("entryCacheEvictedSlabs", String.valueOf(evictedSlabs)));
+      return attrs;
+    } catch (Exception e) {
+      logger.traceException(e);
+      return Collections.emptyList();
+    } finally {
+      cacheReadLock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Long getCacheCount()
+  {
+    cacheReadLock.lock();
+    try {
+      return Long.valueOf(dnMap.size());
+    } finally {
+      cacheReadLock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toVerboseString()
+  {
+    StringBuilder sb = new StringBuilder();
+    cacheReadLock.lock();
+    try {
+      for (Location location : dnMap.values()) {
+        sb.append(location.dn);
+        sb.append(":");
+        sb.append(location.entryID);
+        sb.append(":");
+        sb.append(location.backendID);
+        sb.append(ServerConstants.EOL);
+      }
+    } finally {
+      cacheReadLock.unlock();
+    }
+
+    String verboseString = sb.toString();
+    return verboseString.length() > 0 ? verboseString : null;
+  }
+}
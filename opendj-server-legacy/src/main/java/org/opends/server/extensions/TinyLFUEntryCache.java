@@ -0,0 +1,1036 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ExtensionMessages.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigChangeResult;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.forgerock.util.Utils;
+import org.opends.server.admin.server.ConfigurationChangeListener;
+import org.opends.server.admin.std.server.EntryCacheCfg;
+import org.opends.server.admin.std.server.TinyLFUEntryCacheCfg;
+import org.opends.server.api.Backend;
+import org.opends.server.api.EntryCache;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.Attribute;
+import org.opends.server.types.Attributes;
+import org.opends.server.types.DN;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.Entry;
+import org.opends.server.types.EntryEncodeConfig;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.util.ServerConstants;
+
+/**
+ * This class defines a Directory Server entry cache implementing the W-TinyLFU
+ * eviction policy. New entries are first stored in a small admission window
+ * managed as an LRU list. The main part of the cache is a segmented LRU
+ * comprising a probation segment and a protected segment: entries are promoted
+ * to the protected segment when they are accessed while in probation. When the
+ * cache is full, the entry leaving the admission window only replaces the
+ * least recently used entry of the probation segment if its access frequency is
+ * higher. Access frequencies are estimated using a count-min sketch of 4-bit
+ * counters which are periodically halved so that old accesses are forgotten.
+ * <BR><BR>
+ * Cache lookups do not take any lock: they read concurrent maps and record the
+ * access in a lossy striped buffer. The buffer is replayed against the eviction
+ * policy by the thread which next acquires the eviction lock, which is required
+ * for all updates to the cache. Cache sizing is based on the size of the
+ * serialized entries.
+ */
+public class TinyLFUEntryCache
+       extends EntryCache<TinyLFUEntryCacheCfg>
+       implements ConfigurationChangeListener<TinyLFUEntryCacheCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The percentage of the maximum cache size used by the admission window. */
+  private static final int WINDOW_PERCENT = 1;
+  /** The percentage of the main part of the cache used by the protected segment. */
+  private static final int PROTECTED_PERCENT = 80;
+  /** The assumed average size of serialized entries, used for sizing the frequency sketch. */
+  private static final int ESTIMATED_ENTRY_SIZE = 1024;
+  /** The number of slots in each stripe of the read buffer. Must be a power of 2. */
+  private static final int READ_BUFFER_STRIPE_SIZE = 32;
+  /** Spacing between the read buffer stripe counters, in order to avoid false sharing. */
+  private static final int READ_BUFFER_COUNTER_SPACING = 16;
+
+  /** Thread local buffer used for computing the serialized size of entries. */
+  private static final ThreadLocal<ByteStringBuilder> ENCODE_BUFFER = new ThreadLocal<ByteStringBuilder>()
+  {
+    @Override
+    protected ByteStringBuilder initialValue()
+    {
+      return new ByteStringBuilder();
+    }
+  };
+
+  /** The queues in which cached entries may be. */
+  private static final int WINDOW = 0;
+  private static final int PROBATION = 1;
+  private static final int PROTECTED = 2;
+
+  /** A cached entry, also being a node of the doubly linked list of its queue. */
+  private static final class Node
+  {
+    private final Entry entry;
+    private final String backendID;
+    private final long entryID;
+    private final int weight;
+
+    /** The fields below are guarded by the eviction lock. */
+    private int queue;
+    private boolean isAlive = true;
+    private Node previous;
+    private Node next;
+
+    private Node(Entry entry, String backendID, long entryID, int weight)
+    {
+      this.entry = entry;
+      this.backendID = backendID;
+      this.entryID = entryID;
+      this.weight = weight;
+    }
+
+    private DN getDN()
+    {
+      return entry.getName();
+    }
+  }
+
+  /** A queue of nodes ordered from least recently used to most recently used. */
+  private static final class AccessOrderQueue
+  {
+    private final Node head = new Node(null, null, -1, 0);
+    private long weight;
+
+    private AccessOrderQueue()
+    {
+      head.previous = head;
+      head.next = head;
+    }
+
+    private Node peekFirst()
+    {
+      return head.next != head ? head.next : null;
+    }
+
+    private Node nextOf(Node node)
+    {
+      return node.next != head ? node.next : null;
+    }
+
+    private void addLast(Node node)
+    {
+      node.previous = head.previous;
+      node.next = head;
+      head.previous.next = node;
+      head.previous = node;
+      weight += node.weight;
+    }
+
+    private void moveToLast(Node node)
+    {
+      remove(node);
+      addLast(node);
+    }
+
+    private void remove(Node node)
+    {
+      node.previous.next = node.next;
+      node.next.previous = node.previous;
+      node.previous = null;
+      node.next = null;
+      weight -= node.weight;
+    }
+
+    private void clear()
+    {
+      head.previous = head;
+      head.next = head;
+      weight = 0;
+    }
+  }
+
+  /**
+   * A count-min sketch estimating the frequency of accesses to the cached
+   * entries, using four 4-bit counters per entry. The counters are halved
+   * once the number of recorded accesses reaches the sample size. This class
+   * is not thread safe: it is guarded by the eviction lock.
+   */
+  static final class FrequencySketch
+  {
+    private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int sampleSize;
+    private int size;
+
+    FrequencySketch(int maximumEntries)
+    {
+      int capacity = 16;
+      while (capacity < maximumEntries && capacity < (1 << 26))
+      {
+        capacity <<= 1;
+      }
+      table = new long[capacity];
+      sampleSize = 10 * capacity;
+    }
+
+    int frequency(Object o)
+    {
+      final int hash = spread(o.hashCode());
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < SEEDS.length; i++)
+      {
+        final long h = indexHash(hash, i);
+        frequency = Math.min(frequency, (int) ((table[index(h)] >>> offset(h)) & 0xfL));
+      }
+      return frequency;
+    }
+
+    void increment(Object o)
+    {
+      final int hash = spread(o.hashCode());
+      boolean added = false;
+      for (int i = 0; i < SEEDS.length; i++)
+      {
+        final long h = indexHash(hash, i);
+        final int index = index(h);
+        final int offset = offset(h);
+        if (((table[index] >>> offset) & 0xfL) != 0xfL)
+        {
+          table[index] += 1L << offset;
+          added = true;
+        }
+      }
+      if (added && ++size >= sampleSize)
+      {
+        reset();
+      }
+    }
+
+    private void reset()
+    {
+      for (int i = 0; i < table.length; i++)
+      {
+        table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      size /= 2;
+    }
+
+    private long indexHash(int hash, int i)
+    {
+      long h = (hash + SEEDS[i]) * SEEDS[i];
+      return h + (h >>> 32);
+    }
+
+    private int index(long h)
+    {
+      return (int) h & (table.length - 1);
+    }
+
+    /** Each long holds 16 counters. */
+    private int offset(long h)
+    {
+      return (int) ((h >>> 40) & 0xf) << 2;
+    }
+
+    private static int spread(int x)
+    {
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      return (x >>> 16) ^ x;
+    }
+  }
+
+  /** The mapping between DNs and cached entries. */
+  private final ConcurrentMap<DN, Node> dnMap = new ConcurrentHashMap<>();
+  /** The mapping between entry backends/IDs and cached entries. */
+  private final ConcurrentMap<String, ConcurrentMap<Long, Node>> idMap = new ConcurrentHashMap<>();
+
+  /** The lock guarding the eviction policy and all updates to the maps. */
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final AccessOrderQueue window = new AccessOrderQueue();
+  private final AccessOrderQueue probation = new AccessOrderQueue();
+  private final AccessOrderQueue protectedQueue = new AccessOrderQueue();
+  private FrequencySketch sketch;
+
+  /** Lossy striped buffer of the nodes recently read, replayed against the eviction policy. */
+  private final int readBufferStripeMask;
+  private final AtomicReferenceArray<Node> readBuffer;
+  private final AtomicIntegerArray readBufferCounters;
+
+  /** The maximum total size of the serialized cached entries. */
+  private volatile long maxWeight;
+
+  /** Statistics, guarded by the eviction lock but read without locking. */
+  private volatile long admissions;
+  private volatile long rejections;
+  private volatile long evictions;
+
+  /** Currently registered configuration object. */
+  private TinyLFUEntryCacheCfg registeredConfiguration;
+
+  /** Creates a new instance of this TinyLFU entry cache. */
+  public TinyLFUEntryCache()
+  {
+    super();
+    int stripes = 1;
+    while (stripes < Runtime.getRuntime().availableProcessors())
+    {
+      stripes <<= 1;
+    }
+    readBufferStripeMask = stripes - 1;
+    readBuffer = new AtomicReferenceArray<>(stripes * READ_BUFFER_STRIPE_SIZE);
+    readBufferCounters = new AtomicIntegerArray(stripes * READ_BUFFER_COUNTER_SPACING);
+    // All initialization should be performed in the initializeEntryCache.
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void initializeEntryCache(TinyLFUEntryCacheCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    registeredConfiguration = configuration;
+    configuration.addTinyLFUChangeListener(this);
+
+    // Read configuration and apply changes.
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_INIT, null, errorMessages
+          );
+    if (!processEntryCacheConfig(configuration, applyChanges, errorHandler)) {
+      String buffer = Utils.joinAsString(".  ", errorMessages);
+      throw new ConfigException(ERR_TINYLFUCACHE_CANNOT_INITIALIZE.get(buffer));
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void finalizeEntryCache()
+  {
+    registeredConfiguration.removeTinyLFUChangeListener(this);
+    clear();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean containsEntry(DN entryDN)
+  {
+    return entryDN != null && dnMap.containsKey(entryDN);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Entry getEntry(DN entryDN)
+  {
+    Node node = dnMap.get(entryDN);
+    if (node == null) {
+      // Indicate cache miss.
+      cacheMisses.getAndIncrement();
+      return null;
+    }
+    // Indicate cache hit.
+    cacheHits.getAndIncrement();
+    recordRead(node);
+    return node.entry;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getEntryID(DN entryDN)
+  {
+    Node node = dnMap.get(entryDN);
+    return node != null ? node.entryID : -1;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public DN getEntryDN(String backendID, long entryID)
+  {
+    Map<Long, Node> backendMap = idMap.get(backendID);
+    if (backendMap != null) {
+      Node node = backendMap.get(entryID);
+      if (node != null) {
+        return node.getDN();
+      }
+    }
+    return null;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void putEntry(Entry entry, String backendID, long entryID)
+  {
+    Node node = newNode(entry, backendID, entryID);
+    evictionLock.lock();
+    try
+    {
+      if (node != null)
+      {
+        put(node);
+      }
+      else
+      {
+        // The entry cannot be cached, make sure that no stale version remains.
+        remove(dnMap.get(entry.getName()));
+      }
+    }
+    finally
+    {
+      evictionLock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean putEntryIfAbsent(Entry entry, String backendID, long entryID)
+  {
+    if (dnMap.containsKey(entry.getName()))
+    {
+      return false;
+    }
+    Node node = newNode(entry, backendID, entryID);
+    evictionLock.lock();
+    try
+    {
+      if (dnMap.containsKey(entry.getName()))
+      {
+        return false;
+      }
+      if (node != null)
+      {
+        put(node);
+      }
+      // We'll always return true in this case, even if we didn't actually add
+      // the entry due to size constraints.
+      return true;
+    }
+    finally
+    {
+      evictionLock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void removeEntry(DN entryDN)
+  {
+    evictionLock.lock();
+    try
+    {
+      remove(dnMap.get(entryDN));
+    }
+    finally
+    {
+      evictionLock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void clear()
+  {
+    evictionLock.lock();
+    try
+    {
+      drainReadBuffer();
+      for (Node node : dnMap.values())
+      {
+        node.isAlive = false;
+      }
+      dnMap.clear();
+      idMap.clear();
+      window.clear();
+      probation.clear();
+      protectedQueue.clear();
+    }
+    finally
+    {
+      evictionLock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void clearBackend(String backendID)
+  {
+    evictionLock.lock();
+    try
+    {
+      Map<Long, Node> backendMap = idMap.get(backendID);
+      if (backendMap != null)
+      {
+        for (Node node : new ArrayList<>(backendMap.values()))
+        {
+          remove(node);
+        }
+      }
+    }
+    finally
+    {
+      evictionLock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void clearSubtree(DN baseDN)
+  {
+    // Determine which backend should be used for the provided base DN.  If
+    // there is none, then we don't need to do anything.
+    Backend<?> backend = DirectoryServer.getBackend(baseDN);
+    if (backend == null)
+    {
+      return;
+    }
+
+    evictionLock.lock();
+    try
+    {
+      clearSubtree(baseDN, backend);
+    }
+    finally
+    {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Clears all entries at or below the specified base DN that are associated
+   * with the given backend.  The caller must already hold the eviction lock.
+   *
+   * @param  baseDN   The base DN below which all entries should be flushed.
+   * @param  backend  The backend for which to remove the appropriate entries.
+   */
+  private void clearSubtree(DN baseDN, Backend<?> backend)
+  {
+    Map<Long, Node> backendMap = idMap.get(backend.getBackendID());
+    if (backendMap != null)
+    {
+      for (Node node : new ArrayList<>(backendMap.values()))
+      {
+        if (node.getDN().isDescendantOf(baseDN))
+        {
+          remove(node);
+        }
+      }
+    }
+
+    // See if the backend has any subordinate backends.  If so, then process
+    // them recursively.
+    for (Backend<?> subBackend : backend.getSubordinateBackends())
+    {
+      for (DN subBase : subBackend.getBaseDNs())
+      {
+        if (subBase.isDescendantOf(baseDN))
+        {
+          clearSubtree(baseDN, subBackend);
+          break;
+        }
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void handleLowMemory()
+  {
+    evictionLock.lock();
+    try
+    {
+      // If there are less than 1000 entries then dump all of them. Otherwise,
+      // dump 10% of the entries, starting with the least valuable ones.
+      int numEntries = dnMap.size();
+      if (numEntries < 1000)
+      {
+        clear();
+        return;
+      }
+      drainReadBuffer();
+      for (int numToDrop = numEntries / 10; numToDrop > 0; numToDrop--)
+      {
+        evict(nextVictim());
+      }
+    }
+    finally
+    {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Returns a new node for the provided entry, or {@code null} if the entry
+   * cannot be cached.
+   */
+  private Node newNode(Entry entry, String backendID, long entryID)
+  {
+    ByteStringBuilder buffer = ENCODE_BUFFER.get();
+    try
+    {
+      entry.encode(buffer, EntryEncodeConfig.DEFAULT_CONFIG);
+      return buffer.length() <= maxWeight ? new Node(entry, backendID, entryID, buffer.length()) : null;
+    }
+    catch (DirectoryException e)
+    {
+      logger.traceException(e);
+      return null;
+    }
+    finally
+    {
+      buffer.clearAndTruncate(
+          ServerConstants.DEFAULT_MAX_INTERNAL_BUFFER_SIZE, ServerConstants.DEFAULT_MAX_INTERNAL_BUFFER_SIZE);
+    }
+  }
+
+  /** Adds a node to the cache, replacing any existing entry. Requires the eviction lock. */
+  private void put(Node node)
+  {
+    drainReadBuffer();
+    remove(dnMap.get(node.getDN()));
+
+    dnMap.put(node.getDN(), node);
+    ConcurrentMap<Long, Node> backendMap = idMap.get(node.backendID);
+    if (backendMap == null)
+    {
+      backendMap = new ConcurrentHashMap<>();
+      idMap.put(node.backendID, backendMap);
+    }
+    backendMap.put(node.entryID, node);
+
+    sketch.increment(node.getDN());
+    node.queue = WINDOW;
+    window.addLast(node);
+    evictIfNeeded();
+  }
+
+  /** Removes a node from the cache. Requires the eviction lock. */
+  private void remove(Node node)
+  {
+    if (node == null || !node.isAlive)
+    {
+      return;
+    }
+    node.isAlive = false;
+    getQueue(node).remove(node);
+    dnMap.remove(node.getDN(), node);
+    Map<Long, Node> backendMap = idMap.get(node.backendID);
+    if (backendMap != null)
+    {
+      backendMap.remove(node.entryID, node);
+      if (backendMap.isEmpty())
+      {
+        idMap.remove(node.backendID, backendMap);
+      }
+    }
+  }
+
+  private void evict(Node node)
+  {
+    if (node != null)
+    {
+      remove(node);
+      evictions++;
+    }
+  }
+
+  private AccessOrderQueue getQueue(Node node)
+  {
+    switch (node.queue)
+    {
+    case WINDOW:
+      return window;
+    case PROBATION:
+      return probation;
+    default:
+      return protectedQueue;
+    }
+  }
+
+  private long getWeight()
+  {
+    return window.weight + probation.weight + protectedQueue.weight;
+  }
+
+  /**
+   * Moves the entries overflowing the admission window to the probation
+   * segment, then evicts entries until the cache fits within its maximum size.
+   * Each entry leaving the admission window competes for admission with the
+   * least recently used entry of the probation segment.
+   */
+  private void evictIfNeeded()
+  {
+    long maxWindowWeight = Math.max(1, maxWeight * WINDOW_PERCENT / 100);
+    while (window.weight > maxWindowWeight)
+    {
+      Node candidate = window.peekFirst();
+      window.remove(candidate);
+      if (getWeight() + candidate.weight <= maxWeight)
+      {
+        candidate.queue = PROBATION;
+        probation.addLast(candidate);
+        continue;
+      }
+
+      // The cache is full: the candidate must win against the victims it would replace.
+      if (admit(candidate))
+      {
+        candidate.queue = PROBATION;
+        probation.addLast(candidate);
+        admissions++;
+      }
+      else
+      {
+        // Put it back so that remove() finds it in a queue.
+        window.addLast(candidate);
+        evict(candidate);
+        rejections++;
+      }
+    }
+
+    // The window itself may still be too big if the maximum size has been reduced.
+    while (getWeight() > maxWeight)
+    {
+      evict(nextVictim());
+    }
+  }
+
+  /**
+   * Collects the least recently used victims of the main part of the cache
+   * until they make enough room for the candidate, and evicts them only if the
+   * candidate is accessed more frequently than each of them. Otherwise the
+   * cache is left unchanged.
+   */
+  private boolean admit(Node candidate)
+  {
+    int candidateFrequency = sketch.frequency(candidate.getDN());
+    long weightToFree = getWeight() + candidate.weight - maxWeight;
+    List<Node> victims = new ArrayList<>();
+    Node victim = probation.peekFirst();
+    AccessOrderQueue queue = probation;
+    while (weightToFree > 0)
+    {
+      if (victim == null && queue == probation)
+      {
+        queue = protectedQueue;
+        victim = protectedQueue.peekFirst();
+      }
+      if (victim == null)
+      {
+        // Only the window remains, which cannot happen unless the maximum size has been reduced.
+        return false;
+      }
+      if (candidateFrequency <= sketch.frequency(victim.getDN()))
+      {
+        return false;
+      }
+      victims.add(victim);
+      weightToFree -= victim.weight;
+      victim = queue.nextOf(victim);
+    }
+
+    for (Node node : victims)
+    {
+      evict(node);
+    }
+    return true;
+  }
+
+  private Node nextVictim()
+  {
+    Node victim = probation.peekFirst();
+    if (victim == null)
+    {
+      victim = protectedQueue.peekFirst();
+    }
+    if (victim == null)
+    {
+      victim = window.peekFirst();
+    }
+    return victim;
+  }
+
+  /** Applies a read access to the eviction policy. Requires the eviction lock. */
+  private void onAccess(Node node)
+  {
+    sketch.increment(node.getDN());
+    if (!node.isAlive)
+    {
+      return;
+    }
+    switch (node.queue)
+    {
+    case WINDOW:
+      window.moveToLast(node);
+      break;
+    case PROBATION:
+      probation.remove(node);
+      node.queue = PROTECTED;
+      protectedQueue.addLast(node);
+      // Demote the least recently used protected entries if the protected segment is too big.
+      long maxProtectedWeight = (maxWeight - maxWeight * WINDOW_PERCENT / 100) * PROTECTED_PERCENT / 100;
+      while (protectedQueue.weight > maxProtectedWeight)
+      {
+        Node demoted = protectedQueue.peekFirst();
+        protectedQueue.remove(demoted);
+        demoted.queue = PROBATION;
+        probation.addLast(demoted);
+      }
+      break;
+    default:
+      protectedQueue.moveToLast(node);
+      break;
+    }
+  }
+
+  /** Records a read access without locking, and replays the buffered accesses if possible. */
+  private void recordRead(Node node)
+  {
+    int stripe = (int) Thread.currentThread().getId() & readBufferStripeMask;
+    int count = readBufferCounters.getAndIncrement(stripe * READ_BUFFER_COUNTER_SPACING);
+    int index = stripe * READ_BUFFER_STRIPE_SIZE + (count & (READ_BUFFER_STRIPE_SIZE - 1));
+    readBuffer.lazySet(index, node);
+    if ((count & (READ_BUFFER_STRIPE_SIZE / 2 - 1)) == 0 && evictionLock.tryLock())
+    {
+      try
+      {
+        drainReadBuffer();
+      }
+      finally
+      {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  /** Requires the eviction lock. */
+  private void drainReadBuffer()
+  {
+    for (int i = 0; i < readBuffer.length(); i++)
+    {
+      Node node = readBuffer.get(i);
+      if (node != null)
+      {
+        readBuffer.lazySet(i, null);
+        onAccess(node);
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isConfigurationAcceptable(EntryCacheCfg configuration,
+                                           List<LocalizableMessage> unacceptableReasons)
+  {
+    TinyLFUEntryCacheCfg config = (TinyLFUEntryCacheCfg) configuration;
+    return isConfigurationChangeAcceptable(config, unacceptableReasons);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isConfigurationChangeAcceptable(
+      TinyLFUEntryCacheCfg configuration,
+      List<LocalizableMessage> unacceptableReasons
+      )
+  {
+    boolean applyChanges = false;
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_ACCEPTABLE,
+          unacceptableReasons,
+          null
+        );
+    processEntryCacheConfig (configuration, applyChanges, errorHandler);
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public ConfigChangeResult applyConfigurationChange(TinyLFUEntryCacheCfg configuration)
+  {
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_APPLY, null, errorMessages
+          );
+
+    // Do not apply changes unless this cache is enabled.
+    if (configuration.isEnabled()) {
+      processEntryCacheConfig (configuration, applyChanges, errorHandler);
+    }
+
+    final ConfigChangeResult changeResult = new ConfigChangeResult();
+    changeResult.setResultCode(errorHandler.getResultCode());
+    changeResult.setAdminActionRequired(errorHandler.getIsAdminActionRequired());
+    changeResult.getMessages().addAll(errorHandler.getErrorMessages());
+    return changeResult;
+  }
+
+  /**
+   * Parses the provided configuration and configure the entry cache.
+   *
+   * @param configuration  The new configuration containing the changes.
+   * @param applyChanges   If true then take into account the new configuration.
+   * @param errorHandler   An handler used to report errors.
+   *
+   * @return  <CODE>true</CODE> if configuration is acceptable,
+   *          or <CODE>false</CODE> otherwise.
+   */
+  private boolean processEntryCacheConfig(
+      TinyLFUEntryCacheCfg                configuration,
+      boolean                             applyChanges,
+      EntryCacheCommon.ConfigErrorHandler errorHandler
+      )
+  {
+    // Local variables to read configuration.
+    Set<SearchFilter> newIncludeFilters = null;
+    Set<SearchFilter> newExcludeFilters = null;
+
+    // Read configuration.
+    DN newConfigEntryDN = configuration.dn();
+    long newMaxWeight = configuration.getMaxMemorySize();
+
+    // Get include and exclude filters.
+    switch (errorHandler.getConfigPhase())
+    {
+    case PHASE_INIT:
+    case PHASE_ACCEPTABLE:
+    case PHASE_APPLY:
+      newIncludeFilters = EntryCacheCommon.getFilters (
+          configuration.getIncludeFilter(),
+          ERR_CACHE_INVALID_INCLUDE_FILTER,
+          errorHandler,
+          newConfigEntryDN
+          );
+      newExcludeFilters = EntryCacheCommon.getFilters (
+          configuration.getExcludeFilter(),
+          ERR_CACHE_INVALID_EXCLUDE_FILTER,
+          errorHandler,
+          newConfigEntryDN
+          );
+      break;
+    }
+
+    if (applyChanges && errorHandler.getIsAcceptable())
+    {
+      evictionLock.lock();
+      try
+      {
+        if (sketch == null || newMaxWeight != maxWeight)
+        {
+          sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, newMaxWeight / ESTIMATED_ENTRY_SIZE));
+        }
+        maxWeight = newMaxWeight;
+        evictIfNeeded();
+      }
+      finally
+      {
+        evictionLock.unlock();
+      }
+      setIncludeFilters(newIncludeFilters);
+      setExcludeFilters(newExcludeFilters);
+      registeredConfiguration = configuration;
+    }
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public List<Attribute> getMonitorData()
+  {
+    try {
+      List<Attribute> attrs = EntryCacheCommon.getGenericMonitorData(
+        Long.valueOf(cacheHits.longValue()),
+        // If cache misses is maintained by default cache
+        // get it from there and if not point to itself.
+        DirectoryServer.getEntryCache().getCacheMisses(),
+        Long.valueOf(getWeight()),
+        Long.valueOf(maxWeight),
+        Long.valueOf(dnMap.size()),
+        null
+        );
+      attrs.add(Attributes.create("entryCacheAdmissions", String.valueOf(admissions)));
+      attrs.add(Attributes.create("entryCacheRejections", String.valueOf(rejections)));
+      attrs.add(Attributes.create("entryCacheEvictions", String.valueOf(evictions)));
+      return attrs;
+    } catch (Exception e) {
+      logger.traceException(e);
+      return Collections.emptyList();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Long getCacheCount()
+  {
+    return Long.valueOf(dnMap.size());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toVerboseString()
+  {
+    StringBuilder sb = new StringBuilder();
+    for (Iterator<Node> it = dnMap.values().iterator(); it.hasNext();)
+    {
+      Node node = it.next();
+      sb.append(node.getDN());
+      sb.append(":");
+      sb.append(node.entryID);
+      sb.append(":");
+      sb.append(node.backendID);
+      sb.append(ServerConstants.EOL);
+    }
+
+    String verboseString = sb.toString();
+    return verboseString.length() > 0 ? verboseString : null;
+  }
+}
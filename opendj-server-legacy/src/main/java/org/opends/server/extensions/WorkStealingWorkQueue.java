@@ -0,0 +1,555 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ConfigMessages.*;
+import static org.opends.messages.CoreMessages.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigChangeResult;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.opends.server.admin.server.ConfigurationChangeListener;
+import org.opends.server.admin.std.server.WorkStealingWorkQueueCfg;
+import org.opends.server.api.WorkQueue;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.monitors.WorkStealingWorkQueueMonitor;
+import org.opends.server.types.CancelRequest;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.Operation;
+
+/**
+ * This class defines a Directory Server work queue where each worker thread
+ * has its own queue of pending operations. Operations are queued for the worker
+ * thread associated with their client connection, and idle worker threads
+ * steal the oldest pending operations from the queues of busy worker threads.
+ * <p>
+ * Idle worker threads are parked and unparked individually, so there is no
+ * shared lock on either the submission or the idle path. A submitter queues the
+ * operation before checking whether the target worker is idle, whereas an idle
+ * worker advertises itself as idle before checking its queue one last time,
+ * so wake-ups cannot be lost.
+ * <p>
+ * The total number of pending operations can optionally be bounded, in which
+ * case operations submitted while the work queue is full are rejected.
+ * <p>
+ * Changes to the number of worker threads take effect once the server is
+ * restarted.
+ */
+public class WorkStealingWorkQueue
+       extends WorkQueue<WorkStealingWorkQueueCfg>
+       implements ConfigurationChangeListener<WorkStealingWorkQueueCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /**
+   * The maximum length of time an idle worker thread is parked before checking
+   * whether the server is shutting down.
+   */
+  private static final long MAX_PARK_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+  /** The worker threads servicing this work queue, indexed by worker ID. */
+  private WorkStealingWorkerThread[] workerThreads;
+
+  /** The number of worker threads currently waiting for work. */
+  private final AtomicInteger numIdleWorkers = new AtomicInteger();
+
+  /** The number of operations queued for all the worker threads. */
+  private final AtomicInteger numPendingOperations = new AtomicInteger();
+
+  /**
+   * The number of operations that have been rejected because the work queue
+   * was already at its maximum capacity.
+   */
+  private final AtomicLong queueFullRejects = new AtomicLong();
+
+  /**
+   * The maximum number of pending operations, or 0 if the work queue is
+   * unbounded.
+   */
+  private volatile int maxCapacity;
+
+  /** Indicates whether the Directory Server is shutting down. */
+  private volatile boolean shutdownRequested;
+
+  /**
+   * Creates a new instance of this work queue.  All initialization should be
+   * performed in the <CODE>initializeWorkQueue</CODE> method.
+   */
+  public WorkStealingWorkQueue()
+  {
+    // No implementation should be performed here.
+  }
+
+  /**
+   * Creates and starts a new instance of this work queue without registering
+   * any configuration listener nor monitor provider. For unit tests only.
+   *
+   * @param  numWorkerThreads  The number of worker threads.
+   * @param  maxCapacity       The maximum number of pending operations, or 0
+   *                           if the work queue is unbounded.
+   */
+  WorkStealingWorkQueue(int numWorkerThreads, int maxCapacity)
+  {
+    this.maxCapacity = maxCapacity;
+    startWorkerThreads(numWorkerThreads);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void initializeWorkQueue(WorkStealingWorkQueueCfg configuration)
+         throws ConfigException, InitializationException
+  {
+    shutdownRequested = false;
+
+    // Register to be notified of any configuration changes.
+    configuration.addWorkStealingChangeListener(this);
+
+    maxCapacity = getMaxCapacity(configuration);
+    startWorkerThreads(computeNumWorkerThreads(configuration.getNumWorkerThreads()));
+
+    // Create and register a monitor provider for the work queue.
+    try
+    {
+      WorkStealingWorkQueueMonitor monitor = new WorkStealingWorkQueueMonitor(this);
+      monitor.initializeMonitorProvider(null);
+      DirectoryServer.registerMonitorProvider(monitor);
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      logger.error(ERR_CONFIG_WORK_QUEUE_CANNOT_CREATE_MONITOR, WorkStealingWorkQueueMonitor.class, e);
+    }
+  }
+
+  private void startWorkerThreads(int numWorkerThreads)
+  {
+    workerThreads = new WorkStealingWorkerThread[numWorkerThreads];
+    for (int i = 0; i < numWorkerThreads; i++)
+    {
+      workerThreads[i] = new WorkStealingWorkerThread(this, i);
+    }
+    for (WorkStealingWorkerThread t : workerThreads)
+    {
+      t.start();
+    }
+  }
+
+  private static int getMaxCapacity(WorkStealingWorkQueueCfg configuration)
+  {
+    Integer maxCapacity = configuration.getMaxWorkQueueCapacity();
+    return maxCapacity != null ? maxCapacity : 0;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void finalizeWorkQueue(LocalizableMessage reason)
+  {
+    shutdownRequested = true;
+
+    // Send responses to any operations in the pending queues to indicate that
+    // they won't be processed because the server is shutting down.
+    CancelRequest cancelRequest = new CancelRequest(true, reason);
+    for (WorkStealingWorkerThread t : workerThreads)
+    {
+      for (Operation o = t.pollOperation(); o != null; o = t.pollOperation())
+      {
+        numPendingOperations.decrementAndGet();
+        try
+        {
+          // The operation has no chance of responding to the cancel
+          // request so avoid waiting for a cancel response.
+          if (o.getCancelResult() == null)
+          {
+            o.abort(cancelRequest);
+          }
+        }
+        catch (Exception e)
+        {
+          logger.traceException(e);
+          logger.warn(WARN_QUEUE_UNABLE_TO_CANCEL, o, e);
+        }
+      }
+    }
+
+    // Notify all the worker threads of the shutdown.
+    for (WorkStealingWorkerThread t : workerThreads)
+    {
+      try
+      {
+        t.shutDown();
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+        logger.warn(WARN_QUEUE_UNABLE_TO_NOTIFY_THREAD, t.getName(), e);
+      }
+    }
+  }
+
+  /**
+   * Indicates whether this work queue has received a request to shut down.
+   *
+   * @return  <CODE>true</CODE> if the work queue has recieved a request to shut
+   *          down, or <CODE>false</CODE> if not.
+   */
+  public boolean shutdownRequested()
+  {
+    return shutdownRequested;
+  }
+
+  /**
+   * Submits an operation to be processed by the worker thread associated with
+   * its client connection, or by any idle worker thread if that worker thread
+   * is busy.
+   *
+   * @param  operation  The operation to be processed.
+   *
+   * @throws  DirectoryException  If the provided operation is not accepted
+   *                              because the server is shutting down or the
+   *                              work queue is already at its maximum capacity.
+   */
+  @Override
+  public void submitOperation(Operation operation) throws DirectoryException
+  {
+    if (shutdownRequested)
+    {
+      LocalizableMessage message = WARN_OP_REJECTED_BY_SHUTDOWN.get();
+      throw new DirectoryException(ResultCode.UNAVAILABLE, message);
+    }
+
+    // Reserve room for the operation before queueing it.
+    int capacity = maxCapacity;
+    if (numPendingOperations.incrementAndGet() > capacity && capacity > 0)
+    {
+      numPendingOperations.decrementAndGet();
+      queueFullRejects.incrementAndGet();
+
+      LocalizableMessage message = WARN_OP_REJECTED_BY_QUEUE_FULL.get(capacity);
+      throw new DirectoryException(ResultCode.BUSY, message);
+    }
+
+    WorkStealingWorkerThread target = workerThreads[getWorkerID(operation)];
+    target.addOperation(operation);
+    if (target.isIdle())
+    {
+      LockSupport.unpark(target);
+    }
+    else if (numIdleWorkers.get() > 0)
+    {
+      // The target worker is busy: wake up an idle worker so that it steals the operation.
+      wakeUpIdleWorker(target.getWorkerID());
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean trySubmitOperation(Operation operation)
+      throws DirectoryException
+  {
+    try
+    {
+      submitOperation(operation);
+      return true;
+    }
+    catch (DirectoryException e)
+    {
+      if (ResultCode.BUSY == e.getResultCode())
+      {
+        return false;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Retrieves the next operation that should be processed by the provided
+   * worker thread, blocking if necessary until a new request arrives.  The
+   * worker thread's own queue is checked first, then the queues of the other
+   * worker threads.  This method should only be called by a worker thread
+   * associated with this work queue.
+   *
+   * @param  workerThread  The worker thread that is requesting the operation.
+   *
+   * @return  The next operation that should be processed, or <CODE>null</CODE>
+   *          if the server is shutting down and no more operations will be
+   *          processed.
+   */
+  Operation nextOperation(WorkStealingWorkerThread workerThread)
+  {
+    while (!shutdownRequested)
+    {
+      Operation operation = findOperation(workerThread);
+      if (operation != null)
+      {
+        return operation;
+      }
+
+      workerThread.setIdle(true);
+      numIdleWorkers.incrementAndGet();
+      try
+      {
+        // Check again now that submitters can see that this worker is idle.
+        operation = findOperation(workerThread);
+        if (operation != null)
+        {
+          return operation;
+        }
+        if (!shutdownRequested)
+        {
+          LockSupport.parkNanos(this, MAX_PARK_NANOS);
+          // Interrupts are only used for signalling shutdown.
+          Thread.interrupted();
+        }
+      }
+      finally
+      {
+        numIdleWorkers.decrementAndGet();
+        workerThread.setIdle(false);
+      }
+    }
+    return null;
+  }
+
+  private Operation findOperation(WorkStealingWorkerThread workerThread)
+  {
+    Operation operation = pollOperation(workerThread);
+    if (operation != null)
+    {
+      return operation;
+    }
+
+    // Steal the oldest operation from the other workers, starting with the next one.
+    int workerID = workerThread.getWorkerID();
+    for (int i = 1; i < workerThreads.length; i++)
+    {
+      WorkStealingWorkerThread victim = workerThreads[(workerID + i) % workerThreads.length];
+      operation = pollOperation(victim);
+      if (operation != null)
+      {
+        workerThread.operationStolen();
+        return operation;
+      }
+    }
+    return null;
+  }
+
+  private Operation pollOperation(WorkStealingWorkerThread t)
+  {
+    Operation operation = t.pollOperation();
+    if (operation != null)
+    {
+      numPendingOperations.decrementAndGet();
+    }
+    return operation;
+  }
+
+  private void wakeUpIdleWorker(int busyWorkerID)
+  {
+    for (int i = 1; i < workerThreads.length; i++)
+    {
+      WorkStealingWorkerThread t = workerThreads[(busyWorkerID + i) % workerThreads.length];
+      if (t.isIdle())
+      {
+        LockSupport.unpark(t);
+        return;
+      }
+    }
+  }
+
+  /** Operations from the same client connection are always queued for the same worker. */
+  private int getWorkerID(Operation operation)
+  {
+    long connectionID = operation.getClientConnection().getConnectionID();
+    return (int) ((connectionID & Long.MAX_VALUE) % workerThreads.length);
+  }
+
+  /**
+   * Attempts to remove the specified operation from this queue if it has not
+   * yet been picked up for processing by one of the worker threads.
+   *
+   * @param  operation  The operation to remove from the queue.
+   *
+   * @return  <CODE>true</CODE> if the provided request was present in the queue
+   *          and was removed successfully, or <CODE>false</CODE> it not.
+   */
+  public boolean removeOperation(Operation operation)
+  {
+    for (WorkStealingWorkerThread t : workerThreads)
+    {
+      if (t.removeOperation(operation))
+      {
+        numPendingOperations.decrementAndGet();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Retrieves the total number of operations that have been successfully
+   * submitted to this work queue for processing since server startup.
+   *
+   * @return  The total number of operations that have been successfully
+   *          submitted to this work queue since startup.
+   */
+  public long getOpsSubmitted()
+  {
+    long opsSubmitted = 0;
+    for (WorkStealingWorkerThread t : workerThreads)
+    {
+      opsSubmitted += t.getOpsSubmitted();
+    }
+    return opsSubmitted;
+  }
+
+  /**
+   * Retrieves the total number of operations that have been stolen by a worker
+   * thread from the queue of another worker thread since server startup.
+   *
+   * @return  The total number of operations that have been stolen since
+   *          startup.
+   */
+  public long getOpsStolen()
+  {
+    long opsStolen = 0;
+    for (WorkStealingWorkerThread t : workerThreads)
+    {
+      opsStolen += t.getOpsStolen();
+    }
+    return opsStolen;
+  }
+
+  /**
+   * Retrieves the total number of operations that have been rejected because
+   * the work queue was already at its maximum capacity.
+   *
+   * @return  The total number of operations that have been rejected because
+   *          the work queue was already at its maximum capacity.
+   */
+  public long getOpsRejectedDueToQueueFull()
+  {
+    return queueFullRejects.get();
+  }
+
+  /**
+   * Retrieves the number of pending operations in the queues that have not yet
+   * been picked up for processing.  Note that this method is not a
+   * constant-time operation and can be relatively inefficient, so it should be
+   * used sparingly.
+   *
+   * @return  The number of pending operations in the queues that have not yet
+   *          been picked up for processing.
+   */
+  public int size()
+  {
+    int size = 0;
+    for (WorkStealingWorkerThread t : workerThreads)
+    {
+      size += t.getQueueSize();
+    }
+    return size;
+  }
+
+  /**
+   * Retrieves the worker threads servicing this work queue, indexed by worker
+   * ID.
+   *
+   * @return  The worker threads servicing this work queue.
+   */
+  public List<WorkStealingWorkerThread> getWorkerThreads()
+  {
+    List<WorkStealingWorkerThread> threads = new ArrayList<>(workerThreads.length);
+    for (WorkStealingWorkerThread t : workerThreads)
+    {
+      threads.add(t);
+    }
+    return threads;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isConfigurationChangeAcceptable(
+                      WorkStealingWorkQueueCfg configuration,
+                      List<LocalizableMessage> unacceptableReasons)
+  {
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public ConfigChangeResult applyConfigurationChange(
+                                 WorkStealingWorkQueueCfg configuration)
+  {
+    final ConfigChangeResult ccr = new ConfigChangeResult();
+    // The capacity is only checked on submission, so it can change on the fly.
+    maxCapacity = getMaxCapacity(configuration);
+
+    int newNumThreads = computeNumWorkerThreads(configuration.getNumWorkerThreads());
+    if (newNumThreads != workerThreads.length)
+    {
+      // Operations are mapped to workers using the number of workers.
+      ccr.setAdminActionRequired(true);
+      ccr.addMessage(INFO_CONFIG_WORK_QUEUE_NUM_THREADS_CHANGE_REQUIRES_RESTART.get(
+          workerThreads.length, newNumThreads));
+    }
+    return ccr;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isIdle()
+  {
+    for (WorkStealingWorkerThread t : workerThreads)
+    {
+      if (t.getQueueSize() > 0 || t.isActive())
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the number of worker threads used by this WorkQueue.
+   *
+   * @return the number of worker threads used by this WorkQueue
+   */
+  @Override
+  public int getNumWorkerThreads()
+  {
+    return workerThreads.length;
+  }
+}
@@ -0,0 +1,284 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.CoreMessages.*;
+import static org.opends.server.util.StaticUtils.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.opends.server.api.DirectoryThread;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.CancelRequest;
+import org.opends.server.types.DisconnectReason;
+import org.opends.server.types.Operation;
+
+/**
+ * This class defines a worker thread servicing a {@link WorkStealingWorkQueue}.
+ * Each worker thread owns a queue of pending operations.
+ */
+public class WorkStealingWorkerThread
+       extends DirectoryThread
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The queue of operations pending for this worker thread. */
+  private final ConcurrentLinkedDeque<Operation> pendingOperations = new ConcurrentLinkedDeque<>();
+
+  /** The number of operations which have been submitted to this worker thread. */
+  private final AtomicLong opsSubmitted = new AtomicLong();
+
+  /**
+   * The number of operations which this worker thread has stolen from other
+   * worker threads. Only updated by this worker thread.
+   */
+  private volatile long opsStolen;
+
+  /** Indicates whether this thread is currently parked waiting for work. */
+  private volatile boolean idle;
+
+  /**
+   * Indicates whether the Directory Server is shutting down and this thread
+   * should stop running.
+   */
+  private volatile boolean shutdownRequested;
+
+  /** The operation that this worker thread is currently processing. */
+  private volatile Operation operation;
+
+  /** The index of this worker thread in the work queue. */
+  private final int workerID;
+
+  /** The work queue that this worker thread will service. */
+  private final WorkStealingWorkQueue workQueue;
+
+  /**
+   * Creates a new worker thread that will service the provided work queue and
+   * process any new requests that are submitted.
+   *
+   * @param  workQueue  The work queue with which this worker thread is
+   *                    associated.
+   * @param  workerID   The index of this worker thread in the work queue.
+   */
+  public WorkStealingWorkerThread(WorkStealingWorkQueue workQueue, int workerID)
+  {
+    super("Worker Thread " + workerID);
+    this.workQueue = workQueue;
+    this.workerID = workerID;
+  }
+
+  /**
+   * Retrieves the index of this worker thread in the work queue.
+   *
+   * @return  The index of this worker thread in the work queue.
+   */
+  public int getWorkerID()
+  {
+    return workerID;
+  }
+
+  void addOperation(Operation operation)
+  {
+    pendingOperations.addLast(operation);
+    opsSubmitted.incrementAndGet();
+  }
+
+  /** Called by this worker thread or by a thief. */
+  Operation pollOperation()
+  {
+    return pendingOperations.pollFirst();
+  }
+
+  boolean removeOperation(Operation operation)
+  {
+    return pendingOperations.remove(operation);
+  }
+
+  void operationStolen()
+  {
+    opsStolen++;
+  }
+
+  boolean isIdle()
+  {
+    return idle;
+  }
+
+  void setIdle(boolean idle)
+  {
+    this.idle = idle;
+  }
+
+  /**
+   * Retrieves the number of operations pending for this worker thread. Note
+   * that this method is not a constant-time operation.
+   *
+   * @return  The number of operations pending for this worker thread.
+   */
+  public int getQueueSize()
+  {
+    return pendingOperations.size();
+  }
+
+  /**
+   * Retrieves the number of operations which have been submitted to this worker
+   * thread since startup, including those stolen by other worker threads.
+   *
+   * @return  The number of operations which have been submitted to this worker
+   *          thread since startup.
+   */
+  public long getOpsSubmitted()
+  {
+    return opsSubmitted.get();
+  }
+
+  /**
+   * Retrieves the number of operations which this worker thread has stolen from
+   * other worker threads since startup.
+   *
+   * @return  The number of operations which this worker thread has stolen from
+   *          other worker threads since startup.
+   */
+  public long getOpsStolen()
+  {
+    return opsStolen;
+  }
+
+  /**
+   * Indicates whether this worker thread is actively processing a request.
+   * Note that this is a point-in-time determination.
+   *
+   * @return  {@code true} if this worker thread is actively processing a
+   *          request, or {@code false} if it is idle.
+   */
+  public boolean isActive()
+  {
+    return isAlive() && operation != null;
+  }
+
+  /**
+   * Operates in a loop, retrieving the next request from the work queue,
+   * processing it, and then going back to the queue for more.
+   */
+  @Override
+  public void run()
+  {
+    while (!shutdownRequested)
+    {
+      try
+      {
+        operation = null;
+        operation = workQueue.nextOperation(this);
+        if (operation == null)
+        {
+          // The operation may be null if the server is shutting down.
+          break;
+        }
+        operation.run();
+        operation.operationCompleted();
+      }
+      catch (Throwable t)
+      {
+        logger.traceException(t);
+        try
+        {
+          LocalizableMessage message =
+              ERR_UNCAUGHT_WORKER_THREAD_EXCEPTION.get(getName(), operation, stackTraceToSingleLineString(t));
+          logger.error(message);
+
+          operation.setResultCode(DirectoryServer.getServerErrorResultCode());
+          operation.appendErrorMessage(message);
+          operation.getClientConnection().sendResponse(operation);
+          operation.disconnectClient(DisconnectReason.SERVER_ERROR, true, message);
+        }
+        catch (Throwable t2)
+        {
+          logger.traceException(t2);
+        }
+      }
+    }
+    operation = null;
+
+    if (!workQueue.shutdownRequested())
+    {
+      logger.warn(WARN_UNEXPECTED_WORKER_THREAD_EXIT, getName());
+    }
+    if (logger.isTraceEnabled())
+    {
+      logger.trace(getName() + " exiting.");
+    }
+  }
+
+  /**
+   * Indicates that the Directory Server has received a request to stop running
+   * and that this thread should stop running as soon as possible.
+   */
+  public void shutDown()
+  {
+    shutdownRequested = true;
+
+    Operation currentOperation = operation;
+    if (currentOperation == null)
+    {
+      // Wake the thread up if it is waiting for work.
+      interrupt();
+    }
+    else
+    {
+      try
+      {
+        currentOperation.cancel(new CancelRequest(true, INFO_CANCELED_BY_SHUTDOWN.get()));
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+      }
+    }
+  }
+
+  /**
+   * Retrieves any relevent debug information with which this tread is
+   * associated so they can be included in debug messages.
+   *
+   * @return debug information about this thread as a string.
+   */
+  @Override
+  public Map<String, String> getDebugProperties()
+  {
+    Map<String, String> properties = super.getDebugProperties();
+    Operation currentOperation = operation;
+    if (currentOperation != null)
+    {
+      properties.put("clientConnection", currentOperation.getClientConnection().toString());
+      properties.put("operation", currentOperation.toString());
+    }
+    return properties;
+  }
+}
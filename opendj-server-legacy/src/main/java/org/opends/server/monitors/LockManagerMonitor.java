@@ -0,0 +1,152 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.monitors;
+
+import static org.opends.server.core.DirectoryServer.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.opends.server.admin.std.server.MonitorProviderCfg;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.types.Attribute;
+import org.opends.server.types.AttributeType;
+import org.opends.server.types.Attributes;
+import org.opends.server.types.LockManager;
+import org.opends.server.types.LockManager.LockType;
+
+/**
+ * This class defines a Directory Server monitor that can be used to provide
+ * information about the contention on the server lock manager.
+ */
+public class LockManagerMonitor extends MonitorProvider<MonitorProviderCfg>
+{
+  /** The name to use for the monitor attribute that provides the lock table implementation. */
+  public static final String ATTR_LOCK_TABLE_IMPLEMENTATION = "lockTableImplementation";
+  /** The suffix of the monitor attributes providing the number of locks acquired. */
+  private static final String ATTR_SUFFIX_ACQUIRED = "LocksAcquired";
+  /** The suffix of the monitor attributes providing the number of lock attempts which timed out. */
+  private static final String ATTR_SUFFIX_TIMEOUTS = "LockTimeouts";
+  /** The suffix of the monitor attributes providing the average lock wait time. */
+  private static final String ATTR_SUFFIX_AVERAGE_WAIT_TIME = "AverageLockWaitTimeMicros";
+  /** The suffix of the monitor attributes providing the average lock hold time. */
+  private static final String ATTR_SUFFIX_AVERAGE_HOLD_TIME = "AverageLockHoldTimeMicros";
+
+  /** The lock manager with which this monitor is associated. */
+  private final LockManager lockManager;
+
+  /**
+   * Creates a new lock manager monitor.
+   *
+   * @param  lockManager  The lock manager with which this monitor is associated.
+   */
+  public LockManagerMonitor(LockManager lockManager)
+  {
+    this.lockManager = lockManager;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void initializeMonitorProvider(MonitorProviderCfg configuration)
+  {
+    // No initialization is required.
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String getMonitorInstanceName()
+  {
+    return "Lock Manager";
+  }
+
+  /**
+   * Retrieves a set of attributes containing monitor data that should be
+   * returned to the client if the corresponding monitor entry is requested.
+   * For each lock type, e.g. "writeEntry", the following attributes are
+   * provided: "writeEntryLocksAcquired", "writeEntryLockTimeouts",
+   * "writeEntryAverageLockWaitTimeMicros" and
+   * "writeEntryAverageLockHoldTimeMicros".
+   *
+   * @return  A set of attributes containing monitor data that should be
+   *          returned to the client if the corresponding monitor entry is
+   *          requested.
+   */
+  @Override
+  public ArrayList<Attribute> getMonitorData()
+  {
+    ArrayList<Attribute> monitorAttrs = new ArrayList<>();
+    AttributeType implType = getAttributeTypeOrDefault(
+        ATTR_LOCK_TABLE_IMPLEMENTATION, ATTR_LOCK_TABLE_IMPLEMENTATION, getDefaultStringSyntax());
+    monitorAttrs.add(Attributes.create(implType,
+        lockManager.getLockTableImplementation().toString().toLowerCase()));
+
+    for (LockType lockType : LockType.values())
+    {
+      String prefix = getAttributePrefix(lockType);
+      long acquired = lockManager.getLocksAcquired(lockType);
+      long timeouts = lockManager.getLockTimeouts(lockType);
+      long waitTime = lockManager.getTotalLockWaitTimeNanos(lockType);
+      long holdTime = lockManager.getTotalLockHoldTimeNanos(lockType);
+
+      putAttribute(monitorAttrs, prefix + ATTR_SUFFIX_ACQUIRED, acquired);
+      putAttribute(monitorAttrs, prefix + ATTR_SUFFIX_TIMEOUTS, timeouts);
+      putAttribute(monitorAttrs, prefix + ATTR_SUFFIX_AVERAGE_WAIT_TIME,
+          averageMicros(waitTime, acquired + timeouts));
+      putAttribute(monitorAttrs, prefix + ATTR_SUFFIX_AVERAGE_HOLD_TIME,
+          averageMicros(holdTime, acquired));
+    }
+    return monitorAttrs;
+  }
+
+  /** Converts a lock type, e.g. WRITE_SUBTREE, into an attribute name prefix, e.g. writeSubtree. */
+  private static String getAttributePrefix(LockType lockType)
+  {
+    StringBuilder builder = new StringBuilder();
+    for (String word : lockType.name().toLowerCase().split("_"))
+    {
+      if (builder.length() == 0)
+      {
+        builder.append(word);
+      }
+      else
+      {
+        builder.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+      }
+    }
+    return builder.toString();
+  }
+
+  private static long averageMicros(long totalNanos, long count)
+  {
+    return count > 0 ? TimeUnit.NANOSECONDS.toMicros(totalNanos / count) : 0;
+  }
+
+  private void putAttribute(ArrayList<Attribute> monitorAttrs, String attrName, Object value)
+  {
+    AttributeType attrType = getAttributeTypeOrDefault(attrName, attrName, getDefaultIntegerSyntax());
+    monitorAttrs.add(Attributes.create(attrType, String.valueOf(value)));
+  }
+}
@@ -361,6 +361,24 @@ final class ASN1ByteChannelReader implements ASN1Reader
     return reader.elementAvailable();
   }
 
+  /**
+   * Reads the content of the next element as a whole, and returns an ASN.1
+   * reader over it. The element must be complete, which can be checked with
+   * {@link #elementAvailable()}, and its type is not checked.
+   * <p>
+   * The content is copied once out of the channel buffers. The octet strings
+   * read from the returned reader are views over this copy, whereas reading
+   * the element from this reader copies each octet string separately.
+   *
+   * @return An ASN.1 reader over the content of the next element.
+   * @throws IOException
+   *           If an error occurs while reading the element.
+   */
+  ASN1Reader readElementContent() throws IOException
+  {
+    return ASN1.getReader(reader.readOctetString());
+  }
+
   /**
    * Determines if the channel contains at least one ASN.1 element to be read.
    *
@@ -471,7 +489,7 @@ final class ASN1ByteChannelReader implements ASN1Reader
   /** {@inheritDoc} */
   @Override
   public ByteString readOctetString(byte type) throws IOException {
-    return readOctetString(type);
+    return reader.readOctetString(type);
   }
 
   /** {@inheritDoc} */
@@ -483,7 +501,7 @@ final class ASN1ByteChannelReader implements ASN1Reader
   /** {@inheritDoc} */
   @Override
   public ByteStringBuilder readOctetString(byte type, ByteStringBuilder builder) throws IOException {
-    return readOctetString(type, builder);
+    return reader.readOctetString(type, builder);
   }
 
   /** {@inheritDoc} */
@@ -495,7 +513,7 @@ final class ASN1ByteChannelReader implements ASN1Reader
   /** {@inheritDoc} */
   @Override
   public String readOctetStringAsString(byte type) throws IOException {
-    return readOctetStringAsString(type);
+    return reader.readOctetStringAsString(type);
   }
 
   /** {@inheritDoc} */
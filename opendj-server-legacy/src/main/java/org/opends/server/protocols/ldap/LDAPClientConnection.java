@@ -33,6 +33,7 @@ import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.nio.channels.*;
 import java.security.cert.Certificate;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -352,6 +353,38 @@ public final class LDAPClientConnection extends ClientConnection implements
     return holder;
   }
 
+  /**
+   * Size above which the pending responses are written to the client even if
+   * the operation which produced them is still in progress.
+   */
+  private static final int MAX_PENDING_RESPONSES_SIZE = 64 * 1024;
+
+  /**
+   * Time in milliseconds after which the pending responses are written to the
+   * client along with the next response, even if the buffer is not full.
+   */
+  private static final long MAX_PENDING_RESPONSES_DELAY = 10;
+
+  /**
+   * Encoded search result entries and references which have not yet been
+   * written to the client. They are accumulated so that large searches are
+   * written using a few large writes rather than one write per entry. This
+   * buffer is also used as the lock ordering writes to the connection.
+   */
+  private final ByteStringBuilder pendingResponses = new ByteStringBuilder();
+
+  /**
+   * The messages encoded in the pending responses. They are traced and
+   * counted in the statistics once they have been written to the client.
+   */
+  private final List<LDAPMessage> pendingMessages = new ArrayList<>();
+
+  /**
+   * The time at which the oldest pending response was buffered. Guarded by
+   * the pending responses lock.
+   */
+  private long pendingResponsesTime;
+
   /** The time that the last operation was completed. */
   private final AtomicLong lastCompletionTime;
 
@@ -720,14 +753,17 @@ public final class LDAPClientConnection extends ClientConnection implements
     // if operation processing encounters a run-time exception after sending the
     // response: the worker thread exception handling code will attempt to send
     // an error result to the client indicating that a problem occurred.
-    if (removeOperationInProgress(operation.getMessageID()))
+    // The response, if any, flushes the pending responses of the operation.
+    if (removeOperationInProgressNoFlush(operation.getMessageID()))
     {
       LDAPMessage message = operationToResponseLDAPMessage(operation);
       if (message != null)
       {
         sendLDAPMessage(message);
+        return;
       }
     }
+    flushPendingResponses();
   }
 
 
@@ -887,7 +923,8 @@ public final class LDAPClientConnection extends ClientConnection implements
         new SearchResultEntryProtocolOp(searchEntry, ldapVersion);
 
     sendLDAPMessage(new LDAPMessage(searchOperation.getMessageID(),
-        protocolOp, searchEntry.getControls()));
+        protocolOp, searchEntry.getControls()),
+        mustFlushSearchResult(searchOperation));
   }
 
 
@@ -924,12 +961,27 @@ public final class LDAPClientConnection extends ClientConnection implements
         new SearchResultReferenceProtocolOp(searchReference);
 
     sendLDAPMessage(new LDAPMessage(searchOperation.getMessageID(),
-        protocolOp, searchReference.getControls()));
+        protocolOp, searchReference.getControls()),
+        mustFlushSearchResult(searchOperation));
     return true;
   }
 
 
 
+  /**
+   * Indicates whether a search result entry or reference must be written to
+   * the client immediately. Results of persistent searches are not followed
+   * by a response, and the first result of a search is not delayed so that
+   * slow searches start returning results as soon as possible.
+   */
+  private boolean mustFlushSearchResult(SearchOperation searchOperation)
+  {
+    return !searchOperation.isSendResponse()
+        || searchOperation.getEntriesSent() + searchOperation.getReferencesSent() == 0;
+  }
+
+
+
   /**
    * Sends the provided intermediate response message to the client.
    *
@@ -967,46 +1019,154 @@ public final class LDAPClientConnection extends ClientConnection implements
    *          The LDAP message to send to the client.
    */
   private void sendLDAPMessage(LDAPMessage message)
+  {
+    sendLDAPMessage(message, true);
+  }
+
+
+
+  /**
+   * Sends the provided LDAP message to the client, possibly delaying the
+   * write until more messages are available.
+   * <p>
+   * Messages which are not flushed are kept in a per connection buffer until
+   * the buffer becomes large enough, another message is flushed, the
+   * operation which produced them completes, or another message is sent more
+   * than {@link #MAX_PENDING_RESPONSES_DELAY} milliseconds after the oldest
+   * one was kept. The buffer is only ever written by the threads sending
+   * responses on this connection, so a slow client never delays the
+   * responses sent to other clients. Messages are traced and counted in the
+   * statistics once they have been written to the client.
+   *
+   * @param message
+   *          The LDAP message to send to the client.
+   * @param flush
+   *          Indicates whether the message and all the pending ones must be
+   *          written to the client immediately.
+   */
+  private void sendLDAPMessage(LDAPMessage message, boolean flush)
   {
     // Use a thread local writer.
     final ASN1WriterHolder holder = getASN1Writer();
     try
     {
       message.write(holder.writer);
-      holder.buffer.copyTo(saslChannel);
+      synchronized (pendingResponses)
+      {
+        if (flush && pendingResponses.length() == 0)
+        {
+          // Nothing pending, avoid copying the message.
+          holder.buffer.copyTo(saslChannel);
+          messageWritten(message);
+        }
+        else
+        {
+          final long now = System.currentTimeMillis();
+          if (pendingResponses.length() == 0)
+          {
+            pendingResponsesTime = now;
+          }
+          pendingResponses.appendBytes(holder.buffer);
+          pendingMessages.add(message);
+          if (flush
+              || pendingResponses.length() >= MAX_PENDING_RESPONSES_SIZE
+              || now - pendingResponsesTime >= MAX_PENDING_RESPONSES_DELAY)
+          {
+            writePendingResponses();
+          }
+        }
+      }
+    }
+    catch (Exception e)
+    {
+      handleWriteError(e);
+    }
+    finally
+    {
+      // Clear and reset all of the internal buffers ready for the next usage.
+      // The ASN1Writer is based on a ByteStringBuilder so closing will cause
+      // the internal buffers to be resized if needed.
+      close(holder);
+    }
+ }
 
-      if (logger.isTraceEnabled())
+
+
+  /**
+   * Writes all the responses which have been delayed by
+   * {@link #sendLDAPMessage(LDAPMessage, boolean)} to the client.
+   */
+  private void flushPendingResponses()
+  {
+    try
+    {
+      synchronized (pendingResponses)
       {
-        logger.trace("LDAPMessage=%s", message);
+        if (pendingResponses.length() != 0 && connectionValid)
+        {
+          writePendingResponses();
+        }
       }
+    }
+    catch (Exception e)
+    {
+      handleWriteError(e);
+    }
+  }
 
-      if (keepStats)
+
+
+  /** Must be called while holding the pending responses lock. */
+  private void writePendingResponses() throws IOException
+  {
+    try
+    {
+      pendingResponses.copyTo(saslChannel);
+      for (LDAPMessage message : pendingMessages)
       {
-        statTracker.updateMessageWritten(message);
+        messageWritten(message);
       }
     }
-    catch (ClosedChannelException e)
+    finally
+    {
+      pendingResponses.clearAndTruncate(MAX_PENDING_RESPONSES_SIZE * 2,
+          MAX_PENDING_RESPONSES_SIZE);
+      pendingMessages.clear();
+    }
+  }
+
+
+
+  /** Traces and counts a message which has been written to the client. */
+  private void messageWritten(LDAPMessage message)
+  {
+    if (logger.isTraceEnabled())
+    {
+      logger.trace("LDAPMessage=%s", message);
+    }
+
+    if (keepStats)
+    {
+      statTracker.updateMessageWritten(message);
+    }
+  }
+
+
+
+  private void handleWriteError(Exception e)
+  {
+    logger.traceException(e);
+    if (e instanceof ClosedChannelException)
     {
-      logger.traceException(e);
       disconnect(DisconnectReason.IO_ERROR, false,
           ERR_IO_ERROR_ON_CLIENT_CONNECTION.get(getExceptionMessage(e)));
-      return;
     }
-    catch (Exception e)
+    else
     {
-      logger.traceException(e);
       disconnect(DisconnectReason.SERVER_ERROR, false,
           ERR_UNEXPECTED_EXCEPTION_ON_CLIENT_CONNECTION.get(getExceptionMessage(e)));
-      return;
     }
-    finally
-    {
-      // Clear and reset all of the internal buffers ready for the next usage.
-      // The ASN1Writer is based on a ByteStringBuilder so closing will cause
-      // the internal buffers to be resized if needed.
-      close(holder);
-    }
- }
+  }
 
 
 
@@ -1287,6 +1447,15 @@ public final class LDAPClientConnection extends ClientConnection implements
    */
   @Override
   public boolean removeOperationInProgress(int messageID)
+  {
+    // Entries returned by an abandoned search are not followed by a response.
+    flushPendingResponses();
+    return removeOperationInProgressNoFlush(messageID);
+  }
+
+
+
+  private boolean removeOperationInProgressNoFlush(int messageID)
   {
     Operation operation = operationsInProgress.remove(messageID);
     if (operation == null)
@@ -74,6 +74,81 @@ public class LDAPReader
       throw new LDAPException(PROTOCOL_ERROR, message);
     }
 
+    final LDAPMessage ldapMessage = readMessageContent(reader);
+
+    try
+    {
+      reader.readEndSequence();
+    }
+    catch(Exception e)
+    {
+      LocalizableMessage message = ERR_LDAP_MESSAGE_DECODE_NULL.get();
+      throw new LDAPException(PROTOCOL_ERROR, message);
+    }
+
+    return ldapMessage;
+  }
+
+  /**
+   * Decodes the next element of the provided ASN.1 byte channel reader as an
+   * LDAP message. The element must be complete.
+   * <p>
+   * The content of the message is read from the channel buffers as a whole
+   * before being decoded, so that decoding the message only copies its bytes
+   * once.
+   *
+   * @param reader The ASN.1 byte channel reader.
+   *
+   * @return  The decoded LDAP message.
+   *
+   * @throws  LDAPException  If a problem occurs while attempting to decode the
+   *                         LDAP message.
+   */
+  static LDAPMessage readBufferedMessage(ASN1ByteChannelReader reader)
+      throws LDAPException
+  {
+    ASN1Reader contentReader;
+    try
+    {
+      if (reader.peekType() != ASN1.UNIVERSAL_SEQUENCE_TYPE)
+      {
+        throw new LDAPException(PROTOCOL_ERROR, ERR_LDAP_MESSAGE_DECODE_NULL.get());
+      }
+      contentReader = reader.readElementContent();
+    }
+    catch (LDAPException le)
+    {
+      throw le;
+    }
+    catch(Exception e)
+    {
+      LocalizableMessage message = ERR_LDAP_MESSAGE_DECODE_NULL.get();
+      throw new LDAPException(PROTOCOL_ERROR, message);
+    }
+
+    return readMessageContent(contentReader);
+  }
+
+  /**
+   * Decodes the elements from the provided ASN.1 reader as the content of an
+   * LDAP message, i.e. the elements of the LDAP message sequence.
+   * <p>
+   * This is used to decode LDAP messages whose content has been read as a
+   * whole: the octet strings of the decoded message are then views over the
+   * content of the message rather than separate copies.
+   *
+   * @see #readBufferedMessage(ASN1ByteChannelReader)
+   *
+   * @param reader The ASN.1 reader positioned on the message ID.
+   *
+   * @return  The decoded LDAP message.
+   *
+   * @throws  LDAPException  If a problem occurs while attempting to decode the
+   *                         LDAP message.
+   */
+  public static LDAPMessage readMessageContent(ASN1Reader reader)
+      throws LDAPException
+  {
     int messageID;
     try
     {
@@ -116,16 +191,6 @@ public class LDAPReader
       throw new LDAPException(PROTOCOL_ERROR, message, e);
     }
 
-    try
-    {
-      reader.readEndSequence();
-    }
-    catch(Exception e)
-    {
-      LocalizableMessage message = ERR_LDAP_MESSAGE_DECODE_NULL.get();
-      throw new LDAPException(PROTOCOL_ERROR, message);
-    }
-
     return new LDAPMessage(messageID, protocolOp, controls);
   }
 
@@ -46,7 +46,6 @@ import org.opends.server.api.DirectoryThread;
 import org.opends.server.api.ServerShutdownListener;
 import org.opends.server.core.DirectoryServer;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
-import org.forgerock.opendj.io.ASN1Reader;
 import org.forgerock.opendj.ldap.DecodeException;
 import org.opends.server.types.DisconnectReason;
 import org.opends.server.types.InitializationException;
@@ -168,7 +167,7 @@ public class LDAPRequestHandler
       {
         try
         {
-          ASN1Reader asn1Reader = readyConnection.getASN1Reader();
+          ASN1ByteChannelReader asn1Reader = readyConnection.getASN1Reader();
           boolean ldapMessageProcessed = false;
           while (true)
           {
@@ -177,7 +176,7 @@ public class LDAPRequestHandler
               if (!ldapMessageProcessed)
               {
                 if (readyConnection.processLDAPMessage(
-                    LDAPReader.readMessage(asn1Reader)))
+                    LDAPReader.readBufferedMessage(asn1Reader)))
                 {
                   ldapMessageProcessed = true;
                 }
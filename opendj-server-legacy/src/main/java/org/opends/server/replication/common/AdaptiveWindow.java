@@ -0,0 +1,268 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.replication.common;
+
+import org.forgerock.util.time.TimeService;
+
+/**
+ * The receiving side of the replication flow control.
+ * <p>
+ * The sender may only send as many updates as the credit granted by the
+ * receiver, starting with the window size advertised during the handshake.
+ * Each time half of the window has been processed, the receiver grants new
+ * credit with a {@code WindowMsg}. Since the window size only depends on how
+ * much credit the receiver grants, it can adapt between its initial size and a
+ * maximum size without any protocol change.
+ * <p>
+ * After granting credit, the receiver watches the updates which the sender
+ * could still send without it. When the first update sent with the new credit
+ * arrives well after them, the sender ran out of credit while the grant was in
+ * flight: the window is the bottleneck, and the delay between the grant and
+ * that update is a round trip time sample. The window then grows to twice its
+ * size, or to twice the bandwidth-delay product if that is larger. When more
+ * than a quarter of the window is waiting to be processed, the consumer is the
+ * bottleneck instead: the window shrinks to half its size by withholding part
+ * of the credit.
+ * <p>
+ * This class is thread safe.
+ */
+public final class AdaptiveWindow
+{
+  private final TimeService timeService;
+  private final int initialSize;
+  private final int maxSize;
+
+  /** The current window size. */
+  private int size;
+  /** The credit still held by the sender, including the credit in flight. */
+  private int credit;
+  /** The number of updates processed since credit was last granted. */
+  private int processed;
+  /** Whether the sender was found waiting for credit since credit was last granted. */
+  private boolean windowLimited;
+  private long lastGrantTime;
+
+  /** Whether the arrivals following the grant made at {@link #grantTime} are watched. */
+  private boolean watchingGrant;
+  private long grantTime;
+  /** The number of updates the sender could still send without the watched grant. */
+  private int creditAtGrant;
+  private int receivedSinceGrant;
+  private long lastArrivalWithoutGrant;
+
+  /** When the sender ran out of credit, 0 if it has some. */
+  private long stallStartTime;
+  private long totalStallTime;
+  private long roundTripTime = -1;
+
+  /**
+   * Creates a new window.
+   *
+   * @param initialSize
+   *          the size advertised to the sender, also the minimum size
+   * @param maxSize
+   *          the maximum size, the window does not adapt if it is not greater
+   *          than the initial size
+   */
+  public AdaptiveWindow(int initialSize, int maxSize)
+  {
+    this(initialSize, maxSize, TimeService.SYSTEM);
+  }
+
+  AdaptiveWindow(int initialSize, int maxSize, TimeService timeService)
+  {
+    this.timeService = timeService;
+    this.initialSize = initialSize;
+    this.maxSize = Math.max(initialSize, maxSize);
+    this.size = initialSize;
+    this.credit = initialSize;
+    this.lastGrantTime = timeService.now();
+  }
+
+  /** Must be called for each update received from the sender. */
+  public synchronized void updateReceived()
+  {
+    final long now = timeService.now();
+    if (stallStartTime != 0)
+    {
+      totalStallTime += now - stallStartTime;
+      stallStartTime = 0;
+    }
+    if (watchingGrant)
+    {
+      watchArrival(now);
+    }
+
+    credit--;
+    if (credit <= 0)
+    {
+      stallStartTime = now;
+    }
+  }
+
+  private void watchArrival(long now)
+  {
+    receivedSinceGrant++;
+    if (receivedSinceGrant <= creditAtGrant)
+    {
+      lastArrivalWithoutGrant = now;
+      return;
+    }
+
+    // First update sent with the watched grant
+    watchingGrant = false;
+    if (creditAtGrant == 0)
+    {
+      // The sender was already waiting for this grant, the stall was accounted for
+      sampleRoundTripTime(now - grantTime);
+      return;
+    }
+    final long gap = now - lastArrivalWithoutGrant;
+    final long spacing = (lastArrivalWithoutGrant - grantTime) / creditAtGrant;
+    if (gap > 2 * spacing + 1)
+    {
+      windowLimited = true;
+      totalStallTime += gap;
+      sampleRoundTripTime(now - grantTime);
+    }
+  }
+
+  private void sampleRoundTripTime(long sample)
+  {
+    roundTripTime = roundTripTime < 0 ? sample : (7 * roundTripTime + sample) / 8;
+  }
+
+  /**
+   * Must be called each time an update received from the sender has been
+   * processed.
+   *
+   * @return the credit to grant to the sender, 0 if no credit must be granted
+   *         yet
+   */
+  public synchronized int updateProcessed()
+  {
+    processed++;
+    return grantCredit();
+  }
+
+  /**
+   * Computes the credit to grant to the sender, adapting the window size.
+   *
+   * @return the credit to grant to the sender, 0 if no credit must be granted
+   *         yet
+   */
+  public synchronized int grantCredit()
+  {
+    if (processed == 0 || processed < size / 2)
+    {
+      return 0;
+    }
+
+    final long now = timeService.now();
+    final int backlog = size - credit - processed;
+    int newSize = size;
+    if (backlog > size / 4)
+    {
+      newSize = Math.max(initialSize, size / 2);
+    }
+    else if (windowLimited)
+    {
+      newSize = (int) Math.min(maxSize, Math.max(2L * size, 2 * getBandwidthDelayProduct(now)));
+    }
+    // Credit cannot be taken back: only withhold the processed updates
+    newSize = Math.max(newSize, size - processed);
+
+    final int grant = processed + newSize - size;
+    if (grant > 0 && !watchingGrant)
+    {
+      watchingGrant = true;
+      grantTime = now;
+      creditAtGrant = Math.max(credit, 0);
+      receivedSinceGrant = 0;
+      lastArrivalWithoutGrant = now;
+    }
+    size = newSize;
+    credit += grant;
+    processed = 0;
+    windowLimited = false;
+    lastGrantTime = now;
+    return grant;
+  }
+
+  /** Returns the number of updates processed during a round trip at the current processing rate. */
+  private long getBandwidthDelayProduct(long now)
+  {
+    final long elapsed = now - lastGrantTime;
+    if (roundTripTime < 0 || elapsed <= 0)
+    {
+      return 0;
+    }
+    return processed * roundTripTime / elapsed;
+  }
+
+  /**
+   * Returns the current window size.
+   *
+   * @return the current window size
+   */
+  public synchronized int getSize()
+  {
+    return size;
+  }
+
+  /**
+   * Returns the credit still held by the sender.
+   *
+   * @return the credit still held by the sender
+   */
+  public synchronized int getCredit()
+  {
+    return credit;
+  }
+
+  /**
+   * Returns the smoothed round trip time.
+   *
+   * @return the smoothed round trip time in milliseconds, -1 if it was not
+   *         measured yet
+   */
+  public synchronized long getRoundTripTime()
+  {
+    return roundTripTime;
+  }
+
+  /**
+   * Returns the total time the sender spent waiting for credit.
+   *
+   * @return the total time the sender spent waiting for credit, in
+   *         milliseconds
+   */
+  public synchronized long getStallTime()
+  {
+    final long stallTime = totalStallTime;
+    return stallStartTime != 0 ? stallTime + timeService.now() - stallStartTime : stallTime;
+  }
+}
@@ -36,6 +36,7 @@ import org.opends.server.replication.common.CSN;
 import org.opends.server.replication.common.ServerState;
 import org.opends.server.replication.protocol.*;
 import org.opends.server.types.DN;
+import org.opends.server.types.DirectoryException;
 import org.opends.server.types.Operation;
 
 /**
@@ -46,19 +47,43 @@ import org.opends.server.types.Operation;
  * It is used to know when the ServerState must be updated and to compute
  * the dependencies between operations.
  *
+ * The changes which are not committed yet are indexed by the DN of their
+ * target entry, by the DNs of the ancestors of this entry for delete and
+ * modify DN operations and, for modify DN operations, by the new DN of the
+ * entry. Dependencies are therefore found by
+ * looking up the DNs involved in an operation rather than by going through
+ * all the pending changes. They form a graph: a change that cannot be replayed
+ * yet becomes ready again as soon as all the changes it depends on have been
+ * committed, while independent changes are replayed concurrently by the replay
+ * threads. The ServerState is still updated in CSN order.
+ *
  * One of this object is instantiated for each ReplicationDomain.
  */
 final class RemotePendingChanges
 {
   /** A map used to store the pending changes. */
-  private final SortedMap<CSN, PendingChange> pendingChanges = new TreeMap<>();
+  private final SortedMap<CSN, RemoteChange> pendingChanges = new TreeMap<>();
+
+  /** The changes not committed yet, indexed by the DN of their target entry. */
+  private final Map<DN, Set<RemoteChange>> changesByDN = new HashMap<>();
+
+  /**
+   * The delete and modify DN changes not committed yet, indexed by each of the
+   * ancestors of their target entry. Only these changes are looked up by the
+   * DN of an ancestor, so that the suffix entry does not index every pending
+   * change.
+   */
+  private final Map<DN, Set<RemoteChange>> changesBySuperiorDN = new HashMap<>();
+
+  /** The modify DN changes not committed yet, indexed by the new DN of their target entry. */
+  private final Map<DN, Set<RemoteChange>> changesByNewDN = new HashMap<>();
 
   /**
    * A sorted set containing the list of PendingChanges that have
    * not been replayed correctly because they are dependent on
-   * another change to be completed.
+   * other changes, and whose dependencies have all been committed since.
    */
-  private final SortedSet<PendingChange> dependentChanges = new TreeSet<>();
+  private final SortedSet<RemoteChange> readyChanges = new TreeSet<>();
 
   /** The ServerState that will be updated when LDAPUpdateMsg are fully replayed. */
   private final ServerState state;
@@ -96,8 +121,14 @@ final class RemotePendingChanges
   public synchronized boolean putRemoteUpdate(LDAPUpdateMsg update)
   {
     CSN csn = update.getCSN();
-    return pendingChanges.put(csn,
-        new PendingChange(csn, null, update)) == null;
+    if (pendingChanges.containsKey(csn))
+    {
+      return false;
+    }
+    RemoteChange change = new RemoteChange(csn, update);
+    pendingChanges.put(csn, change);
+    index(change);
+    return true;
   }
 
   /**
@@ -108,12 +139,17 @@ final class RemotePendingChanges
    */
   public synchronized void commit(CSN csn)
   {
-    PendingChange curChange = pendingChanges.get(csn);
+    RemoteChange curChange = pendingChanges.get(csn);
     if (curChange == null)
     {
       throw new NoSuchElementException();
     }
-    curChange.setCommitted(true);
+    if (!curChange.isCommitted())
+    {
+      curChange.setCommitted(true);
+      unindex(curChange);
+      releaseDependentChanges(curChange);
+    }
 
     CSN firstCSN = pendingChanges.firstKey();
     PendingChange firstChange = pendingChanges.get(firstCSN);
@@ -139,25 +175,36 @@ final class RemotePendingChanges
   }
 
   /**
-   * Get the first update in the list that have some dependencies cleared.
+   * Makes the changes depending on the provided committed change ready to be
+   * replayed, unless they still depend on other changes.
+   */
+  private void releaseDependentChanges(RemoteChange committedChange)
+  {
+    for (RemoteChange dependentChange : committedChange.dependentChanges)
+    {
+      if (dependentChange.dependencies.remove(committedChange)
+          && dependentChange.dependencies.isEmpty())
+      {
+        readyChanges.add(dependentChange);
+      }
+    }
+    committedChange.dependentChanges.clear();
+  }
+
+  /**
+   * Get the first update in the list that have all its dependencies cleared.
    *
    * @return The LDAPUpdateMsg to be handled.
    */
   public synchronized LDAPUpdateMsg getNextUpdate()
   {
-    /*
-     * Parse the list of Update with dependencies and check if the dependencies
-     * are now cleared until an Update without dependencies is found.
-     */
-    for (PendingChange change : dependentChanges)
+    if (readyChanges.isEmpty())
     {
-      if (change.dependenciesIsCovered(state))
-      {
-        dependentChanges.remove(change);
-        return change.getLDAPUpdateMsg();
-      }
+      return null;
     }
-    return null;
+    final RemoteChange change = readyChanges.first();
+    readyChanges.remove(change);
+    return change.getLDAPUpdateMsg();
   }
 
   /**
@@ -167,11 +214,49 @@ final class RemotePendingChanges
    * @param pendingChange   The PendingChange on which the first PendingChange
    *                        is dependent.
    */
-  private void addDependency(
-      PendingChange dependentChange, PendingChange pendingChange)
+  private void addDependency(RemoteChange dependentChange, RemoteChange pendingChange)
   {
-    dependentChange.addDependency(pendingChange.getCSN());
-    dependentChanges.add(dependentChange);
+    if (dependentChange.dependencies.add(pendingChange))
+    {
+      pendingChange.dependentChanges.add(dependentChange);
+    }
+  }
+
+  /**
+   * Marks the provided change as dependent on the older changes not committed
+   * yet that are indexed under the provided DN and that are of the provided
+   * type.
+   */
+  private void addDependencies(RemoteChange change, Map<DN, Set<RemoteChange>> index, DN dn,
+      Class<? extends LDAPUpdateMsg> msgType)
+  {
+    final Set<RemoteChange> pendingChangesForDN = dn != null ? index.get(dn) : null;
+    if (pendingChangesForDN != null)
+    {
+      for (RemoteChange pendingChange : pendingChangesForDN)
+      {
+        if (msgType.isInstance(pendingChange.getMsg())
+            && pendingChange.getCSN().isOlderThan(change.getCSN()))
+        {
+          addDependency(change, pendingChange);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the change with the provided CSN, up to date in the indexes, for
+   * its dependencies to be checked.
+   */
+  private RemoteChange getChangeToCheck(CSN csn)
+  {
+    final RemoteChange change = pendingChanges.get(csn);
+    if (change != null && !change.isCommitted())
+    {
+      // conflict resolution might have renamed the target entry
+      reindex(change);
+    }
+    return change;
   }
 
   /**
@@ -192,81 +277,21 @@ final class RemotePendingChanges
    */
   public synchronized boolean checkDependencies(AddOperation op)
   {
-    boolean hasDependencies = false;
-    final DN targetDN = op.getEntryDN();
-    final CSN csn = OperationContext.getCSN(op);
-    final PendingChange change = pendingChanges.get(csn);
+    final RemoteChange change = getChangeToCheck(OperationContext.getCSN(op));
     if (change == null)
     {
       return false;
     }
 
-    for (PendingChange pendingChange : pendingChanges.values())
+    final DN targetDN = op.getEntryDN();
+    addDependencies(change, changesByDN, targetDN, DeleteMsg.class);
+    addDependencies(change, changesByDN, targetDN, ModifyDNMsg.class);
+    for (DN dn = targetDN; dn != null; dn = dn.parent())
     {
-      if (pendingChange.getCSN().isOlderThan(csn))
-      {
-        final LDAPUpdateMsg pendingMsg = pendingChange.getLDAPUpdateMsg();
-        if (pendingMsg != null)
-        {
-          if (pendingMsg instanceof DeleteMsg)
-          {
-            /*
-             * Check is the operation to be run is a deleteOperation on the
-             * same DN.
-             */
-            if (pendingMsg.getDN().equals(targetDN))
-            {
-              hasDependencies = true;
-              addDependency(change, pendingChange);
-            }
-          }
-          else if (pendingMsg instanceof AddMsg)
-          {
-            /*
-             * Check if the operation to be run is an addOperation on a
-             * parent of the current AddOperation.
-             */
-            if (pendingMsg.getDN().isAncestorOf(targetDN))
-            {
-              hasDependencies = true;
-              addDependency(change, pendingChange);
-            }
-          }
-          else if (pendingMsg instanceof ModifyDNMsg)
-          {
-            /*
-             * Check if the operation to be run is ModifyDnOperation with
-             * the same target DN as the ADD DN
-             * or a ModifyDnOperation with new DN equals to the ADD DN parent
-             */
-            if (pendingMsg.getDN().equals(targetDN))
-            {
-              hasDependencies = true;
-              addDependency(change, pendingChange);
-            }
-            else
-            {
-              final ModifyDNMsg pendingModDn = (ModifyDNMsg) pendingMsg;
-              if (pendingModDn.newDNIsParent(targetDN))
-              {
-                hasDependencies = true;
-                addDependency(change, pendingChange);
-              }
-            }
-          }
-        }
-      }
-      else
-      {
-        // We reached an operation that is newer than the operation
-        // for which we are doing the dependency check so it is
-        // not possible to find another operation with some dependency.
-        // break the loop to avoid going through the potentially large
-        // list of pending changes.
-        break;
-      }
+      addDependencies(change, changesByDN, dn, AddMsg.class);
+      addDependencies(change, changesByNewDN, dn, ModifyDNMsg.class);
     }
-    return hasDependencies;
+    return !change.dependencies.isEmpty();
   }
 
   /**
@@ -284,41 +309,14 @@ final class RemotePendingChanges
    */
   public synchronized boolean checkDependencies(ModifyOperation op)
   {
-    boolean hasDependencies = false;
-    final DN targetDN = op.getEntryDN();
-    final CSN csn = OperationContext.getCSN(op);
-    final PendingChange change = pendingChanges.get(csn);
+    final RemoteChange change = getChangeToCheck(OperationContext.getCSN(op));
     if (change == null)
     {
       return false;
     }
 
-    for (PendingChange pendingChange : pendingChanges.values())
-    {
-      if (pendingChange.getCSN().isOlderThan(csn))
-      {
-        final LDAPUpdateMsg pendingMsg = pendingChange.getLDAPUpdateMsg();
-        if (pendingMsg instanceof AddMsg)
-        {
-          // Check if the operation to be run is an addOperation on a same DN.
-          if (pendingMsg.getDN().equals(targetDN))
-          {
-            hasDependencies = true;
-            addDependency(change, pendingChange);
-          }
-        }
-      }
-      else
-      {
-        // We reached an operation that is newer than the operation
-        // for which we are doing the dependency check so it is
-        // not possible to find another operation with some dependency.
-        // break the loop to avoid going through the potentially large
-        // list of pending changes.
-        break;
-      }
-    }
-    return hasDependencies;
+    addDependencies(change, changesByDN, op.getEntryDN(), AddMsg.class);
+    return !change.dependencies.isEmpty();
   }
 
   /**
@@ -339,73 +337,19 @@ final class RemotePendingChanges
    */
   private synchronized boolean checkDependencies(ModifyDNMsg msg)
   {
-    boolean hasDependencies = false;
-    final CSN csn = msg.getCSN();
-    final PendingChange change = pendingChanges.get(csn);
+    final RemoteChange change = getChangeToCheck(msg.getCSN());
     if (change == null)
     {
       return false;
     }
 
     final DN targetDN = change.getLDAPUpdateMsg().getDN();
-
-    for (PendingChange pendingChange : pendingChanges.values())
-    {
-      if (pendingChange.getCSN().isOlderThan(csn))
-      {
-        final LDAPUpdateMsg pendingMsg = pendingChange.getLDAPUpdateMsg();
-        if (pendingMsg != null)
-        {
-          if (pendingMsg instanceof DeleteMsg)
-          {
-            // Check if the target of the Delete is the same
-            // as the new DN of this ModifyDN
-            if (msg.newDNIsEqual(pendingMsg.getDN()))
-            {
-              hasDependencies = true;
-              addDependency(change, pendingChange);
-            }
-          }
-          else if (pendingMsg instanceof AddMsg)
-          {
-            // Check if the Add Operation was done on the new parent of
-            // the MODDN  operation
-            if (msg.newParentIsEqual(pendingMsg.getDN()))
-            {
-              hasDependencies = true;
-              addDependency(change, pendingChange);
-            }
-            // Check if the AddOperation was done on the same DN as the
-            // target DN of the MODDN operation
-            if (pendingMsg.getDN().equals(targetDN))
-            {
-              hasDependencies = true;
-              addDependency(change, pendingChange);
-            }
-          }
-          else if (pendingMsg instanceof ModifyDNMsg)
-          {
-            // Check if the ModifyDNOperation was done from the new DN of
-            // the MODDN operation
-            if (msg.newDNIsEqual(pendingMsg.getDN()))
-            {
-              hasDependencies = true;
-              addDependency(change, pendingChange);
-            }
-          }
-        }
-      }
-      else
-      {
-        // We reached an operation that is newer than the operation
-        // for which we are doing the dependency check so it is
-        // not possible to find another operation with some dependency.
-        // break the loop to avoid going through the potentially large
-        // list of pending changes.
-        break;
-      }
-    }
-    return hasDependencies;
+    final DN newDN = newDN(msg);
+    addDependencies(change, changesByDN, newDN, DeleteMsg.class);
+    addDependencies(change, changesByDN, newSuperiorDN(msg), AddMsg.class);
+    addDependencies(change, changesByDN, targetDN, AddMsg.class);
+    addDependencies(change, changesByDN, newDN, ModifyDNMsg.class);
+    return !change.dependencies.isEmpty();
   }
 
   /**
@@ -426,73 +370,23 @@ final class RemotePendingChanges
    */
   public synchronized boolean checkDependencies(DeleteOperation op)
   {
-    boolean hasDependencies = false;
-    final DN targetDN = op.getEntryDN();
-    final CSN csn = OperationContext.getCSN(op);
-    final PendingChange change = pendingChanges.get(csn);
+    final RemoteChange change = getChangeToCheck(OperationContext.getCSN(op));
     if (change == null)
     {
       return false;
     }
 
-    for (PendingChange pendingChange : pendingChanges.values())
+    final DN targetDN = op.getEntryDN();
+    addDependencies(change, changesByDN, targetDN, DeleteMsg.class);
+    addDependencies(change, changesBySuperiorDN, targetDN, DeleteMsg.class);
+    addDependencies(change, changesByDN, targetDN, AddMsg.class);
+    addDependencies(change, changesByDN, targetDN, ModifyDNMsg.class);
+    addDependencies(change, changesBySuperiorDN, targetDN, ModifyDNMsg.class);
+    for (DN dn = targetDN; dn != null; dn = dn.parent())
     {
-      if (pendingChange.getCSN().isOlderThan(csn))
-      {
-        final LDAPUpdateMsg pendingMsg = pendingChange.getLDAPUpdateMsg();
-        if (pendingMsg != null)
-        {
-          if (pendingMsg instanceof DeleteMsg)
-          {
-            /*
-             * Check if the operation to be run is a deleteOperation on a
-             * children of the current DeleteOperation.
-             */
-            if (pendingMsg.getDN().isDescendantOf(targetDN))
-            {
-              hasDependencies = true;
-              addDependency(change, pendingChange);
-            }
-          }
-          else if (pendingMsg instanceof AddMsg)
-          {
-            /*
-             * Check if the operation to be run is an addOperation on a
-             * parent of the current DeleteOperation.
-             */
-            if (pendingMsg.getDN().equals(targetDN))
-            {
-              hasDependencies = true;
-              addDependency(change, pendingChange);
-            }
-          }
-          else if (pendingMsg instanceof ModifyDNMsg)
-          {
-            final ModifyDNMsg pendingModDn = (ModifyDNMsg) pendingMsg;
-            /*
-             * Check if the operation to be run is an ModifyDNOperation
-             * on a children of the current DeleteOperation
-             */
-            if (pendingMsg.getDN().isDescendantOf(targetDN)
-                || pendingModDn.newDNIsParent(targetDN))
-            {
-              hasDependencies = true;
-              addDependency(change, pendingChange);
-            }
-          }
-        }
-      }
-      else
-      {
-        // We reached an operation that is newer than the operation
-        // for which we are doing the dependency check so it is
-        // not possible to find another operation with some dependency.
-        // break the loop to avoid going through the potentially large
-        // list of pending changes.
-        break;
-      }
+      addDependencies(change, changesByNewDN, dn, ModifyDNMsg.class);
     }
-    return hasDependencies;
+    return !change.dependencies.isEmpty();
   }
 
   /**
@@ -528,4 +422,121 @@ final class RemotePendingChanges
       return true;  // unknown type of operation ?!
     }
   }
+
+  private void index(RemoteChange change)
+  {
+    final LDAPUpdateMsg msg = change.getLDAPUpdateMsg();
+    change.indexedDN = msg.getDN();
+    change.indexedNewDN = msg instanceof ModifyDNMsg ? newDN((ModifyDNMsg) msg) : null;
+
+    addToIndex(changesByDN, change.indexedDN, change);
+    if (isIndexedBySuperiorDN(msg))
+    {
+      for (DN dn = change.indexedDN.parent(); dn != null; dn = dn.parent())
+      {
+        addToIndex(changesBySuperiorDN, dn, change);
+      }
+    }
+    if (change.indexedNewDN != null)
+    {
+      addToIndex(changesByNewDN, change.indexedNewDN, change);
+    }
+  }
+
+  private void unindex(RemoteChange change)
+  {
+    removeFromIndex(changesByDN, change.indexedDN, change);
+    if (isIndexedBySuperiorDN(change.getLDAPUpdateMsg()))
+    {
+      for (DN dn = change.indexedDN.parent(); dn != null; dn = dn.parent())
+      {
+        removeFromIndex(changesBySuperiorDN, dn, change);
+      }
+    }
+    if (change.indexedNewDN != null)
+    {
+      removeFromIndex(changesByNewDN, change.indexedNewDN, change);
+    }
+  }
+
+  private void reindex(RemoteChange change)
+  {
+    final LDAPUpdateMsg msg = change.getLDAPUpdateMsg();
+    if (!msg.getDN().equals(change.indexedDN)
+        || (msg instanceof ModifyDNMsg && !Objects.equals(newDN((ModifyDNMsg) msg), change.indexedNewDN)))
+    {
+      unindex(change);
+      index(change);
+    }
+  }
+
+  private static boolean isIndexedBySuperiorDN(LDAPUpdateMsg msg)
+  {
+    return msg instanceof DeleteMsg || msg instanceof ModifyDNMsg;
+  }
+
+  private static void addToIndex(Map<DN, Set<RemoteChange>> index, DN dn, RemoteChange change)
+  {
+    Set<RemoteChange> changes = index.get(dn);
+    if (changes == null)
+    {
+      // Changes are removed in any order once committed: keep removals constant time.
+      changes = new LinkedHashSet<>(2);
+      index.put(dn, changes);
+    }
+    changes.add(change);
+  }
+
+  private static void removeFromIndex(Map<DN, Set<RemoteChange>> index, DN dn, RemoteChange change)
+  {
+    final Set<RemoteChange> changes = index.get(dn);
+    if (changes != null && changes.remove(change) && changes.isEmpty())
+    {
+      index.remove(dn);
+    }
+  }
+
+  private static DN newDN(ModifyDNMsg msg)
+  {
+    try
+    {
+      return msg.computeNewDN();
+    }
+    catch (DirectoryException e)
+    {
+      // The new DN is not a correct DN, and therefore cannot match any DN.
+      return null;
+    }
+  }
+
+  private static DN newSuperiorDN(ModifyDNMsg msg)
+  {
+    try
+    {
+      return msg.getNewSuperior() != null ? DN.valueOf(msg.getNewSuperior()) : null;
+    }
+    catch (DirectoryException e)
+    {
+      // The new superior is not a correct DN, and therefore cannot match any DN.
+      return null;
+    }
+  }
+
+  /** A remote change, as a node of the graph of dependencies between the pending changes. */
+  private static final class RemoteChange extends PendingChange
+  {
+    /** The not committed changes this change depends on. */
+    private final Set<RemoteChange> dependencies = new HashSet<>();
+    /** The changes depending on this change, while it is not committed. */
+    private final List<RemoteChange> dependentChanges = new ArrayList<>();
+    /** The DN under which this change is indexed. */
+    private DN indexedDN;
+    /** The new DN under which this modify DN change is indexed. */
+    private DN indexedNewDN;
+
+    private RemoteChange(CSN csn, LDAPUpdateMsg msg)
+    {
+      super(csn, null, msg);
+    }
+  }
 }
@@ -31,13 +31,20 @@ import static org.opends.server.util.StaticUtils.*;
 import java.io.*;
 import java.net.Socket;
 import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
 
 import javax.net.ssl.SSLSocket;
 
@@ -47,11 +54,35 @@ import org.opends.server.util.StaticUtils;
 
 /**
  * This class defines a replication session using TLS.
+ * <p>
+ * Each message is sent as a frame made of its length, written as 8 hexadecimal
+ * digits, followed by its encoded bytes. Once the session thread is started,
+ * queued messages are written in batches and flushed once per batch, so that
+ * they share TLS records and TCP packets. With
+ * {@link ProtocolVersion#REPLICATION_PROTOCOL_V9} and above, a batch can also
+ * be sent as a single compressed frame whose header is
+ * {@link #COMPRESSED_FRAME_MARKER} followed by the compressed length written
+ * as 7 hexadecimal digits. All the compressed frames of a session belong to the
+ * same deflate stream.
  */
 public final class Session extends DirectoryThread implements Closeable
 {
   private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
 
+  /** Length of a frame header. */
+  private static final int FRAME_HEADER_LENGTH = 8;
+  /** First byte of the header of a compressed frame, never a hexadecimal digit. */
+  private static final byte COMPRESSED_FRAME_MARKER = 'z';
+  /**
+   * Batches larger than this are sent uncompressed, so that the compressed
+   * length always fits in the 7 hexadecimal digits of the header.
+   */
+  private static final int MAX_COMPRESSED_BATCH_LENGTH = 16 * 1024 * 1024;
+  /** Maximum number of queued messages written before flushing. */
+  private static final int MAX_BATCH_SIZE = 256;
+  /** The largest TLS record payload: a full buffer fills a whole record. */
+  private static final int OUTPUT_BUFFER_SIZE = 16 * 1024;
+
   private final Socket plainSocket;
   private final SSLSocket secureSocket;
   private final InputStream plainInput;
@@ -109,6 +140,32 @@ public final class Session extends DirectoryThread implements Closeable
   private AtomicBoolean isRunning = new AtomicBoolean(false);
   private final CountDownLatch latch = new CountDownLatch(1);
 
+  /**
+   * Whether batches should be compressed when the peer supports it. The
+   * compression state is guarded by publishLock.
+   */
+  private volatile boolean compressionEnabled;
+  private Deflater deflater;
+  private ByteArrayOutputStream compressedBatch;
+  private DeflaterOutputStream compressedOutput;
+
+  /**
+   * Only used by the thread receiving messages: the messages of the last
+   * compressed frame which have not been returned yet. The inflater is
+   * guarded by inflaterLock since it is ended when the session is closed.
+   */
+  private final Object inflaterLock = new Object();
+  private Inflater inflater;
+  private boolean inflaterEnded;
+  private ByteArrayInputStream inflatedBatch;
+
+  /** Statistics exposed through the replication monitors. */
+  private final AtomicLong bytesSent = new AtomicLong();
+  private final AtomicLong bytesReceived = new AtomicLong();
+  private final AtomicLong messagesSent = new AtomicLong();
+  private final AtomicLong messagesReceived = new AtomicLong();
+  private final AtomicLong batchesSent = new AtomicLong();
+
   /**
    * Creates a new Session.
    *
@@ -138,7 +195,7 @@ public final class Session extends DirectoryThread implements Closeable
     this.plainInput = plainSocket.getInputStream();
     this.plainOutput = plainSocket.getOutputStream();
     this.input = new BufferedInputStream(secureSocket.getInputStream());
-    this.output = new BufferedOutputStream(secureSocket.getOutputStream());
+    this.output = new BufferedOutputStream(secureSocket.getOutputStream(), OUTPUT_BUFFER_SIZE);
     this.readableRemoteAddress = plainSocket.getRemoteSocketAddress()
         .toString();
     this.remoteAddress = plainSocket.getInetAddress().getHostAddress();
@@ -211,6 +268,29 @@ public final class Session extends DirectoryThread implements Closeable
       }
     }
 
+    publishLock.lock();
+    try
+    {
+      compressionEnabled = false;
+      if (deflater != null)
+      {
+        deflater.end();
+      }
+    }
+    finally
+    {
+      publishLock.unlock();
+    }
+
+    synchronized (inflaterLock)
+    {
+      inflaterEnded = true;
+      if (inflater != null)
+      {
+        inflater.end();
+      }
+    }
+
     StaticUtils.close(plainSocket, secureSocket);
   }
 
@@ -357,19 +437,39 @@ public final class Session extends DirectoryThread implements Closeable
    */
   private void send(final byte[] buffer) throws IOException
   {
-    final String str = String.format("%08x", buffer.length);
-    final byte[] sendLengthBuf = str.getBytes();
+    send(Collections.singletonList(buffer));
+  }
 
+  /**
+   * Sends a batch of replication messages already encoded to the socket, and
+   * flushes the socket once they have all been written.
+   *
+   * @param buffers
+   *          the encoded buffers
+   * @throws IOException if the messages could not be sent
+   */
+  private void send(final List<byte[]> buffers) throws IOException
+  {
     publishLock.lock();
     try
     {
+      final long length = getFramesLength(buffers);
+      if (isCompressed() && length <= MAX_COMPRESSED_BATCH_LENGTH)
+      {
+        bytesSent.addAndGet(writeCompressedFrame(buffers));
+      }
+      else
+      {
+        writeFrames(output, buffers);
+        bytesSent.addAndGet(length);
+      }
       /*
-       * The buffered output stream ensures that the message is usually sent as
-       * a single TCP packet.
+       * The buffered output stream ensures that the batch is usually sent as
+       * a few full TLS records and TCP packets.
        */
-      output.write(sendLengthBuf);
-      output.write(buffer);
       output.flush();
+      messagesSent.addAndGet(buffers.size());
+      batchesSent.incrementAndGet();
     } catch (final IOException e) {
       setSessionError(e);
       throw e;
@@ -382,6 +482,40 @@ public final class Session extends DirectoryThread implements Closeable
     lastPublishTime = System.currentTimeMillis();
   }
 
+  private static long getFramesLength(final List<byte[]> buffers)
+  {
+    long length = 0;
+    for (final byte[] buffer : buffers)
+    {
+      length += FRAME_HEADER_LENGTH + buffer.length;
+    }
+    return length;
+  }
+
+  private static void writeFrames(final OutputStream out,
+      final List<byte[]> buffers) throws IOException
+  {
+    for (final byte[] buffer : buffers)
+    {
+      out.write(String.format("%08x", buffer.length).getBytes());
+      out.write(buffer);
+    }
+  }
+
+  /** Writes the frames to the compressed stream and sends them as a single compressed frame. */
+  private int writeCompressedFrame(final List<byte[]> buffers) throws IOException
+  {
+    compressedBatch.reset();
+    writeFrames(compressedOutput, buffers);
+    // Sync flush: the peer can inflate the whole batch without waiting for the next one.
+    compressedOutput.flush();
+
+    final int length = compressedBatch.size();
+    output.write(String.format("%c%07x", (char) COMPRESSED_FRAME_MARKER, length).getBytes());
+    compressedBatch.writeTo(output);
+    return FRAME_HEADER_LENGTH + length;
+  }
+
 
 
   /**
@@ -411,13 +545,30 @@ public final class Session extends DirectoryThread implements Closeable
       lastReceiveTime = System.currentTimeMillis();
 
       // Read the first 8 bytes containing the packet length.
-      read(rcvLengthBuf);
+      InputStream in = inflatedBatch;
+      if (in == null || in.available() == 0)
+      {
+        in = input;
+        read(in, rcvLengthBuf);
+        bytesReceived.addAndGet(rcvLengthBuf.length);
+        if (rcvLengthBuf[0] == COMPRESSED_FRAME_MARKER)
+        {
+          inflateBatch(Integer.parseInt(new String(rcvLengthBuf, 1, rcvLengthBuf.length - 1), 16));
+          in = inflatedBatch;
+          read(in, rcvLengthBuf);
+        }
+      }
       final int totalLength = Integer.parseInt(new String(rcvLengthBuf), 16);
 
       try
       {
         final byte[] buffer = new byte[totalLength];
-        read(buffer);
+        read(in, buffer);
+        if (in == input)
+        {
+          bytesReceived.addAndGet(totalLength);
+        }
+        messagesReceived.incrementAndGet();
 
         /*
          * We do not want the heartbeat to close the session when we are
@@ -439,13 +590,13 @@ public final class Session extends DirectoryThread implements Closeable
     }
   }
 
-  private void read(byte[] buffer) throws IOException
+  private void read(InputStream in, byte[] buffer) throws IOException
   {
     final int totalLength = buffer.length;
     int length = 0;
     while (length < totalLength)
     {
-      final int read = input.read(buffer, length, totalLength - length);
+      final int read = in.read(buffer, length, totalLength - length);
       if (read == -1)
       {
         lastReceiveTime = 0;
@@ -455,6 +606,42 @@ public final class Session extends DirectoryThread implements Closeable
     }
   }
 
+  /**
+   * Reads a compressed frame and inflates the frames it contains so that they
+   * are returned by the next calls to {@link #receive()}.
+   */
+  private void inflateBatch(final int compressedLength) throws IOException, DataFormatException
+  {
+    final byte[] compressed = new byte[compressedLength];
+    read(input, compressed);
+    bytesReceived.addAndGet(compressedLength);
+
+    final ByteArrayOutputStream batch = new ByteArrayOutputStream(4 * compressedLength);
+    synchronized (inflaterLock)
+    {
+      if (inflaterEnded)
+      {
+        throw new IOException("Session closed");
+      }
+      if (inflater == null)
+      {
+        inflater = new Inflater();
+      }
+      inflater.setInput(compressed);
+      final byte[] chunk = new byte[OUTPUT_BUFFER_SIZE];
+      int length;
+      while ((length = inflater.inflate(chunk)) > 0)
+      {
+        batch.write(chunk, 0, length);
+      }
+      if (!inflater.needsInput())
+      {
+        throw new DataFormatException("Invalid compressed frame");
+      }
+    }
+    inflatedBatch = new ByteArrayInputStream(batch.toByteArray());
+  }
+
   /**
    * This method is called at the establishment of the session and can
    * be used to record the version of the protocol that is currently used.
@@ -479,6 +666,99 @@ public final class Session extends DirectoryThread implements Closeable
 
 
 
+  /**
+   * Enables or disables the compression of the messages sent on this session.
+   * Messages are only compressed when the protocol version negotiated with the
+   * peer is {@link ProtocolVersion#REPLICATION_PROTOCOL_V9} or above. Received
+   * messages are always decompressed when needed.
+   *
+   * @param enabled
+   *          whether messages should be compressed
+   */
+  public void setCompressionEnabled(final boolean enabled)
+  {
+    publishLock.lock();
+    try
+    {
+      if (enabled && deflater == null)
+      {
+        deflater = new Deflater(Deflater.BEST_SPEED);
+        compressedBatch = new ByteArrayOutputStream(OUTPUT_BUFFER_SIZE);
+        compressedOutput = new DeflaterOutputStream(compressedBatch, deflater, OUTPUT_BUFFER_SIZE, true);
+      }
+      compressionEnabled = enabled;
+    }
+    finally
+    {
+      publishLock.unlock();
+    }
+  }
+
+  /**
+   * Returns whether the messages sent on this session are compressed.
+   *
+   * @return true if the messages sent on this session are compressed
+   */
+  public boolean isCompressed()
+  {
+    return compressionEnabled
+        && protocolVersion >= ProtocolVersion.REPLICATION_PROTOCOL_V9;
+  }
+
+  /**
+   * Returns the number of bytes sent on this session, frame headers included.
+   *
+   * @return the number of bytes sent on this session
+   */
+  public long getBytesSent()
+  {
+    return bytesSent.get();
+  }
+
+  /**
+   * Returns the number of bytes received on this session, frame headers
+   * included.
+   *
+   * @return the number of bytes received on this session
+   */
+  public long getBytesReceived()
+  {
+    return bytesReceived.get();
+  }
+
+  /**
+   * Returns the number of messages sent on this session.
+   *
+   * @return the number of messages sent on this session
+   */
+  public long getMessagesSent()
+  {
+    return messagesSent.get();
+  }
+
+  /**
+   * Returns the number of messages received on this session.
+   *
+   * @return the number of messages received on this session
+   */
+  public long getMessagesReceived()
+  {
+    return messagesReceived.get();
+  }
+
+  /**
+   * Returns the number of batches sent on this session. Each batch is flushed
+   * to the socket once.
+   *
+   * @return the number of batches sent on this session
+   */
+  public long getBatchesSent()
+  {
+    return batchesSent.get();
+  }
+
+
+
   /**
    * Set a timeout value.
    * With this option set to a non-zero value, calls to the receive() method
@@ -513,7 +793,7 @@ public final class Session extends DirectoryThread implements Closeable
     }
 
     input = new BufferedInputStream(plainInput);
-    output = new BufferedOutputStream(plainOutput);
+    output = new BufferedOutputStream(plainOutput, OUTPUT_BUFFER_SIZE);
     isEncrypted = false;
   }
 
@@ -532,7 +812,8 @@ public final class Session extends DirectoryThread implements Closeable
 
   /**
    * Run method for the Session.
-   * Loops waiting for buffers from the queue and sends them when available.
+   * Loops waiting for buffers from the queue and sends all the available ones
+   * as a single batch.
    */
   @Override
   public void run()
@@ -544,20 +825,22 @@ public final class Session extends DirectoryThread implements Closeable
       logger.trace(getName() + " starting.");
     }
     boolean needClosing = false;
+    final List<byte[]> buffers = new ArrayList<>(MAX_BATCH_SIZE);
     while (!closeInitiated)
     {
-      byte[] buffer;
+      buffers.clear();
       try
       {
-        buffer = sendQueue.take();
+        buffers.add(sendQueue.take());
       }
       catch (InterruptedException ie)
       {
         break;
       }
+      sendQueue.drainTo(buffers, MAX_BATCH_SIZE - 1);
       try
       {
-        send(buffer);
+        send(buffers);
       }
       catch (IOException e)
       {
@@ -1338,6 +1338,24 @@ public class ReplicationServer
     return config.isComputeChangeNumber();
   }
 
+  /**
+   * Returns the maximum size of the windows used to receive updates.
+   * @return the maximum size of the windows used to receive updates.
+   */
+  public int getMaxWindowSize()
+  {
+    return config.getMaxWindowSize();
+  }
+
+  /**
+   * Returns whether the messages sent by this RS are compressed.
+   * @return true if the messages sent by this RS are compressed.
+   */
+  public boolean isSessionCompressionEnabled()
+  {
+    return config.isSessionCompression();
+  }
+
   /**
    * Returns whether the external change-log contains data from at least a domain.
    * @return whether the external change-log contains data from at least a domain
@@ -41,6 +41,7 @@ import org.forgerock.opendj.config.server.ConfigException;
 import org.forgerock.opendj.ldap.ResultCode;
 import org.opends.server.admin.std.server.MonitorProviderCfg;
 import org.opends.server.core.DirectoryServer;
+import org.opends.server.replication.common.AdaptiveWindow;
 import org.opends.server.replication.common.AssuredMode;
 import org.opends.server.replication.common.CSN;
 import org.opends.server.replication.common.RSInfo;
@@ -129,10 +130,9 @@ public abstract class ServerHandler extends MessageHandler
   private ServerReader reader;
 
   /** Window. */
-  private int rcvWindow;
-  private final int rcvWindowSizeHalf;
+  private final AdaptiveWindow rcvWindow;
 
-  /** The size of the receiving window. */
+  /** The initial size of the receiving window, advertised to the remote server. */
   protected final int maxRcvWindow;
   /** Semaphore that the writer uses to control the flow to the remote server. */
   private Semaphore sendWindow;
@@ -181,9 +181,8 @@ public abstract class ServerHandler extends MessageHandler
   {
     super(queueSize, replicationServer);
     this.session = session;
-    this.rcvWindowSizeHalf = rcvWindowSize / 2;
     this.maxRcvWindow = rcvWindowSize;
-    this.rcvWindow = rcvWindowSize;
+    this.rcvWindow = new AdaptiveWindow(rcvWindowSize, replicationServer.getMaxWindowSize());
   }
 
   /**
@@ -243,11 +242,14 @@ public abstract class ServerHandler extends MessageHandler
    */
   public synchronized void checkWindow() throws IOException
   {
-    if (rcvWindow < rcvWindowSizeHalf)
+    publishCredit(rcvWindow.grantCredit());
+  }
+
+  private void publishCredit(int credit) throws IOException
+  {
+    if (credit > 0)
     {
-      WindowMsg msg = new WindowMsg(rcvWindowSizeHalf);
-      session.publish(msg);
-      rcvWindow += rcvWindowSizeHalf;
+      session.publish(new WindowMsg(credit));
     }
   }
 
@@ -259,8 +261,9 @@ public abstract class ServerHandler extends MessageHandler
    */
   private synchronized void decAndCheckWindow() throws IOException
   {
-    rcvWindow--;
-    checkWindow();
+    // Updates are processed as soon as they are received
+    rcvWindow.updateReceived();
+    publishCredit(rcvWindow.updateProcessed());
   }
 
   /**
@@ -292,6 +295,7 @@ public abstract class ServerHandler extends MessageHandler
       session.setName("Replication server RS(" + getReplicationServerId()
           + ") session thread to " + this + " at "
           + session.getReadableRemoteAddress());
+      session.setCompressionEnabled(replicationServer.isSessionCompressionEnabled());
       session.start();
       try
       {
@@ -527,11 +531,22 @@ public abstract class ServerHandler extends MessageHandler
     attributes.add(Attributes.create("max-send-window", String.valueOf(sendWindowSize)));
     attributes.add(Attributes.create("current-send-window", String.valueOf(sendWindow.availablePermits())));
     attributes.add(Attributes.create("max-rcv-window", String.valueOf(maxRcvWindow)));
-    attributes.add(Attributes.create("current-rcv-window", String.valueOf(rcvWindow)));
+    attributes.add(Attributes.create("current-rcv-window", String.valueOf(rcvWindow.getCredit())));
+    attributes.add(Attributes.create("rcv-window-size", String.valueOf(rcvWindow.getSize())));
+    attributes.add(Attributes.create("rcv-window-round-trip-time", String.valueOf(rcvWindow.getRoundTripTime())));
+    attributes.add(Attributes.create("rcv-window-stall-time", String.valueOf(rcvWindow.getStallTime())));
 
     // Encryption
     attributes.add(Attributes.create("ssl-encryption", String.valueOf(session.isEncrypted())));
 
+    // Session stats
+    attributes.add(Attributes.create("session-compression", String.valueOf(session.isCompressed())));
+    attributes.add(Attributes.create("session-bytes-sent", String.valueOf(session.getBytesSent())));
+    attributes.add(Attributes.create("session-bytes-received", String.valueOf(session.getBytesReceived())));
+    attributes.add(Attributes.create("session-messages-sent", String.valueOf(session.getMessagesSent())));
+    attributes.add(Attributes.create("session-messages-received", String.valueOf(session.getMessagesReceived())));
+    attributes.add(Attributes.create("session-batches-sent", String.valueOf(session.getBatchesSent())));
+
     // Data generation
     attributes.add(Attributes.create("generation-id", String.valueOf(generationId)));
 
@@ -821,14 +836,15 @@ public abstract class ServerHandler extends MessageHandler
    */
   public void replyToWindowProbe() throws IOException
   {
-    if (rcvWindow > 0)
+    final int credit = rcvWindow.getCredit();
+    if (credit > 0)
     {
       // The LDAP server believes that its window is closed while it is not,
       // this means that some problem happened in the window exchange procedure!
       // lets update the LDAP server with out current window size and hope
       // that everything will work better in the future.
       // TODO also log an error message.
-      session.publish(new WindowMsg(rcvWindow));
+      session.publish(new WindowMsg(credit));
     }
     else
     {
@@ -27,12 +27,15 @@ package org.opends.server.replication.server.changelog.file;
 import static org.opends.messages.ReplicationMessages.*;
 import static org.opends.server.replication.server.changelog.api.DBCursor.KeyMatchingStrategy.*;
 import static org.opends.server.replication.server.changelog.api.DBCursor.PositionStrategy.*;
+import static org.opends.server.replication.server.changelog.file.LogFileHeader.*;
 
 import java.io.Closeable;
 import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ByteStringBuilder;
@@ -47,12 +50,21 @@ import org.opends.server.util.StaticUtils;
 /**
  * A log reader with binary search support.
  * <p>
- * The log file contains record offsets at fixed block size : given a block size N,
- * an offset is written at every N bytes. The offset contains the number of bytes to
- * reach the beginning of previous record (or next record if offset equals 0).
+ * A log file of format version 1 contains record offsets at fixed block size :
+ * given a block size N, an offset is written at every N bytes. The offset
+ * contains the number of bytes to reach the beginning of previous record (or
+ * next record if offset equals 0).
+ * <p>
+ * A log file of format version 2 is made of blocks which may be compressed, as
+ * described in {@link LogFileHeader}. The positions used by the reader are then
+ * the offsets in the decompressed records rather than the offsets in the file,
+ * and the binary search is done over the block starts kept by
+ * {@link LogFileBlocks}.
  * <p>
  * The reader provides both sequential access, using the {@code readRecord()} method,
  * and reasonably fast random access, using the {@code seekToRecord(K, boolean)} method.
+ * When an index of the log file is provided, the binary search used for random
+ * access is restricted to the blocks between the two closest entries of the index.
  *
  * @param <K>
  *          Type of the key of a record, which must be comparable.
@@ -82,8 +94,35 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
 
   private final File file;
 
+  /** The index of the log file, may be {@code null}. */
+  private final LogFileIndex<K, V> index;
+
+  /** The block starts of the log file, {@code null} for format version 1. */
+  private final LogFileBlocks blocks;
+
+  /** Decompresses the blocks, created on first use. */
+  private Inflater inflater;
+
+  /**
+   * The data of the current block, for format version 2. It is {@code null}
+   * when no block has been read since the last seek.
+   */
+  private ByteString blockData;
+
+  /** The position in the records of the start of the current block. */
+  private long blockPosition;
+
+  /** The offset of the next record to read in the current block. */
+  private int offsetInBlock;
+
+  /** The position in the file of the block following the current block. */
+  private long nextBlockFilePosition = HEADER_SIZE;
+
+  /** The position in the records of the block following the current block. */
+  private long nextBlockPosition;
+
   /**
-   * Creates a reader for the provided file, file reader and parser.
+   * Creates a reader for the provided file, file reader, parser and header.
    *
    * @param <K>
    *          Type of the key of a record, which must be comparable.
@@ -95,12 +134,20 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
    *          The random access reader on the log file.
    * @param parser
    *          The parser to decode the records read.
+   * @param header
+   *          The header giving the format of the log file.
+   * @param index
+   *          The index of the log file, which may be {@code null}.
+   * @param blocks
+   *          The block starts of the log file, which must be provided for
+   *          format version 2 and is ignored for format version 1.
    * @return a new log reader
    */
-  static <K extends Comparable<K>, V> BlockLogReader<K, V> newReader(
-      final File file, final RandomAccessFile reader, final RecordParser<K, V> parser)
+  static <K extends Comparable<K>, V> BlockLogReader<K, V> newReader(final File file, final RandomAccessFile reader,
+      final RecordParser<K, V> parser, final LogFileHeader header, final LogFileIndex<K, V> index,
+      final LogFileBlocks blocks)
   {
-    return new BlockLogReader<>(file, reader, parser, BLOCK_SIZE);
+    return new BlockLogReader<>(file, reader, parser, header, index, blocks);
   }
 
   /**
@@ -126,16 +173,47 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
   static <K extends Comparable<K>, V> BlockLogReader<K, V> newReaderForTests(
       final File file, final RandomAccessFile reader, final RecordParser<K, V> parser, int blockSize)
   {
-    return new BlockLogReader<>(file, reader, parser, blockSize);
+    return new BlockLogReader<>(file, reader, parser, LogFileHeader.newV1Header(blockSize), null, null);
+  }
+
+  /**
+   * Creates a reader for the provided file, file reader, parser, block size and index.
+   * <p>
+   * This method is intended for tests only, to allow tuning of the block size.
+   *
+   * @param <K>
+   *          Type of the key of a record, which must be comparable.
+   * @param <V>
+   *          Type of the value of a record.
+   * @param file
+   *          The log file to read.
+   * @param reader
+   *          The random access reader on the log file.
+   * @param parser
+   *          The parser to decode the records read.
+   * @param blockSize
+   *          The size of each block, or frequency at which the record offset is
+   *          present in the log file.
+   * @param index
+   *          The index of the log file.
+   * @return a new log reader
+   */
+  static <K extends Comparable<K>, V> BlockLogReader<K, V> newReaderForTests(final File file,
+      final RandomAccessFile reader, final RecordParser<K, V> parser, int blockSize, final LogFileIndex<K, V> index)
+  {
+    return new BlockLogReader<>(file, reader, parser, LogFileHeader.newV1Header(blockSize), index, null);
   }
 
-  private BlockLogReader(
-      final File file, final RandomAccessFile reader, final RecordParser<K, V> parser, final int blockSize)
+  private BlockLogReader(final File file, final RandomAccessFile reader, final RecordParser<K, V> parser,
+      final LogFileHeader header, final LogFileIndex<K, V> index, final LogFileBlocks blocks)
   {
+    Reject.ifTrue(header.isBlockCompressed() && blocks == null, "Block starts are required for format version 2");
     this.file = file;
     this.reader = reader;
     this.parser = parser;
-    this.blockSize = blockSize;
+    this.blockSize = header.getBlockSize();
+    this.index = index;
+    this.blocks = header.isBlockCompressed() ? blocks : null;
   }
 
   /**
@@ -176,7 +254,8 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
    * Position the reader to the provided file position.
    *
    * @param filePosition
-   *            offset from the beginning of the file, in bytes.
+   *            offset from the beginning of the file, in bytes, or offset in
+   *            the decompressed records for format version 2.
    * @throws ChangelogException
    *            If an error occurs.
    */
@@ -184,7 +263,14 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
   {
     try
     {
-      reader.seek(filePosition);
+      if (blocks != null)
+      {
+        seekToBlockPosition(filePosition);
+      }
+      else
+      {
+        reader.seek(filePosition);
+      }
     }
     catch (IOException e)
     {
@@ -207,7 +293,8 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
   /**
    * Returns the file position for this reader.
    *
-   * @return the position of reader on the log file
+   * @return the position of reader on the log file, which is the offset in the
+   *         decompressed records for format version 2
    * @throws ChangelogException
    *          If an error occurs.
    */
@@ -215,6 +302,10 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
   {
     try
     {
+      if (blocks != null)
+      {
+        return getBlockPosition();
+      }
       return reader.getFilePointer();
     }
     catch (IOException e)
@@ -228,9 +319,39 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
   @Override
   public void close() throws IOException
   {
+    if (inflater != null)
+    {
+      inflater.end();
+    }
     reader.close();
   }
 
+  /**
+   * Returns the position of the end of the log file, after the last complete
+   * record.
+   *
+   * @return the length of the file, or the length of the decompressed records
+   *         for format version 2
+   * @throws ChangelogException
+   *           If an error occurs.
+   */
+  long getEndPosition() throws ChangelogException
+  {
+    if (blocks == null)
+    {
+      return getFileLength();
+    }
+    try
+    {
+      blocks.readBlockHeaders(reader);
+      return blocks.getEndPosition();
+    }
+    catch (IOException e)
+    {
+      throw new ChangelogException(ERR_CHANGELOG_UNABLE_TO_RETRIEVE_FILE_LENGTH.get(file.getPath()), e);
+    }
+  }
+
   /**
    * Read a record, either from the provided start of block position or from
    * the current position.
@@ -246,11 +367,23 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
   {
     try
     {
-      if (blockStartPosition != -1)
+      final ByteString recordData;
+      if (blocks != null)
       {
-        positionToRecordFromBlockStart(blockStartPosition);
+        if (blockStartPosition != -1)
+        {
+          seekToBlockPosition(blockStartPosition);
+        }
+        recordData = readNextBlockRecord();
+      }
+      else
+      {
+        if (blockStartPosition != -1)
+        {
+          positionToRecordFromBlockStart(blockStartPosition);
+        }
+        recordData = readNextRecord();
       }
-      final ByteString recordData = readNextRecord();
       return recordData != null ? parser.decodeRecord(recordData) : null;
     }
     catch (Exception io)
@@ -338,6 +471,153 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
     }
   }
 
+  /**
+   * Reads the next record of a log file of format version 2, moving to the
+   * next block when the current block has been fully read.
+   *
+   * @return the bytes of the next record, or {@code null} if no record is available
+   * @throws IOException
+   *            If an error occurs while reading.
+   */
+  private ByteString readNextBlockRecord() throws IOException
+  {
+    if ((blockData == null || offsetInBlock >= blockData.length()) && !readNextBlock())
+    {
+      return null;
+    }
+    final int remaining = blockData.length() - offsetInBlock;
+    final int recordLength = remaining >= SIZE_OF_RECORD_SIZE
+        ? blockData.subSequence(offsetInBlock, offsetInBlock + SIZE_OF_RECORD_SIZE).toInt()
+        : -1;
+    if (recordLength < 0 || recordLength > remaining - SIZE_OF_RECORD_SIZE)
+    {
+      throw new IOException("Invalid length of record at position " + getBlockPosition() + ": " + recordLength);
+    }
+    final int recordStart = offsetInBlock + SIZE_OF_RECORD_SIZE;
+    offsetInBlock = recordStart + recordLength;
+    return blockData.subSequence(recordStart, offsetInBlock);
+  }
+
+  /**
+   * Reads the block following the current block, which becomes the current
+   * block.
+   *
+   * @return {@code true} if the block has been read, {@code false} if there is
+   *         no complete block after the current block
+   * @throws IOException
+   *            If an error occurs while reading.
+   */
+  private boolean readNextBlock() throws IOException
+  {
+    final long fileLength = reader.length();
+    if (nextBlockFilePosition + BLOCK_HEADER_SIZE > fileLength)
+    {
+      return false;
+    }
+    reader.seek(nextBlockFilePosition);
+    final int storedLength = reader.readInt();
+    final int dataLength = reader.readInt();
+    LogFileBlocks.checkBlockHeader(nextBlockFilePosition, storedLength, dataLength);
+    if (nextBlockFilePosition + BLOCK_HEADER_SIZE + storedLength > fileLength)
+    {
+      return false;
+    }
+    final byte[] storedData = new byte[storedLength];
+    reader.readFully(storedData);
+    blockData = storedLength == dataLength ? ByteString.wrap(storedData) : inflate(storedData, dataLength);
+    blockPosition = nextBlockPosition;
+    offsetInBlock = 0;
+    nextBlockFilePosition += BLOCK_HEADER_SIZE + storedLength;
+    nextBlockPosition += dataLength;
+    return true;
+  }
+
+  /** Decompresses the data of a block. */
+  private ByteString inflate(final byte[] storedData, final int dataLength) throws IOException
+  {
+    if (inflater == null)
+    {
+      inflater = new Inflater();
+    }
+    else
+    {
+      inflater.reset();
+    }
+    inflater.setInput(storedData);
+    final byte[] data = new byte[dataLength];
+    try
+    {
+      int length = 0;
+      while (length < dataLength && !inflater.finished())
+      {
+        final int inflated = inflater.inflate(data, length, dataLength - length);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+        {
+          break;
+        }
+        length += inflated;
+      }
+      if (length != dataLength || !inflater.finished())
+      {
+        throw new IOException("Invalid compressed block at position " + nextBlockFilePosition + " of log file " + file);
+      }
+    }
+    catch (DataFormatException e)
+    {
+      throw new IOException(e);
+    }
+    return ByteString.wrap(data);
+  }
+
+  /**
+   * Positions the reader of a log file of format version 2 to the provided
+   * position in the records.
+   *
+   * @param position
+   *          The position in the decompressed records, which must be the
+   *          start of a record or the end of the records.
+   * @throws IOException
+   *            If an error occurs while reading.
+   */
+  private void seekToBlockPosition(final long position) throws IOException
+  {
+    if (blockData != null && position >= blockPosition && position <= blockPosition + blockData.length())
+    {
+      // the current block is kept to avoid decompressing it again
+      offsetInBlock = (int) (position - blockPosition);
+      return;
+    }
+    blocks.readBlockHeaders(reader);
+    final int i = blocks.indexOfBlockStartBeforeOrAt(position);
+    blockData = null;
+    nextBlockFilePosition = i >= 0 ? blocks.getFilePosition(i) : HEADER_SIZE;
+    nextBlockPosition = i >= 0 ? blocks.getPosition(i) : 0;
+    while (nextBlockPosition < position)
+    {
+      reader.seek(nextBlockFilePosition);
+      final int storedLength = reader.readInt();
+      final int dataLength = reader.readInt();
+      LogFileBlocks.checkBlockHeader(nextBlockFilePosition, storedLength, dataLength);
+      if (position < nextBlockPosition + dataLength)
+      {
+        if (!readNextBlock())
+        {
+          throw new EOFException("Position " + position + " is in an incomplete block of log file " + file);
+        }
+        offsetInBlock = (int) (position - blockPosition);
+        return;
+      }
+      nextBlockFilePosition += BLOCK_HEADER_SIZE + storedLength;
+      nextBlockPosition += dataLength;
+    }
+  }
+
+  /** Returns the position in the records of a log file of format version 2. */
+  private long getBlockPosition()
+  {
+    return blockData != null ? blockPosition + offsetInBlock : nextBlockPosition;
+  }
+
   /**
    * Returns the total length in bytes taken by a record when stored in log file,
    * including size taken by block offsets.
@@ -384,7 +664,8 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
   }
 
   /**
-   * Search the closest block start to the provided key, using binary search.
+   * Search the closest block start to the provided key, using binary search
+   * restricted to the bounds given by the index if any.
    * <p>
    * Note that position of reader is modified by this method.
    *
@@ -397,9 +678,26 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
    */
   long searchClosestBlockStartToKey(K key) throws ChangelogException
   {
+    if (blocks != null)
+    {
+      return searchClosestRecordStartToKey(key);
+    }
     final long maxPos = getFileLength() - 1;
     long lowPos = 0L;
     long highPos = getClosestBlockStartStrictlyAfterPosition(maxPos);
+    if (index != null)
+    {
+      final Pair<Long, Long> bounds = index.getSearchBounds(key);
+      if (bounds.getFirst().equals(bounds.getSecond()))
+      {
+        return bounds.getFirst();
+      }
+      lowPos = bounds.getFirst();
+      if (bounds.getSecond() != null)
+      {
+        highPos = Math.min(highPos, bounds.getSecond());
+      }
+    }
 
     while (lowPos <= highPos)
     {
@@ -437,6 +735,61 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
     return -1;
   }
 
+  /**
+   * Search the closest record start before the provided key in a log file of
+   * format version 2, using binary search over the block starts restricted to
+   * the bounds given by the index if any.
+   */
+  private long searchClosestRecordStartToKey(final K key) throws ChangelogException
+  {
+    try
+    {
+      blocks.readBlockHeaders(reader);
+    }
+    catch (IOException e)
+    {
+      throw new ChangelogException(ERR_CHANGELOG_UNABLE_TO_DECODE_RECORD.get(reader.toString()), e);
+    }
+    if (blocks.size() == 0)
+    {
+      return -1;
+    }
+    long closestPosition = 0L;
+    int low = 0;
+    int high = blocks.size() - 1;
+    if (index != null)
+    {
+      final Pair<Long, Long> bounds = index.getSearchBounds(key);
+      if (bounds.getFirst().equals(bounds.getSecond()))
+      {
+        return bounds.getFirst();
+      }
+      closestPosition = bounds.getFirst();
+      low = Math.max(blocks.indexOfBlockStartBeforeOrAt(closestPosition), 0);
+      if (bounds.getSecond() != null)
+      {
+        high = Math.max(blocks.indexOfBlockStartBeforeOrAt(bounds.getSecond()), low);
+      }
+    }
+
+    while (low <= high)
+    {
+      final int middle = (low + high) >>> 1;
+      final long middlePosition = blocks.getPosition(middle);
+      final Record<K, V> middleRecord = readRecord(middlePosition);
+      if (middleRecord != null && middleRecord.getKey().compareTo(key) <= 0)
+      {
+        closestPosition = Math.max(closestPosition, middlePosition);
+        low = middle + 1;
+      }
+      else
+      {
+        high = middle - 1;
+      }
+    }
+    return closestPosition;
+  }
+
   private long getFileLength() throws ChangelogException
   {
     try
@@ -609,6 +962,10 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
  {
    try
    {
+     if (blocks != null)
+     {
+       return checkBlockLogIsValid();
+     }
      final long lastBlockStart = getClosestBlockStartToEndOfFile();
      positionToRecordFromBlockStart(lastBlockStart);
 
@@ -629,9 +986,64 @@ class BlockLogReader<K extends Comparable<K>, V> implements Closeable
    }
  }
 
+  /**
+   * Checks a log file of format version 2 by reading the block headers and
+   * decoding the records of the last complete block.
+   */
+  private long checkBlockLogIsValid() throws ChangelogException, IOException
+  {
+    final long fileLength = getFileLength();
+    if (fileLength == 0)
+    {
+      return -1;
+    }
+    blocks.readBlockHeaders(reader);
+    if (positionToLastBlock())
+    {
+      for (ByteString recordData = readNextBlockRecord(); recordData != null; recordData = readNextBlockRecord())
+      {
+        parser.decodeRecord(recordData);
+      }
+    }
+    final long lastValidPosition = blocks.getEndFilePosition();
+    return lastValidPosition == fileLength ? -1 : lastValidPosition;
+  }
+
+  /**
+   * Positions a reader on a log file of format version 2 to the start of the
+   * last complete block.
+   *
+   * @return {@code false} if the log file has no complete block
+   */
+  private boolean positionToLastBlock()
+  {
+    final long lastBlockFilePosition = blocks.getLastBlockFilePosition();
+    if (lastBlockFilePosition < 0)
+    {
+      return false;
+    }
+    blockData = null;
+    nextBlockFilePosition = lastBlockFilePosition;
+    nextBlockPosition = blocks.getLastBlockPosition();
+    return true;
+  }
+
 Record<K, V> getNewestRecord() throws ChangelogException
  {
    try {
+     if (blocks != null)
+     {
+       blocks.readBlockHeaders(reader);
+       ByteString record = null;
+       if (positionToLastBlock())
+       {
+         for (ByteString candidate = readNextBlockRecord(); candidate != null; candidate = readNextBlockRecord())
+         {
+           record = candidate;
+         }
+       }
+       return record == null ? null : parser.decodeRecord(record);
+     }
      long lastBlockStart = getClosestBlockStartToEndOfFile();
      positionToRecordFromBlockStart(lastBlockStart);
      ByteString candidate = readNextRecord();
@@ -27,10 +27,24 @@ package org.opends.server.replication.server.changelog.file;
 
 import static org.opends.messages.ReplicationMessages.*;
 import static org.opends.server.replication.server.changelog.file.BlockLogReader.*;
+import static org.opends.server.replication.server.changelog.file.LogFileHeader.*;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.SyncFailedException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.Deflater;
 
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ByteStringBuilder;
@@ -38,11 +52,20 @@ import org.forgerock.util.Reject;
 import org.opends.server.replication.server.changelog.api.ChangelogException;
 
 /**
- * A log writer, using fixed-size blocks to allow fast retrieval when reading.
+ * A log writer, using blocks to allow fast retrieval when reading.
  * <p>
- * The log file contains record offsets at fixed block size : given block size N,
- * an offset is written at every N bytes. The offset contains the number of bytes to
- * reach the beginning of previous record (or next record if offset equals 0).
+ * A log file of format version 1 contains record offsets at fixed block size :
+ * given block size N, an offset is written at every N bytes. The offset contains
+ * the number of bytes to reach the beginning of previous record (or next record
+ * if offset equals 0).
+ * <p>
+ * A log file of format version 2 starts with a header, then each record is
+ * written as an uncompressed block of its own. The records are grouped into
+ * compressed blocks by {@link #compressLogFile(File, LogFileHeader)} once the
+ * log file is no longer written, as described in {@link LogFileHeader}.
+ * <p>
+ * If an index is provided, the writer adds to it the block starts that lead to
+ * the records written.
  *
  * @param <K>
  *          Type of the key of a record, which must be comparable.
@@ -51,14 +74,29 @@ import org.opends.server.replication.server.changelog.api.ChangelogException;
  */
 class BlockLogWriter<K extends Comparable<K>, V> implements Closeable
 {
+  /** Suffix of the temporary file written while compressing a log file. */
+  static final String TMP_FILE_SUFFIX = ".tmp";
+
   private final int blockSize;
 
+  /** The header giving the format of the log file. */
+  private final LogFileHeader header;
+
+  /**
+   * The position in the decompressed records of the next record written, for
+   * format version 2.
+   */
+  private long position;
+
   private final RecordParser<K, V> parser;
 
   private final LogWriter writer;
 
+  /** The index of the log file, may be {@code null}. */
+  private final LogFileIndex<K, V> index;
+
   /**
-   * Creates a writer for the provided log writer and parser.
+   * Creates a writer for the provided log writer, parser and header.
    *
    * @param <K>
    *          Type of the key of a record, which must be comparable.
@@ -68,16 +106,25 @@ class BlockLogWriter<K extends Comparable<K>, V> implements Closeable
    *          The writer on the log file.
    * @param parser
    *          The parser to encode the records.
+   * @param header
+   *          The header giving the format of the log file, which is written
+   *          before the first record if the log file is empty.
+   * @param position
+   *          The position in the decompressed records of the end of the log
+   *          file, which is ignored for format version 1.
+   * @param index
+   *          The index of the log file, which may be {@code null}.
    * @return a new log reader
    */
-  static <K extends Comparable<K>, V> BlockLogWriter<K,V> newWriter(
-      final LogWriter writer, final RecordParser<K, V> parser)
+  static <K extends Comparable<K>, V> BlockLogWriter<K,V> newWriter(final LogWriter writer,
+      final RecordParser<K, V> parser, final LogFileHeader header, final long position,
+      final LogFileIndex<K, V> index)
   {
-    return new BlockLogWriter<>(writer, parser, BLOCK_SIZE);
+    return new BlockLogWriter<>(writer, parser, header, position, index);
   }
 
   /**
-   * Creates a writer for the provided log writer, parser and size for blocks.
+   * Creates a writer for the provided log writer, parser, size for blocks and index.
    * <p>
    * This method is intended for tests only, to allow tuning of the block size.
    *
@@ -92,30 +139,40 @@ class BlockLogWriter<K extends Comparable<K>, V> implements Closeable
    * @param blockSize
    *          The size of each block, or frequency at which the record offset is
    *          present in the log file.
+   * @param index
+   *          The index of the log file, which may be {@code null}.
    * @return a new log reader
    */
   static <K extends Comparable<K>, V> BlockLogWriter<K,V> newWriterForTests(
-      final LogWriter writer, final RecordParser<K, V> parser, final int blockSize)
+      final LogWriter writer, final RecordParser<K, V> parser, final int blockSize, final LogFileIndex<K, V> index)
   {
-    return new BlockLogWriter<>(writer, parser, blockSize);
+    return new BlockLogWriter<>(writer, parser, LogFileHeader.newV1Header(blockSize), 0, index);
   }
 
   /**
-   * Creates the writer with an underlying writer, a parser and a size for blocks.
+   * Creates the writer with an underlying writer, a parser and a header.
    *
    * @param writer
    *            The writer to the log file.
    * @param parser
    *            The parser to encode the records.
-   * @param blockSize
-   *            The size of each block.
+   * @param header
+   *            The header giving the format of the log file.
+   * @param position
+   *            The position in the decompressed records of the end of the log file.
+   * @param index
+   *            The index of the log file, may be {@code null}.
    */
-  private BlockLogWriter(LogWriter writer, RecordParser<K, V> parser, int blockSize)
+  private BlockLogWriter(LogWriter writer, RecordParser<K, V> parser, LogFileHeader header, long position,
+      LogFileIndex<K, V> index)
   {
-    Reject.ifNull(writer, parser);
+    Reject.ifNull(writer, parser, header);
     this.writer = writer;
     this.parser = parser;
-    this.blockSize = blockSize;
+    this.header = header;
+    this.blockSize = header.getBlockSize();
+    this.position = position;
+    this.index = index;
   }
 
   /**
@@ -130,8 +187,27 @@ class BlockLogWriter<K extends Comparable<K>, V> implements Closeable
   {
     try
     {
-      write(parser.encodeRecord(record));
+      final ByteString data = parser.encodeRecord(record);
+      if (header.isBlockCompressed())
+      {
+        writeBlock(data);
+        writer.flush();
+        if (index != null && position > 0)
+        {
+          // the search starts from the first record when the index does not bound it
+          index.add(record.getKey(), position);
+        }
+        position += SIZE_OF_RECORD_SIZE + data.length();
+        return;
+      }
+      final long recordPosition = writer.getBytesWritten();
+      write(data);
       writer.flush();
+      if (index != null)
+      {
+        // only add the record once it can be read
+        addToIndex(record.getKey(), recordPosition, SIZE_OF_RECORD_SIZE + data.length());
+      }
     }
     catch (IOException e)
     {
@@ -141,13 +217,29 @@ class BlockLogWriter<K extends Comparable<K>, V> implements Closeable
   }
 
   /**
-   * Returns the number of bytes written in the log file.
+   * Adds the record to the index if a block starts inside it, as reading from
+   * this block start positions the reader on the record.
+   */
+  private void addToIndex(final K key, final long recordPosition, final int recordLength)
+  {
+    final int distanceToBlockStart = getDistanceToNextBlockStart(recordPosition, blockSize);
+    if (distanceToBlockStart < recordLength)
+    {
+      index.add(key, recordPosition + distanceToBlockStart);
+    }
+  }
+
+  /**
+   * Returns the size in bytes of the records written in the log file, which
+   * is the number of bytes written for format version 1, and the length of the
+   * decompressed records for format version 2 so that it does not depend on
+   * the headers of the blocks.
    *
-   * @return the number of bytes
+   * @return the size of the records
    */
-  public long getBytesWritten()
+  public long getSizeOfRecords()
   {
-    return writer.getBytesWritten();
+    return header.isBlockCompressed() ? position : writer.getBytesWritten();
   }
 
   /**
@@ -168,6 +260,140 @@ class BlockLogWriter<K extends Comparable<K>, V> implements Closeable
     writer.close();
   }
 
+  /**
+   * Writes the provided record as an uncompressed block of its own, preceded by
+   * the header if the log file is empty, using a single write so that a
+   * partially written block can only be found at the end of the log file.
+   */
+  private void writeBlock(final ByteString record) throws IOException
+  {
+    final int dataLength = SIZE_OF_RECORD_SIZE + record.length();
+    final boolean writeHeader = writer.getBytesWritten() == 0;
+    final ByteStringBuilder block = new ByteStringBuilder((writeHeader ? HEADER_SIZE : 0) + BLOCK_HEADER_SIZE
+        + dataLength);
+    if (writeHeader)
+    {
+      block.appendBytes(header.toByteString());
+    }
+    block.appendInt(dataLength).appendInt(dataLength).appendInt(record.length()).appendBytes(record);
+    writer.write(block.toByteString());
+  }
+
+  /**
+   * Rewrites the provided log file of format version 2 so that its records are
+   * grouped into blocks of about the block size given by its header, each
+   * block being compressed independently.
+   * <p>
+   * The blocks of the log file are only grouped, never split, so the records
+   * keep their position in the decompressed records and the index of the log
+   * file remains valid. The compressed log file is written to a temporary file
+   * which then replaces the log file, so that the log file is never partially
+   * written. The log file must not be written or read while it is compressed.
+   *
+   * @param logFile
+   *          The log file to compress.
+   * @param header
+   *          The header of the log file.
+   * @throws IOException
+   *           If the log file can't be compressed, in which case it is left
+   *           unmodified.
+   */
+  static void compressLogFile(final File logFile, final LogFileHeader header) throws IOException
+  {
+    Reject.ifFalse(header.isBlockCompressed(), "Only log files of format version 2 can be compressed");
+    final Path logPath = logFile.toPath();
+    final Path tmpPath = new File(logFile.getPath() + TMP_FILE_SUFFIX).toPath();
+    Files.deleteIfExists(tmpPath);
+    final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)));
+         FileOutputStream fileOutput = new FileOutputStream(tmpPath.toFile());
+         DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput)))
+    {
+      input.readFully(new byte[HEADER_SIZE]);
+      header.toByteString().copyTo(output);
+      final ByteStringBuilder data = new ByteStringBuilder(header.getBlockSize() + BLOCK_HEADER_SIZE);
+      byte[] storedData = new byte[0];
+      long filePosition = HEADER_SIZE;
+      while (true)
+      {
+        final int storedLength;
+        final int dataLength;
+        try
+        {
+          storedLength = input.readInt();
+          dataLength = input.readInt();
+        }
+        catch (EOFException e)
+        {
+          break;
+        }
+        LogFileBlocks.checkBlockHeader(filePosition, storedLength, dataLength);
+        if (storedLength != dataLength)
+        {
+          throw new IOException("Log file " + logFile + " is already compressed");
+        }
+        if (storedData.length < storedLength)
+        {
+          storedData = new byte[storedLength];
+        }
+        input.readFully(storedData, 0, storedLength);
+        data.appendBytes(storedData, 0, storedLength);
+        if (data.length() >= header.getBlockSize())
+        {
+          writeCompressedBlock(output, deflater, data);
+        }
+        filePosition += BLOCK_HEADER_SIZE + storedLength;
+      }
+      if (data.length() > 0)
+      {
+        writeCompressedBlock(output, deflater, data);
+      }
+      output.flush();
+      fileOutput.getFD().sync();
+    }
+    catch (IOException e)
+    {
+      Files.deleteIfExists(tmpPath);
+      throw e;
+    }
+    finally
+    {
+      deflater.end();
+    }
+    try
+    {
+      Files.move(tmpPath, logPath, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (AtomicMoveNotSupportedException e)
+    {
+      Files.move(tmpPath, logPath, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Writes the provided data as a compressed block, or as an uncompressed
+   * block if compression does not reduce its size, then clears the data.
+   */
+  private static void writeCompressedBlock(final DataOutputStream output, final Deflater deflater,
+      final ByteStringBuilder data) throws IOException
+  {
+    final byte[] bytes = data.toByteArray();
+    final byte[] compressed = new byte[bytes.length];
+    deflater.reset();
+    deflater.setInput(bytes);
+    deflater.finish();
+    int compressedLength = 0;
+    while (!deflater.finished() && compressedLength < compressed.length)
+    {
+      compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+    }
+    final boolean isCompressed = deflater.finished() && compressedLength < bytes.length;
+    output.writeInt(isCompressed ? compressedLength : bytes.length);
+    output.writeInt(bytes.length);
+    output.write(isCompressed ? compressed : bytes, 0, isCompressed ? compressedLength : bytes.length);
+    data.clear();
+  }
+
   /**
    * Writes the provided byte string to the log file.
    *
@@ -25,23 +25,24 @@
  */
 package org.opends.server.replication.server.changelog.file;
 
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeMap;
+import java.util.List;
 
 import org.opends.server.replication.common.CSN;
 import org.opends.server.replication.protocol.UpdateMsg;
 import org.opends.server.replication.server.changelog.api.ChangelogException;
 import org.opends.server.replication.server.changelog.api.DBCursor;
-import org.opends.server.util.StaticUtils;
 
 /**
  * {@link DBCursor} implementation that iterates across a Collection of
  * {@link DBCursor}s, advancing from the oldest to the newest change cross all
  * cursors.
+ * <p>
+ * The cursors are merged with a binary heap ordered on the current change of
+ * each cursor: moving to the next change only advances the cursor at the top of
+ * the heap and restores the heap order, which costs at most two comparisons per
+ * level of the heap and no allocation.
  *
  * @param <T>
  *          The type of data associated with each cursor
@@ -53,6 +54,42 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
   private static final byte READY = 1;
   private static final byte CLOSED = 2;
 
+  /** A cursor, with its associated data and the CSN of its current change. */
+  private static final class CursorEntry<T>
+  {
+    private final DBCursor<UpdateMsg> cursor;
+    private final T data;
+    private CSN csn;
+
+    private CursorEntry(final DBCursor<UpdateMsg> cursor, final T data)
+    {
+      this.cursor = cursor;
+      this.data = data;
+    }
+
+    /**
+     * Moves the cursor to its next change.
+     *
+     * @return {@code true} if the cursor has a current change
+     */
+    private boolean next() throws ChangelogException
+    {
+      if (cursor.next())
+      {
+        csn = cursor.getRecord().getCSN();
+        return true;
+      }
+      csn = null;
+      return false;
+    }
+
+    @Override
+    public String toString()
+    {
+      return cursor + "=" + data;
+    }
+  }
+
   /** The state of this cursor. One of {@link #UNINITIALIZED}, {@link #READY} or {@link #CLOSED} */
   private byte state = UNINITIALIZED;
 
@@ -61,40 +98,18 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
    * last time {@link DBCursor#next()} was called on them. Exhausted cursors
    * might be recycled at some point when they start returning changes again.
    */
-  private final Map<DBCursor<UpdateMsg>, T> exhaustedCursors = new HashMap<>();
+  private final List<CursorEntry<T>> exhaustedCursors = new ArrayList<>();
   /**
-   * The cursors are sorted based on the current change of each cursor to
-   * consider the next change across all available cursors.
+   * The cursors having a current change, stored as a binary heap where each
+   * cursor's change is older than the changes of its two children. The cursor
+   * returning the oldest change is therefore always the first one.
    * <p>
-   * New cursors for this Map must be created from the same thread that will
+   * New cursors for this heap must be created from the same thread that will
    * make use of them. When this rule is not obeyed, a JE exception will be
    * thrown about
    * "Non-transactional Cursors may not be used in multiple threads;".
    */
-  private final TreeMap<DBCursor<UpdateMsg>, T> cursors = new TreeMap<>(
-          new Comparator<DBCursor<UpdateMsg>>()
-          {
-            @Override
-            public int compare(DBCursor<UpdateMsg> o1, DBCursor<UpdateMsg> o2)
-            {
-              final CSN csn1 = o1.getRecord().getCSN();
-              final CSN csn2 = o2.getRecord().getCSN();
-              int cmpCsn = CSN.compare(csn1, csn2);
-              if (cmpCsn == 0
-                  && o1 instanceof CompositeDBCursor
-                  && o2 instanceof CompositeDBCursor)
-              {
-                // Ensures a consistent order when the CSNs are equal (rare in practice)
-                T data1 = ((CompositeDBCursor<T>) o1).getData();
-                T data2 = ((CompositeDBCursor<T>) o1).getData();
-                if (data1 instanceof Comparable && data2 instanceof Comparable)
-                {
-                  return ((Comparable<T>) data1).compareTo(data2);
-                }
-              }
-              return cmpCsn;
-            }
-          });
+  private final List<CursorEntry<T>> cursors = new ArrayList<>();
 
   /** {@inheritDoc} */
   @Override
@@ -107,33 +122,55 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
 
     // If previous state was ready, then we must advance the first cursor
     // (which UpdateMsg has been consumed).
-    // To keep consistent the cursors' order in the SortedSet, it is necessary
-    // to remove the first cursor, then add it again after moving it forward.
-    final Entry<DBCursor<UpdateMsg>, T> cursorToAdvance =
-        state != UNINITIALIZED ? cursors.pollFirstEntry() : null;
-    state = READY;
-    recycleExhaustedCursors();
-    if (cursorToAdvance != null)
+    // Only the cursors exhausted before this call are recycled: the first
+    // cursor must not be moved forward twice if it becomes exhausted now.
+    final int nbCursorsToRecycle = exhaustedCursors.size();
+    if (state == READY && !cursors.isEmpty())
     {
-      addCursor(cursorToAdvance.getKey(), cursorToAdvance.getValue());
+      advanceFirstCursor();
     }
+    state = READY;
+    recycleExhaustedCursors(nbCursorsToRecycle);
 
     incorporateNewCursors();
     return !cursors.isEmpty();
   }
 
-  private void recycleExhaustedCursors() throws ChangelogException
+  private void advanceFirstCursor() throws ChangelogException
   {
-    if (!exhaustedCursors.isEmpty())
+    final CursorEntry<T> first = cursors.get(0);
+    if (first.next())
     {
-      // try to recycle exhausted cursors in case the underlying replica DBs received new changes.
-      final Map<DBCursor<UpdateMsg>, T> copy = new HashMap<>(exhaustedCursors);
-      exhaustedCursors.clear();
-      for (Entry<DBCursor<UpdateMsg>, T> entry : copy.entrySet())
+      siftDown(0);
+    }
+    else
+    {
+      removeFromHeap(0);
+      exhaustedCursors.add(first);
+    }
+  }
+
+  private void recycleExhaustedCursors(final int nbCursorsToRecycle) throws ChangelogException
+  {
+    if (nbCursorsToRecycle == 0)
+    {
+      return;
+    }
+    // try to recycle exhausted cursors in case the underlying replica DBs received new changes.
+    int nbStillExhausted = 0;
+    for (int i = 0; i < exhaustedCursors.size(); i++)
+    {
+      final CursorEntry<T> entry = exhaustedCursors.get(i);
+      if (i < nbCursorsToRecycle && entry.next())
+      {
+        addToHeap(entry);
+      }
+      else
       {
-        addCursor(entry.getKey(), entry.getValue());
+        exhaustedCursors.set(nbStillExhausted++, entry);
       }
     }
+    exhaustedCursors.subList(nbStillExhausted, exhaustedCursors.size()).clear();
   }
 
   /**
@@ -144,22 +181,31 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
    */
   protected void removeCursor(final T dataToFind)
   {
-    removeCursor(this.cursors, dataToFind);
+    if (removeCursor(this.cursors, dataToFind))
+    {
+      // restore the heap order over the remaining cursors
+      for (int i = cursors.size() / 2 - 1; i >= 0; i--)
+      {
+        siftDown(i);
+      }
+    }
     removeCursor(this.exhaustedCursors, dataToFind);
   }
 
-  private void removeCursor(Map<DBCursor<UpdateMsg>, T> cursors, T dataToFind)
+  private boolean removeCursor(final List<CursorEntry<T>> cursors, final T dataToFind)
   {
-    for (Iterator<Entry<DBCursor<UpdateMsg>, T>> cursorIter =
-        cursors.entrySet().iterator(); cursorIter.hasNext();)
+    boolean removed = false;
+    for (Iterator<CursorEntry<T>> cursorIter = cursors.iterator(); cursorIter.hasNext();)
     {
-      final Entry<DBCursor<UpdateMsg>, T> entry = cursorIter.next();
-      if (dataToFind.equals(entry.getValue()))
+      final CursorEntry<T> entry = cursorIter.next();
+      if (dataToFind.equals(entry.data))
       {
-        entry.getKey().close();
+        entry.cursor.close();
         cursorIter.remove();
+        removed = true;
       }
     }
+    return removed;
   }
 
   /**
@@ -175,26 +221,97 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
    */
   protected void addCursor(final DBCursor<UpdateMsg> cursor, final T data) throws ChangelogException
   {
-    if (cursor.next())
+    final CursorEntry<T> entry = new CursorEntry<>(cursor, data);
+    if (entry.next())
     {
-      this.cursors.put(cursor, data);
+      addToHeap(entry);
     }
     else
     {
-      this.exhaustedCursors.put(cursor, data);
+      this.exhaustedCursors.add(entry);
     }
   }
 
+  private void addToHeap(final CursorEntry<T> entry)
+  {
+    cursors.add(entry);
+    siftUp(cursors.size() - 1);
+  }
+
+  private void removeFromHeap(final int index)
+  {
+    final CursorEntry<T> last = cursors.remove(cursors.size() - 1);
+    if (index < cursors.size())
+    {
+      cursors.set(index, last);
+      siftDown(index);
+      siftUp(index);
+    }
+  }
+
+  private void siftUp(final int index)
+  {
+    final CursorEntry<T> entry = cursors.get(index);
+    int i = index;
+    while (i > 0)
+    {
+      final int parent = (i - 1) / 2;
+      final CursorEntry<T> parentEntry = cursors.get(parent);
+      if (compare(parentEntry, entry) <= 0)
+      {
+        break;
+      }
+      cursors.set(i, parentEntry);
+      i = parent;
+    }
+    cursors.set(i, entry);
+  }
+
+  private void siftDown(final int index)
+  {
+    final int size = cursors.size();
+    final CursorEntry<T> entry = cursors.get(index);
+    int i = index;
+    int child = 2 * i + 1;
+    while (child < size)
+    {
+      if (child + 1 < size && compare(cursors.get(child + 1), cursors.get(child)) < 0)
+      {
+        child++;
+      }
+      final CursorEntry<T> childEntry = cursors.get(child);
+      if (compare(entry, childEntry) <= 0)
+      {
+        break;
+      }
+      cursors.set(i, childEntry);
+      i = child;
+      child = 2 * i + 1;
+    }
+    cursors.set(i, entry);
+  }
+
+  @SuppressWarnings("unchecked")
+  private int compare(final CursorEntry<T> e1, final CursorEntry<T> e2)
+  {
+    final int cmpCsn = CSN.compare(e1.csn, e2.csn);
+    if (cmpCsn == 0 && e1.data instanceof Comparable && e2.data instanceof Comparable)
+    {
+      // Ensures a consistent order when the CSNs are equal (rare in practice)
+      return ((Comparable<T>) e1.data).compareTo(e2.data);
+    }
+    return cmpCsn;
+  }
+
   /** {@inheritDoc} */
   @Override
   public UpdateMsg getRecord()
   {
     // Cannot call incorporateNewCursors() here because
     // somebody might have already called DBCursor.getRecord() and read the record
-    final Entry<DBCursor<UpdateMsg>, T> entry = cursors.firstEntry();
-    if (entry != null)
+    if (!cursors.isEmpty())
     {
-      return entry.getKey().getRecord();
+      return cursors.get(0).cursor.getRecord();
     }
     return null;
   }
@@ -216,10 +333,9 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
    */
   public T getData()
   {
-    final Entry<DBCursor<UpdateMsg>, T> entry = cursors.firstEntry();
-    if (entry != null)
+    if (!cursors.isEmpty())
     {
-      return entry.getValue();
+      return cursors.get(0).data;
     }
     return null;
   }
@@ -228,12 +344,20 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
   public void close()
   {
     state = CLOSED;
-    StaticUtils.close(cursors.keySet());
-    StaticUtils.close(exhaustedCursors.keySet());
+    closeCursors(cursors);
+    closeCursors(exhaustedCursors);
     cursors.clear();
     exhaustedCursors.clear();
   }
 
+  private void closeCursors(final List<CursorEntry<T>> entries)
+  {
+    for (CursorEntry<T> entry : entries)
+    {
+      entry.cursor.close();
+    }
+  }
+
   @Override
   public String toString()
   {
@@ -180,6 +180,9 @@ final class Log<K extends Comparable<K>, V> implements Closeable
   /** The time service used for timing. It is package private so it can be modified by test case. */
   TimeService timeService = TimeService.SYSTEM;
 
+  /** The size of the blocks of the log files before compression. */
+  private final int blockSize;
+
   /** A log file can be rotated once it has exceeded a given time interval. No rotation happens if equals to zero. */
   private long rotationIntervalInMillis;
 
@@ -260,9 +263,10 @@ final class Log<K extends Comparable<K>, V> implements Closeable
     private final long sizeLimitPerFileInBytes;
     private final long rotationInterval;
     private final long lastRotationTime;
+    private final int blockSize;
 
     /**
-     * Creates rotation parameters.
+     * Creates rotation parameters, with the default size of blocks.
      *
      * @param sizeLimitPerFileInBytes
      *           Size limit before rotating a log file.
@@ -273,9 +277,29 @@ final class Log<K extends Comparable<K>, V> implements Closeable
      */
     LogRotationParameters(long sizeLimitPerFileInBytes, long rotationInterval, long lastRotationTime)
     {
+      this(sizeLimitPerFileInBytes, rotationInterval, lastRotationTime, LogFileHeader.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates rotation parameters.
+     *
+     * @param sizeLimitPerFileInBytes
+     *           Size limit before rotating a log file.
+     * @param rotationInterval
+     *           Time interval before rotating a log file.
+     * @param lastRotationTime
+     *           Last time a log file was rotated.
+     * @param blockSize
+     *           Size of the blocks compressed independently when rotating a
+     *           log file, before compression.
+     */
+    LogRotationParameters(long sizeLimitPerFileInBytes, long rotationInterval, long lastRotationTime, int blockSize)
+    {
+      Reject.ifFalse(blockSize > 0, "blockSize must be positive");
       this.sizeLimitPerFileInBytes = sizeLimitPerFileInBytes;
       this.rotationInterval = rotationInterval;
       this.lastRotationTime = lastRotationTime;
+      this.blockSize = blockSize;
     }
 
     @Override
@@ -285,6 +309,7 @@ final class Log<K extends Comparable<K>, V> implements Closeable
           + "sizeLimitPerFileInBytes=" + sizeLimitPerFileInBytes
           + ", rotationInterval=" + rotationInterval
           + ", lastRotationTime=" + lastRotationTime
+          + ", blockSize=" + blockSize
           + ")";
     }
   }
@@ -348,6 +373,7 @@ final class Log<K extends Comparable<K>, V> implements Closeable
     this.sizeLimitPerLogFileInBytes = rotationParams.sizeLimitPerFileInBytes;
     this.rotationIntervalInMillis = rotationParams.rotationInterval;
     this.lastRotationTime = rotationParams.lastRotationTime;
+    this.blockSize = rotationParams.blockSize;
 
     this.referenceCount = 1;
 
@@ -981,7 +1007,8 @@ final class Log<K extends Comparable<K>, V> implements Closeable
 
   /**
    * Rotate the head log file to a read-only log file, and open a new empty head
-   * log file to write in.
+   * log file to write in. The read-only log file is compressed if it is of
+   * format version 2.
    * <p>
    * All cursors opened on this log are temporarily disabled (closing underlying resources)
    * and then re-open with their previous state.
@@ -996,6 +1023,8 @@ final class Log<K extends Comparable<K>, V> implements Closeable
     final File readOnlyLogFile = new File(logPath, generateReadOnlyFileName(headLogFile));
     headLogFile.close();
     renameHeadLogFileTo(readOnlyLogFile);
+    headLogFile.saveIndex(readOnlyLogFile);
+    headLogFile.compress(readOnlyLogFile);
 
     openHeadLogFile();
     openReadOnlyLogFile(readOnlyLogFile);
@@ -1122,7 +1151,8 @@ final class Log<K extends Comparable<K>, V> implements Closeable
 
   private void openHeadLogFile() throws ChangelogException
   {
-    final LogFile<K, V> head = LogFile.newAppendableLogFile(new File(logPath,  HEAD_LOG_FILE_NAME), recordParser);
+    final LogFile<K, V> head =
+        LogFile.newAppendableLogFile(new File(logPath,  HEAD_LOG_FILE_NAME), recordParser, blockSize);
     final Record<K,V> newestRecord = head.getNewestRecord();
     lastAppendedKey = newestRecord != null ? newestRecord.getKey() : null;
     logFiles.put(recordParser.getMaxKey(), head);
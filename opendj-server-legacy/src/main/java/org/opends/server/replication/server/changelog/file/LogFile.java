@@ -69,6 +69,15 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
   /** The file containing the records. */
   private final File logfile;
 
+  /**
+   * The sparse index of the log file, built while records are appended if log
+   * file is write-enabled, read from the index file otherwise.
+   */
+  private final LogFileIndex<K, V> index;
+
+  /** The header giving the format of the log file. */
+  private final LogFileHeader header;
+
   /** The pool to obtain a reader on the log. */
   private final LogReaderPool<K, V> readerPool;
 
@@ -99,27 +108,41 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
    * @param isWriteEnabled
    *          {@code true} if this changelog is write-enabled, {@code false}
    *          otherwise.
+   * @param blockSize
+   *          The size of the blocks before compression, used if the log file
+   *          is write-enabled and empty.
    * @throws ChangelogException
    *            If a problem occurs during initialization.
    */
-  private LogFile(final File logFilePath, final RecordParser<K, V> parser, boolean isWriteEnabled)
-      throws ChangelogException
+  private LogFile(final File logFilePath, final RecordParser<K, V> parser, boolean isWriteEnabled,
+      final int blockSize) throws ChangelogException
   {
     Reject.ifNull(logFilePath, parser);
     this.logfile = logFilePath;
     this.isWriteEnabled = isWriteEnabled;
 
     createLogFileIfNotExists();
+    final LogFileBlocks blocks;
     if (isWriteEnabled)
     {
-      ensureLogFileIsValid(parser);
-      writer = BlockLogWriter.newWriter(new LogWriter(logfile), parser);
+      header = readHeaderOfAppendableLogFile(blockSize);
+      blocks = header.isBlockCompressed() ? new LogFileBlocks() : null;
+      final long endPosition = ensureLogFileIsValid(parser, blocks);
+      index = LogFileIndex.newIndex(parser, header);
+      writer = BlockLogWriter.newWriter(new LogWriter(logfile), parser, header, endPosition, index);
     }
     else
     {
+      header = LogFileHeader.read(logfile);
+      if (header == null)
+      {
+        throw new ChangelogException(ERR_CHANGELOG_UNABLE_TO_READ_LOG_FILE_HEADER.get(getPath()));
+      }
+      blocks = header.isBlockCompressed() ? new LogFileBlocks() : null;
+      index = LogFileIndex.load(logfile, parser, header);
       writer = null;
     }
-    readerPool = new LogReaderPool<>(logfile, parser);
+    readerPool = new LogReaderPool<>(logfile, parser, header, index, blocks);
 
     final ReadWriteLock rwLock = new ReentrantReadWriteLock();
     exclusiveLock = rwLock.writeLock();
@@ -144,7 +167,7 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
   static <K extends Comparable<K>, V> LogFile<K, V> newReadOnlyLogFile(final File logFilePath,
       final RecordParser<K, V> parser) throws ChangelogException
   {
-    return new LogFile<>(logFilePath, parser, false);
+    return new LogFile<>(logFilePath, parser, false, LogFileHeader.DEFAULT_BLOCK_SIZE);
   }
 
   /**
@@ -166,7 +189,35 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
   static <K extends Comparable<K>, V> LogFile<K, V> newAppendableLogFile(final File logFilePath,
       final RecordParser<K, V> parser) throws ChangelogException
   {
-    return new LogFile<>(logFilePath, parser, true);
+    return newAppendableLogFile(logFilePath, parser, LogFileHeader.DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * Creates a write-enabled log file that appends records to the end of file,
+   * with the provided root path, record parser and block size.
+   * <p>
+   * An empty log file is written with format version 2 and the provided block
+   * size. A log file which is not empty keeps its format version and block
+   * size.
+   *
+   * @param <K>
+   *          Type of the key of a record, which must be comparable.
+   * @param <V>
+   *          Type of the value of a record.
+   * @param logFilePath
+   *          Path of the log file.
+   * @param parser
+   *          Parser of records.
+   * @param blockSize
+   *          The size of the blocks before compression.
+   * @return a write-enabled log file
+   * @throws ChangelogException
+   *            If a problem occurs during initialization.
+   */
+  static <K extends Comparable<K>, V> LogFile<K, V> newAppendableLogFile(final File logFilePath,
+      final RecordParser<K, V> parser, final int blockSize) throws ChangelogException
+  {
+    return new LogFile<>(logFilePath, parser, true, blockSize);
   }
 
   /**
@@ -202,6 +253,30 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
     }
   }
 
+  /**
+   * Reads the header of the log file to append to, removing a partially
+   * written header. An empty log file gets format version 2.
+   */
+  private LogFileHeader readHeaderOfAppendableLogFile(final int blockSize) throws ChangelogException
+  {
+    final LogFileHeader fileHeader = LogFileHeader.read(logfile);
+    if (fileHeader == null)
+    {
+      try (final RandomAccessFile readerWriter = new RandomAccessFile(logfile, "rws"))
+      {
+        readerWriter.setLength(0);
+        logger.error(INFO_CHANGELOG_LOG_FILE_RECOVERED.get(logfile.getPath()));
+      }
+      catch (IOException e)
+      {
+        throw new ChangelogException(ERR_CHANGELOG_UNABLE_TO_RECOVER_LOG_FILE.get(
+            logfile.getPath(),
+            StaticUtils.stackTraceToSingleLineString(e)));
+      }
+    }
+    return logfile.length() == 0 ? LogFileHeader.newV2Header(blockSize) : fileHeader;
+  }
+
   /**
    * Ensure that log file is not corrupted, by checking it is valid and cleaning
    * the end of file if necessary, to remove a partially written record.
@@ -209,14 +284,18 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
    * If log file is cleaned to remove a partially written record, then a message
    * is logged for information.
    *
+   * @return the position of the end of the log file, which is the length of the
+   *         decompressed records for format version 2
    * @throws ChangelogException
    *           If an error occurs or if log file is corrupted and can't be
    *           cleaned
    */
-  private void ensureLogFileIsValid(final RecordParser<K, V> parser) throws ChangelogException
+  private long ensureLogFileIsValid(final RecordParser<K, V> parser, final LogFileBlocks blocks)
+      throws ChangelogException
   {
     try (final RandomAccessFile readerWriter = new RandomAccessFile(logfile, "rws");
-         final BlockLogReader<K, V> reader = BlockLogReader.newReader(logfile, readerWriter, parser))
+         final BlockLogReader<K, V> reader =
+             BlockLogReader.newReader(logfile, readerWriter, parser, header, null, blocks))
     {
       final long lastValidPosition = reader.checkLogIsValid();
       if (lastValidPosition != -1)
@@ -225,6 +304,8 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
           readerWriter.setLength(lastValidPosition);
           logger.error(INFO_CHANGELOG_LOG_FILE_RECOVERED.get(logfile.getPath()));
       }
+      // for format version 2, the blocks read while checking the log file end at the truncated position
+      return reader.getEndPosition();
     }
     catch (IOException e)
     {
@@ -454,6 +535,8 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
       {
         throw new ChangelogException(ERR_CHANGELOG_UNABLE_TO_DELETE_LOG_FILE.get(getPath()));
       }
+      // the index is optional, a remaining index file is ignored if it does not match its log file
+      LogFileIndex.getIndexFile(logfile).delete();
     }
     finally
     {
@@ -462,13 +545,67 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
   }
 
   /**
-   * Return the size of this log file in bytes.
+   * Saves the index built while appending records to this log file, alongside
+   * the provided file which must contain the same records. Should be called
+   * only when log file is closed.
+   * <p>
+   * Failure to save the index is not an error, as a log file without index can
+   * still be searched.
+   *
+   * @param targetLogFile
+   *          The file containing the records of this log file, usually the
+   *          file this log file has been renamed to.
+   */
+  void saveIndex(final File targetLogFile)
+  {
+    try
+    {
+      index.save(targetLogFile);
+    }
+    catch (IOException e)
+    {
+      logger.traceException(e);
+    }
+  }
+
+  /**
+   * Compresses the provided file, which must contain the same records as this
+   * log file, if this log file is of format version 2. Should be called only
+   * when log file is closed.
+   * <p>
+   * Failure to compress the file is not fatal, as an uncompressed log file of
+   * format version 2 can still be read.
+   *
+   * @param targetLogFile
+   *          The file containing the records of this log file, usually the
+   *          file this log file has been renamed to.
+   */
+  void compress(final File targetLogFile)
+  {
+    if (!header.isBlockCompressed())
+    {
+      return;
+    }
+    try
+    {
+      BlockLogWriter.compressLogFile(targetLogFile, header);
+    }
+    catch (IOException e)
+    {
+      logger.error(ERR_CHANGELOG_UNABLE_TO_COMPRESS_LOG_FILE.get(
+          targetLogFile.getPath(), StaticUtils.stackTraceToSingleLineString(e)));
+    }
+  }
+
+  /**
+   * Return the size of this log file in bytes. For log files of format version
+   * 2, this is the size of the records before compression.
    *
    * @return the size of log file
    */
   long getSizeInBytes()
   {
-    return writer.getBytesWritten();
+    return writer.getSizeOfRecords();
   }
 
   /** The path of this log file as a String. */
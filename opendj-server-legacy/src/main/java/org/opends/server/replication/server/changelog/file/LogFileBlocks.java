@@ -0,0 +1,260 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.replication.server.changelog.file;
+
+import static org.opends.server.replication.server.changelog.file.LogFileHeader.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+/**
+ * The block starts of a log file of format version 2, shared by the readers of
+ * the log file.
+ * <p>
+ * A block start is kept roughly every {@code INTERVAL} bytes of the log file.
+ * Readers seek to a position, or binary search a key, by reading the block
+ * starts kept then the blocks following them. The block starts are found by
+ * reading the block headers of the log file, incrementally as the head log file
+ * grows.
+ * <p>
+ * Each block start is given by its position in the file and by its position in
+ * the records, which is the offset in the decompressed records of the log file.
+ */
+final class LogFileBlocks
+{
+  /** Minimal distance in bytes between two block starts kept. */
+  static final int INTERVAL = 4096;
+
+  private final int interval;
+
+  /** Positions in the file of the block starts kept. */
+  private long[] filePositions = new long[16];
+
+  /** Positions in the records of the block starts kept. */
+  private long[] positions = new long[16];
+
+  private int size;
+
+  /** Position in the file of the last complete block read. */
+  private long lastBlockFilePosition = -1;
+
+  /** Position in the records of the last complete block read. */
+  private long lastBlockPosition = -1;
+
+  /** Position in the file of the end of the last complete block read. */
+  private long endFilePosition = HEADER_SIZE;
+
+  /** Position in the records of the end of the last complete block read. */
+  private long endPosition;
+
+  /** Creates the block starts of a log file. */
+  LogFileBlocks()
+  {
+    this(INTERVAL);
+  }
+
+  /**
+   * Creates the block starts of a log file with the provided interval between
+   * block starts.
+   * <p>
+   * This constructor is intended for tests only, to allow tuning of the interval.
+   *
+   * @param interval
+   *          The minimal distance in bytes between two block starts kept.
+   */
+  LogFileBlocks(final int interval)
+  {
+    this.interval = interval;
+  }
+
+  /**
+   * Reads the headers of the blocks appended to the log file since the last
+   * call, stopping at the first incomplete block.
+   *
+   * @param reader
+   *          The reader on the log file, which position is modified.
+   * @throws IOException
+   *           If the log file can't be read or if a block header is invalid.
+   */
+  synchronized void readBlockHeaders(final RandomAccessFile reader) throws IOException
+  {
+    final long fileLength = reader.length();
+    while (endFilePosition + BLOCK_HEADER_SIZE <= fileLength)
+    {
+      reader.seek(endFilePosition);
+      final int storedLength = reader.readInt();
+      final int dataLength = reader.readInt();
+      checkBlockHeader(endFilePosition, storedLength, dataLength);
+      final long nextBlockFilePosition = endFilePosition + BLOCK_HEADER_SIZE + storedLength;
+      if (nextBlockFilePosition > fileLength)
+      {
+        // incomplete block, the log file is being recovered
+        return;
+      }
+      if (size == 0 || endFilePosition - filePositions[size - 1] >= interval)
+      {
+        add(endFilePosition, endPosition);
+      }
+      lastBlockFilePosition = endFilePosition;
+      lastBlockPosition = endPosition;
+      endFilePosition = nextBlockFilePosition;
+      endPosition += dataLength;
+    }
+  }
+
+  /**
+   * Checks the lengths read from the header of a block.
+   *
+   * @param blockFilePosition
+   *          The position in the file of the block.
+   * @param storedLength
+   *          The length of the block data as stored in the file.
+   * @param dataLength
+   *          The length of the block data once decompressed.
+   * @throws IOException
+   *           If the lengths are invalid.
+   */
+  static void checkBlockHeader(final long blockFilePosition, final int storedLength, final int dataLength)
+      throws IOException
+  {
+    if (storedLength <= 0 || dataLength < storedLength)
+    {
+      throw new IOException("Invalid header of block at position " + blockFilePosition + ": stored length="
+          + storedLength + ", data length=" + dataLength);
+    }
+  }
+
+  private void add(final long filePosition, final long position)
+  {
+    if (size == positions.length)
+    {
+      filePositions = Arrays.copyOf(filePositions, size * 2);
+      positions = Arrays.copyOf(positions, size * 2);
+    }
+    filePositions[size] = filePosition;
+    positions[size] = position;
+    size++;
+  }
+
+  /**
+   * Returns the number of block starts kept.
+   *
+   * @return the number of block starts
+   */
+  synchronized int size()
+  {
+    return size;
+  }
+
+  /**
+   * Returns the position in the file of a block start.
+   *
+   * @param i
+   *          The index of the block start.
+   * @return the position in the file
+   */
+  synchronized long getFilePosition(final int i)
+  {
+    return filePositions[i];
+  }
+
+  /**
+   * Returns the position in the records of a block start.
+   *
+   * @param i
+   *          The index of the block start.
+   * @return the position in the records
+   */
+  synchronized long getPosition(final int i)
+  {
+    return positions[i];
+  }
+
+  /**
+   * Returns the index of the last block start with a position in the records
+   * lower than or equal to the provided position.
+   *
+   * @param position
+   *          The position in the records.
+   * @return the index of the block start, or {@code -1} if there is none
+   */
+  synchronized int indexOfBlockStartBeforeOrAt(final long position)
+  {
+    final int i = Arrays.binarySearch(positions, 0, size, position);
+    return i >= 0 ? i : -i - 2;
+  }
+
+  /**
+   * Returns the position in the file of the last complete block read.
+   *
+   * @return the position in the file, or {@code -1} if no block has been read
+   */
+  synchronized long getLastBlockFilePosition()
+  {
+    return lastBlockFilePosition;
+  }
+
+  /**
+   * Returns the position in the records of the last complete block read.
+   *
+   * @return the position in the records, or {@code -1} if no block has been read
+   */
+  synchronized long getLastBlockPosition()
+  {
+    return lastBlockPosition;
+  }
+
+  /**
+   * Returns the position in the file of the end of the last complete block
+   * read.
+   *
+   * @return the position in the file
+   */
+  synchronized long getEndFilePosition()
+  {
+    return endFilePosition;
+  }
+
+  /**
+   * Returns the position in the records of the end of the last complete block
+   * read, which is the length of the records read.
+   *
+   * @return the position in the records
+   */
+  synchronized long getEndPosition()
+  {
+    return endPosition;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized String toString()
+  {
+    return getClass().getSimpleName() + "(blockStarts=" + size + ", endFilePosition=" + endFilePosition
+        + ", endPosition=" + endPosition + ")";
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.replication.server.changelog.file;
+
+import static org.opends.messages.ReplicationMessages.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.opends.server.replication.server.changelog.api.ChangelogException;
+
+/**
+ * The header of a log file, giving the format of the log file.
+ * <p>
+ * Log files of format version 1 have no header: they start with the first
+ * record, and an offset to the nearest record is written every
+ * {@code BlockLogReader.BLOCK_SIZE} bytes.
+ * <p>
+ * Log files of format version 2 start with a header made of a magic number, the
+ * format version and the block size. The magic number is negative so that it
+ * can't be mistaken for the length of the first record of a version 1 log file.
+ * The header is followed by blocks, each block being made of:
+ * <ul>
+ * <li>the length of the block data as stored in the file,</li>
+ * <li>the length of the block data once decompressed,</li>
+ * <li>the block data, which is a sequence of (record length, record) pairs. It
+ * is compressed with deflate when the stored length is lower than the
+ * decompressed length.</li>
+ * </ul>
+ * The head log file holds one uncompressed block per record so that records
+ * can be read as soon as they are appended. When the head log file is rotated,
+ * its records are grouped into blocks of about the block size which are
+ * compressed independently. A position in a version 2 log file is the offset
+ * in the decompressed records, which is the same before and after compression.
+ */
+final class LogFileHeader
+{
+  /** Magic number starting a log file of format version 2 or higher. */
+  static final int MAGIC_NUMBER = 0xC4A9_E10F;
+
+  /** Format of the log files written by previous versions, without header. */
+  static final int VERSION_1 = 1;
+
+  /** Format of the log files made of independently compressed blocks. */
+  static final int VERSION_2 = 2;
+
+  /** Size of the header of a log file of format version 2. */
+  static final int HEADER_SIZE = 12;
+
+  /** Size of the header of each block of a log file of format version 2. */
+  static final int BLOCK_HEADER_SIZE = 8;
+
+  /** Default size of the blocks of a log file of format version 2, before compression. */
+  static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+  /** The header of log files of format version 1. */
+  static final LogFileHeader V1 = newV1Header(BlockLogReader.BLOCK_SIZE);
+
+  private final int version;
+
+  private final int blockSize;
+
+  private LogFileHeader(final int version, final int blockSize)
+  {
+    this.version = version;
+    this.blockSize = blockSize;
+  }
+
+  /**
+   * Returns the header of a log file of format version 1.
+   * <p>
+   * Log files of format version 1 are always written with
+   * {@code BlockLogReader.BLOCK_SIZE}, other block sizes are intended for tests.
+   *
+   * @param blockSize
+   *          The size of each block.
+   * @return the header
+   */
+  static LogFileHeader newV1Header(final int blockSize)
+  {
+    return new LogFileHeader(VERSION_1, blockSize);
+  }
+
+  /**
+   * Returns the header of a log file of format version 2.
+   *
+   * @param blockSize
+   *          The size of the blocks before compression.
+   * @return the header
+   */
+  static LogFileHeader newV2Header(final int blockSize)
+  {
+    return new LogFileHeader(VERSION_2, blockSize);
+  }
+
+  /**
+   * Reads the header of the provided log file.
+   *
+   * @param logFile
+   *          The log file.
+   * @return the header of the log file, which is {@link #V1} if the file is
+   *         empty or has no header, or {@code null} if the header is incomplete.
+   * @throws ChangelogException
+   *           If the header can't be read or if the format of the log file is
+   *           not supported.
+   */
+  static LogFileHeader read(final File logFile) throws ChangelogException
+  {
+    try (RandomAccessFile reader = new RandomAccessFile(logFile, "r"))
+    {
+      if (reader.length() < 4 || reader.readInt() != MAGIC_NUMBER)
+      {
+        return V1;
+      }
+      if (reader.length() < HEADER_SIZE)
+      {
+        return null;
+      }
+      final int version = reader.readInt();
+      final int blockSize = reader.readInt();
+      if (version != VERSION_2 || blockSize <= 0)
+      {
+        throw new ChangelogException(ERR_CHANGELOG_UNSUPPORTED_LOG_FILE_FORMAT.get(logFile.getPath(), version));
+      }
+      return newV2Header(blockSize);
+    }
+    catch (IOException e)
+    {
+      throw new ChangelogException(ERR_CHANGELOG_UNABLE_TO_READ_LOG_FILE_HEADER.get(logFile.getPath()), e);
+    }
+  }
+
+  /**
+   * Returns the format version of the log file.
+   *
+   * @return the format version
+   */
+  int getVersion()
+  {
+    return version;
+  }
+
+  /**
+   * Indicates whether the log file is made of independently compressed blocks.
+   *
+   * @return {@code true} if the format version is 2, {@code false} if it is 1
+   */
+  boolean isBlockCompressed()
+  {
+    return version >= VERSION_2;
+  }
+
+  /**
+   * Returns the size of the blocks of the log file. It is the exact size of
+   * the blocks for format version 1, and the size of the blocks before
+   * compression for format version 2.
+   *
+   * @return the size of the blocks
+   */
+  int getBlockSize()
+  {
+    return blockSize;
+  }
+
+  /**
+   * Returns the bytes of this header, as written at the beginning of a log
+   * file of format version 2.
+   *
+   * @return the bytes of this header
+   */
+  ByteString toByteString()
+  {
+    return new ByteStringBuilder(HEADER_SIZE).appendInt(MAGIC_NUMBER).appendInt(version).appendInt(blockSize)
+        .toByteString();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return getClass().getSimpleName() + "(version=" + version + ", blockSize=" + blockSize + ")";
+  }
+}
@@ -0,0 +1,325 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.replication.server.changelog.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.util.Pair;
+import org.forgerock.util.Reject;
+import org.opends.server.replication.server.changelog.api.ChangelogException;
+import org.opends.server.util.StaticUtils;
+
+/**
+ * A sparse index of a log file, mapping some of the keys of the log to the
+ * block start from which the corresponding record can be read. For log files of
+ * format version 2, the keys are mapped to the position of the record in the
+ * decompressed records, which is not modified when the log file is compressed.
+ * <p>
+ * An entry is kept roughly every {@code INDEX_INTERVAL} bytes of the log file,
+ * so the index of a full log file is small enough to be kept in memory. It is
+ * used by {@code BlockLogReader} to narrow the binary search over the blocks
+ * of the log file to the interval between two entries.
+ * <p>
+ * The index of the head log file is built in memory while records are
+ * appended, and saved alongside the log file when the head log file is
+ * rotated. The index of a read-only log file is read back from this file. The
+ * index is only an optimization: a log file without index, or with an index
+ * that can't be read, is searched over its whole length.
+ *
+ * @param <K>
+ *          Type of the key of a record, which must be comparable.
+ * @param <V>
+ *          Type of the value of a record.
+ */
+final class LogFileIndex<K extends Comparable<K>, V>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** Suffix of the file containing the index, appended to the name of the log file. */
+  static final String INDEX_FILE_SUFFIX = ".index";
+
+  /** Minimal distance in bytes between two entries of the index. */
+  static final int INDEX_INTERVAL = 256 * 1024;
+
+  private static final int MAGIC_NUMBER = 0x4F444A58;
+
+  private final RecordParser<K, V> parser;
+
+  /** The header of the log file, whose format version is also the format version of the index. */
+  private final LogFileHeader header;
+
+  private final int interval;
+
+  /** Keys of the entries, in ascending order. */
+  private final List<K> keys = new ArrayList<>();
+
+  /** Block start positions of the entries, in the same order as the keys. */
+  private final List<Long> positions = new ArrayList<>();
+
+  private LogFileIndex(final RecordParser<K, V> parser, final LogFileHeader header, final int interval)
+  {
+    Reject.ifNull(parser, header);
+    this.parser = parser;
+    this.header = header;
+    this.interval = interval;
+  }
+
+  /**
+   * Creates an empty index, for a log file with the provided header.
+   *
+   * @param <K>
+   *          Type of the key of a record, which must be comparable.
+   * @param <V>
+   *          Type of the value of a record.
+   * @param parser
+   *          The parser used to encode the keys.
+   * @param header
+   *          The header of the log file.
+   * @return a new empty index
+   */
+  static <K extends Comparable<K>, V> LogFileIndex<K, V> newIndex(final RecordParser<K, V> parser,
+      final LogFileHeader header)
+  {
+    return new LogFileIndex<>(parser, header, INDEX_INTERVAL);
+  }
+
+  /**
+   * Creates an empty index with the provided interval between entries.
+   * <p>
+   * This method is intended for tests only, to allow tuning of the interval.
+   *
+   * @param <K>
+   *          Type of the key of a record, which must be comparable.
+   * @param <V>
+   *          Type of the value of a record.
+   * @param parser
+   *          The parser used to encode the keys.
+   * @param header
+   *          The header of the log file.
+   * @param interval
+   *          The minimal distance in bytes between two entries.
+   * @return a new empty index
+   */
+  static <K extends Comparable<K>, V> LogFileIndex<K, V> newIndexForTests(final RecordParser<K, V> parser,
+      final LogFileHeader header, final int interval)
+  {
+    return new LogFileIndex<>(parser, header, interval);
+  }
+
+  /**
+   * Reads the index saved alongside the provided log file.
+   * <p>
+   * If there is no index for the log file, or if the index does not match the
+   * log file, an empty index is returned.
+   *
+   * @param <K>
+   *          Type of the key of a record, which must be comparable.
+   * @param <V>
+   *          Type of the value of a record.
+   * @param logFile
+   *          The log file.
+   * @param parser
+   *          The parser used to decode the keys.
+   * @param header
+   *          The header of the log file.
+   * @return the index of the log file, which is never {@code null}
+   */
+  static <K extends Comparable<K>, V> LogFileIndex<K, V> load(final File logFile,
+      final RecordParser<K, V> parser, final LogFileHeader header)
+  {
+    final LogFileIndex<K, V> index = newIndex(parser, header);
+    final File indexFile = getIndexFile(logFile);
+    if (indexFile.exists())
+    {
+      try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile))))
+      {
+        index.read(input, logFile.length());
+      }
+      catch (IOException | ChangelogException e)
+      {
+        // the log file will be searched without index
+        logger.traceException(e);
+        index.keys.clear();
+        index.positions.clear();
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Returns the file containing the index of the provided log file.
+   *
+   * @param logFile
+   *          The log file.
+   * @return the index file
+   */
+  static File getIndexFile(final File logFile)
+  {
+    return new File(logFile.getParentFile(), logFile.getName() + INDEX_FILE_SUFFIX);
+  }
+
+  /**
+   * Adds an entry to this index, unless the previous entry is too close.
+   *
+   * @param key
+   *          The key of the record.
+   * @param blockStartPosition
+   *          The position of a block start from which the record is read.
+   */
+  synchronized void add(final K key, final long blockStartPosition)
+  {
+    final int count = keys.size();
+    if (count > 0
+        && (blockStartPosition - positions.get(count - 1) < interval || key.compareTo(keys.get(count - 1)) <= 0))
+    {
+      return;
+    }
+    keys.add(key);
+    positions.add(blockStartPosition);
+  }
+
+  /**
+   * Returns the number of entries of this index.
+   *
+   * @return the number of entries
+   */
+  synchronized int size()
+  {
+    return keys.size();
+  }
+
+  /**
+   * Returns the part of the log file where the record with the provided key
+   * must be searched.
+   *
+   * @param key
+   *          The key to search.
+   * @return the pair (lowest block start, highest block start) bounding the
+   *         search. The lowest block start is {@code 0} and the highest block
+   *         start is {@code null} when the index does not bound the search on
+   *         that side. Both are equal when the key is in the index.
+   */
+  synchronized Pair<Long, Long> getSearchBounds(final K key)
+  {
+    final int pos = Collections.binarySearch(keys, key);
+    if (pos >= 0)
+    {
+      return Pair.of(positions.get(pos), positions.get(pos));
+    }
+    final int insertionPoint = -pos - 1;
+    final Long low = insertionPoint > 0 ? positions.get(insertionPoint - 1) : 0L;
+    final Long high = insertionPoint < positions.size() ? positions.get(insertionPoint) : null;
+    return Pair.of(low, high);
+  }
+
+  /**
+   * Saves this index alongside the provided log file.
+   * <p>
+   * The index is first written to a temporary file which is then renamed, so
+   * that a partially written index is never read.
+   *
+   * @param logFile
+   *          The log file described by this index.
+   * @throws IOException
+   *           If the index can't be written.
+   */
+  synchronized void save(final File logFile) throws IOException
+  {
+    final File indexFile = getIndexFile(logFile);
+    final File tmpFile = new File(indexFile.getPath() + ".tmp");
+    try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile))))
+    {
+      output.writeInt(MAGIC_NUMBER);
+      output.writeInt(header.getVersion());
+      output.writeInt(header.getBlockSize());
+      output.writeInt(keys.size());
+      for (int i = 0; i < keys.size(); i++)
+      {
+        output.writeUTF(parser.encodeKeyToString(keys.get(i)));
+        output.writeLong(positions.get(i));
+      }
+    }
+    StaticUtils.renameFile(tmpFile, indexFile);
+  }
+
+  private void read(final DataInputStream input, final long logFileLength) throws IOException, ChangelogException
+  {
+    if (input.readInt() != MAGIC_NUMBER || input.readInt() != header.getVersion()
+        || input.readInt() != header.getBlockSize())
+    {
+      throw new IOException("Unexpected header in index file");
+    }
+    final int count = input.readInt();
+    long previousPosition = 0;
+    for (int i = 0; i < count; i++)
+    {
+      final K key = parser.decodeKeyFromString(input.readUTF());
+      final long position = input.readLong();
+      if (position <= previousPosition || !isValidPosition(position, logFileLength))
+      {
+        throw new IOException("Position " + position + " of index file does not match the log file");
+      }
+      if (i > 0 && key.compareTo(keys.get(i - 1)) <= 0)
+      {
+        throw new IOException("Key " + key + " of index file is not in ascending order");
+      }
+      keys.add(key);
+      positions.add(position);
+      previousPosition = position;
+    }
+  }
+
+  /**
+   * Checks a position read from the index file. Positions in log files of
+   * format version 2 are not bounded by the length of the compressed log file.
+   */
+  private boolean isValidPosition(final long position, final long logFileLength)
+  {
+    if (header.isBlockCompressed())
+    {
+      return true;
+    }
+    return position < logFileLength && position % header.getBlockSize() == 0;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized String toString()
+  {
+    return getClass().getSimpleName() + "(header=" + header + ", entries=" + keys.size() + ")";
+  }
+}
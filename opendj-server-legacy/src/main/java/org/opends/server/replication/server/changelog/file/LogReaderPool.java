@@ -50,6 +50,15 @@ class LogReaderPool<K extends Comparable<K>, V>
 
   private final RecordParser<K, V> parser;
 
+  /** The header giving the format of the file. */
+  private final LogFileHeader header;
+
+  /** The index of the file, may be {@code null}. */
+  private final LogFileIndex<K, V> index;
+
+  /** The block starts of the file, shared by all readers, {@code null} for format version 1. */
+  private final LogFileBlocks blocks;
+
   /**
    * Creates a pool of readers for provided file.
    *
@@ -57,11 +66,22 @@ class LogReaderPool<K extends Comparable<K>, V>
    *          The file to read.
    * @param parser
    *          The parser to decode the records read.
+   * @param header
+   *          The header giving the format of the file.
+   * @param index
+   *          The index of the file, which may be {@code null}.
+   * @param blocks
+   *          The block starts of the file, which must be provided for format
+   *          version 2.
    */
-  LogReaderPool(File file, RecordParser<K, V> parser)
+  LogReaderPool(File file, RecordParser<K, V> parser, LogFileHeader header, LogFileIndex<K, V> index,
+      LogFileBlocks blocks)
   {
     this.file = file;
     this.parser = parser;
+    this.header = header;
+    this.index = index;
+    this.blocks = blocks;
   }
 
   /**
@@ -98,7 +118,7 @@ class LogReaderPool<K extends Comparable<K>, V>
   {
     try
     {
-      return BlockLogReader.newReader(file, new RandomAccessFile(file, "r"), parser) ;
+      return BlockLogReader.newReader(file, new RandomAccessFile(file, "r"), parser, header, index, blocks);
     }
     catch (Exception e)
     {
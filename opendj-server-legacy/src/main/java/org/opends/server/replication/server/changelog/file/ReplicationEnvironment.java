@@ -135,6 +135,12 @@ class ReplicationEnvironment implements ChangelogStateProvider
 
   private static final long REPLICA_DB_MAX_LOG_FILE_SIZE_IN_BYTES = 10 * CN_INDEX_DB_MAX_LOG_FILE_SIZE_IN_BYTES;
 
+  /** Size of the blocks compressed in a rotated change number index log file, smaller as its records are smaller. */
+  private static final int CN_INDEX_DB_BLOCK_SIZE_IN_BYTES = 16 * 1024;
+
+  /** Size of the blocks compressed in a rotated replica log file. */
+  private static final int REPLICA_DB_BLOCK_SIZE_IN_BYTES = 64 * 1024;
+
   private static final int NO_GENERATION_ID = -1;
 
   /** Extension for the temporary file used when modifying an environment file. */
@@ -380,7 +386,8 @@ class ReplicationEnvironment implements ChangelogStateProvider
         changelogState.setDomainGenerationId(domainDN, generationId);
 
         return openLog(serverIdPath, FileReplicaDB.RECORD_PARSER,
-            new LogRotationParameters(REPLICA_DB_MAX_LOG_FILE_SIZE_IN_BYTES, 0, 0), logsReplicaDB);
+            new LogRotationParameters(REPLICA_DB_MAX_LOG_FILE_SIZE_IN_BYTES, 0, 0, REPLICA_DB_BLOCK_SIZE_IN_BYTES),
+            logsReplicaDB);
       }
     }
     catch (Exception e)
@@ -408,7 +415,7 @@ class ReplicationEnvironment implements ChangelogStateProvider
     try
     {
       final LogRotationParameters rotationParams = new LogRotationParameters(CN_INDEX_DB_MAX_LOG_FILE_SIZE_IN_BYTES,
-          cnIndexDBRotationInterval, cnIndexDBLastRotationTime);
+          cnIndexDBRotationInterval, cnIndexDBLastRotationTime, CN_INDEX_DB_BLOCK_SIZE_IN_BYTES);
       return openLog(path, FileChangeNumberIndexDB.RECORD_PARSER, rotationParams, logsCNIndexDB);
     }
     catch (Exception e)
@@ -156,8 +156,7 @@ public class ReplicationBroker
   private final ServerState state;
   private Semaphore sendWindow;
   private int maxSendWindow;
-  private int rcvWindow = 100;
-  private int halfRcvWindow = rcvWindow / 2;
+  private volatile AdaptiveWindow rcvWindow;
   private int timeout;
   private final ReplSessionSecurity replSessionSecurity;
   /**
@@ -205,8 +204,6 @@ public class ReplicationBroker
    */
   /** Contains the last known state of the replication topology. */
   private final AtomicReference<Topology> topology = new AtomicReference<>(new Topology());
-  /** <pre>@GuardedBy("this")</pre>. */
-  private volatile int updateDoneCount;
   private volatile boolean connectRequiresRecovery;
 
   /**
@@ -250,8 +247,7 @@ public class ReplicationBroker
     this.state = state;
     this.config = config;
     this.replSessionSecurity = replSessionSecurity;
-    this.rcvWindow = getMaxRcvWindow();
-    this.halfRcvWindow = rcvWindow / 2;
+    this.rcvWindow = newRcvWindow();
     this.shutdown = true;
 
     /*
@@ -275,7 +271,7 @@ public class ReplicationBroker
         return;
       }
       shutdown = false;
-      this.rcvWindow = getMaxRcvWindow();
+      this.rcvWindow = newRcvWindow();
       connectAsDataServer();
     }
   }
@@ -947,7 +943,7 @@ public class ReplicationBroker
         }
       }
       sendWindow = new Semaphore(maxSendWindow);
-      rcvWindow = getMaxRcvWindow();
+      rcvWindow = newRcvWindow();
 
       domain.sessionInitiated(initStatus, rsInfo.getServerState());
 
@@ -1122,6 +1118,7 @@ public class ReplicationBroker
       {
         newSession.stopEncryption();
       }
+      newSession.setCompressionEnabled(config.isSessionCompression());
 
       hasConnected = true;
 
@@ -2451,10 +2448,7 @@ public class ReplicationBroker
         ReplicationMsg msg = rs.session.receive();
         if (msg instanceof UpdateMsg)
         {
-          synchronized (this)
-          {
-            rcvWindow--;
-          }
+          rcvWindow.updateReceived();
         }
         if (msg instanceof WindowMsg)
         {
@@ -2647,13 +2641,11 @@ public class ReplicationBroker
   {
     try
     {
-      updateDoneCount++;
+      final int credit = rcvWindow.updateProcessed();
       final Session session = connectedRS.get().session;
-      if (updateDoneCount >= halfRcvWindow && session != null)
+      if (credit > 0 && session != null)
       {
-        session.publish(new WindowMsg(updateDoneCount));
-        rcvWindow += updateDoneCount;
-        updateDoneCount = 0;
+        session.publish(new WindowMsg(credit));
       }
     } catch (IOException e)
     {
@@ -2734,10 +2726,25 @@ public class ReplicationBroker
    * @return The current receive window size.
    */
   public int getCurrentRcvWindow()
+  {
+    return rcvWindow.getCredit();
+  }
+
+  /**
+   * Get the window used to receive updates from the replication server.
+   *
+   * @return The window used to receive updates.
+   */
+  public AdaptiveWindow getRcvWindow()
   {
     return rcvWindow;
   }
 
+  private AdaptiveWindow newRcvWindow()
+  {
+    return new AdaptiveWindow(getMaxRcvWindow(), config.getMaxWindowSize());
+  }
+
   /**
    * Get the maximum send window size.
    *
@@ -2788,12 +2795,12 @@ public class ReplicationBroker
     boolean needToRestartSession =
         !newConfig.getReplicationServer().equals(config.getReplicationServer())
         || newConfig.getWindowSize() != config.getWindowSize()
+        || newConfig.getMaxWindowSize() != config.getMaxWindowSize()
         || newConfig.getHeartbeatInterval() != config.getHeartbeatInterval()
         || newConfig.getGroupId() != config.getGroupId();
 
     this.config = newConfig;
-    this.rcvWindow = newConfig.getWindowSize();
-    this.halfRcvWindow = this.rcvWindow / 2;
+    this.rcvWindow = newRcvWindow();
 
     return needToRestartSession;
   }
@@ -2833,6 +2840,16 @@ public class ReplicationBroker
     return session != null ? session.isEncrypted() : false;
   }
 
+  /**
+   * Returns the session opened with the replication server.
+   * @return the session opened with the replication server, or null if the
+   *         broker is not connected.
+   */
+  public Session getSession()
+  {
+    return connectedRS.get().session;
+  }
+
   /**
    * Signals the RS we just entered a new status.
    * @param newStatus The status the local DS just entered
@@ -2620,6 +2620,16 @@ public abstract class ReplicationDomain
     return 0;
   }
 
+  /**
+   * Get the window used to receive updates.
+   *
+   * @return The window used to receive updates, or null if there is no broker.
+   */
+  AdaptiveWindow getRcvWindow()
+  {
+    return broker != null ? broker.getRcvWindow() : null;
+  }
+
   /**
    * Get the maximum send window size.
    *
@@ -2670,6 +2680,16 @@ public abstract class ReplicationDomain
     return broker != null && broker.isSessionEncrypted();
   }
 
+  /**
+   * Returns the session opened with the replication server.
+   * @return the session opened with the replication server, or null if the
+   *         domain is not connected.
+   */
+  Session getSession()
+  {
+    return broker != null ? broker.getSession() : null;
+  }
+
   /**
    * Check if the domain is connected to a ReplicationServer.
    *
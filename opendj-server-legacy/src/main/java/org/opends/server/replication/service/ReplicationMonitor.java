@@ -33,6 +33,8 @@ import java.util.Map.Entry;
 
 import org.opends.server.admin.std.server.MonitorProviderCfg;
 import org.opends.server.api.MonitorProvider;
+import org.opends.server.replication.common.AdaptiveWindow;
+import org.opends.server.replication.protocol.Session;
 import org.opends.server.replication.service.ReplicationDomain.ImportExportContext;
 import org.opends.server.types.Attribute;
 import org.opends.server.types.AttributeBuilder;
@@ -103,6 +105,13 @@ public class ReplicationMonitor extends MonitorProvider<MonitorProviderCfg>
     // get window information
     addMonitorData(attributes, "max-rcv-window", domain.getMaxRcvWindow());
     addMonitorData(attributes, "current-rcv-window", domain.getCurrentRcvWindow());
+    final AdaptiveWindow rcvWindow = domain.getRcvWindow();
+    if (rcvWindow != null)
+    {
+      addMonitorData(attributes, "rcv-window-size", rcvWindow.getSize());
+      addMonitorData(attributes, "rcv-window-round-trip-time", rcvWindow.getRoundTripTime());
+      addMonitorData(attributes, "rcv-window-stall-time", rcvWindow.getStallTime());
+    }
     addMonitorData(attributes, "max-send-window", domain.getMaxSendWindow());
     addMonitorData(attributes, "current-send-window", domain.getCurrentSendWindow());
 
@@ -113,6 +122,18 @@ public class ReplicationMonitor extends MonitorProvider<MonitorProviderCfg>
     attributes.add(builder.toAttribute());
 
     addMonitorData(attributes, "ssl-encryption", domain.isSessionEncrypted());
+
+    // get the session statistics
+    final Session session = domain.getSession();
+    if (session != null)
+    {
+      addMonitorData(attributes, "session-compression", session.isCompressed());
+      addMonitorData(attributes, "session-bytes-sent", session.getBytesSent());
+      addMonitorData(attributes, "session-bytes-received", session.getBytesReceived());
+      addMonitorData(attributes, "session-messages-sent", session.getMessagesSent());
+      addMonitorData(attributes, "session-messages-received", session.getMessagesReceived());
+      addMonitorData(attributes, "session-batches-sent", session.getBatchesSent());
+    }
     addMonitorData(attributes, "generation-id", domain.getGenerationID());
 
     // Add import/export monitoring attributes
@@ -87,6 +87,7 @@ public class BackupTask extends Task
     argDisplayMap.put(ATTR_TASK_BACKUP_HASH, INFO_BACKUP_ARG_HASH.get());
     argDisplayMap.put(ATTR_TASK_BACKUP_INCREMENTAL, INFO_BACKUP_ARG_INCREMENTAL.get());
     argDisplayMap.put(ATTR_TASK_BACKUP_SIGN_HASH, INFO_BACKUP_ARG_SIGN_HASH.get());
+    argDisplayMap.put(ATTR_TASK_BACKUP_BLOCK_LEVEL, INFO_BACKUP_ARG_BLOCK_LEVEL.get());
     argDisplayMap.put(ATTR_TASK_BACKUP_BACKEND_ID, INFO_BACKUP_ARG_BACKEND_IDS.get());
     argDisplayMap.put(ATTR_BACKUP_ID, INFO_BACKUP_ARG_BACKUP_ID.get());
     argDisplayMap.put(ATTR_BACKUP_DIRECTORY_PATH, INFO_BACKUP_ARG_BACKUP_DIR.get());
@@ -101,6 +102,7 @@ public class BackupTask extends Task
   private boolean hash;
   private boolean incremental;
   private boolean signHash;
+  private boolean blockLevel;
   private List<String>  backendIDList;
   private String  backupID;
   private File    backupDirectory;
@@ -155,6 +157,7 @@ public class BackupTask extends Task
     AttributeType typeHash = getAttributeTypeOrDefault(ATTR_TASK_BACKUP_HASH);
     AttributeType typeIncremental = getAttributeTypeOrDefault(ATTR_TASK_BACKUP_INCREMENTAL);
     AttributeType typeSignHash = getAttributeTypeOrDefault(ATTR_TASK_BACKUP_SIGN_HASH);
+    AttributeType typeBlockLevel = getAttributeTypeOrDefault(ATTR_TASK_BACKUP_BLOCK_LEVEL);
     AttributeType typeBackendID = getAttributeTypeOrDefault(ATTR_TASK_BACKUP_BACKEND_ID);
     AttributeType typeBackupID = getAttributeTypeOrDefault(ATTR_BACKUP_ID);
     AttributeType typeBackupDirectory = getAttributeTypeOrDefault(ATTR_BACKUP_DIRECTORY_PATH);
@@ -181,6 +184,9 @@ public class BackupTask extends Task
     attrList = taskEntry.getAttribute(typeSignHash);
     signHash = TaskUtils.getBoolean(attrList, false);
 
+    attrList = taskEntry.getAttribute(typeBlockLevel);
+    blockLevel = TaskUtils.getBoolean(attrList, false);
+
     attrList = taskEntry.getAttribute(typeBackendID);
     backendIDList = TaskUtils.getMultiValueString(attrList);
 
@@ -412,6 +418,7 @@ public class BackupTask extends Task
     backupConfig.setEncryptData(encrypt);
     backupConfig.setHashData(hash);
     backupConfig.setSignHash(signHash);
+    backupConfig.setBlockLevel(blockLevel);
     backupConfig.setIncrementalBaseID(incrementalBase);
 
 
@@ -70,6 +70,9 @@ public class RebuildTask extends Task
   private String tmpDirectory;
   private RebuildMode rebuildMode = RebuildMode.USER_DEFINED;
   private boolean isClearDegradedState;
+  private boolean isOnline;
+  private int maxEntriesPerSecond;
+  private int threadCount;
 
   /** {@inheritDoc} */
   @Override
@@ -103,6 +106,9 @@ public class RebuildTask extends Task
     tmpDirectory = asString(taskEntry, ATTR_REBUILD_TMP_DIRECTORY);
     final String val = asString(taskEntry, ATTR_REBUILD_INDEX_CLEARDEGRADEDSTATE);
     isClearDegradedState = Boolean.parseBoolean(val);
+    isOnline = Boolean.parseBoolean(asString(taskEntry, ATTR_REBUILD_ONLINE));
+    maxEntriesPerSecond = asInt(taskEntry, ATTR_REBUILD_MAX_ENTRIES_PER_SECOND);
+    threadCount = asInt(taskEntry, ATTR_REBUILD_THREAD_COUNT);
 
     AttributeType typeIndex = getAttributeTypeOrDefault(ATTR_REBUILD_INDEX);
     List<Attribute> attrList = taskEntry.getAttribute(typeIndex);
@@ -127,6 +133,13 @@ public class RebuildTask extends Task
     return TaskUtils.getSingleValueString(attrList);
   }
 
+  private int asInt(Entry taskEntry, String attrName)
+  {
+    final AttributeType attrType = getAttributeTypeOrDefault(attrName);
+    final List<Attribute> attrList = taskEntry.getAttribute(attrType);
+    return TaskUtils.getSingleValueInteger(attrList, 0);
+  }
+
   private RebuildMode getRebuildMode(List<String> indexList)
   {
     for (String s : indexList)
@@ -167,6 +180,9 @@ public class RebuildTask extends Task
     // The degraded state is set(if present in args)
     // during the initialization.
     rebuildConfig.isClearDegradedState(isClearDegradedState);
+    rebuildConfig.setOnline(isOnline);
+    rebuildConfig.setMaxEntriesPerSecond(maxEntriesPerSecond);
+    rebuildConfig.setThreadCount(threadCount);
     boolean isBackendNeedToBeEnabled = false;
 
     if (tmpDirectory == null)
@@ -194,8 +210,9 @@ public class RebuildTask extends Task
     StringBuilder failureReason = new StringBuilder();
 
     // Disable the backend
-    // Except in 'cleardegradedstate' mode we don't need to disable it.
-    if (!isClearDegradedState)
+    // Except in 'cleardegradedstate' and online modes we don't need to disable it.
+    final boolean isBackendDisabled = !isClearDegradedState && !isOnline;
+    if (isBackendDisabled)
     {
       try
       {
@@ -292,7 +309,7 @@ public class RebuildTask extends Task
     // The backend must be enabled only if the task is successful
     // for prevent potential risks of database corruption.
     if ((returnCode == TaskState.COMPLETED_SUCCESSFULLY || isBackendNeedToBeEnabled)
-        && !isClearDegradedState)
+        && isBackendDisabled)
     {
       // Enable the backend.
       try
@@ -148,6 +148,7 @@ public class BackUpDB extends TaskTool
   private BooleanArgument hash;
   private BooleanArgument incremental;
   private BooleanArgument signHash;
+  private BooleanArgument blockLevel;
   private StringArgument  backendID;
   private StringArgument  backupIDString;
   private StringArgument  configClass;
@@ -264,6 +265,13 @@ public class BackUpDB extends TaskTool
       argParser.addArgument(signHash);
 
 
+      blockLevel =
+           new BooleanArgument(
+                   "blocklevel", null, "blockLevel",
+                   INFO_BACKUPDB_DESCRIPTION_BLOCK_LEVEL.get());
+      argParser.addArgument(blockLevel);
+
+
       displayUsage = CommonArguments.getShowUsage();
       argParser.addArgument(displayUsage);
       argParser.setUsageArgument(displayUsage);
@@ -402,6 +410,7 @@ public class BackUpDB extends TaskTool
     addIfHasValue(attributes, ATTR_TASK_BACKUP_HASH, hash);
     addIfHasValue(attributes, ATTR_TASK_BACKUP_INCREMENTAL, incremental);
     addIfHasValue(attributes, ATTR_TASK_BACKUP_SIGN_HASH, signHash);
+    addIfHasValue(attributes, ATTR_TASK_BACKUP_BLOCK_LEVEL, blockLevel);
 
     List<String> backendIDs = backendID.getValues();
     if (backendIDs != null && !backendIDs.isEmpty()) {
@@ -811,6 +820,7 @@ public class BackUpDB extends TaskTool
       backupConfig.setEncryptData(encrypt.isPresent());
       backupConfig.setHashData(hash.isPresent());
       backupConfig.setSignHash(signHash.isPresent());
+      backupConfig.setBlockLevel(blockLevel.isPresent());
       backupConfig.setIncrementalBaseID(incrementalBase);
 
       if (!b.supports(BackendOperation.BACKUP))
@@ -144,6 +144,8 @@ public class ExportLDIF extends TaskTool {
   private BooleanArgument encryptLDIF;
   private BooleanArgument excludeOperationalAttrs;
   private BooleanArgument signHash;
+  private BooleanArgument splitLDIF;
+  private IntegerArgument threadCount;
   private IntegerArgument wrapColumn;
   private StringArgument  backendID;
   private StringArgument  configClass;
@@ -299,6 +301,21 @@ public class ExportLDIF extends TaskTool {
       argParser.addArgument(signHash);
 
 
+      threadCount =
+           new IntegerArgument("threadCount", null, "threadCount", false,
+                               false, true,
+                               INFO_LDIFIMPORT_THREAD_COUNT_PLACEHOLDER.get(),
+                               1, null, true, 0, false, 0,
+                               INFO_LDIFEXPORT_DESCRIPTION_THREAD_COUNT.get());
+      argParser.addArgument(threadCount);
+
+
+      splitLDIF =
+           new BooleanArgument("splitldif", null, "splitLDIF",
+                               INFO_LDIFEXPORT_DESCRIPTION_SPLIT_LDIF.get());
+      argParser.addArgument(splitLDIF);
+
+
       displayUsage = CommonArguments.getShowUsage();
       argParser.addArgument(displayUsage);
       argParser.setUsageArgument(displayUsage);
@@ -380,6 +397,8 @@ public class ExportLDIF extends TaskTool {
     addAttribute(attributes, ATTR_TASK_EXPORT_INCLUDE_BRANCH, includeBranchStrings.getValues());
     addAttribute(attributes, ATTR_TASK_EXPORT_EXCLUDE_BRANCH, excludeBranchStrings.getValues());
     addAttribute(attributes, ATTR_TASK_EXPORT_WRAP_COLUMN, wrapColumn);
+    addAttribute(attributes, ATTR_TASK_EXPORT_THREAD_COUNT, threadCount);
+    addAttribute(attributes, ATTR_TASK_EXPORT_SPLIT_LDIF, splitLDIF);
 
     if (excludeOperationalAttrs.isPresent())
     {
@@ -741,6 +760,7 @@ public class ExportLDIF extends TaskTool {
     exportConfig.setIncludeBranches(includeBranches);
     exportConfig.setIncludeFilters(includeFilters);
     exportConfig.setSignHash(signHash.isPresent());
+    exportConfig.setSplitLDIF(splitLDIF.isPresent());
     exportConfig.setIncludeOperationalAttributes(
                       !excludeOperationalAttrs.isPresent());
 
@@ -757,6 +777,16 @@ public class ExportLDIF extends TaskTool {
       return 1;
     }
 
+    try
+    {
+      exportConfig.setThreadCount(threadCount.getIntValue());
+    }
+    catch (ArgumentException ae)
+    {
+      logger.error(ERR_LDIFEXPORT_CANNOT_PARSE_THREAD_COUNT, threadCount.getValue(), ae.getMessage());
+      return 1;
+    }
+
 
     // Get the set of base DNs for the backend as an array.
     DN[] baseDNs = new DN[baseDNList.size()];
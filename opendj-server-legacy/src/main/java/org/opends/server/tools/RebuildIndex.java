@@ -35,6 +35,7 @@ import static com.forgerock.opendj.cli.Utils.*;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -67,9 +68,11 @@ import org.opends.server.types.RawAttribute;
 import org.opends.server.util.StaticUtils;
 import org.opends.server.util.args.LDAPConnectionArgumentParser;
 
+import com.forgerock.opendj.cli.Argument;
 import com.forgerock.opendj.cli.ArgumentException;
 import com.forgerock.opendj.cli.BooleanArgument;
 import com.forgerock.opendj.cli.CommonArguments;
+import com.forgerock.opendj.cli.IntegerArgument;
 import com.forgerock.opendj.cli.StringArgument;
 
 /**
@@ -91,6 +94,9 @@ public class RebuildIndex extends TaskTool
   private BooleanArgument rebuildAll;
   private BooleanArgument rebuildDegraded;
   private BooleanArgument clearDegradedState;
+  private BooleanArgument online;
+  private IntegerArgument maxEntriesPerSecond;
+  private IntegerArgument threadCount;
 
   private final LDAPConnectionArgumentParser argParser = createArgParser(
       "org.opends.server.tools.RebuildIndex",
@@ -215,6 +221,22 @@ public class RebuildIndex extends TaskTool
       return 1;
     }
 
+    if (online.isPresent() && !argParser.connectionArgumentsPresent())
+    {
+      argParser.displayMessageAndUsageReference(err, ERR_REBUILDINDEX_REQUIRES_ONLINE.get("online"));
+      return 1;
+    }
+
+    for (IntegerArgument onlineArgument : Arrays.asList(maxEntriesPerSecond, threadCount))
+    {
+      if (onlineArgument.isPresent() && !online.isPresent())
+      {
+        argParser.displayMessageAndUsageReference(err,
+            ERR_REBUILDINDEX_REQUIRES_ONLINE.get(onlineArgument.getLongIdentifier()));
+        return 1;
+      }
+    }
+
     // Checks the version - if upgrade required, the tool is unusable
     try
     {
@@ -290,6 +312,25 @@ public class RebuildIndex extends TaskTool
             null, INFO_REBUILDINDEX_DESCRIPTION_TEMP_DIRECTORY.get());
     argParser.addArgument(tmpDirectory);
 
+    online =
+        new BooleanArgument("online", null, "online",
+            INFO_REBUILDINDEX_DESCRIPTION_ONLINE.get());
+    argParser.addArgument(online);
+
+    maxEntriesPerSecond =
+        new IntegerArgument("maxEntriesPerSecond", null, "maxEntriesPerSecond",
+            false, false, true, INFO_REBUILDINDEX_MAX_ENTRIES_PER_SECOND_PLACEHOLDER.get(),
+            0, null, true, 0, false, 0,
+            INFO_REBUILDINDEX_DESCRIPTION_MAX_ENTRIES_PER_SECOND.get());
+    argParser.addArgument(maxEntriesPerSecond);
+
+    threadCount =
+        new IntegerArgument("threadCount", null, "threadCount",
+            false, false, true, INFO_LDIFIMPORT_THREAD_COUNT_PLACEHOLDER.get(),
+            0, null, true, 0, false, 0,
+            INFO_REBUILDINDEX_DESCRIPTION_THREAD_COUNT.get());
+    argParser.addArgument(threadCount);
+
     final BooleanArgument displayUsage = CommonArguments.getShowUsage();
     argParser.addArgument(displayUsage);
     argParser.setUsageArgument(displayUsage);
@@ -749,6 +790,21 @@ public class RebuildIndex extends TaskTool
     {
       addLdapAttribute(attributes, ATTR_REBUILD_INDEX_CLEARDEGRADEDSTATE, "true");
     }
+
+    if (hasNonDefaultValue(online))
+    {
+      addLdapAttribute(attributes, ATTR_REBUILD_ONLINE, "true");
+    }
+
+    if (hasNonDefaultValue(maxEntriesPerSecond))
+    {
+      addLdapAttribute(attributes, ATTR_REBUILD_MAX_ENTRIES_PER_SECOND, maxEntriesPerSecond.getValue());
+    }
+
+    if (hasNonDefaultValue(threadCount))
+    {
+      addLdapAttribute(attributes, ATTR_REBUILD_THREAD_COUNT, threadCount.getValue());
+    }
   }
 
   private void addLdapAttribute(List<RawAttribute> attributes, String attrType, String attrValue)
@@ -756,13 +812,7 @@ public class RebuildIndex extends TaskTool
     attributes.add(new LDAPAttribute(attrType, attrValue));
   }
 
-  private boolean hasNonDefaultValue(BooleanArgument arg)
-  {
-    return arg.getValue() != null
-        && !arg.getValue().equals(arg.getDefaultValue());
-  }
-
-  private boolean hasNonDefaultValue(StringArgument arg)
+  private boolean hasNonDefaultValue(Argument arg)
   {
     return arg.getValue() != null
         && !arg.getValue().equals(arg.getDefaultValue());
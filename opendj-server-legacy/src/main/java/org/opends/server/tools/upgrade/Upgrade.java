@@ -574,6 +574,30 @@ public final class Upgrade
     register("3.0.0",
         clearReplicationDbDirectory());
 
+    register("3.0.1",
+        addConfigEntry(INFO_UPGRADE_TASK_ADD_TINY_LFU_ENTRY_CACHE_SUMMARY.get(),
+            "dn: cn=TinyLFU,cn=Entry Caches,cn=config",
+            "changetype: add",
+            "objectClass: top",
+            "objectClass: ds-cfg-entry-cache",
+            "objectClass: ds-cfg-tiny-lfu-entry-cache",
+            "cn: TinyLFU",
+            "ds-cfg-enabled: false",
+            "ds-cfg-cache-level: 3",
+            "ds-cfg-java-class: org.opends.server.extensions.TinyLFUEntryCache"));
+
+    register("3.0.1",
+        addConfigEntry(INFO_UPGRADE_TASK_ADD_OFF_HEAP_ENTRY_CACHE_SUMMARY.get(),
+            "dn: cn=Off Heap,cn=Entry Caches,cn=config",
+            "changetype: add",
+            "objectClass: top",
+            "objectClass: ds-cfg-entry-cache",
+            "objectClass: ds-cfg-off-heap-entry-cache",
+            "cn: Off Heap",
+            "ds-cfg-enabled: false",
+            "ds-cfg-cache-level: 4",
+            "ds-cfg-java-class: org.opends.server.extensions.OffHeapEntryCache"));
+
     /**
      * All upgrades will refresh the server configuration schema and generate a new upgrade folder.
      */
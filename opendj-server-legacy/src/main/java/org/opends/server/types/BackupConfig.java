@@ -77,6 +77,12 @@ public final class BackupConfig extends OperationConfig
    */
   private boolean signHash;
 
+  /**
+   * Indicates whether to store the backed up files as chunks shared
+   * with the other backups of the backup directory.
+   */
+  private boolean blockLevel;
+
   /**
    * The unique identifier assigned to this backup operation (which
    * may be used to indicate which version to restore if multiple
@@ -307,5 +313,41 @@ public final class BackupConfig extends OperationConfig
   {
     this.signHash = signHash;
   }
+
+
+
+  /**
+   * Indicates whether the backup process should store the backed up
+   * files as chunks shared with the other backups of the backup
+   * directory, so that only the chunks changed since the previous
+   * backups are added. Restoring such a backup requires the chunk
+   * store of its backup directory, so its archive cannot be restored
+   * on its own, nor by a server which does not support block-level
+   * backups. Note that this option is ignored by the backends which
+   * do not support block-level backups, and for encrypted backups.
+   *
+   * @return  <CODE>true</CODE> if the backup process should store
+   *          the backed up files as shared chunks, or
+   *          <CODE>false</CODE> if not.
+   */
+  public boolean isBlockLevel()
+  {
+    return blockLevel;
+  }
+
+
+
+  /**
+   * Specifies whether the backup process should store the backed up
+   * files as chunks shared with the other backups of the backup
+   * directory.
+   *
+   * @param  blockLevel  Specifies whether the backup process should
+   *                     store the backed up files as shared chunks.
+   */
+  public void setBlockLevel(boolean blockLevel)
+  {
+    this.blockLevel = blockLevel;
+  }
 }
 
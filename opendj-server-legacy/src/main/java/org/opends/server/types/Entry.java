@@ -3473,6 +3473,47 @@ public class Entry
   public static Entry decode(ByteSequenceReader entryBuffer,
                              CompressedSchema compressedSchema)
          throws DirectoryException
+  {
+    return decode(entryBuffer, compressedSchema, null);
+  }
+
+
+
+  /**
+   * Decodes the provided byte string as an entry whose attribute values
+   * are only decoded when they are first accessed. The DN, the object
+   * classes and the attribute descriptions are decoded immediately, but
+   * the values of an attribute type are only decoded the first time its
+   * attributes are read. This is cheaper than {@link #decode} when only
+   * a few attributes of an entry are needed, for example to evaluate a
+   * search filter or to return the requested attributes of a search.
+   * <p>
+   * The returned entry keeps a reference to the provided byte string,
+   * which must not change afterwards.
+   *
+   * @param  encodedEntry      The byte string containing the data to
+   *                           be decoded.
+   * @param  compressedSchema  The compressed schema manager to use
+   *                           when decoding tokenized schema
+   *                           elements.
+   *
+   * @return  The decoded entry.
+   *
+   * @throws  DirectoryException  If the provided byte string cannot be
+   *                              decoded as an entry.
+   */
+  public static Entry decodeLazily(ByteString encodedEntry,
+                                   CompressedSchema compressedSchema)
+         throws DirectoryException
+  {
+    return decode(encodedEntry.asReader(), compressedSchema, encodedEntry);
+  }
+
+
+
+  private static Entry decode(ByteSequenceReader entryBuffer,
+      CompressedSchema compressedSchema, ByteString lazySource)
+      throws DirectoryException
   {
     try
     {
@@ -3532,10 +3573,21 @@ public class Entry
 
       // Now, we should iterate through the user and operational attributes and
       // decode each one.
-      Map<AttributeType, List<Attribute>> userAttributes =
-          decodeAttributes(version, entryBuffer, config);
-      Map<AttributeType, List<Attribute>> operationalAttributes =
-          decodeAttributes(version, entryBuffer, config);
+      Map<AttributeType, List<Attribute>> userAttributes;
+      Map<AttributeType, List<Attribute>> operationalAttributes;
+      if (lazySource != null)
+      {
+        userAttributes =
+            decodeAttributesLazily(version, entryBuffer, config, lazySource);
+        operationalAttributes =
+            decodeAttributesLazily(version, entryBuffer, config, lazySource);
+      }
+      else
+      {
+        userAttributes = decodeAttributes(version, entryBuffer, config);
+        operationalAttributes =
+            decodeAttributes(version, entryBuffer, config);
+      }
 
 
       // We've got everything that we need, so create and return the entry.
@@ -3776,6 +3828,94 @@ public class Entry
 
 
 
+  /**
+   * Decode the attribute descriptions of an encoded entry, deferring the
+   * decoding of the attribute values until the attributes are accessed.
+   *
+   * @param  ver The version of the entry encoding.
+   * @param  entryBuffer The byte sequence containing the encoded
+   *                     entry.
+   * @param  config  The configuration that may be used to control how
+   *                 the entry is encoded.
+   * @param  encodedEntry  The encoded entry read by entryBuffer.
+   *
+   * @return  A map of the lazily decoded attributes.
+   * @throws  DirectoryException  If a problem occurs while attempting
+   *                              to decode the entry.
+   */
+  private static Map<AttributeType, List<Attribute>>
+  decodeAttributesLazily(byte ver, ByteSequenceReader entryBuffer,
+      EntryEncodeConfig config, ByteString encodedEntry)
+      throws DirectoryException
+  {
+    int attrs = entryBuffer.readBERLength();
+
+    Map<AttributeType, List<Attribute>> attributes = new LinkedHashMap<>(attrs);
+    for (int i=0; i < attrs; i++)
+    {
+      AttributeType attributeType;
+      String name;
+      Set<String> options;
+      if (config.compressAttributeDescriptions())
+      {
+        if(ver < 0x03)
+        {
+          // Version 2 includes a total attribute length
+          entryBuffer.readBERLength();
+        }
+        Map.Entry<AttributeType, Set<String>> ad =
+            config.getCompressedSchema().decodeAttributeDescription(entryBuffer);
+        attributeType = ad.getKey();
+        name = null;
+        options = ad.getValue();
+      }
+      else
+      {
+        // First, we have the zero-terminated attribute description.
+        int startPos = entryBuffer.position();
+        while (entryBuffer.readByte() != 0x00)
+        {}
+        int endPos = entryBuffer.position()-1;
+        entryBuffer.position(startPos);
+        String description = entryBuffer.readStringUtf8(endPos - startPos);
+        entryBuffer.skip(1);
+
+        options = new LinkedHashSet<>();
+        String[] elements = description.split(";");
+        name = elements[0];
+        for (int j = 1; j < elements.length; j++)
+        {
+          if (elements[j].length() > 0)
+          {
+            options.add(elements[j]);
+          }
+        }
+        attributeType = DirectoryServer.getAttributeTypeOrDefault(toLowerCase(name), name);
+      }
+
+      // Skip over the values, which will be decoded on first access.
+      int valuesPosition = entryBuffer.position();
+      int numValues = entryBuffer.readBERLength();
+      for (int j=0; j < numValues; j++)
+      {
+        entryBuffer.skip(entryBuffer.readBERLength());
+      }
+
+      LazyAttributeList attrList =
+          (LazyAttributeList) attributes.get(attributeType);
+      if (attrList == null)
+      {
+        attrList = new LazyAttributeList(attributeType, encodedEntry);
+        attributes.put(attributeType, attrList);
+      }
+      attrList.addEncodedAttribute(name, options, valuesPosition);
+    }
+
+    return attributes;
+  }
+
+
+
   /**
    * Retrieves a list of the lines for this entry in LDIF form.  Long
    * lines will not be wrapped automatically.
@@ -3857,6 +3997,49 @@ public class Entry
    */
   public boolean toLDIF(LDIFExportConfig exportConfig)
          throws IOException, LDIFException
+  {
+    if (!isIncludedInExport(exportConfig))
+    {
+      return false;
+    }
+    writeLDIF(exportConfig, exportConfig.getWriter());
+    return true;
+  }
+
+
+  /**
+   * Writes this entry in LDIF form to the provided writer, according
+   * to the provided configuration. This allows several threads to
+   * format entries of the same export, each into its own writer.
+   *
+   * @param  exportConfig  The configuration that specifies how the
+   *                       entry should be written.
+   * @param  writer        The writer to which the entry should be
+   *                       written, instead of the configuration one.
+   *
+   * @return  <CODE>true</CODE> if the entry is actually written, or
+   *          <CODE>false</CODE> if it is not for some reason.
+   *
+   * @throws  IOException  If a problem occurs while writing the
+   *                       information.
+   *
+   * @throws  LDIFException  If a problem occurs while trying to
+   *                         determine whether to write the entry.
+   */
+  public boolean toLDIF(LDIFExportConfig exportConfig, BufferedWriter writer)
+         throws IOException, LDIFException
+  {
+    if (!isIncludedInExport(exportConfig))
+    {
+      return false;
+    }
+    writeLDIF(exportConfig, writer);
+    return true;
+  }
+
+
+  private boolean isIncludedInExport(LDIFExportConfig exportConfig)
+         throws LDIFException
   {
     // See if this entry should be included in the export at all.
     try
@@ -3890,10 +4073,14 @@ public class Entry
         return false;
       }
     }
+    return true;
+  }
 
 
+  private void writeLDIF(LDIFExportConfig exportConfig, BufferedWriter writer)
+         throws IOException
+  {
     // Get the information necessary to write the LDIF.
-    BufferedWriter writer     = exportConfig.getWriter();
     int            wrapColumn = exportConfig.getWrapColumn();
     boolean        wrapLines  = wrapColumn > 1;
 
@@ -3973,9 +4160,6 @@ public class Entry
 
     // Make sure there is a blank line after the entry.
     writer.newLine();
-
-
-    return true;
   }
 
 
@@ -80,6 +80,12 @@ public final class LDIFExportConfig extends OperationConfig
   /** Indicates whether to include virtual attributes in the export. */
   private boolean includeVirtualAttributes;
 
+  /**
+   * Indicates whether the LDIF data should be split into several files, one
+   * per export thread.
+   */
+  private boolean splitLDIF;
+
   /**
    * Indicates whether to invoke LDIF export plugins on entries being exported.
    */
@@ -105,6 +111,9 @@ public final class LDIFExportConfig extends OperationConfig
    */
   private ExistingFileBehavior existingFileBehavior;
 
+  /** The number of threads that should be used to export the entries. */
+  private int threadCount;
+
   /** The column number at which long lines should be wrapped. */
   private int wrapColumn;
 
@@ -123,6 +132,12 @@ public final class LDIFExportConfig extends OperationConfig
   /** The output stream to which the LDIF data should be written. */
   private OutputStream ldifOutputStream;
 
+  /**
+   * The output stream handed out to callers writing the LDIF data themselves,
+   * closed along with this export config.
+   */
+  private OutputStream rawOutputStream;
+
   /**
    * The set of attribute types that should be excluded from the export.
    */
@@ -164,10 +179,12 @@ public final class LDIFExportConfig extends OperationConfig
     includeVirtualAttributes     = false;
     invokeExportPlugins          = false;
     signHash                     = false;
+    splitLDIF                    = false;
     typesOnly                    = false;
     writer                       = null;
     excludeAttributes            = new HashSet<>();
     includeAttributes            = new HashSet<>();
+    threadCount                  = 1;
     wrapColumn                   = -1;
   }
 
@@ -198,10 +215,12 @@ public final class LDIFExportConfig extends OperationConfig
     includeVirtualAttributes     = false;
     invokeExportPlugins          = false;
     signHash                     = false;
+    splitLDIF                    = false;
     typesOnly                    = false;
     writer                       = null;
     excludeAttributes            = new HashSet<>();
     includeAttributes            = new HashSet<>();
+    threadCount                  = 1;
     wrapColumn                   = -1;
   }
 
@@ -222,76 +241,15 @@ public final class LDIFExportConfig extends OperationConfig
   {
     if (writer == null)
     {
-      if (ldifOutputStream == null)
-      {
-        File f = new File(ldifFile);
-        boolean mustSetPermissions = false;
-
-        switch (existingFileBehavior)
-        {
-        case APPEND:
-          // Create new file if it doesn't exist ensuring that we can
-          // set its permissions.
-          if (!f.exists())
-          {
-            f.createNewFile();
-            mustSetPermissions = true;
-          }
-          ldifOutputStream = new FileOutputStream(ldifFile, true);
-          break;
-        case OVERWRITE:
-          // Create new file if it doesn't exist ensuring that we can
-          // set its permissions.
-          if (!f.exists())
-          {
-            f.createNewFile();
-            mustSetPermissions = true;
-          }
-          ldifOutputStream = new FileOutputStream(ldifFile, false);
-          break;
-        case FAIL:
-          if (f.exists())
-          {
-            LocalizableMessage message = ERR_LDIF_FILE_EXISTS.get(ldifFile);
-            throw new IOException(message.toString());
-          }
-          else
-          {
-            // Create new file ensuring that we can set its permissions.
-            f.createNewFile();
-            mustSetPermissions = true;
-            ldifOutputStream = new FileOutputStream(ldifFile);
-          }
-          break;
-        }
-
-        if (mustSetPermissions)
-        {
-          try
-          {
-            // Ignore
-            FilePermission.setSafePermissions(f, 0600);
-          }
-          catch (Exception e)
-          {
-            // The file could not be created with the correct permissions.
-            LocalizableMessage message = WARN_EXPORT_LDIF_SET_PERMISSION_FAILED
-                .get(f, stackTraceToSingleLineString(e));
-            throw new IOException(message.toString());
-          }
-        }
-      }
-
-
       // See if we should compress the output.
       OutputStream outputStream;
       if (compressData)
       {
-        outputStream = new GZIPOutputStream(ldifOutputStream);
+        outputStream = new GZIPOutputStream(getOutputStream());
       }
       else
       {
-        outputStream = ldifOutputStream;
+        outputStream = getOutputStream();
       }
 
 
@@ -311,6 +269,118 @@ public final class LDIFExportConfig extends OperationConfig
 
 
 
+  /**
+   * Retrieves the output stream to which the LDIF data should be
+   * written, before any compression or encryption. It allows callers
+   * to prepare the data themselves, for instance to compress it in
+   * parallel, in which case they must not use {@link #getWriter()}.
+   * The returned stream is closed along with this export config.
+   *
+   * @return  The output stream to which the LDIF data should be
+   *          written.
+   *
+   * @throws  IOException  If a problem occurs while opening the LDIF
+   *                       file.
+   */
+  public OutputStream getOutputStream()
+         throws IOException
+  {
+    if (ldifOutputStream == null)
+    {
+      ldifOutputStream = openFile(ldifFile);
+    }
+    rawOutputStream = ldifOutputStream;
+    return rawOutputStream;
+  }
+
+
+
+  /**
+   * Opens the output stream to which one part of the LDIF data should
+   * be written when it is split into several files. The part is
+   * written, before any compression or encryption, to a file named
+   * after the LDIF file followed by a dot and the part number. The
+   * caller is responsible for closing the returned stream.
+   *
+   * @param  part  The number of the part to be written.
+   *
+   * @return  The output stream to which the part should be written.
+   *
+   * @throws  IOException  If a problem occurs while opening the file
+   *                       for the part.
+   */
+  public OutputStream getOutputStream(int part)
+         throws IOException
+  {
+    return openFile(ldifFile + "." + part);
+  }
+
+
+
+  private OutputStream openFile(String path) throws IOException
+  {
+    OutputStream stream = null;
+    File f = new File(path);
+    boolean mustSetPermissions = false;
+
+    switch (existingFileBehavior)
+    {
+    case APPEND:
+      // Create new file if it doesn't exist ensuring that we can
+      // set its permissions.
+      if (!f.exists())
+      {
+        f.createNewFile();
+        mustSetPermissions = true;
+      }
+      stream = new FileOutputStream(f, true);
+      break;
+    case OVERWRITE:
+      // Create new file if it doesn't exist ensuring that we can
+      // set its permissions.
+      if (!f.exists())
+      {
+        f.createNewFile();
+        mustSetPermissions = true;
+      }
+      stream = new FileOutputStream(f, false);
+      break;
+    case FAIL:
+      if (f.exists())
+      {
+        LocalizableMessage message = ERR_LDIF_FILE_EXISTS.get(path);
+        throw new IOException(message.toString());
+      }
+      else
+      {
+        // Create new file ensuring that we can set its permissions.
+        f.createNewFile();
+        mustSetPermissions = true;
+        stream = new FileOutputStream(f);
+      }
+      break;
+    }
+
+    if (mustSetPermissions)
+    {
+      try
+      {
+        // Ignore
+        FilePermission.setSafePermissions(f, 0600);
+      }
+      catch (Exception e)
+      {
+        // The file could not be created with the correct permissions.
+        LocalizableMessage message = WARN_EXPORT_LDIF_SET_PERMISSION_FAILED
+            .get(f, stackTraceToSingleLineString(e));
+        throw new IOException(message.toString());
+      }
+    }
+    return stream;
+  }
+
+
+
   /**
    * Indicates whether the LDIF export plugins should be invoked for
    * entries as they are exported.
@@ -521,6 +591,69 @@ public final class LDIFExportConfig extends OperationConfig
 
 
 
+  /**
+   * Retrieves the number of threads that should be used to export
+   * the entries.
+   *
+   * @return  The number of threads that should be used to export the
+   *          entries, or a value less than or equal to zero to use
+   *          one thread per CPU.
+   */
+  public int getThreadCount()
+  {
+    return threadCount;
+  }
+
+
+
+  /**
+   * Specifies the number of threads that should be used to export
+   * the entries.  Entries are written in the same order whatever the
+   * number of threads.  A value less than or equal to zero indicates
+   * that one thread per CPU should be used.
+   *
+   * @param  threadCount  The number of threads that should be used
+   *                      to export the entries.
+   */
+  public void setThreadCount(int threadCount)
+  {
+    this.threadCount = threadCount;
+  }
+
+
+
+  /**
+   * Indicates whether the LDIF data should be split into several
+   * files, one per export thread, rather than written to a single
+   * file.
+   *
+   * @return  <CODE>true</CODE> if the LDIF data should be split into
+   *          several files, or <CODE>false</CODE> if not.
+   */
+  public boolean splitLDIF()
+  {
+    return splitLDIF;
+  }
+
+
+
+  /**
+   * Specifies whether the LDIF data should be split into several
+   * files, one per export thread, rather than written to a single
+   * file.  Each file holds a range of entries and is named after the
+   * LDIF file followed by a dot and the file number.  This is only
+   * supported when the data is written to a file.
+   *
+   * @param  splitLDIF  Specifies whether the LDIF data should be
+   *                    split into several files.
+   */
+  public void setSplitLDIF(boolean splitLDIF)
+  {
+    this.splitLDIF = splitLDIF && ldifFile != null;
+  }
+
+
+
   /**
    * Retrieves the set of base DNs that specify the set of entries to
    * exclude from the export.  The list that is returned may be
@@ -930,6 +1063,6 @@ public final class LDIFExportConfig extends OperationConfig
   public void close()
   {
     // FIXME -- Need to add code to generate a signed hash of the LDIF content.
-    StaticUtils.close(writer);
+    StaticUtils.close(writer, rawOutputStream);
   }
 }
@@ -0,0 +1,203 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.types;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import org.forgerock.opendj.ldap.ByteSequenceReader;
+import org.forgerock.opendj.ldap.ByteString;
+
+/**
+ * The list of attributes having the same attribute type in a lazily decoded
+ * entry. The values of the attributes are only decoded from the encoded entry
+ * the first time the list is accessed, so that the attributes which are never
+ * read do not cost more than skipping over their encoded values.
+ * <p>
+ * Lazily decoded entries may be shared between threads, for example by an
+ * entry cache, so the attributes are decoded under a lock.
+ */
+final class LazyAttributeList extends AbstractList<Attribute> implements RandomAccess
+{
+  /** The description and the position of the values of an attribute which has not been decoded yet. */
+  private static final class EncodedAttribute
+  {
+    /** The user provided name, or null to use the name of the attribute type. */
+    private final String name;
+    private final Set<String> options;
+    private final int valuesPosition;
+
+    private EncodedAttribute(String name, Set<String> options, int valuesPosition)
+    {
+      this.name = name;
+      this.options = options;
+      this.valuesPosition = valuesPosition;
+    }
+  }
+
+  private final AttributeType attributeType;
+  private final ByteString encodedEntry;
+  /** Guarded by this. Null once the attributes have been decoded. */
+  private List<EncodedAttribute> encodedAttributes = new ArrayList<>(1);
+  private volatile List<Attribute> attributes;
+
+  /**
+   * Creates an empty list of attributes.
+   *
+   * @param attributeType
+   *          The attribute type of the attributes.
+   * @param encodedEntry
+   *          The encoded entry containing the values of the attributes.
+   */
+  LazyAttributeList(AttributeType attributeType, ByteString encodedEntry)
+  {
+    this.attributeType = attributeType;
+    this.encodedEntry = encodedEntry;
+  }
+
+  /**
+   * Adds an attribute which will be decoded on first access.
+   *
+   * @param name
+   *          The user provided name of the attribute, or {@code null} to use
+   *          the name of the attribute type.
+   * @param options
+   *          The options of the attribute.
+   * @param valuesPosition
+   *          The position of the number of values of the attribute in the
+   *          encoded entry.
+   */
+  synchronized void addEncodedAttribute(String name, Set<String> options, int valuesPosition)
+  {
+    encodedAttributes.add(new EncodedAttribute(name, options, valuesPosition));
+  }
+
+  private List<Attribute> attributes()
+  {
+    List<Attribute> result = attributes;
+    if (result == null)
+    {
+      synchronized (this)
+      {
+        result = attributes;
+        if (result == null)
+        {
+          result = decodeAttributes();
+          attributes = result;
+          encodedAttributes = null;
+        }
+      }
+    }
+    return result;
+  }
+
+  private List<Attribute> decodeAttributes()
+  {
+    final List<Attribute> result = new ArrayList<>(encodedAttributes.size());
+    final ByteSequenceReader reader = encodedEntry.asReader();
+    for (EncodedAttribute encoded : encodedAttributes)
+    {
+      reader.position(encoded.valuesPosition);
+      final int numValues = reader.readBERLength();
+      if (numValues == 1 && encoded.name == null && encoded.options.isEmpty())
+      {
+        // Same shortcut as the eager decoding for the common single valued attribute.
+        result.add(Attributes.create(attributeType, readValue(reader)));
+        continue;
+      }
+
+      final AttributeBuilder builder = encoded.name != null
+          ? new AttributeBuilder(attributeType, encoded.name)
+          : new AttributeBuilder(attributeType);
+      builder.setOptions(encoded.options);
+      for (int i = 0; i < numValues; i++)
+      {
+        builder.add(readValue(reader));
+      }
+      result.add(builder.toAttribute());
+    }
+    return result;
+  }
+
+  private static ByteString readValue(ByteSequenceReader reader)
+  {
+    final int valueLength = reader.readBERLength();
+    return reader.readByteSequence(valueLength).toByteString();
+  }
+
+  /**
+   * Indicates whether the attributes of this list have been decoded.
+   *
+   * @return {@code true} if the attributes of this list have been decoded.
+   */
+  boolean isDecoded()
+  {
+    return attributes != null;
+  }
+
+  @Override
+  public Attribute get(int index)
+  {
+    return attributes().get(index);
+  }
+
+  @Override
+  public int size()
+  {
+    final List<Attribute> decoded = attributes;
+    if (decoded != null)
+    {
+      return decoded.size();
+    }
+    synchronized (this)
+    {
+      return encodedAttributes != null ? encodedAttributes.size() : attributes.size();
+    }
+  }
+
+  @Override
+  public Attribute set(int index, Attribute attribute)
+  {
+    return attributes().set(index, attribute);
+  }
+
+  @Override
+  public void add(int index, Attribute attribute)
+  {
+    modCount++;
+    attributes().add(index, attribute);
+  }
+
+  @Override
+  public Attribute remove(int index)
+  {
+    modCount++;
+    return attributes().remove(index);
+  }
+}
@@ -27,8 +27,11 @@ package org.opends.server.types;
 
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -75,10 +78,14 @@ import org.forgerock.util.Reject;
  * from the root DN down to the immediate parent of the subtree to be locked. Then a <b>subtree</b>
  * write lock is acquired for the target subtree.
  * <p>
- * The lock table itself is not represented using a {@code ConcurrentHashMap} because the JDK6/7
- * APIs do not provide the ability to atomically add-and-lock or unlock-and-remove locks (this
- * capability is provided in JDK8). Instead, we provide our own implementation comprising of a fixed
- * number of buckets, a bucket being a {@code LinkedList} of {@code DNLock}s. In addition, it is
+ * Two lock table implementations are available, see {@link LockTableImplementation}. The default
+ * implementation comprises a fixed number of buckets, a bucket being a {@code LinkedList} of
+ * {@code DNLock}s protected by its own monitor. The JDK6/7 {@code ConcurrentHashMap} APIs do not
+ * provide the ability to atomically add-and-lock or unlock-and-remove locks (this capability is
+ * provided in JDK8), so the concurrent implementation relies on the reference count instead: a lock
+ * whose reference count has dropped to zero is dead and can never be referenced again, so a thread
+ * finding a dead lock in the table simply removes it and retries. Lookups in the concurrent table
+ * are lock-free, which avoids contention on buckets containing hot DNs. In addition, it is
  * important to be able to efficiently iterate up and down a chain of hierarchically related locks,
  * so each lock maintains a reference to its parent lock. Modern directories tend to have a flat
  * structure so it is also important to avoid contention on "hot" parent DNs. Typically, a lock
@@ -107,11 +114,40 @@ import org.forgerock.util.Reject;
  * Locks are dereferenced when they are unlocked, when they are evicted from a thread local cache,
  * and when a child lock's reference count reaches zero. A lock is completely removed from the lock
  * table once its reference count reaches zero.
+ * <p>
+ * The lock manager also maintains cheap statistics for each {@link LockType}: the number of locks
+ * acquired, the number of lock attempts which timed out, and the cumulative time spent waiting for
+ * and holding locks. The counters are striped across threads in order to avoid introducing a new
+ * point of contention.
  */
 @org.opends.server.types.PublicAPI(stability = org.opends.server.types.StabilityLevel.UNCOMMITTED,
     mayInstantiate = false, mayExtend = false, mayInvoke = true)
 public final class LockManager
 {
+  /**
+   * The types of lock which may be acquired using a lock manager.
+   */
+  public enum LockType
+  {
+    /** An entry read lock, see {@link LockManager#tryReadLockEntry(DN)}. */
+    READ_ENTRY,
+    /** An entry write lock, see {@link LockManager#tryWriteLockEntry(DN)}. */
+    WRITE_ENTRY,
+    /** A subtree write lock, see {@link LockManager#tryWriteLockSubtree(DN)}. */
+    WRITE_SUBTREE
+  }
+
+  /**
+   * The lock table implementations which may be used by a lock manager.
+   */
+  public enum LockTableImplementation
+  {
+    /** A fixed number of buckets, each bucket being protected by its own monitor. */
+    BUCKETS,
+    /** A concurrent hash map providing lock-free lookups. */
+    CONCURRENT
+  }
+
   /**
    * A lock on an entry or subtree. A lock can only be unlocked once.
    */
@@ -120,13 +156,18 @@ public final class LockManager
     private final DNLockHolder lock;
     private final Lock subtreeLock;
     private final Lock entryLock;
+    private final LockType lockType;
+    private final long acquireTimeNanos;
     private boolean isLocked = true;
 
-    private DNLock(final DNLockHolder lock, final Lock subtreeLock, final Lock entryLock)
+    private DNLock(final DNLockHolder lock, final Lock subtreeLock, final Lock entryLock,
+        final LockType lockType, final long acquireTimeNanos)
     {
       this.lock = lock;
       this.subtreeLock = subtreeLock;
       this.entryLock = entryLock;
+      this.lockType = lockType;
+      this.acquireTimeNanos = acquireTimeNanos;
     }
 
     @Override
@@ -152,6 +193,7 @@ public final class LockManager
       entryLock.unlock();
       dereference(lock);
       isLocked = false;
+      statistics[lockType.ordinal()].lockReleased(System.nanoTime() - acquireTimeNanos);
     }
 
     // For unit testing.
@@ -186,6 +228,28 @@ public final class LockManager
       return "\"" + dn + "\" : " + refCount;
     }
 
+    /**
+     * Increments the reference count of this lock, unless it has already dropped to zero, in which
+     * case the lock is dead and is about to be removed from the lock table.
+     *
+     * @return {@code true} if the reference count was incremented.
+     */
+    boolean tryReference()
+    {
+      for (;;)
+      {
+        final int count = refCount.get();
+        if (count <= 0)
+        {
+          return false;
+        }
+        if (refCount.compareAndSet(count, count + 1))
+        {
+          return true;
+        }
+      }
+    }
+
     /**
      * Unlocks the subtree read lock from the parent of this lock up to the root.
      */
@@ -199,17 +263,17 @@ public final class LockManager
 
     DNLock tryReadLockEntry()
     {
-      return tryLock(subtreeLock.readLock(), entryLock.readLock());
+      return tryLock(subtreeLock.readLock(), entryLock.readLock(), LockType.READ_ENTRY);
     }
 
     DNLock tryWriteLockEntry()
     {
-      return tryLock(subtreeLock.readLock(), entryLock.writeLock());
+      return tryLock(subtreeLock.readLock(), entryLock.writeLock(), LockType.WRITE_ENTRY);
     }
 
     DNLock tryWriteLockSubtree()
     {
-      return tryLock(subtreeLock.writeLock(), entryLock.writeLock());
+      return tryLock(subtreeLock.writeLock(), entryLock.writeLock(), LockType.WRITE_SUBTREE);
     }
 
     /**
@@ -239,15 +303,18 @@ public final class LockManager
       return false;
     }
 
-    private DNLock tryLock(final Lock subtreeLock, final Lock entryLock)
+    private DNLock tryLock(final Lock subtreeLock, final Lock entryLock, final LockType lockType)
     {
+      final long startTimeNanos = System.nanoTime();
       if (tryAcquireParentSubtreeReadLock())
       {
         if (tryLockWithTimeout(subtreeLock))
         {
           if (tryLockWithTimeout(entryLock))
           {
-            return new DNLock(this, subtreeLock, entryLock);
+            final long acquireTimeNanos = System.nanoTime();
+            statistics[lockType.ordinal()].lockAcquired(acquireTimeNanos - startTimeNanos);
+            return new DNLock(this, subtreeLock, entryLock, lockType, acquireTimeNanos);
           }
           subtreeLock.unlock();
         }
@@ -255,6 +322,7 @@ public final class LockManager
       }
       // Failed to acquire all the necessary locks within the time out.
       dereference(this);
+      statistics[lockType.ordinal()].lockTimedOut(System.nanoTime() - startTimeNanos);
       return null;
     }
 
@@ -273,15 +341,280 @@ public final class LockManager
     }
   }
 
+  /**
+   * A map of DNs to locks.
+   */
+  private interface LockTable
+  {
+    /**
+     * Returns the lock for the provided DN, creating it with the provided parent lock if there is
+     * no such lock. The returned lock's reference count has been incremented. The parent lock is
+     * dereferenced if it was not used.
+     */
+    DNLockHolder acquire(DN dn, int dnHashCode, DNLockHolder parentLock);
+
+    /**
+     * Removes the provided lock whose reference count has just dropped to zero. Returns
+     * {@code true} if the lock was removed, in which case its parent lock must be dereferenced.
+     */
+    boolean release(DNLockHolder lock);
+
+    // For unit testing.
+    int getRefCountFor(DN dn, int dnHashCode);
+
+    void appendTo(StringBuilder builder);
+  }
+
+  /**
+   * Lock table comprising a fixed number of buckets.
+   */
+  private final class BucketLockTable implements LockTable
+  {
+    private final LinkedList<DNLockHolder>[] buckets;
+
+    @SuppressWarnings("unchecked")
+    BucketLockTable(final int numberOfBuckets)
+    {
+      buckets = new LinkedList[numberOfBuckets];
+      for (int i = 0; i < numberOfBuckets; i++)
+      {
+        buckets[i] = new LinkedList<>();
+      }
+    }
+
+    @Override
+    public DNLockHolder acquire(final DN dn, final int dnHashCode, final DNLockHolder parentLock)
+    {
+      boolean parentLockWasUsed = false;
+      try
+      {
+        final LinkedList<DNLockHolder> bucket = getBucket(dnHashCode);
+        synchronized (bucket)
+        {
+          DNLockHolder lock = removeLock(bucket, dn, dnHashCode);
+          if (lock == null)
+          {
+            lock = new DNLockHolder(parentLock, dn, dnHashCode);
+            parentLockWasUsed = true;
+          }
+          bucket.addFirst(lock); // optimize for LRU
+          lock.refCount.incrementAndGet();
+          return lock;
+        }
+      }
+      finally
+      {
+        if (!parentLockWasUsed && parentLock != null)
+        {
+          dereference(parentLock);
+        }
+      }
+    }
+
+    @Override
+    public boolean release(final DNLockHolder lock)
+    {
+      final LinkedList<DNLockHolder> bucket = getBucket(lock.dnHashCode);
+      synchronized (bucket)
+      {
+        // Double check: another thread could have acquired the lock since we decremented it to zero.
+        if (lock.refCount.get() <= 0)
+        {
+          // Remove this exact lock: another thread may already have removed and replaced it.
+          final Iterator<DNLockHolder> iterator = bucket.iterator();
+          while (iterator.hasNext())
+          {
+            if (iterator.next() == lock)
+            {
+              iterator.remove();
+              return true;
+            }
+          }
+        }
+        return false;
+      }
+    }
+
+    @Override
+    public int getRefCountFor(final DN dn, final int dnHashCode)
+    {
+      final LinkedList<DNLockHolder> bucket = getBucket(dnHashCode);
+      synchronized (bucket)
+      {
+        for (final DNLockHolder lock : bucket)
+        {
+          if (lock.dnHashCode == dnHashCode && lock.dn.equals(dn))
+          {
+            return lock.refCount.get();
+          }
+        }
+        return -1;
+      }
+    }
+
+    @Override
+    public void appendTo(final StringBuilder builder)
+    {
+      for (final LinkedList<DNLockHolder> bucket : buckets)
+      {
+        synchronized (bucket)
+        {
+          for (final DNLockHolder lock : bucket)
+          {
+            builder.append(lock);
+            builder.append('\n');
+          }
+        }
+      }
+    }
+
+    private LinkedList<DNLockHolder> getBucket(final int dnHashCode)
+    {
+      return buckets[dnHashCode & buckets.length - 1];
+    }
+  }
+
+  /**
+   * Lock table backed by a {@code ConcurrentHashMap}.
+   */
+  private final class ConcurrentLockTable implements LockTable
+  {
+    private final ConcurrentMap<DN, DNLockHolder> locks;
+
+    ConcurrentLockTable(final int concurrencyLevel)
+    {
+      locks = new ConcurrentHashMap<>(concurrencyLevel * 4, 0.75f, concurrencyLevel);
+    }
+
+    @Override
+    public DNLockHolder acquire(final DN dn, final int dnHashCode, final DNLockHolder parentLock)
+    {
+      DNLockHolder candidate = null;
+      for (;;)
+      {
+        final DNLockHolder lock = locks.get(dn);
+        if (lock == null)
+        {
+          // Only allocate a new lock once it is known to be missing.
+          if (candidate == null)
+          {
+            candidate = new DNLockHolder(parentLock, dn, dnHashCode);
+            candidate.refCount.set(1);
+          }
+          if (locks.putIfAbsent(dn, candidate) == null)
+          {
+            return candidate;
+          }
+        }
+        else if (lock.tryReference())
+        {
+          if (parentLock != null)
+          {
+            dereference(parentLock);
+          }
+          return lock;
+        }
+        else
+        {
+          // The lock is dead but has not been removed yet: help the thread which is releasing it.
+          locks.remove(lock.dn, lock);
+        }
+      }
+    }
+
+    @Override
+    public boolean release(final DNLockHolder lock)
+    {
+      // Dead locks are never resurrected, so only one thread can get here for a given lock.
+      locks.remove(lock.dn, lock);
+      return true;
+    }
+
+    @Override
+    public int getRefCountFor(final DN dn, final int dnHashCode)
+    {
+      final DNLockHolder lock = locks.get(dn);
+      return lock != null ? lock.refCount.get() : -1;
+    }
+
+    @Override
+    public void appendTo(final StringBuilder builder)
+    {
+      for (final DNLockHolder lock : locks.values())
+      {
+        builder.append(lock);
+        builder.append('\n');
+      }
+    }
+  }
+
+  /**
+   * Lock statistics for a single lock type. Counters are striped by thread ID and padded in order
+   * to avoid false sharing.
+   */
+  private static final class LockStatistics
+  {
+    private static final int ACQUIRED = 0;
+    private static final int TIMED_OUT = 1;
+    private static final int WAIT_TIME = 2;
+    private static final int HOLD_TIME = 3;
+    /** 8 longs = 64 bytes, the typical size of a cache line. */
+    private static final int STRIPE_SIZE = 8;
+
+    private final int stripeMask;
+    private final AtomicLongArray counters;
+
+    LockStatistics(final int numberOfStripes)
+    {
+      stripeMask = numberOfStripes - 1;
+      counters = new AtomicLongArray(numberOfStripes * STRIPE_SIZE);
+    }
+
+    void lockAcquired(final long waitTimeNanos)
+    {
+      final int stripe = getStripe();
+      counters.incrementAndGet(stripe + ACQUIRED);
+      counters.addAndGet(stripe + WAIT_TIME, waitTimeNanos);
+    }
+
+    void lockTimedOut(final long waitTimeNanos)
+    {
+      final int stripe = getStripe();
+      counters.incrementAndGet(stripe + TIMED_OUT);
+      counters.addAndGet(stripe + WAIT_TIME, waitTimeNanos);
+    }
+
+    void lockReleased(final long holdTimeNanos)
+    {
+      counters.addAndGet(getStripe() + HOLD_TIME, holdTimeNanos);
+    }
+
+    long sum(final int counter)
+    {
+      long total = 0;
+      for (int i = counter; i < counters.length(); i += STRIPE_SIZE)
+      {
+        total += counters.get(i);
+      }
+      return total;
+    }
+
+    private int getStripe()
+    {
+      return ((int) Thread.currentThread().getId() & stripeMask) * STRIPE_SIZE;
+    }
+  }
+
   private static final long DEFAULT_LOCK_TIMEOUT = 9;
   private static final TimeUnit DEFAULT_LOCK_TIMEOUT_UNITS = TimeUnit.SECONDS;
   private static final int MINIMUM_NUMBER_OF_BUCKETS = 64;
   private static final int THREAD_LOCAL_CACHE_SIZE = 8;
 
-  private final int numberOfBuckets;
-  private final LinkedList<DNLockHolder>[] lockTable;
+  private final LockTableImplementation lockTableImplementation;
+  private final LockTable lockTable;
   private final long lockTimeout;
   private final TimeUnit lockTimeoutUnits;
+  private final LockStatistics[] statistics = new LockStatistics[LockType.values().length];
 
   // Avoid sub-classing in order to workaround class leaks in app servers.
   private final ThreadLocal<LinkedList<DNLockHolder>> threadLocalCache = new ThreadLocal<>();
@@ -306,7 +639,7 @@ public final class LockManager
    */
   public LockManager(final long lockTimeout, final TimeUnit lockTimeoutUnit)
   {
-    this(lockTimeout, lockTimeoutUnit, Runtime.getRuntime().availableProcessors() * 8);
+    this(lockTimeout, lockTimeoutUnit, getDefaultConcurrencyLevel());
   }
 
   /**
@@ -319,20 +652,75 @@ public final class LockManager
    * @param numberOfBuckets
    *          The number of buckets to use in the lock table. The minimum number of buckets is 64.
    */
-  @SuppressWarnings("unchecked")
   public LockManager(final long lockTimeout, final TimeUnit lockTimeoutUnit, final int numberOfBuckets)
+  {
+    this(lockTimeout, lockTimeoutUnit, LockTableImplementation.BUCKETS, numberOfBuckets);
+  }
+
+  /**
+   * Creates a new lock manager using the specified lock table implementation, with a lock timeout
+   * of 9 seconds and an automatically chosen concurrency level based on the number of processors.
+   *
+   * @param lockTableImplementation
+   *          The lock table implementation.
+   */
+  public LockManager(final LockTableImplementation lockTableImplementation)
+  {
+    this(lockTableImplementation, getDefaultConcurrencyLevel());
+  }
+
+  /**
+   * Creates a new lock manager using the specified lock table implementation and concurrency level,
+   * with a lock timeout of 9 seconds.
+   *
+   * @param lockTableImplementation
+   *          The lock table implementation.
+   * @param concurrencyLevel
+   *          The expected number of threads concurrently accessing the lock table.
+   */
+  public LockManager(final LockTableImplementation lockTableImplementation, final int concurrencyLevel)
+  {
+    this(DEFAULT_LOCK_TIMEOUT, DEFAULT_LOCK_TIMEOUT_UNITS, lockTableImplementation, concurrencyLevel);
+  }
+
+  /**
+   * Creates a new lock manager with the provided configuration.
+   *
+   * @param lockTimeout
+   *          The lock timeout.
+   * @param lockTimeoutUnit
+   *          The lock timeout units.
+   * @param lockTableImplementation
+   *          The lock table implementation.
+   * @param concurrencyLevel
+   *          The expected number of threads concurrently accessing the lock table. This is the
+   *          number of buckets when using the {@link LockTableImplementation#BUCKETS bucket}
+   *          implementation, in which case the minimum number of buckets is 64.
+   */
+  public LockManager(final long lockTimeout, final TimeUnit lockTimeoutUnit,
+      final LockTableImplementation lockTableImplementation, final int concurrencyLevel)
   {
     Reject.ifFalse(lockTimeout >= 0, "lockTimeout must be a non-negative integer");
     Reject.ifNull(lockTimeoutUnit, "lockTimeoutUnit must be non-null");
-    Reject.ifFalse(numberOfBuckets > 0, "numberOfBuckets must be a positive integer");
+    Reject.ifNull(lockTableImplementation, "lockTableImplementation must be non-null");
+    Reject.ifFalse(concurrencyLevel > 0, "concurrencyLevel must be a positive integer");
 
     this.lockTimeout = lockTimeout;
     this.lockTimeoutUnits = lockTimeoutUnit;
-    this.numberOfBuckets = getNumberOfBuckets(numberOfBuckets);
-    this.lockTable = new LinkedList[this.numberOfBuckets];
-    for (int i = 0; i < this.numberOfBuckets; i++)
+    this.lockTableImplementation = lockTableImplementation;
+    switch (lockTableImplementation)
+    {
+    case CONCURRENT:
+      this.lockTable = new ConcurrentLockTable(concurrencyLevel);
+      break;
+    default:
+      this.lockTable = new BucketLockTable(getNumberOfBuckets(concurrencyLevel));
+      break;
+    }
+    final int numberOfStripes = roundUpToPowerOf2(Runtime.getRuntime().availableProcessors() * 2);
+    for (int i = 0; i < statistics.length; i++)
     {
-      this.lockTable[i] = new LinkedList<>();
+      statistics[i] = new LockStatistics(numberOfStripes);
     }
   }
 
@@ -340,18 +728,7 @@ public final class LockManager
   public String toString()
   {
     final StringBuilder builder = new StringBuilder();
-    for (int i = 0; i < numberOfBuckets; i++)
-    {
-      final LinkedList<DNLockHolder> bucket = lockTable[i];
-      synchronized (bucket)
-      {
-        for (final DNLockHolder lock : bucket)
-        {
-          builder.append(lock);
-          builder.append('\n');
-        }
-      }
-    }
+    lockTable.appendTo(builder);
     return builder.toString();
   }
 
@@ -395,22 +772,71 @@ public final class LockManager
     return acquireLockFromCache(subtree).tryWriteLockSubtree();
   }
 
+  /**
+   * Returns the lock table implementation used by this lock manager.
+   *
+   * @return The lock table implementation used by this lock manager.
+   */
+  public LockTableImplementation getLockTableImplementation()
+  {
+    return lockTableImplementation;
+  }
+
+  /**
+   * Returns the number of locks of the specified type which have been successfully acquired.
+   *
+   * @param lockType
+   *          The type of lock.
+   * @return The number of locks of the specified type which have been successfully acquired.
+   */
+  public long getLocksAcquired(final LockType lockType)
+  {
+    return statistics[lockType.ordinal()].sum(LockStatistics.ACQUIRED);
+  }
+
+  /**
+   * Returns the number of attempts to acquire a lock of the specified type which have timed out.
+   *
+   * @param lockType
+   *          The type of lock.
+   * @return The number of attempts to acquire a lock of the specified type which have timed out.
+   */
+  public long getLockTimeouts(final LockType lockType)
+  {
+    return statistics[lockType.ordinal()].sum(LockStatistics.TIMED_OUT);
+  }
+
+  /**
+   * Returns the cumulative time in nanoseconds spent waiting for locks of the specified type,
+   * including attempts which timed out.
+   *
+   * @param lockType
+   *          The type of lock.
+   * @return The cumulative time in nanoseconds spent waiting for locks of the specified type.
+   */
+  public long getTotalLockWaitTimeNanos(final LockType lockType)
+  {
+    return statistics[lockType.ordinal()].sum(LockStatistics.WAIT_TIME);
+  }
+
+  /**
+   * Returns the cumulative time in nanoseconds during which locks of the specified type have been
+   * held. Locks which are still held are not taken into account.
+   *
+   * @param lockType
+   *          The type of lock.
+   * @return The cumulative time in nanoseconds during which locks of the specified type have been
+   *         held.
+   */
+  public long getTotalLockHoldTimeNanos(final LockType lockType)
+  {
+    return statistics[lockType.ordinal()].sum(LockStatistics.HOLD_TIME);
+  }
+
   // For unit testing.
   int getLockTableRefCountFor(final DN dn)
   {
-    final int dnHashCode = dn.hashCode();
-    final LinkedList<DNLockHolder> bucket = getBucket(dnHashCode);
-    synchronized (bucket)
-    {
-      for (final DNLockHolder lock : bucket)
-      {
-        if (lock.dnHashCode == dnHashCode && lock.dn.equals(dn))
-        {
-          return lock.refCount.get();
-        }
-      }
-      return -1;
-    }
+    return lockTable.getRefCountFor(dn, dn.hashCode());
   }
 
   //For unit testing.
@@ -473,80 +899,46 @@ public final class LockManager
      */
     final DN parentDN = dn.parent();
     final DNLockHolder parentLock = parentDN != null ? acquireLockFromCache0(parentDN, cache) : null;
-    boolean parentLockWasUsed = false;
-    try
-    {
-      final LinkedList<DNLockHolder> bucket = getBucket(dnHashCode);
-      synchronized (bucket)
-      {
-        DNLockHolder lock = removeLock(bucket, dn, dnHashCode);
-        if (lock == null)
-        {
-          lock = new DNLockHolder(parentLock, dn, dnHashCode);
-          parentLockWasUsed = true;
-        }
-        bucket.addFirst(lock); // optimize for LRU
-        lock.refCount.incrementAndGet();
-        return lock;
-      }
-    }
-    finally
-    {
-      if (!parentLockWasUsed && parentLock != null)
-      {
-        dereference(parentLock);
-      }
-    }
+    return lockTable.acquire(dn, dnHashCode, parentLock);
   }
 
   private void dereference(final DNLockHolder lock)
   {
-    if (lock.refCount.decrementAndGet() <= 0)
+    /*
+     * Dereference the parent outside of any lock table lock in order to avoid potential deadlocks
+     * due to reentrant bucket locks.
+     */
+    if (lock.refCount.decrementAndGet() <= 0 && lockTable.release(lock) && lock.parent != null)
     {
-      final LinkedList<DNLockHolder> bucket = getBucket(lock.dnHashCode);
-      boolean lockWasRemoved = false;
-      synchronized (bucket)
-      {
-        // Double check: another thread could have acquired the lock since we decremented it to zero.
-        if (lock.refCount.get() <= 0)
-        {
-          removeLock(bucket, lock.dn, lock.dnHashCode);
-          lockWasRemoved = true;
-        }
-      }
-
-      /*
-       * Dereference the parent outside of the bucket lock to avoid potential deadlocks due to
-       * reentrant bucket locks.
-       */
-      if (lockWasRemoved && lock.parent != null)
-      {
-        dereference(lock.parent);
-      }
+      dereference(lock.parent);
     }
   }
 
-  private LinkedList<DNLockHolder> getBucket(final int dnHashCode)
+  private static int getDefaultConcurrencyLevel()
   {
-    return lockTable[dnHashCode & numberOfBuckets - 1];
+    return Runtime.getRuntime().availableProcessors() * 8;
   }
 
   /*
    * Ensure that the number of buckets is a power of 2 in order to make it easier to map hash codes
    * to bucket indexes.
    */
-  private int getNumberOfBuckets(final int buckets)
+  private static int getNumberOfBuckets(final int buckets)
+  {
+    return roundUpToPowerOf2(Math.max(buckets, MINIMUM_NUMBER_OF_BUCKETS));
+  }
+
+  private static int roundUpToPowerOf2(final int value)
   {
-    final int roundedNumberOfBuckets = Math.min(buckets, MINIMUM_NUMBER_OF_BUCKETS);
     int powerOf2 = 1;
-    while (powerOf2 < roundedNumberOfBuckets)
+    while (powerOf2 < value)
     {
       powerOf2 <<= 1;
     }
     return powerOf2;
   }
 
-  private DNLockHolder removeLock(final LinkedList<DNLockHolder> lockList, final DN dn, final int dnHashCode)
+  private static DNLockHolder removeLock(final LinkedList<DNLockHolder> lockList, final DN dn, final int dnHashCode)
   {
     final Iterator<DNLockHolder> iterator = lockList.iterator();
     while (iterator.hasNext())
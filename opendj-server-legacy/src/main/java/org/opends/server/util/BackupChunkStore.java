@@ -0,0 +1,446 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.util;
+
+import static org.forgerock.util.Utils.*;
+import static org.opends.messages.UtilityMessages.*;
+import static org.opends.server.util.ServerConstants.*;
+import static org.opends.server.util.StaticUtils.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.opends.server.types.OperationConfig;
+
+/**
+ * A deduplicated store of file chunks shared by the block-level backups of a backup directory.
+ * <p>
+ * Files are cut into chunks of variable size at positions depending on their content, so that a modification of a
+ * file only changes the chunks around it. Each chunk is stored once, in a file named after the SHA-256 digest of its
+ * content, and a backed up file is represented by the list of its chunks. Chunks are hashed, compressed and written
+ * by several threads while the file is read.
+ * <p>
+ * Each chunk file starts with a byte telling if the chunk is stored as is or deflated.
+ */
+final class BackupChunkStore implements Closeable
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The name of the directory containing the chunks in the backup directory. */
+  static final String CHUNKS_DIRECTORY_NAME = "chunks";
+
+  private static final int MIN_CHUNK_SIZE = 16 * 1024;
+  private static final int MAX_CHUNK_SIZE = 256 * 1024;
+  /**
+   * A position is a cut point when the highest 16 bits of the gear hash are cleared, giving 64KB chunks on average
+   * beyond the minimum size. The highest bits of the gear hash depend on the last 64 bytes read.
+   */
+  private static final long CUT_MASK = 0xFFFFL << 48;
+  /** The random values of the gear hash, which must never change since they define the chunk boundaries. */
+  private static final long[] GEAR = new long[256];
+  static
+  {
+    final Random random = new Random(0x4f70656e444aL);
+    for (int i = 0; i < GEAR.length; i++)
+    {
+      GEAR[i] = random.nextLong();
+    }
+  }
+
+  private static final byte STORED = 0;
+  private static final byte DEFLATED = 1;
+
+  private static final ThreadLocal<MessageDigest> SHA256 = new ThreadLocal<MessageDigest>()
+  {
+    @Override
+    protected MessageDigest initialValue()
+    {
+      try
+      {
+        return MessageDigest.getInstance("SHA-256");
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+        throw new IllegalStateException(e);
+      }
+    }
+  };
+
+  private final File directory;
+  private final boolean compress;
+  private final int nbThreads = Runtime.getRuntime().availableProcessors();
+  /** Hashes, compresses and writes the chunks, created on first use. */
+  private ExecutorService executor;
+
+  /**
+   * Creates a chunk store in the provided backup directory.
+   *
+   * @param backupPath
+   *          the path of the backup directory
+   * @param compress
+   *          whether new chunks must be compressed
+   */
+  BackupChunkStore(String backupPath, boolean compress)
+  {
+    this.directory = new File(backupPath, CHUNKS_DIRECTORY_NAME);
+    this.compress = compress;
+  }
+
+  @Override
+  public void close()
+  {
+    if (executor != null)
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Cuts the provided input into chunks, stores the chunks not already present in this store, and writes the list of
+   * the chunks, one line per chunk, to the provided manifest.
+   *
+   * @param input
+   *          the content to store
+   * @param manifest
+   *          receives the list of chunks of the content
+   * @param config
+   *          the backup configuration, used to know if the backup is cancelled
+   * @return the number of bytes read from the input
+   * @throws IOException
+   *           if the content could not be read or the chunks could not be stored
+   */
+  long writeChunks(InputStream input, Writer manifest, OperationConfig config) throws IOException
+  {
+    if (executor == null)
+    {
+      executor = Executors.newFixedThreadPool(nbThreads, newThreadFactory(null, "BACKUP-CHUNK-STORE-%d", true));
+    }
+    // Bound the memory used by the chunks waiting to be stored.
+    final Deque<Future<String>> pendingChunks = new ArrayDeque<>();
+    final byte[] readBuffer = new byte[64 * 1024];
+    final byte[] chunk = new byte[MAX_CHUNK_SIZE];
+    int chunkLength = 0;
+    long hash = 0;
+    long totalBytesRead = 0;
+    int bytesRead = input.read(readBuffer);
+    while (bytesRead > 0 && !config.isCancelled())
+    {
+      for (int i = 0; i < bytesRead; i++)
+      {
+        final byte b = readBuffer[i];
+        chunk[chunkLength++] = b;
+        hash = (hash << 1) + GEAR[b & 0xFF];
+        if ((chunkLength >= MIN_CHUNK_SIZE && (hash & CUT_MASK) == 0) || chunkLength == MAX_CHUNK_SIZE)
+        {
+          storeAsync(Arrays.copyOf(chunk, chunkLength), pendingChunks, manifest);
+          chunkLength = 0;
+          hash = 0;
+        }
+      }
+      totalBytesRead += bytesRead;
+      bytesRead = input.read(readBuffer);
+    }
+    if (chunkLength > 0)
+    {
+      storeAsync(Arrays.copyOf(chunk, chunkLength), pendingChunks, manifest);
+    }
+    while (!pendingChunks.isEmpty())
+    {
+      manifest.write(waitFor(pendingChunks.removeFirst()));
+    }
+    manifest.flush();
+    return totalBytesRead;
+  }
+
+  private void storeAsync(final byte[] chunk, Deque<Future<String>> pendingChunks, Writer manifest)
+      throws IOException
+  {
+    if (pendingChunks.size() >= 2 * nbThreads)
+    {
+      manifest.write(waitFor(pendingChunks.removeFirst()));
+    }
+    pendingChunks.addLast(executor.submit(new Callable<String>()
+    {
+      @Override
+      public String call() throws Exception
+      {
+        final String chunkID = digest(chunk, chunk.length);
+        store(chunkID, chunk);
+        return chunkID + " " + chunk.length + EOL;
+      }
+    }));
+  }
+
+  private String waitFor(Future<String> chunk) throws IOException
+  {
+    try
+    {
+      return chunk.get();
+    }
+    catch (ExecutionException e)
+    {
+      throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }
+  }
+
+  private void store(String chunkID, byte[] chunk) throws IOException
+  {
+    final Path chunkFile = getChunkFile(chunkID);
+    final boolean exists = Files.exists(chunkFile);
+    if (exists)
+    {
+      // Only reuse a chunk left by a previous backup if it still holds the expected content,
+      // a corrupted or truncated chunk is replaced below.
+      if (Arrays.equals(chunk, readChunkFile(chunkFile, chunk.length)))
+      {
+        return;
+      }
+    }
+    byte format = STORED;
+    byte[] data = chunk;
+    if (compress)
+    {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream(chunk.length / 2);
+      final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try (DeflaterOutputStream deflated = new DeflaterOutputStream(bytes, deflater))
+      {
+        deflated.write(chunk);
+      }
+      finally
+      {
+        deflater.end();
+      }
+      if (bytes.size() < chunk.length)
+      {
+        format = DEFLATED;
+        data = bytes.toByteArray();
+      }
+    }
+
+    // Write a temporary file first so that an interrupted backup never leaves an incomplete chunk behind.
+    Files.createDirectories(chunkFile.getParent());
+    final Path tmpFile = Files.createTempFile(chunkFile.getParent(), chunkID, ".tmp");
+    try
+    {
+      try (OutputStream output = Files.newOutputStream(tmpFile))
+      {
+        output.write(format);
+        output.write(data);
+      }
+      moveChunk(tmpFile, chunkFile, exists);
+    }
+    finally
+    {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+
+  private void moveChunk(Path tmpFile, Path chunkFile, boolean replaceCorrupted) throws IOException
+  {
+    try
+    {
+      Files.move(tmpFile, chunkFile, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (FileAlreadyExistsException e)
+    {
+      if (replaceCorrupted)
+      {
+        Files.move(tmpFile, chunkFile, StandardCopyOption.REPLACE_EXISTING);
+      }
+      // Otherwise stored concurrently with the same content.
+    }
+    catch (AtomicMoveNotSupportedException e)
+    {
+      Files.move(tmpFile, chunkFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Writes the content of the chunks listed by the provided manifest to the provided output, after checking their
+   * integrity.
+   *
+   * @param manifest
+   *          the list of chunks written by {@link #writeChunks(InputStream, Writer, OperationConfig)}
+   * @param output
+   *          receives the content
+   * @param config
+   *          the restore configuration, used to know if the restore is cancelled
+   * @return the number of bytes written to the output
+   * @throws IOException
+   *           if a chunk is missing, corrupted or could not be read
+   */
+  long readChunks(InputStream manifest, OutputStream output, OperationConfig config) throws IOException
+  {
+    long totalBytesWritten = 0;
+    final BufferedReader reader = new BufferedReader(new InputStreamReader(manifest));
+    String line;
+    while ((line = reader.readLine()) != null && !config.isCancelled())
+    {
+      final int separator = line.indexOf(' ');
+      final String chunkID = line.substring(0, separator);
+      final byte[] chunk = readChunk(chunkID, Integer.parseInt(line.substring(separator + 1)));
+      output.write(chunk);
+      totalBytesWritten += chunk.length;
+    }
+    return totalBytesWritten;
+  }
+
+  private byte[] readChunk(String chunkID, int length) throws IOException
+  {
+    final Path chunkFile = getChunkFile(chunkID);
+    if (!Files.exists(chunkFile))
+    {
+      throw new IOException(ERR_BACKUP_MISSING_CHUNK.get(chunkID, directory).toString());
+    }
+    final byte[] chunk = readChunkFile(chunkFile, length);
+    if (chunk == null || !chunkID.equals(digest(chunk, length)))
+    {
+      throw new IOException(ERR_BACKUP_CORRUPTED_CHUNK.get(chunkID, directory).toString());
+    }
+    return chunk;
+  }
+
+  /**
+   * Reads the content of a chunk file, returning {@code null} if the file
+   * cannot be read or does not hold exactly {@code length} bytes.
+   */
+  private byte[] readChunkFile(Path chunkFile, int length)
+  {
+    final byte[] chunk = new byte[length];
+    try (InputStream input = new FileInputStream(chunkFile.toFile()))
+    {
+      final int format = input.read();
+      final InputStream data = format == DEFLATED ? new InflaterInputStream(input) : input;
+      new DataInputStream(data).readFully(chunk);
+      return (format == STORED || format == DEFLATED) && data.read() == -1 ? chunk : null;
+    }
+    catch (IOException e)
+    {
+      logger.traceException(e);
+      return null;
+    }
+  }
+
+  /**
+   * Reads the identifiers of the chunks listed by the provided manifest.
+   *
+   * @param manifest
+   *          the list of chunks written by {@link #writeChunks(InputStream, Writer, OperationConfig)}
+   * @param chunkIDs
+   *          receives the identifiers of the chunks
+   * @throws IOException
+   *           if the manifest could not be read
+   */
+  static void readChunkIDs(InputStream manifest, Set<String> chunkIDs) throws IOException
+  {
+    final BufferedReader reader = new BufferedReader(new InputStreamReader(manifest));
+    String line;
+    while ((line = reader.readLine()) != null)
+    {
+      chunkIDs.add(line.substring(0, line.indexOf(' ')));
+    }
+  }
+
+  /**
+   * Removes the chunks which are not referenced anymore.
+   *
+   * @param referencedChunkIDs
+   *          the identifiers of the chunks used by the remaining backups
+   */
+  void removeChunksNotIn(Set<String> referencedChunkIDs)
+  {
+    final File[] subDirectories = directory.listFiles();
+    if (subDirectories == null)
+    {
+      return;
+    }
+    for (File subDirectory : subDirectories)
+    {
+      final File[] chunkFiles = subDirectory.listFiles();
+      if (chunkFiles == null)
+      {
+        continue;
+      }
+      for (File chunkFile : chunkFiles)
+      {
+        if (!referencedChunkIDs.contains(chunkFile.getName()) && !chunkFile.delete())
+        {
+          logger.trace("Unable to remove the unreferenced backup chunk %s", chunkFile);
+        }
+      }
+      // Only succeeds once empty.
+      subDirectory.delete();
+    }
+  }
+
+  private Path getChunkFile(String chunkID)
+  {
+    return directory.toPath().resolve(chunkID.substring(0, 2)).resolve(chunkID);
+  }
+
+  private static String digest(byte[] data, int length)
+  {
+    final MessageDigest digest = SHA256.get();
+    digest.reset();
+    digest.update(data, 0, length);
+    return bytesToHexNoSpace(digest.digest()).toLowerCase();
+  }
+}
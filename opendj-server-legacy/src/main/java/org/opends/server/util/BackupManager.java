@@ -40,6 +40,7 @@ import java.io.FileFilter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -60,6 +61,8 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
@@ -109,6 +112,12 @@ public class BackupManager
    */
   private static final String PROPERTY_LAST_LOGFILE_SIZE = "last_logfile_size";
 
+  /**
+   * The name of the property telling that the files of the backup are stored
+   * as lists of chunks in the chunk store of the backup directory.
+   */
+  private static final String PROPERTY_BLOCK_LEVEL = "block_level";
+
 
   /**
    * The name of the entry in an incremental backup archive file
@@ -123,12 +132,24 @@ public class BackupManager
    */
   private static final String ZIPENTRY_EMPTY_PLACEHOLDER = "empty.placeholder";
 
+  /**
+   * The locks serializing the creations and removals of backups per backup
+   * directory path, so that the chunks of a backup being created are never
+   * removed as unreferenced by the removal of another backup.
+   */
+  private static final ConcurrentMap<String, Object> BACKUP_DIRECTORY_LOCKS = new ConcurrentHashMap<>();
 
   /**
    * The backend ID.
    */
   private final String backendID;
 
+  /**
+   * Indicates whether new backups may store their files as chunks, when
+   * requested by their configuration.
+   */
+  private final boolean supportsBlockLevel;
+
   /**
    * Construct a backup manager for a backend.
    *
@@ -137,8 +158,33 @@ public class BackupManager
    *          required.
    */
   public BackupManager(String backendID)
+  {
+    this(backendID, false);
+  }
+
+  /**
+   * Construct a backup manager for a backend, which can create block-level
+   * backups.
+   * <p>
+   * The files of a block-level backup are cut into chunks which are shared by
+   * all the block-level backups of the backup directory, so that a file
+   * slightly changed since the previous backup only adds its changed chunks.
+   * Backups are only block-level when requested with
+   * {@link BackupConfig#setBlockLevel(boolean)}, and encrypted backups are
+   * never block-level. Restoring a block-level backup requires the chunk store
+   * of its backup directory: its archive cannot be restored on its own, nor by
+   * a server which does not support block-level backups.
+   *
+   * @param backendID
+   *          The ID of the backend instance for which a backup manager is
+   *          required.
+   * @param supportsBlockLevel
+   *          Indicates whether new backups may be block-level.
+   */
+  public BackupManager(String backendID, boolean supportsBlockLevel)
   {
     this.backendID = backendID;
+    this.supportsBlockLevel = supportsBlockLevel;
   }
 
   /** A cryptographic engine to use for backup creation or restore. */
@@ -479,17 +525,20 @@ public class BackupManager
     final HashMap<String,String> backupProperties;
 
     final boolean shouldCompress;
+    final boolean isBlockLevel;
 
     final boolean isIncremental;
     final String incrementalBaseID;
     final BackupInfo baseBackupInfo;
 
-    NewBackupParams(BackupConfig backupConfig) throws DirectoryException
+    NewBackupParams(BackupConfig backupConfig, boolean supportsBlockLevel) throws DirectoryException
     {
       backupID = backupConfig.getBackupID();
       backupDir = backupConfig.getBackupDirectory();
       backupProperties = new HashMap<>();
       shouldCompress = backupConfig.compressData();
+      // Chunks are shared between backups, they cannot be encrypted with a key specific to one backup.
+      isBlockLevel = supportsBlockLevel && backupConfig.isBlockLevel() && !backupConfig.encryptData();
 
       incrementalBaseID = retrieveIncrementalBaseID(backupConfig);
       isIncremental = incrementalBaseID != null;
@@ -611,6 +660,10 @@ public class BackupManager
       byte[] macBytes = cryptoEngine.hasSignedHash() ? bytes : null;
       newBackupParams.putProperty(PROPERTY_LAST_LOGFILE_NAME, latestFileName);
       newBackupParams.putProperty(PROPERTY_LAST_LOGFILE_SIZE, String.valueOf(latestFileSize));
+      if (newBackupParams.isBlockLevel)
+      {
+        newBackupParams.putProperty(PROPERTY_BLOCK_LEVEL, String.valueOf(true));
+      }
       return new BackupInfo(
           newBackupParams.backupDir, newBackupParams.backupID, new Date(), newBackupParams.isIncremental,
           newBackupParams.shouldCompress, cryptoEngine.shouldEncrypt(), digestBytes, macBytes,
@@ -692,6 +745,11 @@ public class BackupManager
       return !backupInfo.getDependencies().isEmpty();
     }
 
+    boolean isBlockLevel()
+    {
+      return BackupManager.isBlockLevel(backupInfo);
+    }
+
     /** Removes the archive from file system. */
     boolean removeArchive() throws DirectoryException
     {
@@ -724,18 +782,23 @@ public class BackupManager
     private final ZipOutputStream zipOutputStream;
     private final NewBackupArchive archive;
     private final CryptoEngine cryptoEngine;
+    /** Stores the files of a block-level backup, {@code null} otherwise. */
+    private final BackupChunkStore chunkStore;
 
     BackupArchiveWriter(NewBackupArchive archive) throws DirectoryException
     {
       this.archive = archive;
       this.cryptoEngine = archive.cryptoEngine;
       this.zipOutputStream = open(archive.getBackupPath(), archive.getArchiveFilename());
+      final NewBackupParams params = archive.newBackupParams;
+      this.chunkStore = params.isBlockLevel ? new BackupChunkStore(params.backupDir.getPath(), params.shouldCompress)
+                                            : null;
     }
 
     @Override
     public void close() throws IOException
     {
-      StaticUtils.close(zipOutputStream);
+      StaticUtils.close(chunkStore, zipOutputStream);
     }
 
     /**
@@ -760,6 +823,11 @@ public class BackupManager
 
       cryptoMethod.updateHashWith(relativePath);
 
+      if (chunkStore != null)
+      {
+        return writeFileChunks(file, zipEntry, cryptoMethod, backupConfig);
+      }
+
       InputStream inputStream = null;
       long totalBytesRead = 0;
       try {
@@ -783,6 +851,42 @@ public class BackupManager
       return totalBytesRead;
     }
 
+    /**
+     * Stores the provided file in the chunk store and writes the list of its
+     * chunks to the current entry of the archive. The hash covers the content
+     * of the file, as for the files stored in the archive.
+     */
+    private long writeFileChunks(Path file, ZipEntry zipEntry, CryptoEngine cryptoMethod,
+        BackupConfig backupConfig) throws IOException
+    {
+      long totalBytesRead;
+      try (InputStream inputStream = hashingInputStream(new FileInputStream(file.toFile()), cryptoMethod))
+      {
+        totalBytesRead = chunkStore.writeChunks(inputStream, new OutputStreamWriter(zipOutputStream), backupConfig);
+      }
+      zipOutputStream.closeEntry();
+      logger.info(NOTE_BACKUP_ARCHIVED_FILE, zipEntry.getName());
+      return totalBytesRead;
+    }
+
+    /** Feeds the hash of the backup with the bytes read from the provided stream. */
+    private InputStream hashingInputStream(InputStream inputStream, final CryptoEngine cryptoMethod)
+    {
+      return new FilterInputStream(inputStream)
+      {
+        @Override
+        public int read(byte[] buffer, int offset, int len) throws IOException
+        {
+          final int bytesRead = super.read(buffer, offset, len);
+          if (bytesRead > 0)
+          {
+            cryptoMethod.updateHashWith(buffer, offset, bytesRead);
+          }
+          return bytesRead;
+        }
+      };
+    }
+
     /**
      * Write a list of strings to an entry in the archive.
      *
@@ -982,6 +1086,8 @@ public class BackupManager
     private final File archiveFile;
     private final String identifier;
     private final BackupInfo backupInfo;
+    /** Provides the files of a block-level backup, {@code null} otherwise. */
+    private final BackupChunkStore chunkStore;
 
     BackupArchiveReader(String identifier, ExistingBackupArchive archive)
     {
@@ -989,6 +1095,7 @@ public class BackupManager
       this.backupInfo = archive.getBackupInfo();
       this.archiveFile = archive.getArchiveFile();
       this.cryptoEngine = archive.getCryptoEngine();
+      this.chunkStore = newChunkStore(backupInfo, archiveFile);
     }
 
     BackupArchiveReader(String identifier, BackupInfo backupInfo, String backupDirectoryPath) throws DirectoryException
@@ -997,6 +1104,46 @@ public class BackupManager
       this.backupInfo = backupInfo;
       this.archiveFile = BackupManager.retrieveArchiveFile(backupInfo, backupDirectoryPath);
       this.cryptoEngine = CryptoEngine.forRestore(backupInfo);
+      this.chunkStore = newChunkStore(backupInfo, archiveFile);
+    }
+
+    private static BackupChunkStore newChunkStore(BackupInfo backupInfo, File archiveFile)
+    {
+      return isBlockLevel(backupInfo) ? new BackupChunkStore(archiveFile.getParent(), false) : null;
+    }
+
+    /**
+     * Adds the chunks used by this block-level backup to the provided set.
+     *
+     * @throws DirectoryException
+     *          If an error occurs.
+     */
+    void readChunkIDs(Set<String> chunkIDs) throws DirectoryException
+    {
+      ZipInputStream zipStream = null;
+      try
+      {
+        zipStream = openZipStream();
+        ZipEntry zipEntry = zipStream.getNextEntry();
+        while (zipEntry != null)
+        {
+          String zipEntryName = zipEntry.getName();
+          if (!ZIPENTRY_UNCHANGED_LOGFILES.equals(zipEntryName) && !ZIPENTRY_EMPTY_PLACEHOLDER.equals(zipEntryName))
+          {
+            BackupChunkStore.readChunkIDs(zipStream, chunkIDs);
+          }
+          zipEntry = zipStream.getNextEntry();
+        }
+      }
+      catch (IOException e)
+      {
+        logger.traceException(e);
+        throw new DirectoryException(DirectoryServer.getServerErrorResultCode(), ERR_BACKUP_CANNOT_RESTORE.get(
+            identifier, stackTraceToSingleLineString(e)), e);
+      }
+      finally {
+        StaticUtils.close(zipStream);
+      }
     }
 
     /**
@@ -1205,6 +1352,11 @@ public class BackupManager
     private long restoreFile(ZipInputStream zipInputStream, OutputStream outputStream, RestoreConfig restoreConfig)
         throws IOException
     {
+      if (chunkStore != null)
+      {
+        return restoreFileChunks(zipInputStream, outputStream, restoreConfig);
+      }
+
       long totalBytesRead = 0;
       byte[] buffer = new byte[8192];
       int bytesRead = zipInputStream.read(buffer);
@@ -1224,6 +1376,31 @@ public class BackupManager
       return totalBytesRead;
     }
 
+    /** Streams the chunks listed by the zip entry back, hashing their content as for the files of the archive. */
+    private long restoreFileChunks(ZipInputStream zipInputStream, final OutputStream outputStream,
+        RestoreConfig restoreConfig) throws IOException
+    {
+      final OutputStream hashingStream = new OutputStream()
+      {
+        @Override
+        public void write(int b) throws IOException
+        {
+          write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int len) throws IOException
+        {
+          cryptoEngine.updateHashWith(buffer, offset, len);
+          if (outputStream != null)
+          {
+            outputStream.write(buffer, offset, len);
+          }
+        }
+      };
+      return chunkStore.readChunks(zipInputStream, hashingStream, restoreConfig);
+    }
+
     private InputStream openStream() throws DirectoryException
     {
       try
@@ -1276,10 +1453,19 @@ public class BackupManager
    */
   public void createBackup(final Backupable backupable, final BackupConfig backupConfig) throws DirectoryException
   {
-    final NewBackupParams backupParams = new NewBackupParams(backupConfig);
+    final NewBackupParams backupParams = new NewBackupParams(backupConfig, supportsBlockLevel);
     final CryptoEngine cryptoEngine = CryptoEngine.forCreation(backupConfig, backupParams);
     final NewBackupArchive newArchive = new NewBackupArchive(backendID, backupParams, cryptoEngine);
 
+    synchronized (getBackupDirectoryLock(backupParams.backupDir))
+    {
+      createBackup(backupable, backupConfig, backupParams, newArchive);
+    }
+  }
+
+  private void createBackup(Backupable backupable, BackupConfig backupConfig, NewBackupParams backupParams,
+      NewBackupArchive newArchive) throws DirectoryException
+  {
     BackupArchiveWriter archiveWriter = null;
     try
     {
@@ -1370,8 +1556,57 @@ public class BackupManager
    */
   public void removeBackup(BackupDirectory backupDir, String backupID) throws DirectoryException
   {
-    ExistingBackupArchive archive = new ExistingBackupArchive(backupID, backupDir);
-    archive.removeArchive();
+    synchronized (getBackupDirectoryLock(backupDir))
+    {
+      ExistingBackupArchive archive = new ExistingBackupArchive(backupID, backupDir);
+      archive.removeArchive();
+      if (archive.isBlockLevel())
+      {
+        removeUnreferencedChunks(backupDir);
+      }
+    }
+  }
+
+  /**
+   * Returns the lock serializing the creations and removals of backups in the
+   * provided backup directory. The lock is reentrant, so a cancelled backup can
+   * be removed while it is held.
+   */
+  private static Object getBackupDirectoryLock(BackupDirectory backupDir)
+  {
+    String path;
+    try
+    {
+      path = new File(backupDir.getPath()).getCanonicalPath();
+    }
+    catch (IOException e)
+    {
+      logger.traceException(e);
+      path = new File(backupDir.getPath()).getAbsolutePath();
+    }
+    final Object lock = new Object();
+    final Object existingLock = BACKUP_DIRECTORY_LOCKS.putIfAbsent(path, lock);
+    return existingLock != null ? existingLock : lock;
+  }
+
+  /** Removes the chunks which are not used anymore by the remaining block-level backups. */
+  private void removeUnreferencedChunks(BackupDirectory backupDir) throws DirectoryException
+  {
+    final Set<String> referencedChunkIDs = new HashSet<>();
+    for (BackupInfo backupInfo : backupDir.getBackups().values())
+    {
+      if (isBlockLevel(backupInfo))
+      {
+        new BackupArchiveReader(backupInfo.getBackupID(), backupInfo, backupDir.getPath())
+            .readChunkIDs(referencedChunkIDs);
+      }
+    }
+    new BackupChunkStore(backupDir.getPath(), false).removeChunksNotIn(referencedChunkIDs);
+  }
+
+  private static boolean isBlockLevel(BackupInfo backupInfo)
+  {
+    return Boolean.parseBoolean(backupInfo.getBackupProperties().get(PROPERTY_BLOCK_LEVEL));
   }
 
   private Path getRestoreDirectory(Backupable backupable, String backupID)
@@ -2907,6 +2907,16 @@ public final class ServerConstants
 
 
 
+  /**
+   * The name of the system property that can be used to specify the lock table
+   * implementation used by the server lock manager.  Supported values are
+   * "buckets" (the default) and "concurrent".
+   */
+  public static final String PROPERTY_LOCK_MANAGER_IMPLEMENTATION =
+       "org.opends.server.LockManagerImplementation";
+
+
+
   /**
    * The name of the system property that can be used to determine whether the
    * server should maintain an archive of previous configurations.  If this is
@@ -0,0 +1,138 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.util.StaticUtils;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend" }, sequential = true)
+public class CompressionDictionaryTest extends DirectoryServerTestCase
+{
+  private static final byte[] NO_DICTIONARY = new byte[0];
+
+  @Test
+  public void testLZRoundTrip() throws Exception
+  {
+    final Random random = new Random(0);
+    for (int length = 0; length < 2000; length += 7)
+    {
+      final byte[] data = new byte[length];
+      for (int i = 0; i < length; i++)
+      {
+        data[i] = (byte) (random.nextInt(4) == 0 ? random.nextInt() : i % 13);
+      }
+      assertThat(roundTrip(data, NO_DICTIONARY, LZCodec.newHashTable(NO_DICTIONARY))).isEqualTo(data);
+    }
+  }
+
+  @Test
+  public void testTrainedDictionaryImprovesCompression() throws Exception
+  {
+    final List<byte[]> samples = newSamples(500);
+    final CompressionDictionary dictionary = CompressionDictionary.train(1, samples, CompressionDictionary.DEFAULT_SIZE);
+    assertThat(dictionary).isNotNull();
+    assertThat(dictionary.getBytes().length).isLessThanOrEqualTo(CompressionDictionary.DEFAULT_SIZE);
+
+    final int[] hashTable = new int[LZCodec.newHashTable(NO_DICTIONARY).length];
+    int withoutDictionary = 0;
+    int withDictionary = 0;
+    for (byte[] sample : samples)
+    {
+      withoutDictionary += compress(sample, NO_DICTIONARY, LZCodec.newHashTable(NO_DICTIONARY)).length;
+      dictionary.copyHashTableTo(hashTable);
+      withDictionary += compress(sample, dictionary.getBytes(), hashTable).length;
+
+      dictionary.copyHashTableTo(hashTable);
+      assertThat(roundTrip(sample, dictionary.getBytes(), hashTable)).isEqualTo(sample);
+    }
+    assertThat(withDictionary).isLessThan(withoutDictionary / 2);
+  }
+
+  @Test
+  public void testNoDictionaryTrainedFromUnrelatedSamples() throws Exception
+  {
+    final List<byte[]> samples = new ArrayList<>();
+    samples.add(StaticUtils.getBytes("abc"));
+    assertThat(CompressionDictionary.train(1, samples, CompressionDictionary.DEFAULT_SIZE)).isNull();
+  }
+
+  @Test(expectedExceptions = DataFormatException.class)
+  public void testLZTruncatedData() throws Exception
+  {
+    final byte[] data = newSamples(1).get(0);
+    final byte[] compressed = compress(data, NO_DICTIONARY, LZCodec.newHashTable(NO_DICTIONARY));
+    LZCodec.decompress(compressed, 0, compressed.length - 1, new byte[data.length], 0, data.length);
+  }
+
+  private static List<byte[]> newSamples(int count)
+  {
+    final Random random = new Random(0);
+    final List<byte[]> samples = new ArrayList<>();
+    for (int i = 0; i < count; i++)
+    {
+      samples.add(StaticUtils.getBytes("dn: uid=user." + i + ",ou=People,dc=example,dc=com\n"
+          + "objectClass: top\nobjectClass: person\nobjectClass: organizationalPerson\n"
+          + "objectClass: inetOrgPerson\ncn: User " + random.nextInt(100000) + "\nsn: Last" + random.nextInt(1000)
+          + "\nmail: user." + i + "@example.com\ntelephoneNumber: +1 408 555 " + random.nextInt(10000) + "\n"));
+    }
+    return samples;
+  }
+
+  private static byte[] compress(byte[] data, byte[] dictionary, int[] hashTable)
+  {
+    final byte[] window = newWindow(dictionary, data.length);
+    System.arraycopy(data, 0, window, dictionary.length, data.length);
+    final ByteStringBuilder compressed = new ByteStringBuilder();
+    LZCodec.compress(window, dictionary.length, data.length, hashTable, compressed);
+    return compressed.toByteArray();
+  }
+
+  private static byte[] roundTrip(byte[] data, byte[] dictionary, int[] hashTable) throws DataFormatException
+  {
+    final byte[] compressed = compress(data, dictionary, hashTable);
+    final byte[] window = newWindow(dictionary, data.length);
+    LZCodec.decompress(compressed, 0, compressed.length, window, dictionary.length, data.length);
+    return Arrays.copyOfRange(window, dictionary.length, window.length);
+  }
+
+  private static byte[] newWindow(byte[] dictionary, int length)
+  {
+    final byte[] window = new byte[dictionary.length + length];
+    System.arraycopy(dictionary, 0, window, 0, dictionary.length);
+    return window;
+  }
+}
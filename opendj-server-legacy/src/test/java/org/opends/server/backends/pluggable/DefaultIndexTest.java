@@ -37,6 +37,7 @@ import static org.opends.server.backends.pluggable.Utils.assertIdsEquals;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
@@ -49,6 +50,7 @@ import org.opends.server.backends.pluggable.State.IndexFlag;
 import org.opends.server.backends.pluggable.spi.Cursor;
 import org.opends.server.backends.pluggable.spi.ReadableTransaction;
 import org.opends.server.backends.pluggable.spi.StorageRuntimeException;
+import org.opends.server.backends.pluggable.spi.StorageUtils;
 import org.opends.server.backends.pluggable.spi.TreeName;
 import org.opends.server.backends.pluggable.spi.UpdateFunction;
 import org.opends.server.backends.pluggable.spi.WriteableTransaction;
@@ -108,6 +110,57 @@ public class DefaultIndexTest extends DirectoryServerTestCase
     assertThat(txn.read(index.getName(), valueOfUtf8("key"))).isNull();
   }
 
+  @Test
+  public void testEstimatedCardinality() {
+    final ByteString key = valueOfUtf8("key");
+    assertThat(index.getEstimatedCardinality(key)).isEqualTo(IndexKeyStatistics.UNKNOWN);
+
+    put(newDefinedSet(1, 2, 3));
+    index.get(txn, key);
+    assertThat(index.getEstimatedCardinality(key)).isEqualTo(3);
+
+    update(newDefinedSet(1), newDefinedSet());
+    assertThat(index.getEstimatedCardinality(key)).isEqualTo(2);
+
+    update(newDefinedSet(), newDefinedSet(4, 5, 6, 7));
+    assertThat(index.getEstimatedCardinality(key)).isEqualTo(IndexKeyStatistics.LIMIT_EXCEEDED);
+
+    index.get(txn, valueOfUtf8("missing"));
+    assertThat(index.getEstimatedCardinality(valueOfUtf8("missing"))).isEqualTo(0);
+  }
+
+  @Test
+  public void testEstimatedCardinalityIsForgottenWhenNotTrusted() {
+    final ByteString key = valueOfUtf8("key");
+    index.getEstimatedCardinality(key);
+    put(newDefinedSet(1, 2, 3));
+    index.get(txn, key);
+
+    index.setTrusted(txn, false);
+    assertThat(index.getEstimatedCardinality(key)).isEqualTo(IndexKeyStatistics.UNKNOWN);
+    index.get(txn, key);
+    index.setTrusted(txn, true);
+    assertThat(index.getEstimatedCardinality(key)).isEqualTo(IndexKeyStatistics.UNKNOWN);
+  }
+
+  @Test
+  public void testRebuildingIndexIsMaintainedButNotRead() {
+    index.setRebuilding(txn);
+    assertThat(index.isTrusted()).isFalse();
+    assertThat(index.isRebuilding()).isTrue();
+
+    update(newDefinedSet(), newDefinedSet(1, 2));
+    assertIdsEquals(get(), 1, 2);
+    assertThat(index.get(txn, valueOfUtf8("key")).isDefined()).isFalse();
+
+    update(newDefinedSet(1), newDefinedSet());
+    assertIdsEquals(get(), 2);
+
+    index.setTrusted(txn, true);
+    assertThat(index.isRebuilding()).isFalse();
+    assertIdsEquals(index.get(txn, valueOfUtf8("key")), 2);
+  }
+
   private void update(EntryIDSet deletedIDSet, EntryIDSet addedIDSet) {
     index.update(txn, valueOfUtf8("key"), deletedIDSet, addedIDSet);
   }
@@ -142,6 +195,12 @@ public class DefaultIndexTest extends DirectoryServerTestCase
       return getTree(treeName).get(key);
     }
 
+    @Override
+    public List<ByteString> readMany(TreeName treeName, List<? extends ByteSequence> keys)
+    {
+      return StorageUtils.readEach(this, treeName, keys);
+    }
+
     private TreeMap<ByteString, ByteString> getTree(TreeName treeName) {
       final TreeMap<ByteString, ByteString> tree = storage.get(treeName);
       if ( tree == null ) {
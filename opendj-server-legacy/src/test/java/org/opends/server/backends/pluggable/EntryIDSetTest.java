@@ -316,9 +316,121 @@ public class EntryIDSetTest extends DirectoryServerTestCase
     assertIdsEquals(retained, 1, 3, 5, 7, 9);
   }
 
+  @Test(dataProvider = "codecs")
+  public void testCodecsWithSparseAndDenseChunks(EntryIDSetCodec codec)
+  {
+    final long[] ids = newSparseAndDenseIDs();
+    final EntryIDSet decoded = codec.decode(KEY, codec.encode(newDefinedSet(ids)));
+
+    assertThat(decoded.size()).isEqualTo(ids.length);
+    assertThat(decoded.toLongArray()).isEqualTo(ids);
+  }
+
+  @Test
+  public void testCodecV3IsSmallerThanV2ForDenseSets()
+  {
+    final long[] ids = new long[100000];
+    for (int i = 0; i < ids.length; i++)
+    {
+      ids[i] = i + 1;
+    }
+    final EntryIDSet set = newDefinedSet(ids);
+
+    assertThat(CODEC_V3.encode(set).length()).isLessThan(CODEC_V2.encode(set).length() / 4);
+  }
+
+  @Test
+  public void testBitmapAddRemove()
+  {
+    final EntryIDSet set = bitmapSet(6, 8, 10, 70000);
+
+    assertThat(set.add(id(4))).isTrue();
+    assertThat(set.add(id(10))).isFalse();
+    assertThat(set.add(id(200000))).isTrue();
+    assertThat(set.toLongArray()).containsExactly(4, 6, 8, 10, 70000, 200000);
+
+    assertThat(set.remove(id(70000))).isTrue();
+    assertThat(set.remove(id(70000))).isFalse();
+    assertThat(set.contains(id(8))).isTrue();
+    assertThat(set.contains(id(70000))).isFalse();
+    assertThat(set.toLongArray()).containsExactly(4, 6, 8, 10, 200000);
+  }
+
+  @Test
+  public void testBitmapIteratorWithBegin()
+  {
+    final EntryIDSet set = bitmapSet(4, 6, 8, 70000, 70002);
+
+    assertIdsEquals(set.iterator(id(8)), 8, 70000, 70002);
+    assertIdsEquals(set.iterator(id(70002)), 70002);
+    assertIdsEquals(set.iterator(id(13)), 4, 6, 8, 70000, 70002);
+  }
+
+  @Test
+  public void testBitmapRetainAll()
+  {
+    final long[] ids = newSparseAndDenseIDs();
+    EntryIDSet retained = bitmapSet(ids);
+    retained.retainAll(newDefinedSet(1, 2, 3, 5000, 70000, 131072 + 10000, 131072 + 10001));
+    assertThat(retained.toLongArray()).containsExactly(1, 3, 70000, 131072 + 10000, 131072 + 10001);
+
+    retained = newDefinedSet(1, 2, 3, 5000, 70000);
+    retained.retainAll(bitmapSet(ids));
+    assertThat(retained.toLongArray()).containsExactly(1, 3, 70000);
+
+    retained = newUndefinedSet();
+    retained.retainAll(bitmapSet(1, 3, 5));
+    assertThat(retained.toLongArray()).containsExactly(1, 3, 5);
+  }
+
+  @Test
+  public void testBitmapAddAllRemoveAll()
+  {
+    final long[] ids = newSparseAndDenseIDs();
+    final EntryIDSet set = bitmapSet(1, 2);
+    set.addAll(bitmapSet(ids));
+    assertThat(set.size()).isEqualTo(ids.length + 1);
+
+    set.removeAll(newDefinedSet(ids));
+    assertThat(set.toLongArray()).containsExactly(2);
+  }
+
+  @Test
+  public void testBitmapNewSetFromUnions()
+  {
+    final EntryIDSet union =
+        newSetFromUnion(Arrays.asList(bitmapSet(1, 2, 3), newDefinedSet(4, 5, 6, 70000), bitmapSet(3, 4)));
+    assertThat(union.toLongArray()).containsExactly(1, 2, 3, 4, 5, 6, 70000);
+  }
+
+  private static EntryIDSet bitmapSet(long... ids)
+  {
+    return CODEC_V3.decode(KEY, CODEC_V3.encode(newDefinedSet(ids)));
+  }
+
+  /** Odd IDs in a first sparse chunk, then a dense chunk and a full chunk. */
+  private static long[] newSparseAndDenseIDs()
+  {
+    final long[] ids = new long[1000 + 10000 + 65536];
+    int pos = 0;
+    for (int i = 0; i < 1000; i++)
+    {
+      ids[pos++] = 2 * i + 1;
+    }
+    for (int i = 0; i < 10000; i++)
+    {
+      ids[pos++] = 65536 + 3 * i;
+    }
+    for (int i = 0; i < 65536; i++)
+    {
+      ids[pos++] = 131072 + i;
+    }
+    return ids;
+  }
+
   @DataProvider(name = "codecs")
   public static Object[][] codecs() {
-     return new Object[][] { { CODEC_V1 }, { CODEC_V2 } };
+     return new Object[][] { { CODEC_V1 }, { CODEC_V2 }, { CODEC_V3 } };
   }
 
 }
@@ -0,0 +1,155 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.backends.pluggable.spi.Storage;
+import org.opends.server.backends.pluggable.spi.StorageRuntimeException;
+import org.opends.server.backends.pluggable.spi.WriteOperation;
+import org.opends.server.backends.pluggable.spi.WriteableTransaction;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend" }, sequential = true)
+public class GroupCommitterTest extends DirectoryServerTestCase
+{
+  private static final WriteOperation NO_OP = new WriteOperation()
+  {
+    @Override
+    public void run(WriteableTransaction txn) throws Exception
+    {
+      // Nothing to write
+    }
+  };
+
+  @Test
+  public void testWriteWithoutGroupCommit() throws Exception
+  {
+    final Storage storage = mock(Storage.class);
+    when(storage.supportsGroupCommit()).thenReturn(false);
+
+    final GroupCommitter groupCommitter = new GroupCommitter(storage);
+    groupCommitter.write(NO_OP);
+
+    verify(storage).write(NO_OP);
+    verify(storage, never()).writeNoSync(NO_OP);
+    verify(storage, never()).sync();
+    assertThat(groupCommitter.getCommitCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testConcurrentWritesShareSyncs() throws Exception
+  {
+    final Storage storage = mock(Storage.class);
+    when(storage.supportsGroupCommit()).thenReturn(true);
+    final AtomicInteger syncs = new AtomicInteger();
+    doAnswer(new Answer<Void>()
+    {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable
+      {
+        syncs.incrementAndGet();
+        Thread.sleep(5);
+        return null;
+      }
+    }).when(storage).sync();
+
+    final GroupCommitter groupCommitter = new GroupCommitter(storage);
+    final int nbThreads = 8;
+    final int nbWritesPerThread = 20;
+    final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    try
+    {
+      final List<Future<Void>> results = new ArrayList<>();
+      for (int i = 0; i < nbThreads; i++)
+      {
+        results.add(executor.submit(new Callable<Void>()
+        {
+          @Override
+          public Void call() throws Exception
+          {
+            for (int j = 0; j < nbWritesPerThread; j++)
+            {
+              groupCommitter.write(NO_OP);
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> result : results)
+      {
+        result.get();
+      }
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+
+    verify(storage, times(nbThreads * nbWritesPerThread)).writeNoSync(NO_OP);
+    verify(storage, never()).write(NO_OP);
+    assertThat(groupCommitter.getCommitCount()).isEqualTo(nbThreads * nbWritesPerThread);
+    assertThat(groupCommitter.getSyncCount()).isEqualTo(syncs.get());
+    assertThat(syncs.get()).isLessThan(nbThreads * nbWritesPerThread);
+  }
+
+  @Test
+  public void testSyncFailureIsReportedAndRetried() throws Exception
+  {
+    final Storage storage = mock(Storage.class);
+    when(storage.supportsGroupCommit()).thenReturn(true);
+    doThrow(new RuntimeException("sync failed")).doNothing().when(storage).sync();
+
+    final GroupCommitter groupCommitter = new GroupCommitter(storage);
+    try
+    {
+      groupCommitter.write(NO_OP);
+      fail("Expected a StorageRuntimeException");
+    }
+    catch (StorageRuntimeException expected)
+    {
+      assertThat(groupCommitter.getSyncCount()).isEqualTo(0);
+    }
+
+    // The next write syncs the changes of both writes.
+    groupCommitter.write(NO_OP);
+    verify(storage, times(2)).sync();
+    assertThat(groupCommitter.getSyncCount()).isEqualTo(1);
+  }
+}
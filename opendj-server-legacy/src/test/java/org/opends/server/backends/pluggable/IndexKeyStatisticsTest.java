@@ -0,0 +1,88 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.forgerock.opendj.ldap.ByteString.valueOfUtf8;
+import static org.opends.server.backends.pluggable.EntryIDSet.*;
+import static org.opends.server.backends.pluggable.IndexKeyStatistics.*;
+
+import org.opends.server.DirectoryServerTestCase;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend" }, sequential = true)
+public class IndexKeyStatisticsTest extends DirectoryServerTestCase
+{
+  @Test
+  public void testRecordAndGetCardinality()
+  {
+    final IndexKeyStatistics statistics = new IndexKeyStatistics(16);
+    assertThat(statistics.getCardinality(valueOfUtf8("abc"))).isEqualTo(UNKNOWN);
+
+    statistics.record(valueOfUtf8("abc"), newDefinedSet());
+    statistics.record(valueOfUtf8("bcd"), newDefinedSet(1, 2, 3));
+    statistics.record(valueOfUtf8("cde"), newUndefinedSet());
+
+    assertThat(statistics.getCardinality(valueOfUtf8("abc"))).isEqualTo(0);
+    assertThat(statistics.getCardinality(valueOfUtf8("bcd"))).isEqualTo(3);
+    assertThat(statistics.getCardinality(valueOfUtf8("cde"))).isEqualTo(LIMIT_EXCEEDED);
+
+    statistics.clear();
+    assertThat(statistics.getCardinality(valueOfUtf8("bcd"))).isEqualTo(UNKNOWN);
+  }
+
+  @Test
+  public void testCollidingKeysAreNotConfused()
+  {
+    final IndexKeyStatistics statistics = new IndexKeyStatistics(1);
+    statistics.record(valueOfUtf8("abc"), 1);
+    statistics.record(valueOfUtf8("bcd"), 2);
+
+    assertThat(statistics.getCardinality(valueOfUtf8("abc"))).isEqualTo(UNKNOWN);
+    assertThat(statistics.getCardinality(valueOfUtf8("bcd"))).isEqualTo(2);
+  }
+
+  @Test
+  public void testIntersect()
+  {
+    assertThat(intersect(3, 5)).isEqualTo(3);
+    assertThat(intersect(LIMIT_EXCEEDED, 5)).isEqualTo(5);
+    assertThat(intersect(LIMIT_EXCEEDED, LIMIT_EXCEEDED)).isEqualTo(LIMIT_EXCEEDED);
+    assertThat(intersect(UNKNOWN, 5)).isEqualTo(5);
+    assertThat(intersect(LIMIT_EXCEEDED, UNKNOWN)).isEqualTo(UNKNOWN);
+    assertThat(intersect(UNKNOWN, UNKNOWN)).isEqualTo(UNKNOWN);
+  }
+
+  @Test
+  public void testUnion()
+  {
+    assertThat(union(3, 5)).isEqualTo(8);
+    assertThat(union(UNKNOWN, 5)).isEqualTo(UNKNOWN);
+    assertThat(union(UNKNOWN, LIMIT_EXCEEDED)).isEqualTo(LIMIT_EXCEEDED);
+    assertThat(union(LIMIT_EXCEEDED - 1, 5)).isEqualTo(LIMIT_EXCEEDED - 1);
+  }
+}
@@ -309,6 +309,43 @@ public class OnDiskMergeImporterTest extends DirectoryServerTestCase
     }
   }
 
+  @Test
+  @SuppressWarnings("resource")
+  public void testCompositeCursorComparesFileRegionKeysInPlace() throws Exception
+  {
+    final File tempDir = TestCaseUtils.createTemporaryDirectory("testCompositeCursorComparesFileRegionKeysInPlace");
+    final FileChannel channel =
+        FileChannel.open(tempDir.toPath().resolve("region-chunk"), StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.SPARSE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    final String[][][] contents = {
+      { { "a", "1" }, { "ab", "3" }, { new String(new byte[] { (byte) 0xFF }), "6" } },
+      { { "a", "2" }, { "b", "5" } },
+      { },
+      { { "aa", "4" } } };
+
+    final Collection<MeteredCursor<ByteString, ByteString>> sources = new ArrayList<>();
+    long offset = 0;
+    for (String[][] content : contents)
+    {
+      final Chunk memoryChunk = new ArrayListChunk();
+      populate(memoryChunk, content(content));
+      final Chunk region = new FileRegionChunk("test", channel, offset, memoryChunk.size());
+      offset += memoryChunk.size();
+      populate(region, toPairs(memoryChunk.flip()));
+      sources.add(region.flip());
+    }
+
+    final SequentialCursor<ByteString, ByteString> result = new CompositeCursor<>("name", sources);
+
+    assertThat(toPairs(result)).containsExactlyElementsOf(content(new String[][] {
+      { "a", "1" },
+      { "a", "2" },
+      { "aa", "4" },
+      { "ab", "3" },
+      { "b", "5" },
+      { new String(new byte[] { (byte) 0xFF }), "6" } }));
+  }
+
   @Test
   public void testExternalSortChunk() throws Exception
   {
@@ -38,13 +38,19 @@ import static org.testng.Assert.*;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ConditionResult;
@@ -63,7 +69,9 @@ import org.opends.server.api.ClientConnection;
 import org.opends.server.backends.RebuildConfig;
 import org.opends.server.backends.VerifyConfig;
 import org.opends.server.backends.RebuildConfig.RebuildMode;
+import org.opends.server.backends.pluggable.AttributeIndex.MatchingRuleIndex;
 import org.opends.server.backends.pluggable.spi.AccessMode;
+import org.opends.server.backends.pluggable.spi.Cursor;
 import org.opends.server.backends.pluggable.spi.ReadOnlyStorageException;
 import org.opends.server.backends.pluggable.spi.ReadOperation;
 import org.opends.server.backends.pluggable.spi.ReadableTransaction;
@@ -81,8 +89,10 @@ import org.opends.server.types.BackupDirectory;
 import org.opends.server.types.DN;
 import org.opends.server.types.DirectoryException;
 import org.opends.server.types.Entry;
+import org.opends.server.types.ExistingFileBehavior;
 import org.opends.server.types.LDIFExportConfig;
 import org.opends.server.types.LDIFImportConfig;
+import org.opends.server.types.LockManager.DNLock;
 import org.opends.server.types.Modification;
 import org.opends.server.types.RestoreConfig;
 import org.opends.server.types.SearchResultEntry;
@@ -101,6 +111,7 @@ import org.testng.annotations.Test;
 public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg> extends DirectoryServerTestCase
 {
   private BackendImpl<C> backend;
+  private C backendCfg;
   private List<Entry> topEntries;
   private List<Entry> entries;
   private List<Entry> workEntries;
@@ -150,7 +161,7 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
 
     testBaseDN = DN.valueOf("dc=test,dc=com");
 
-    C backendCfg = createBackendCfg();
+    backendCfg = createBackendCfg();
     when(backendCfg.dn()).thenReturn(testBaseDN);
     when(backendCfg.getBaseDN()).thenReturn(newTreeSet(testBaseDN));
     when(backendCfg.listBackendIndexes()).thenReturn(backendIndexes.keySet().toArray(new String[0]));
@@ -808,6 +819,39 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
     assertThat(searchOperation.getEntriesSent()).isEqualTo(0);
   }
 
+  @Test
+  public void testParallelSubTreeSearch() throws Exception
+  {
+    final SearchRequest request = newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "sn=*");
+    final List<DN> expectedDNs = getNames(runSearch(request, false));
+    assertThat(expectedDNs).isNotEmpty();
+
+    when(backendCfg.getParallelSearchThreshold()).thenReturn(1);
+    try
+    {
+      // Entries must be returned in the same order as by a sequential search.
+      assertThat(getNames(runSearch(request, false))).isEqualTo(expectedDNs);
+      assertThat(getNames(runSearch(request, true))).isEqualTo(expectedDNs);
+
+      request.setSizeLimit(1);
+      assertThat(getNames(runSearch(request, true))).containsExactly(expectedDNs.get(0));
+    }
+    finally
+    {
+      when(backendCfg.getParallelSearchThreshold()).thenReturn(0);
+    }
+  }
+
+  private List<DN> getNames(List<SearchResultEntry> entries)
+  {
+    final List<DN> names = new ArrayList<>();
+    for (SearchResultEntry entry : entries)
+    {
+      names.add(entry.getName());
+    }
+    return names;
+  }
+
   private void subTreeSearch(boolean useInternalConnection) throws Exception
   {
     SearchRequest request = newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "objectclass=*");
@@ -865,6 +909,99 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
     }
   }
 
+  @Test
+  public void testParallelExportLDIFMatchesSequentialExport() throws Exception
+  {
+    final String sequentialLDIF = exportLDIF(1, false);
+    assertThat(sequentialLDIF).contains(searchDN.toString());
+    assertThat(exportLDIF(4, false)).isEqualTo(sequentialLDIF);
+    assertThat(exportLDIF(4, true)).isEqualTo(sequentialLDIF);
+  }
+
+  @Test
+  public void testParallelExportLDIFWritesBlocksInEntryIDOrder() throws Exception
+  {
+    final String sequentialLDIF = exportLDIF(1, false);
+
+    // One entry ID per block, so that many more blocks than threads are formatted concurrently
+    final ByteArrayOutputStream ldifOutputContent = new ByteArrayOutputStream();
+    try (final LDIFExportConfig exportConfig = new LDIFExportConfig(ldifOutputContent))
+    {
+      exportConfig.setIncludeOperationalAttributes(true);
+      exportConfig.setThreadCount(3);
+      new ExportJob(exportConfig, 1).exportLDIF(backend.getRootContainer());
+    }
+    assertThat(ldifOutputContent.toString()).isEqualTo(sequentialLDIF);
+  }
+
+  @Test
+  public void testSplitExportLDIF() throws Exception
+  {
+    final String sequentialLDIF = exportLDIF(1, false);
+
+    final int threadCount = 3;
+    final File ldifFile = File.createTempFile("export-split-", ".ldif");
+    try
+    {
+      try (final LDIFExportConfig exportConfig =
+          new LDIFExportConfig(ldifFile.getPath(), ExistingFileBehavior.OVERWRITE))
+      {
+        exportConfig.setIncludeOperationalAttributes(true);
+        exportConfig.setThreadCount(threadCount);
+        exportConfig.setSplitLDIF(true);
+        new ExportJob(exportConfig, 1).exportLDIF(backend.getRootContainer());
+      }
+
+      // Each file holds a contiguous range of entries, in entry ID order
+      final StringBuilder splitLDIF = new StringBuilder();
+      for (int part = 1; part <= threadCount; part++)
+      {
+        final File partFile = new File(ldifFile.getPath() + "." + part);
+        assertThat(partFile).exists();
+        final String partLDIF = new String(Files.readAllBytes(partFile.toPath()));
+        assertThat(partLDIF.length()).isLessThan(sequentialLDIF.length());
+        splitLDIF.append(partLDIF);
+      }
+      assertThat(splitLDIF.toString()).isEqualTo(sequentialLDIF);
+    }
+    finally
+    {
+      for (int part = 1; part <= threadCount; part++)
+      {
+        new File(ldifFile.getPath() + "." + part).delete();
+      }
+      ldifFile.delete();
+    }
+  }
+
+  private String exportLDIF(int threadCount, boolean compress) throws Exception
+  {
+    final ByteArrayOutputStream ldifOutputContent = new ByteArrayOutputStream();
+    try (final LDIFExportConfig exportConfig = new LDIFExportConfig(ldifOutputContent))
+    {
+      exportConfig.setIncludeOperationalAttributes(true);
+      exportConfig.setThreadCount(threadCount);
+      exportConfig.setCompressData(compress);
+      backend.exportLDIF(exportConfig);
+    }
+    if (!compress)
+    {
+      return ldifOutputContent.toString();
+    }
+
+    final ByteArrayOutputStream uncompressed = new ByteArrayOutputStream();
+    try (final InputStream in = new GZIPInputStream(new ByteArrayInputStream(ldifOutputContent.toByteArray())))
+    {
+      final byte[] buffer = new byte[4096];
+      int n;
+      while ((n = in.read(buffer)) != -1)
+      {
+        uncompressed.write(buffer, 0, n);
+      }
+    }
+    return uncompressed.toString();
+  }
+
   @Test
   public void testExportLDIFAndImportLDIF() throws Exception
   {
@@ -930,6 +1067,88 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
     assertThat(backend.verifyBackend(config)).isEqualTo(0);
   }
 
+  @Test
+  public void testImportLDIFWithCompressionDictionary() throws Exception
+  {
+    final String originalLDIF = exportLDIF(1, false);
+
+    // Enough entries for a dictionary to be trained during the import.
+    final int nbUsers = 1100;
+    final StringBuilder ldif = new StringBuilder();
+    ldif.append("dn: ").append(testBaseDN).append("\nobjectClass: top\nobjectClass: domain\n\n");
+    ldif.append("dn: ou=People,").append(testBaseDN).append("\nobjectClass: top\nobjectClass: organizationalUnit\n");
+    ldif.append("ou: People\n\n");
+    for (int i = 0; i < nbUsers; i++)
+    {
+      ldif.append("dn: uid=user.").append(i).append(",ou=People,").append(testBaseDN).append("\n");
+      ldif.append("objectClass: top\nobjectClass: person\nobjectClass: organizationalPerson\n");
+      ldif.append("objectClass: inetOrgPerson\n");
+      ldif.append("uid: user.").append(i).append("\n");
+      ldif.append("cn: User ").append(i).append("\n");
+      ldif.append("sn: ").append(i).append("\n");
+      ldif.append("mail: user.").append(i).append("@example.com\n");
+      ldif.append("description: This is the description for user ").append(i).append(".\n\n");
+    }
+
+    when(backendCfg.isEntriesCompressed()).thenReturn(true);
+    when(backendCfg.isEntriesCompressionDictionaryEnabled()).thenReturn(true);
+    try
+    {
+      backend.finalizeBackend();
+      importLDIF(ldif.toString(), false);
+      backend.openBackend();
+
+      assertEquals(backend.getEntryCount(), nbUsers + 2);
+      final EntryContainer entryContainer = backend.getRootContainer().getEntryContainers().iterator().next();
+      final TreeName id2entryName = entryContainer.getID2Entry().getName();
+      final ByteString dictionary = backend.getRootContainer().getStorage().read(new ReadOperation<ByteString>()
+      {
+        @Override
+        public ByteString run(ReadableTransaction txn) throws Exception
+        {
+          return txn.read(new TreeName(id2entryName.getBaseDN(), SuffixContainer.STATE_INDEX_NAME),
+              State.keyForCompressionDictionary(id2entryName, 1));
+        }
+      });
+      assertThat(dictionary).isNotNull();
+
+      // Entries imported before and after the dictionary was trained can be read back.
+      for (int i : new int[] { 0, nbUsers - 1 })
+      {
+        final Entry entry = backend.getEntry(DN.valueOf("uid=user." + i + ",ou=People," + testBaseDN));
+        assertNotNull(entry);
+        assertThat(entry.getAttribute("description").get(0).iterator().next().toString())
+            .isEqualTo("This is the description for user " + i + ".");
+      }
+    }
+    finally
+    {
+      when(backendCfg.isEntriesCompressed()).thenReturn(false);
+      when(backendCfg.isEntriesCompressionDictionaryEnabled()).thenReturn(false);
+      backend.finalizeBackend();
+      importLDIF(originalLDIF, true);
+      backend.openBackend();
+    }
+    assertEquals(backend.getEntryCount(), getTotalNumberOfLDIFEntries());
+  }
+
+  private void importLDIF(String ldif, boolean skipDNValidation) throws Exception
+  {
+    ByteArrayOutputStream rejectedEntries = new ByteArrayOutputStream();
+    try (final LDIFImportConfig importConf =
+        new LDIFImportConfig(new ByteArrayInputStream(ldif.getBytes("UTF-8"))))
+    {
+      importConf.setClearBackend(true);
+      importConf.writeRejectedEntries(rejectedEntries);
+      importConf.setIncludeBranches(Collections.singleton(testBaseDN));
+      importConf.setSkipDNValidation(skipDNValidation);
+      importConf.setThreadCount(0);
+      backend.importLDIF(importConf, DirectoryServer.getInstance().getServerContext());
+    }
+    assertEquals(rejectedEntries.size(), 0,
+                 "No entries should be rejected. Content was:\n" + rejectedEntries.toString());
+  }
+
   @Test
   public void testRebuildAllIndex() throws Exception
   {
@@ -1040,6 +1259,289 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
     assertThat(backend.verifyBackend(config)).isEqualTo(0);
   }
 
+  @Test
+  public void testOnlineRebuildWithConcurrentUpdatesMatchesOfflineRebuild() throws Exception
+  {
+    final List<Entry> initialEntries = makeRebuildEntries("online", 300);
+    final List<Entry> addedEntries = makeRebuildEntries("concurrent", 50);
+    addEntriesToBackend(initialEntries);
+    try
+    {
+      final OnlineRebuild rebuild = new OnlineRebuild(200);
+      rebuild.start();
+      rebuild.awaitRebuilding();
+      for (int i = 0; i < addedEntries.size(); i++)
+      {
+        addEntryLocked(addedEntries.get(i));
+        replaceSnLocked(initialEntries.get(2 * i).getName(), "modified" + i);
+        deleteEntryLocked(initialEntries.get(2 * i + 1).getName());
+      }
+      rebuild.finish();
+      assertSnIndexesState(true, false);
+
+      final Map<String, String> onlineRebuiltIndexes = readSnIndexes();
+      rebuildSnIndexesOffline();
+      assertThat(onlineRebuiltIndexes).isEqualTo(readSnIndexes());
+    }
+    finally
+    {
+      deleteEntriesFromBackend(initialEntries);
+      deleteEntriesFromBackend(addedEntries);
+    }
+  }
+
+  @Test
+  public void testOnlineRebuildIsThrottled() throws Exception
+  {
+    final List<Entry> rebuildEntries = makeRebuildEntries("throttled", 250);
+    addEntriesToBackend(rebuildEntries);
+    try
+    {
+      final int maxEntriesPerSecond = 100;
+      final OnlineRebuild rebuild = new OnlineRebuild(maxEntriesPerSecond);
+      final long startTime = System.currentTimeMillis();
+      rebuild.start();
+      rebuild.finish();
+      final long elapsedTime = System.currentTimeMillis() - startTime;
+
+      // Entries are indexed by batches of 100, the throttle sleeping after each batch.
+      final long minimumTime = 1000L * (rebuildEntries.size() - 100) / maxEntriesPerSecond;
+      assertThat(elapsedTime).isGreaterThanOrEqualTo(minimumTime);
+      assertSnIndexesState(true, false);
+    }
+    finally
+    {
+      deleteEntriesFromBackend(rebuildEntries);
+    }
+  }
+
+  @Test
+  public void testCancelledOnlineRebuildLeavesIndexesUntrusted() throws Exception
+  {
+    final List<Entry> rebuildEntries = makeRebuildEntries("cancelled", 300);
+    addEntriesToBackend(rebuildEntries);
+    try
+    {
+      final OnlineRebuild rebuild = new OnlineRebuild(50);
+      rebuild.start();
+      rebuild.awaitRebuilding();
+      Thread.sleep(500);
+      rebuild.interrupt();
+      try
+      {
+        rebuild.finish();
+        fail("The interrupted rebuild should have failed");
+      }
+      catch (DirectoryException expected)
+      {
+        // The rebuild has been cancelled.
+      }
+      assertSnIndexesState(false, true);
+    }
+    finally
+    {
+      rebuildSnIndexesOffline();
+      assertSnIndexesState(true, false);
+      deleteEntriesFromBackend(rebuildEntries);
+    }
+  }
+
+  /** Rebuilds the sn indexes online in the background. */
+  private final class OnlineRebuild extends Thread
+  {
+    private final RebuildConfig rebuildConf = new RebuildConfig();
+    private volatile Exception failure;
+
+    private OnlineRebuild(int maxEntriesPerSecond)
+    {
+      super("Online rebuild of sn");
+      rebuildConf.setBaseDN(testBaseDN);
+      rebuildConf.setRebuildMode(RebuildMode.USER_DEFINED);
+      rebuildConf.addRebuildIndex("sn");
+      rebuildConf.setOnline(true);
+      rebuildConf.setMaxEntriesPerSecond(maxEntriesPerSecond);
+      rebuildConf.setThreadCount(2);
+    }
+
+    @Override
+    public void run()
+    {
+      try
+      {
+        backend.rebuildBackend(rebuildConf, DirectoryServer.getInstance().getServerContext());
+      }
+      catch (Exception e)
+      {
+        failure = e;
+      }
+    }
+
+    private void awaitRebuilding() throws Exception
+    {
+      final long timeout = System.currentTimeMillis() + 10000;
+      while (isAlive() && !getSnIndexes().iterator().next().isRebuilding())
+      {
+        assertThat(System.currentTimeMillis()).isLessThan(timeout);
+        Thread.sleep(10);
+      }
+    }
+
+    private void finish() throws Exception
+    {
+      join(60000);
+      assertFalse(isAlive(), "The online rebuild did not complete");
+      if (failure != null)
+      {
+        throw failure;
+      }
+    }
+  }
+
+  private List<Entry> makeRebuildEntries(String prefix, int count) throws Exception
+  {
+    final List<Entry> rebuildEntries = new ArrayList<>(count);
+    for (int i = 0; i < count; i++)
+    {
+      rebuildEntries.add(TestCaseUtils.makeEntry(
+          "dn: uid=" + prefix + "." + i + ",ou=People," + testBaseDN,
+          "objectClass: top",
+          "objectClass: person",
+          "objectClass: organizationalPerson",
+          "objectClass: inetOrgPerson",
+          "uid: " + prefix + "." + i,
+          "cn: " + prefix + " " + i,
+          "sn: " + prefix + i));
+    }
+    return rebuildEntries;
+  }
+
+  private void deleteEntriesFromBackend(List<Entry> entries) throws Exception
+  {
+    for (Entry entry : entries)
+    {
+      if (backend.entryExists(entry.getName()))
+      {
+        backend.deleteEntry(entry.getName(), null);
+      }
+    }
+  }
+
+  /** Updates are performed while holding the entry write lock, as the operations do. */
+  private DNLock writeLockEntry(DN dn)
+  {
+    DNLock lock;
+    while ((lock = DirectoryServer.getLockManager().tryWriteLockEntry(dn)) == null)
+    {
+      Thread.yield();
+    }
+    return lock;
+  }
+
+  private void addEntryLocked(Entry entry) throws Exception
+  {
+    final DNLock lock = writeLockEntry(entry.getName());
+    try
+    {
+      backend.addEntry(entry, null);
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  private void replaceSnLocked(DN dn, String sn) throws Exception
+  {
+    final DNLock lock = writeLockEntry(dn);
+    try
+    {
+      final Entry oldEntry = backend.getEntry(dn);
+      final Entry newEntry = oldEntry.duplicate(false);
+      newEntry.replaceAttribute(create("sn", sn));
+      backend.replaceEntry(oldEntry, newEntry, null);
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  private void deleteEntryLocked(DN dn) throws Exception
+  {
+    final DNLock lock = writeLockEntry(dn);
+    try
+    {
+      backend.deleteEntry(dn, null);
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  private Collection<MatchingRuleIndex> getSnIndexes()
+  {
+    final EntryContainer entryContainer = backend.getRootContainer().getEntryContainers().iterator().next();
+    for (AttributeIndex attributeIndex : entryContainer.getAttributeIndexes())
+    {
+      if (attributeIndex.getAttributeType().hasName("sn"))
+      {
+        return attributeIndex.getNameToIndexes().values();
+      }
+    }
+    throw new AssertionError("No sn attribute index");
+  }
+
+  private void assertSnIndexesState(boolean trusted, boolean rebuilding)
+  {
+    for (MatchingRuleIndex index : getSnIndexes())
+    {
+      assertEquals(index.isTrusted(), trusted, index.getName().toString());
+      assertEquals(index.isRebuilding(), rebuilding, index.getName().toString());
+    }
+  }
+
+  /** Returns the non empty entry ID sets of the sn indexes by index name and key. */
+  private Map<String, String> readSnIndexes() throws Exception
+  {
+    return backend.getRootContainer().getStorage().read(new ReadOperation<Map<String, String>>()
+    {
+      @Override
+      public Map<String, String> run(ReadableTransaction txn) throws Exception
+      {
+        final Map<String, String> records = new HashMap<>();
+        for (MatchingRuleIndex index : getSnIndexes())
+        {
+          try (final Cursor<ByteString, EntryIDSet> cursor = index.openCursor(txn))
+          {
+            while (cursor.next())
+            {
+              final EntryIDSet entryIDs = cursor.getValue();
+              if (!entryIDs.isDefined() || entryIDs.size() > 0)
+              {
+                records.put(index.getName() + ":" + cursor.getKey().toHexString(),
+                    entryIDs.isDefined() ? Arrays.toString(entryIDs.getIDs()) : "undefined");
+              }
+            }
+          }
+        }
+        return records;
+      }
+    });
+  }
+
+  private void rebuildSnIndexesOffline() throws Exception
+  {
+    RebuildConfig rebuildConf = new RebuildConfig();
+    rebuildConf.setBaseDN(testBaseDN);
+    rebuildConf.setRebuildMode(RebuildMode.USER_DEFINED);
+    rebuildConf.addRebuildIndex("sn");
+
+    backend.closeBackend();
+    backend.rebuildBackend(rebuildConf, DirectoryServer.getInstance().getServerContext());
+    backend.openBackend();
+  }
+
   @Test
   public void testVerifyID2ChildrenCount() throws Exception
   {
@@ -1077,6 +1579,33 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
     assertThat(backend.verifyBackend(config)).isEqualTo(1);
   }
 
+  @Test
+  public void testReadManyEntries() throws Exception
+  {
+    final Storage storage = backend.getRootContainer().getStorage();
+    final EntryContainer entryContainer = backend.getRootContainer().getEntryContainer(testBaseDN);
+    final DN2ID dn2ID = entryContainer.getDN2ID();
+    final ID2Entry id2Entry = entryContainer.getID2Entry();
+    final DN peopleDN = testBaseDN.child(DN.valueOf("ou=People"));
+
+    final List<Entry> entries = storage.read(new ReadOperation<List<Entry>>()
+    {
+      @Override
+      public List<Entry> run(ReadableTransaction txn) throws Exception
+      {
+        final EntryID peopleID = dn2ID.get(txn, peopleDN);
+        final EntryID baseID = dn2ID.get(txn, testBaseDN);
+        return id2Entry.get(txn, Arrays.asList(peopleID, new EntryID(Long.MAX_VALUE), baseID));
+      }
+    });
+
+    // Entries are returned in the order of the requested IDs, whatever the order of the keys.
+    assertEquals(entries.size(), 3);
+    assertEquals(entries.get(0).getName(), peopleDN);
+    assertNull(entries.get(1));
+    assertEquals(entries.get(2).getName(), testBaseDN);
+  }
+
   @Test
   public void testBackupAndRestore() throws Exception
   {
@@ -0,0 +1,173 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.opends.server.TestCaseUtils.*;
+
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.DN;
+import org.opends.server.types.Entry;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.types.SortKey;
+import org.opends.server.types.SortOrder;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend" }, sequential = true)
+public class SortedResultCacheTest extends DirectoryServerTestCase
+{
+  private DN baseDN;
+  private SearchFilter filter;
+  private SortOrder sortOrder;
+
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+    baseDN = DN.valueOf("ou=people,dc=example,dc=com");
+    filter = SearchFilter.createFilterFromString("(objectClass=person)");
+    sortOrder = new SortOrder(new SortKey(DirectoryServer.getAttributeTypeOrNull("sn"), true));
+  }
+
+  @Test
+  public void testPutAndGet() throws Exception
+  {
+    final SortedResultCache cache = new SortedResultCache();
+    assertThat(cache.get(baseDN, SearchScope.WHOLE_SUBTREE, filter, sortOrder)).isNull();
+
+    final NavigableMap<ByteString, EntryID> sortMap = newSortMap(person(1, "b"), person(2, "a"));
+    cache.put(baseDN, SearchScope.WHOLE_SUBTREE, filter, sortOrder, sortMap, cache.getStamp(), 10);
+
+    assertThat(cache.get(baseDN, SearchScope.WHOLE_SUBTREE, filter, sortOrder)).isSameAs(sortMap);
+    assertThat(cache.get(baseDN, SearchScope.SINGLE_LEVEL, filter, sortOrder)).isNull();
+    assertThat(sortMap.values()).containsExactly(new EntryID(2), new EntryID(1));
+  }
+
+  @Test
+  public void testResultComputedDuringAnUpdateIsNotCached() throws Exception
+  {
+    final SortedResultCache cache = new SortedResultCache();
+    final long stamp = cache.getStamp();
+    cache.apply(new SortedResultCache.Changes());
+
+    cache.put(baseDN, SearchScope.WHOLE_SUBTREE, filter, sortOrder, newSortMap(person(1, "a")), stamp, 10);
+    assertThat(cache.get(baseDN, SearchScope.WHOLE_SUBTREE, filter, sortOrder)).isNull();
+  }
+
+  @Test
+  public void testResultLargerThanTheLimitIsNotCached() throws Exception
+  {
+    final SortedResultCache cache = new SortedResultCache();
+    cache.put(baseDN, SearchScope.WHOLE_SUBTREE, filter, sortOrder,
+        newSortMap(person(1, "a"), person(2, "b")), cache.getStamp(), 1);
+    assertThat(cache.get(baseDN, SearchScope.WHOLE_SUBTREE, filter, sortOrder)).isNull();
+  }
+
+  @Test
+  public void testLeastRecentlyUsedResultIsEvicted() throws Exception
+  {
+    final SortedResultCache cache = new SortedResultCache();
+    cache.put(baseDN, SearchScope.WHOLE_SUBTREE, filter, sortOrder,
+        newSortMap(person(1, "a"), person(2, "b")), cache.getStamp(), 3);
+    cache.put(baseDN, SearchScope.SINGLE_LEVEL, filter, sortOrder,
+        newSortMap(person(1, "a"), person(2, "b")), cache.getStamp(), 3);
+
+    assertThat(cache.get(baseDN, SearchScope.WHOLE_SUBTREE, filter, sortOrder)).isNull();
+    assertThat(cache.get(baseDN, SearchScope.SINGLE_LEVEL, filter, sortOrder)).isNotNull();
+  }
+
+  @Test
+  public void testCommittedChangesArePatched() throws Exception
+  {
+    final SortedResultCache cache = new SortedResultCache();
+    final Entry a = person(1, "a");
+    final Entry b = person(2, "b");
+    final NavigableMap<ByteString, EntryID> sortMap = newSortMap(b, a);
+    cache.put(baseDN, SearchScope.WHOLE_SUBTREE, filter, sortOrder, sortMap, cache.getStamp(), 10);
+
+    final SortedResultCache.Changes changes = new SortedResultCache.Changes();
+    changes.entryRemoved(new EntryID(1), a);
+    changes.entryAdded(new EntryID(1), person(1, "c"));
+    changes.entryAdded(new EntryID(3), person(3, "0"));
+    changes.entryAdded(new EntryID(4), makeEntry(
+        "dn: ou=other,ou=people,dc=example,dc=com",
+        "objectClass: top",
+        "objectClass: organizationalUnit",
+        "ou: other"));
+    cache.apply(changes);
+
+    assertThat(cache.get(baseDN, SearchScope.WHOLE_SUBTREE, filter, sortOrder).values())
+        .containsExactly(new EntryID(3), new EntryID(2), new EntryID(1));
+  }
+
+  @Test
+  public void testLargeChangesInvalidateTheCache() throws Exception
+  {
+    final SortedResultCache cache = new SortedResultCache();
+    final Entry a = person(1, "a");
+    cache.put(baseDN, SearchScope.WHOLE_SUBTREE, filter, sortOrder, newSortMap(a), cache.getStamp(), 10);
+
+    final SortedResultCache.Changes changes = new SortedResultCache.Changes();
+    for (int i = 0; i <= 1000; i++)
+    {
+      changes.entryRemoved(new EntryID(1), a);
+    }
+    cache.apply(changes);
+
+    assertThat(cache.get(baseDN, SearchScope.WHOLE_SUBTREE, filter, sortOrder)).isNull();
+  }
+
+  private NavigableMap<ByteString, EntryID> newSortMap(Entry... entries) throws Exception
+  {
+    final NavigableMap<ByteString, EntryID> sortMap = new ConcurrentSkipListMap<>();
+    for (Entry entry : entries)
+    {
+      final long id = Long.parseLong(entry.getName().rdn().getAttributeValue(0).toString());
+      sortMap.put(VLVIndex.encodeVLVKey(sortOrder, entry, id), new EntryID(id));
+    }
+    return sortMap;
+  }
+
+  private static Entry person(int id, String sn) throws Exception
+  {
+    return makeEntry(
+        "dn: uid=" + id + ",ou=people,dc=example,dc=com",
+        "objectClass: top",
+        "objectClass: person",
+        "uid: " + id,
+        "cn: " + sn,
+        "sn: " + sn);
+  }
+}
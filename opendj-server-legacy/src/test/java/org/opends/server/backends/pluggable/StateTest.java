@@ -31,6 +31,7 @@ import static org.opends.server.ConfigurationMock.*;
 import static org.opends.server.backends.pluggable.State.IndexFlag.*;
 import static org.opends.server.util.CollectionUtils.*;
 
+import java.util.Map;
 import java.util.UUID;
 
 import org.forgerock.opendj.config.server.ConfigException;
@@ -62,7 +63,7 @@ import org.testng.annotations.Test;
 @Test(groups = { "precommit", "pluggablebackend" }, sequential = true)
 public class StateTest extends DirectoryServerTestCase
 {
-  private static final IndexFlag DEFAULT_FLAG = COMPACTED;
+  private static final IndexFlag[] DEFAULT_FLAGS = { COMPACTED, BITMAP };
 
   private final TreeName stateTreeName = new TreeName("base-dn", "index-id");
   private TreeName indexTreeName;
@@ -106,28 +107,28 @@ public class StateTest extends DirectoryServerTestCase
   @Test
   public void testDefaultValuesForNotExistingEntries() throws Exception
   {
-    assertThat(getFlags()).containsExactly(DEFAULT_FLAG);
+    assertThat(getFlags()).containsExactly(DEFAULT_FLAGS);
   }
 
   @Test
   public void testCreateNewFlagHasDefaultValue() throws Exception
   {
     addFlags();
-    assertThat(getFlags()).containsExactly(DEFAULT_FLAG);
+    assertThat(getFlags()).containsExactly(DEFAULT_FLAGS);
   }
 
   @Test
   public void testCreateStateTrustedIsAlsoCompacted() throws Exception
   {
     addFlags(TRUSTED);
-    assertThat(getFlags()).containsExactly(TRUSTED, DEFAULT_FLAG);
+    assertThat(getFlags()).containsExactly(TRUSTED, COMPACTED, BITMAP);
   }
 
   @Test
   public void testCreateWithTrustedAndCompacted() throws Exception
   {
     addFlags(TRUSTED, COMPACTED);
-    assertThat(getFlags()).containsExactly(TRUSTED, COMPACTED);
+    assertThat(getFlags()).containsExactly(TRUSTED, COMPACTED, BITMAP);
   }
 
   @Test
@@ -152,9 +153,12 @@ public class StateTest extends DirectoryServerTestCase
   public void testRemoveFlags() throws Exception
   {
     addFlags(COMPACTED, TRUSTED);
-    assertThat(getFlags()).containsExactly(TRUSTED, COMPACTED);
+    assertThat(getFlags()).containsExactly(TRUSTED, COMPACTED, BITMAP);
 
     removeFlags(TRUSTED);
+    assertThat(getFlags()).containsExactly(COMPACTED, BITMAP);
+
+    removeFlags(BITMAP);
     assertThat(getFlags()).containsExactly(COMPACTED);
 
     removeFlags(COMPACTED);
@@ -175,7 +179,38 @@ public class StateTest extends DirectoryServerTestCase
       }
     });
 
-    assertThat(getFlags()).containsExactly(COMPACTED);
+    assertThat(getFlags()).containsExactly(DEFAULT_FLAGS);
+  }
+
+  @Test
+  public void testCompressionDictionaries() throws Exception
+  {
+    final TreeName id2entryTreeName = new TreeName("base-dn", "id2entry");
+    final TreeName otherTreeName = new TreeName("other-base-dn", "id2entry");
+    createFlagWith(TRUSTED);
+    storage.write(new WriteOperation()
+    {
+      @Override
+      public void run(WriteableTransaction txn) throws Exception
+      {
+        state.putCompressionDictionary(txn, id2entryTreeName, 2, new byte[] { 2, 2 });
+        state.putCompressionDictionary(txn, id2entryTreeName, 1, new byte[] { 1 });
+        state.putCompressionDictionary(txn, otherTreeName, 3, new byte[] { 3 });
+      }
+    });
+
+    final Map<Integer, byte[]> dictionaries = storage.read(new ReadOperation<Map<Integer, byte[]>>()
+    {
+      @Override
+      public Map<Integer, byte[]> run(ReadableTransaction txn) throws Exception
+      {
+        return state.getCompressionDictionaries(txn, id2entryTreeName);
+      }
+    });
+    assertThat(dictionaries.keySet()).containsExactly(1, 2);
+    assertThat(dictionaries.get(1)).isEqualTo(new byte[] { 1 });
+    assertThat(dictionaries.get(2)).isEqualTo(new byte[] { 2, 2 });
+    assertThat(getFlags()).containsExactly(TRUSTED);
   }
 
   private PDBBackendCfg createBackendCfg() throws ConfigException, DirectoryException
@@ -208,7 +243,7 @@ public class StateTest extends DirectoryServerTestCase
   }
 
   private void createEmptyFlag() throws Exception {
-    removeFlags(DEFAULT_FLAG);
+    removeFlags(DEFAULT_FLAGS);
   }
 
   private void addFlags(final IndexFlag... flags) throws Exception
@@ -33,6 +33,7 @@ import java.util.Map;
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ByteStringBuilder;
 import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.backends.pluggable.DataConfig.CompressionCodec;
 import org.opends.server.TestCaseUtils;
 import org.opends.server.core.DirectoryServer;
 import org.opends.server.types.*;
@@ -417,6 +418,39 @@ public class TestDnKeyFormat extends DirectoryServerTestCase {
     }
   }
 
+  @DataProvider
+  public Object[][] compressionCodecs()
+  {
+    return new Object[][] { { CompressionCodec.DEFLATE }, { CompressionCodec.LZ } };
+  }
+
+  /**
+   * Tests the entry encoding and decoding with compression.
+   *
+   * @throws Exception
+   *           If the test failed unexpectedly.
+   */
+  @Test(dataProvider = "compressionCodecs")
+  public void testCompressedEntryToAndFromDatabase(CompressionCodec codec) throws Exception {
+    ensureServerIsUpAndRunning();
+
+    byte[] originalLDIFBytes = StaticUtils.getBytes(ldifString);
+
+    try (final LDIFReader reader = new LDIFReader(new LDIFImportConfig(new ByteArrayInputStream(originalLDIFBytes))))
+    {
+      Entry entryBefore;
+      while ((entryBefore = reader.readEntry(false)) != null) {
+        ByteString bytes = ID2Entry.entryToDatabase(entryBefore,
+            new DataConfig(true, codec, false, false, null));
+
+        Entry entryAfter = ID2Entry.entryFromDatabase(bytes,
+                          DirectoryServer.getDefaultCompressedSchema());
+
+        assertEquals(entryAfter.toLDIFString(), entryBefore.toLDIFString());
+      }
+    }
+  }
+
   /**
    * Tests the entry encoding and decoding process the version 1 encoding.
    *
@@ -0,0 +1,100 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.extensions;
+
+import static org.testng.Assert.*;
+
+import org.forgerock.i18n.LocalizableMessageBuilder;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.admin.server.AdminTestCaseUtils;
+import org.opends.server.admin.std.meta.OffHeapEntryCacheCfgDefn;
+import org.opends.server.admin.std.meta.TinyLFUEntryCacheCfgDefn;
+import org.opends.server.admin.std.server.OffHeapEntryCacheCfg;
+import org.opends.server.admin.std.server.TinyLFUEntryCacheCfg;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.Attributes;
+import org.opends.server.types.DN;
+import org.opends.server.types.Entry;
+import org.opends.server.types.ObjectClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Ensures that the entry caches defined in the default configuration are
+ * valid against the server schema and can be instantiated.
+ */
+@SuppressWarnings("javadoc")
+public class EntryCacheConfigSchemaTestCase extends ExtensionsTestCase
+{
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @Test
+  public void testTinyLFUEntryCacheConfigEntry() throws Exception
+  {
+    Entry entry = getCacheConfigEntry("cn=TinyLFU,cn=Entry Caches,cn=config", "ds-cfg-tiny-lfu-entry-cache");
+
+    TinyLFUEntryCacheCfg configuration =
+        AdminTestCaseUtils.getConfiguration(TinyLFUEntryCacheCfgDefn.getInstance(), entry);
+    TinyLFUEntryCache cache = new TinyLFUEntryCache();
+    cache.initializeEntryCache(configuration);
+    cache.finalizeEntryCache();
+  }
+
+  @Test
+  public void testOffHeapEntryCacheConfigEntry() throws Exception
+  {
+    Entry entry = getCacheConfigEntry("cn=Off Heap,cn=Entry Caches,cn=config", "ds-cfg-off-heap-entry-cache");
+    entry.replaceAttribute(Attributes.create("ds-cfg-slab-size", "1 mb"));
+
+    OffHeapEntryCacheCfg configuration =
+        AdminTestCaseUtils.getConfiguration(OffHeapEntryCacheCfgDefn.getInstance(), entry);
+    OffHeapEntryCache cache = new OffHeapEntryCache();
+    cache.initializeEntryCache(configuration);
+    cache.finalizeEntryCache();
+  }
+
+  /**
+   * Returns a copy of the provided entry cache configuration entry, after
+   * checking it conforms to the schema, with a small cache size.
+   */
+  private Entry getCacheConfigEntry(String dn, String objectClassName) throws Exception
+  {
+    ObjectClass objectClass = DirectoryServer.getObjectClass(objectClassName);
+    assertNotNull(objectClass, "Object class " + objectClassName + " is missing from the schema");
+
+    Entry entry = DirectoryServer.getConfigEntry(DN.valueOf(dn)).getEntry().duplicate(false);
+    assertTrue(entry.hasObjectClass(objectClass));
+    LocalizableMessageBuilder invalidReason = new LocalizableMessageBuilder();
+    assertTrue(entry.conformsToSchema(null, false, true, true, invalidReason), invalidReason.toString());
+
+    entry.replaceAttribute(Attributes.create("ds-cfg-max-memory-size", "2 mb"));
+    return entry;
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.extensions;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.ClientConnection;
+import org.opends.server.types.CancelRequest;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.Operation;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * A set of test cases for the work stealing work queue.
+ */
+@SuppressWarnings("javadoc")
+public class WorkStealingWorkQueueTestCase extends ExtensionsTestCase
+{
+  private static final long TIMEOUT_MS = 10000;
+
+  /** Operation blocking the worker thread which runs it until it is released. */
+  private static final class BlockingOperation implements Answer<Void>
+  {
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    @Override
+    public Void answer(InvocationOnMock invocation) throws Throwable
+    {
+      started.countDown();
+      released.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      return null;
+    }
+
+    private void awaitStarted() throws InterruptedException
+    {
+      assertThat(started.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    private void release()
+    {
+      released.countDown();
+    }
+  }
+
+  private WorkStealingWorkQueue workQueue;
+  private BlockingOperation blockingOperation;
+
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @AfterMethod
+  public void finalizeWorkQueue()
+  {
+    if (blockingOperation != null)
+    {
+      blockingOperation.release();
+      blockingOperation = null;
+    }
+    if (workQueue != null)
+    {
+      workQueue.finalizeWorkQueue(LocalizableMessage.raw("test finished"));
+      workQueue = null;
+    }
+  }
+
+  private Operation getMockedOperation(long connectionID)
+  {
+    final Operation operation = mock(Operation.class);
+    final ClientConnection connection = mock(ClientConnection.class);
+    when(operation.getClientConnection()).thenReturn(connection);
+    when(connection.getConnectionID()).thenReturn(connectionID);
+    return operation;
+  }
+
+  /** Submits an operation blocking the worker thread which picks it up, and waits until it runs. */
+  private Operation submitBlockingOperation(long connectionID) throws Exception
+  {
+    blockingOperation = new BlockingOperation();
+    final Operation operation = getMockedOperation(connectionID);
+    doAnswer(blockingOperation).when(operation).run();
+    workQueue.submitOperation(operation);
+    blockingOperation.awaitStarted();
+    return operation;
+  }
+
+  @Test
+  public void idleWorkerStealsOperationsQueuedForBusyWorker() throws Exception
+  {
+    workQueue = new WorkStealingWorkQueue(2, 0);
+    submitBlockingOperation(0);
+
+    // Queued for the same worker as the blocking operation.
+    final Operation operation = getMockedOperation(0);
+    workQueue.submitOperation(operation);
+
+    verify(operation, timeout(TIMEOUT_MS)).run();
+    // Both operations targeted the same worker but were run concurrently: one of them was stolen.
+    assertThat(workQueue.getOpsStolen()).isEqualTo(1);
+    assertThat(workQueue.getOpsSubmitted()).isEqualTo(2);
+    assertThat(workQueue.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void operationsQueuedAtShutdownAreAborted() throws Exception
+  {
+    workQueue = new WorkStealingWorkQueue(1, 0);
+    final Operation running = submitBlockingOperation(0);
+
+    final Operation queued1 = getMockedOperation(0);
+    final Operation queued2 = getMockedOperation(1);
+    workQueue.submitOperation(queued1);
+    workQueue.submitOperation(queued2);
+    assertThat(workQueue.size()).isEqualTo(2);
+
+    workQueue.finalizeWorkQueue(LocalizableMessage.raw("shutting down"));
+    assertThat(workQueue.size()).isEqualTo(0);
+    verify(queued1).abort(any(CancelRequest.class));
+    verify(queued2).abort(any(CancelRequest.class));
+    verify(running).cancel(any(CancelRequest.class));
+
+    blockingOperation.release();
+    verify(queued1, never()).run();
+    verify(queued2, never()).run();
+
+    try
+    {
+      workQueue.submitOperation(getMockedOperation(0));
+      failBecauseExceptionWasNotThrown(DirectoryException.class);
+    }
+    catch (DirectoryException e)
+    {
+      assertThat(e.getResultCode()).isEqualTo(ResultCode.UNAVAILABLE);
+    }
+    workQueue = null;
+  }
+
+  @Test
+  public void operationsSubmittedToFullQueueAreRejected() throws Exception
+  {
+    workQueue = new WorkStealingWorkQueue(1, 2);
+    submitBlockingOperation(0);
+
+    final Operation queued1 = getMockedOperation(0);
+    final Operation queued2 = getMockedOperation(1);
+    assertThat(workQueue.trySubmitOperation(queued1)).isTrue();
+    workQueue.submitOperation(queued2);
+
+    assertThat(workQueue.trySubmitOperation(getMockedOperation(2))).isFalse();
+    try
+    {
+      workQueue.submitOperation(getMockedOperation(3));
+      failBecauseExceptionWasNotThrown(DirectoryException.class);
+    }
+    catch (DirectoryException e)
+    {
+      assertThat(e.getResultCode()).isEqualTo(ResultCode.BUSY);
+    }
+    assertThat(workQueue.getOpsRejectedDueToQueueFull()).isEqualTo(2);
+    assertThat(workQueue.getOpsSubmitted()).isEqualTo(3);
+
+    // Once the queued operations are picked up, there is room again.
+    blockingOperation.release();
+    verify(queued1, timeout(TIMEOUT_MS)).run();
+    verify(queued2, timeout(TIMEOUT_MS)).run();
+    final Operation operation = getMockedOperation(0);
+    assertThat(workQueue.trySubmitOperation(operation)).isTrue();
+    verify(operation, timeout(TIMEOUT_MS)).run();
+  }
+
+  @Test
+  public void removedOperationsFreeCapacity() throws Exception
+  {
+    workQueue = new WorkStealingWorkQueue(1, 1);
+    submitBlockingOperation(0);
+
+    final Operation queued = getMockedOperation(0);
+    workQueue.submitOperation(queued);
+    assertThat(workQueue.trySubmitOperation(getMockedOperation(0))).isFalse();
+
+    assertThat(workQueue.removeOperation(queued)).isTrue();
+    assertThat(workQueue.trySubmitOperation(getMockedOperation(0))).isTrue();
+  }
+}
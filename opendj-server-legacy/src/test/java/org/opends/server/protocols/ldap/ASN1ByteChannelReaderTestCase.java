@@ -26,14 +26,29 @@
  */
 package org.opends.server.protocols.ldap;
 
+import org.forgerock.opendj.io.ASN1;
 import org.forgerock.opendj.io.ASN1Reader;
+import org.forgerock.opendj.io.ASN1Writer;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.forgerock.opendj.ldap.DereferenceAliasesPolicy;
+import org.forgerock.opendj.ldap.SearchScope;
 import org.opends.server.protocols.ldap.ASN1ByteChannelReader;
+import org.opends.server.types.Control;
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.testng.Assert.*;
 
 /**
  * Test class for ASN1ByteChannelReader.
@@ -301,4 +316,75 @@ public class ASN1ByteChannelReaderTestCase extends ASN1ReaderTestCase
   {
     super.testSkipElementIncompleteRead();
   }
+
+  /**
+   * Tests that LDAP messages read as a whole from the channel are decoded like
+   * LDAP messages read element by element, including when they span several
+   * reads from the channel.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test
+  public void testReadBufferedMessages()
+      throws Exception
+  {
+    List<Control> controls = Collections.<Control> singletonList(
+        new LDAPControl("1.2.3.4", true, ByteString.valueOfUtf8("value")));
+    LDAPMessage search = new LDAPMessage(1,
+        new SearchRequestProtocolOp(ByteString.valueOfUtf8("dc=example,dc=com"),
+            SearchScope.WHOLE_SUBTREE, DereferenceAliasesPolicy.NEVER, 0, 0,
+            false, LDAPFilter.decode("(&(uid=user.0)(objectClass=person))"),
+            new LinkedHashSet<>(Arrays.asList("cn", "sn"))),
+        controls);
+    LDAPMessage delete = new LDAPMessage(2,
+        new DeleteRequestProtocolOp(ByteString.valueOfUtf8("uid=user.0,dc=example,dc=com")));
+
+    ByteStringBuilder builder = new ByteStringBuilder();
+    ASN1Writer writer = ASN1.getWriter(builder);
+    search.write(writer);
+    delete.write(writer);
+    writer.flush();
+
+    // Return at most 7 bytes per read so that the messages span several reads.
+    final ReadableByteChannel channel =
+        Channels.newChannel(new ByteArrayInputStream(builder.toByteArray()));
+    ReadableByteChannel slowChannel = new ReadableByteChannel()
+    {
+      @Override
+      public int read(ByteBuffer dst) throws IOException
+      {
+        ByteBuffer limited = dst.slice();
+        limited.limit(Math.min(limited.remaining(), 7));
+        int read = channel.read(limited);
+        if (read > 0)
+        {
+          dst.position(dst.position() + read);
+        }
+        return read;
+      }
+
+      @Override
+      public boolean isOpen()
+      {
+        return channel.isOpen();
+      }
+
+      @Override
+      public void close() throws IOException
+      {
+        channel.close();
+      }
+    };
+    ASN1ByteChannelReader reader = new ASN1ByteChannelReader(slowChannel, 16, 0);
+
+    for (LDAPMessage expected : Arrays.asList(search, delete))
+    {
+      while (!reader.elementAvailable())
+      {
+        assertTrue(reader.processChannelData() > 0);
+      }
+      assertEquals(LDAPReader.readBufferedMessage(reader).toString(), expected.toString());
+    }
+    assertFalse(reader.hasRemainingData());
+  }
 }
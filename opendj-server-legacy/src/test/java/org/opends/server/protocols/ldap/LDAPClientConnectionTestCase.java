@@ -0,0 +1,253 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.protocols.ldap;
+
+import static org.opends.server.api.plugin.PluginType.*;
+import static org.opends.server.protocols.ldap.LDAPConstants.*;
+import static org.testng.Assert.*;
+
+import java.net.Socket;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DereferenceAliasesPolicy;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.plugin.InternalDirectoryServerPlugin;
+import org.opends.server.api.plugin.PluginResult;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.tools.LDAPReader;
+import org.opends.server.tools.LDAPWriter;
+import org.opends.server.types.DN;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.RawFilter;
+import org.opends.server.types.SearchResultEntry;
+import org.opends.server.types.operation.SearchEntrySearchOperation;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/** Tests the responses written by {@link LDAPClientConnection}. */
+@SuppressWarnings("javadoc")
+public class LDAPClientConnectionTestCase extends LdapTestCase
+{
+  /**
+   * Search result entry plugin slowing down the search before returning one of
+   * its entries, and blocking it before returning another one until released.
+   */
+  private static final class SlowSearchEntryPlugin extends InternalDirectoryServerPlugin
+  {
+    private final AtomicInteger entriesCount = new AtomicInteger();
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final int delayedEntry;
+    private final long delayInMillis;
+    private final int blockedEntry;
+
+    private SlowSearchEntryPlugin(int delayedEntry, long delayInMillis, int blockedEntry) throws DirectoryException
+    {
+      super(DN.valueOf("cn=SlowSearchEntryPlugin"), EnumSet.of(SEARCH_RESULT_ENTRY), false);
+      this.delayedEntry = delayedEntry;
+      this.delayInMillis = delayInMillis;
+      this.blockedEntry = blockedEntry;
+    }
+
+    @Override
+    public PluginResult.IntermediateResponse processSearchEntry(
+        SearchEntrySearchOperation searchOperation, SearchResultEntry searchEntry)
+    {
+      final int entryNumber = entriesCount.incrementAndGet();
+      try
+      {
+        if (entryNumber == delayedEntry)
+        {
+          Thread.sleep(delayInMillis);
+        }
+        else if (entryNumber == blockedEntry)
+        {
+          released.await(30, TimeUnit.SECONDS);
+        }
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+      return PluginResult.IntermediateResponse.continueOperationProcessing(true);
+    }
+  }
+
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  /**
+   * Ensures that the first entry returned by a search is written to the client
+   * before the search completes, even though the following entries are delayed
+   * to be written in batches.
+   */
+  @Test
+  public void testFirstSearchEntryIsSentBeforeSearchCompletes() throws Exception
+  {
+    addTestEntries();
+
+    final SlowSearchEntryPlugin plugin = new SlowSearchEntryPlugin(0, 0, 2);
+    DirectoryServer.registerInternalPlugin(plugin);
+    try (Socket socket = new Socket("127.0.0.1", TestCaseUtils.getServerLdapPort()))
+    {
+      final LDAPReader r = bindAndSearch(socket);
+
+      // the search cannot complete until the plugin is released
+      assertEquals(r.readMessage().getProtocolOpType(), OP_TYPE_SEARCH_RESULT_ENTRY);
+
+      plugin.released.countDown();
+      assertEquals(readSearchResultEntriesUntilDone(r), 3);
+    }
+    finally
+    {
+      plugin.released.countDown();
+      DirectoryServer.deregisterInternalPlugin(plugin);
+    }
+  }
+
+  /**
+   * Ensures that the entries following the first one are kept and written to
+   * the client together, rather than one write per entry.
+   */
+  @Test
+  public void testSearchEntriesAreCoalesced() throws Exception
+  {
+    addTestEntries();
+
+    final SlowSearchEntryPlugin plugin = new SlowSearchEntryPlugin(0, 0, 3);
+    DirectoryServer.registerInternalPlugin(plugin);
+    try (Socket socket = new Socket("127.0.0.1", TestCaseUtils.getServerLdapPort()))
+    {
+      final LDAPReader r = bindAndSearch(socket);
+      assertEquals(r.readMessage().getProtocolOpType(), OP_TYPE_SEARCH_RESULT_ENTRY);
+
+      // the second entry is kept while the search is blocked on the third one
+      Thread.sleep(200);
+      assertEquals(socket.getInputStream().available(), 0);
+
+      plugin.released.countDown();
+      assertEquals(readSearchResultEntriesUntilDone(r), 3);
+    }
+    finally
+    {
+      plugin.released.countDown();
+      DirectoryServer.deregisterInternalPlugin(plugin);
+    }
+  }
+
+  /**
+   * Ensures that the entries kept for longer than the maximum delay are written
+   * to the client with the next entry, before the search completes.
+   */
+  @Test
+  public void testSearchEntriesAreSentAfterMaximumDelay() throws Exception
+  {
+    addTestEntries();
+
+    // the third entry is returned long after the second one was kept
+    final SlowSearchEntryPlugin plugin = new SlowSearchEntryPlugin(3, 100, 4);
+    DirectoryServer.registerInternalPlugin(plugin);
+    try (Socket socket = new Socket("127.0.0.1", TestCaseUtils.getServerLdapPort()))
+    {
+      final LDAPReader r = bindAndSearch(socket);
+      for (int i = 0; i < 3; i++)
+      {
+        assertEquals(r.readMessage().getProtocolOpType(), OP_TYPE_SEARCH_RESULT_ENTRY);
+      }
+      // the search cannot complete until the plugin is released
+      assertEquals(plugin.released.getCount(), 1);
+
+      plugin.released.countDown();
+      assertEquals(readSearchResultEntriesUntilDone(r), 1);
+    }
+    finally
+    {
+      plugin.released.countDown();
+      DirectoryServer.deregisterInternalPlugin(plugin);
+    }
+  }
+
+  /** Adds 4 entries under o=test. */
+  private void addTestEntries() throws Exception
+  {
+    TestCaseUtils.initializeTestBackend(true);
+    TestCaseUtils.addEntries(
+        "dn: ou=People,o=test",
+        "objectClass: top",
+        "objectClass: organizationalUnit",
+        "ou: People",
+        "",
+        "dn: ou=Groups,o=test",
+        "objectClass: top",
+        "objectClass: organizationalUnit",
+        "ou: Groups",
+        "",
+        "dn: ou=Devices,o=test",
+        "objectClass: top",
+        "objectClass: organizationalUnit",
+        "ou: Devices");
+  }
+
+  /** Binds on the provided socket and sends a subtree search of o=test. */
+  private LDAPReader bindAndSearch(Socket socket) throws Exception
+  {
+    TestCaseUtils.configureSocket(socket);
+    final LDAPReader r = new LDAPReader(socket);
+    final LDAPWriter w = new LDAPWriter(socket);
+
+    w.writeMessage(new LDAPMessage(1, new BindRequestProtocolOp(
+        ByteString.valueOfUtf8("cn=Directory Manager"), 3, ByteString.valueOfUtf8("password"))));
+    assertEquals(r.readMessage().getBindResponseProtocolOp().getResultCode(), LDAPResultCode.SUCCESS);
+
+    w.writeMessage(new LDAPMessage(2, new SearchRequestProtocolOp(ByteString.valueOfUtf8("o=test"),
+        SearchScope.WHOLE_SUBTREE, DereferenceAliasesPolicy.NEVER, 0, 0, false,
+        RawFilter.create("(objectClass=*)"), new LinkedHashSet<String>())));
+    return r;
+  }
+
+  /** Reads the remaining search result entries and checks the search result done, returns the entries count. */
+  private int readSearchResultEntriesUntilDone(LDAPReader r) throws Exception
+  {
+    int entriesCount = 0;
+    LDAPMessage message = r.readMessage();
+    while (message.getProtocolOpType() == OP_TYPE_SEARCH_RESULT_ENTRY)
+    {
+      entriesCount++;
+      message = r.readMessage();
+    }
+    assertEquals(message.getProtocolOpType(), OP_TYPE_SEARCH_RESULT_DONE);
+    assertEquals(message.getSearchResultDoneProtocolOp().getResultCode(), LDAPResultCode.SUCCESS);
+    return entriesCount;
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.replication.common;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.forgerock.util.time.TimeService;
+import org.opends.server.replication.ReplicationTestCase;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class AdaptiveWindowTest extends ReplicationTestCase
+{
+  private TimeService timeService;
+
+  @BeforeMethod
+  public void setTime()
+  {
+    timeService = mock(TimeService.class);
+    setTime(1000);
+  }
+
+  private void setTime(long time)
+  {
+    when(timeService.now()).thenReturn(time);
+  }
+
+  @Test
+  public void fixedWindowGrantsProcessedUpdates()
+  {
+    final AdaptiveWindow window = new AdaptiveWindow(10, 0, timeService);
+    receive(window, 10);
+    assertThat(window.getCredit()).isEqualTo(0);
+
+    assertThat(process(window, 4)).isEqualTo(0);
+    assertThat(window.updateProcessed()).isEqualTo(5);
+    assertThat(window.getSize()).isEqualTo(10);
+    assertThat(window.getCredit()).isEqualTo(5);
+  }
+
+  @Test
+  public void windowGrowsWhenSenderWaitsForCredit()
+  {
+    final AdaptiveWindow window = growWindow();
+
+    assertThat(window.getSize()).isEqualTo(20);
+    assertThat(window.getRoundTripTime()).isEqualTo(100);
+    assertThat(window.getStallTime()).isEqualTo(100);
+  }
+
+  @Test
+  public void windowDoesNotGrowBeyondMaxSize()
+  {
+    final AdaptiveWindow window = new AdaptiveWindow(10, 15, timeService);
+    assertThat(waitForCreditThenProcess(window)).isEqualTo(10);
+    assertThat(window.getSize()).isEqualTo(15);
+  }
+
+  @Test
+  public void windowShrinksWhenConsumerIsSlow()
+  {
+    final AdaptiveWindow window = growWindow();
+    receive(window, window.getCredit());
+
+    // more than a quarter of the window is still waiting: withhold the credit
+    assertThat(process(window, 10)).isEqualTo(0);
+    assertThat(window.getSize()).isEqualTo(10);
+    assertThat(process(window, 5)).isEqualTo(5);
+    assertThat(window.getSize()).isEqualTo(10);
+  }
+
+  /** Returns a window of initial size 10 which doubled once. */
+  private AdaptiveWindow growWindow()
+  {
+    final AdaptiveWindow window = new AdaptiveWindow(10, 100, timeService);
+    assertThat(waitForCreditThenProcess(window)).isEqualTo(15);
+    return window;
+  }
+
+  /**
+   * The sender uses all its credit before the credit granted for the first
+   * half of the window comes back, 100ms later.
+   */
+  private int waitForCreditThenProcess(AdaptiveWindow window)
+  {
+    receive(window, 5);
+    assertThat(process(window, 5)).isEqualTo(5);
+    receive(window, 5);
+
+    setTime(1100);
+    receive(window, 1);
+    return process(window, 5);
+  }
+
+  private static void receive(AdaptiveWindow window, int count)
+  {
+    for (int i = 0; i < count; i++)
+    {
+      window.updateReceived();
+    }
+  }
+
+  /** Returns the last credit granted. */
+  private static int process(AdaptiveWindow window, int count)
+  {
+    int credit = 0;
+    for (int i = 0; i < count; i++)
+    {
+      credit = window.updateProcessed();
+    }
+    return credit;
+  }
+}
@@ -289,6 +289,18 @@ public class DomainFakeCfg implements ReplicationDomainCfg
     return true;
   }
 
+  @Override
+  public boolean isSessionCompression()
+  {
+    return false;
+  }
+
+  @Override
+  public int getMaxWindowSize()
+  {
+    return 0;
+  }
+
   @Override
   public int getInitializationWindowSize()
   {
@@ -0,0 +1,146 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.replication.plugin;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.opends.server.protocols.internal.InternalClientConnection.*;
+
+import java.util.Collections;
+
+import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.replication.common.CSN;
+import org.opends.server.replication.common.ServerState;
+import org.opends.server.replication.protocol.DeleteMsg;
+import org.opends.server.replication.protocol.LDAPUpdateMsg;
+import org.opends.server.replication.protocol.ModifyDNMsg;
+import org.opends.server.replication.protocol.ModifyMsg;
+import org.opends.server.types.DN;
+import org.opends.server.types.Modification;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests the dependencies computed between the remote changes waiting to be replayed. */
+@SuppressWarnings("javadoc")
+public class RemotePendingChangesTest extends ReplicationTestCase
+{
+  private static final int SERVER_ID = 1;
+
+  private ServerState state;
+  private RemotePendingChanges pendingChanges;
+
+  @BeforeMethod
+  public void setUp()
+  {
+    state = new ServerState();
+    pendingChanges = new RemotePendingChanges(state);
+  }
+
+  @Test
+  public void testIndependentChangesHaveNoDependencies() throws Exception
+  {
+    final LDAPUpdateMsg deleteChild = delete(1, "cn=child,ou=people,dc=example,dc=com");
+    final LDAPUpdateMsg modifyOther = modify(2, "cn=other,ou=groups,dc=example,dc=com");
+
+    assertThat(hasDependencies(deleteChild)).isFalse();
+    assertThat(hasDependencies(modifyOther)).isFalse();
+  }
+
+  @Test
+  public void testDeleteDependsOnDeleteOfDescendant() throws Exception
+  {
+    final LDAPUpdateMsg deleteGrandChild = delete(1, "cn=grandchild,cn=child,ou=people,dc=example,dc=com");
+    final LDAPUpdateMsg deleteUnrelated = delete(2, "cn=other,ou=groups,dc=example,dc=com");
+    final LDAPUpdateMsg deleteParent = delete(3, "ou=people,dc=example,dc=com");
+
+    assertThat(hasDependencies(deleteGrandChild)).isFalse();
+    assertThat(hasDependencies(deleteUnrelated)).isFalse();
+    assertThat(hasDependencies(deleteParent)).isTrue();
+
+    // committing an unrelated change does not release the dependent change
+    pendingChanges.commit(deleteUnrelated.getCSN());
+    assertThat(pendingChanges.getNextUpdate()).isNull();
+
+    pendingChanges.commit(deleteGrandChild.getCSN());
+    assertThat(pendingChanges.getNextUpdate()).isSameAs(deleteParent);
+    assertThat(pendingChanges.getNextUpdate()).isNull();
+    assertThat(hasDependencies(deleteParent)).isFalse();
+  }
+
+  @Test
+  public void testModifyDNDependsOnDeleteOfNewDN() throws Exception
+  {
+    final LDAPUpdateMsg deleteTarget = delete(1, "cn=new,ou=people,dc=example,dc=com");
+    final LDAPUpdateMsg rename = new ModifyDNMsg(DN.valueOf("cn=old,ou=people,dc=example,dc=com"), csn(2),
+        "uuid-2", null, true, null, "cn=new");
+    pendingChanges.putRemoteUpdate(rename);
+
+    assertThat(hasDependencies(rename)).isTrue();
+    pendingChanges.commit(deleteTarget.getCSN());
+    assertThat(pendingChanges.getNextUpdate()).isSameAs(rename);
+  }
+
+  @Test
+  public void testServerStateIsUpdatedInCSNOrder() throws Exception
+  {
+    final LDAPUpdateMsg first = modify(1, "cn=first,dc=example,dc=com");
+    final LDAPUpdateMsg second = modify(2, "cn=second,dc=example,dc=com");
+    final LDAPUpdateMsg third = modify(3, "cn=third,dc=example,dc=com");
+
+    pendingChanges.commit(third.getCSN());
+    pendingChanges.commit(first.getCSN());
+    assertThat(state.getCSN(SERVER_ID)).isEqualTo(first.getCSN());
+    assertThat(pendingChanges.getQueueSize()).isEqualTo(2);
+
+    pendingChanges.commit(second.getCSN());
+    assertThat(state.getCSN(SERVER_ID)).isEqualTo(third.getCSN());
+    assertThat(pendingChanges.getQueueSize()).isEqualTo(0);
+  }
+
+  private boolean hasDependencies(LDAPUpdateMsg msg) throws Exception
+  {
+    return pendingChanges.checkDependencies(msg.createOperation(getRootConnection()), msg);
+  }
+
+  private LDAPUpdateMsg delete(int seqNum, String dn) throws Exception
+  {
+    final LDAPUpdateMsg msg = new DeleteMsg(DN.valueOf(dn), csn(seqNum), "uuid-" + seqNum);
+    pendingChanges.putRemoteUpdate(msg);
+    return msg;
+  }
+
+  private LDAPUpdateMsg modify(int seqNum, String dn) throws Exception
+  {
+    final LDAPUpdateMsg msg =
+        new ModifyMsg(csn(seqNum), DN.valueOf(dn), Collections.<Modification> emptyList(), "uuid-" + seqNum);
+    pendingChanges.putRemoteUpdate(msg);
+    return msg;
+  }
+
+  private CSN csn(int seqNum)
+  {
+    return new CSN(1000, seqNum, SERVER_ID);
+  }
+}
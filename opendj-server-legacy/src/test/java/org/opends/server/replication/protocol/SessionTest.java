@@ -0,0 +1,146 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.replication.protocol;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.opends.server.replication.protocol.ProtocolVersion.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import javax.net.ssl.SSLSocket;
+
+import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.util.StaticUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class SessionTest extends ReplicationTestCase
+{
+  private static final int NB_MESSAGES = 1000;
+
+  private Session sender;
+  private Session receiver;
+
+  @BeforeMethod
+  public void openSessions() throws Exception
+  {
+    try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress()))
+    {
+      final Socket senderSocket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+      final Socket receiverSocket = serverSocket.accept();
+      sender = newSession(senderSocket);
+      receiver = newSession(receiverSocket);
+    }
+  }
+
+  /** The secure layer is not under test: the mocked secure socket exposes the plain streams. */
+  private static Session newSession(Socket socket) throws IOException
+  {
+    final SSLSocket secureSocket = mock(SSLSocket.class);
+    when(secureSocket.getInputStream()).thenReturn(socket.getInputStream());
+    when(secureSocket.getOutputStream()).thenReturn(socket.getOutputStream());
+    return new Session(socket, secureSocket);
+  }
+
+  @AfterMethod
+  public void closeSessions()
+  {
+    StaticUtils.close(sender, receiver);
+  }
+
+  @Test
+  public void batchedMessagesAreReceivedInOrder() throws Exception
+  {
+    startSender();
+    publishAndReceive();
+
+    assertThat(sender.isCompressed()).isFalse();
+    assertThat(receiver.getBytesReceived()).isEqualTo(getFramesLength(getCurrentVersion()));
+  }
+
+  @Test
+  public void compressedMessagesAreReceivedInOrder() throws Exception
+  {
+    sender.setCompressionEnabled(true);
+    startSender();
+    publishAndReceive();
+
+    assertThat(sender.isCompressed()).isTrue();
+    assertThat(receiver.getBytesReceived()).isLessThan(getFramesLength(getCurrentVersion()));
+  }
+
+  @Test
+  public void messagesAreNotCompressedForOldPeers() throws Exception
+  {
+    sender.setProtocolVersion(REPLICATION_PROTOCOL_V8);
+    receiver.setProtocolVersion(REPLICATION_PROTOCOL_V8);
+    sender.setCompressionEnabled(true);
+
+    assertThat(sender.isCompressed()).isFalse();
+    startSender();
+    publishAndReceive();
+    assertThat(receiver.getBytesReceived()).isEqualTo(getFramesLength(REPLICATION_PROTOCOL_V8));
+  }
+
+  private void startSender() throws InterruptedException
+  {
+    sender.start();
+    sender.waitForStartup();
+  }
+
+  private void publishAndReceive() throws Exception
+  {
+    for (int i = 0; i < NB_MESSAGES; i++)
+    {
+      sender.publish(new WindowMsg(i));
+    }
+    for (int i = 0; i < NB_MESSAGES; i++)
+    {
+      final ReplicationMsg msg = receiver.receive();
+      assertThat(msg).isInstanceOf(WindowMsg.class);
+      assertThat(((WindowMsg) msg).getNumAck()).isEqualTo(i);
+    }
+
+    assertThat(receiver.getMessagesReceived()).isEqualTo(NB_MESSAGES);
+  }
+
+  /** Returns the length of the uncompressed frames of the published messages. */
+  private static long getFramesLength(short protocolVersion)
+  {
+    long length = 0;
+    for (int i = 0; i < NB_MESSAGES; i++)
+    {
+      length += 8 + new WindowMsg(i).getBytes(protocolVersion).length;
+    }
+    return length;
+  }
+}
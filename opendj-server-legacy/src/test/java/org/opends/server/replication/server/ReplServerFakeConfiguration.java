@@ -256,4 +256,16 @@ public class ReplServerFakeConfiguration implements ReplicationServerCfg
   {
     this.computeChangenumber = computeChangenumber;
   }
+
+  @Override
+  public boolean isSessionCompression()
+  {
+    return false;
+  }
+
+  @Override
+  public int getMaxWindowSize()
+  {
+    return 0;
+  }
 }
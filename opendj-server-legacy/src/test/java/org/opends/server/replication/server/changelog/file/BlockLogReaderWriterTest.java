@@ -33,8 +33,10 @@ import static org.opends.server.replication.server.changelog.file.BlockLogReader
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -260,6 +262,196 @@ public class BlockLogReaderWriterTest extends DirectoryServerTestCase
     }
   }
 
+  @Test(dataProvider = "recordsForSeek")
+  public void testSeekToRecordWithIndex(int blockSize, List<Record<Integer, Integer>> records, int key,
+      KeyMatchingStrategy matchingStrategy, PositionStrategy positionStrategy, Record<Integer, Integer> expectedRecord,
+      boolean shouldBeFound) throws Exception
+  {
+    // an entry for each block start reached by a record
+    final LogFileHeader header = LogFileHeader.newV1Header(blockSize);
+    final LogFileIndex<Integer, Integer> index = LogFileIndex.newIndexForTests(RECORD_PARSER, header, blockSize);
+    writeRecords(blockSize, records, index);
+
+    try (BlockLogReader<Integer, Integer> reader = newReader(blockSize, index))
+    {
+      Pair<Boolean, Record<Integer, Integer>> result = reader.seekToRecord(key, matchingStrategy, positionStrategy);
+
+      final SoftAssertions softly = new SoftAssertions();
+      softly.assertThat(result.getFirst()).isEqualTo(shouldBeFound);
+      softly.assertThat(result.getSecond()).isEqualTo(expectedRecord);
+      softly.assertAll();
+    }
+  }
+
+  @Test
+  public void testIndexIsSavedThenLoaded() throws Exception
+  {
+    final int blockSize = BlockLogReader.BLOCK_SIZE;
+    final LogFileHeader header = LogFileHeader.newV1Header(blockSize);
+    final LogFileIndex<Integer, Integer> index = LogFileIndex.newIndexForTests(RECORD_PARSER, header, 1024);
+    final int numberOfRecords = 10000;
+    final int[] keys = new int[numberOfRecords];
+    for (int i = 0; i < numberOfRecords; i++)
+    {
+      keys[i] = 2 * (i + 1);
+    }
+    writeRecords(blockSize, records(keys), index);
+    index.save(TEST_FILE);
+
+    final LogFileIndex<Integer, Integer> loadedIndex = LogFileIndex.load(TEST_FILE, RECORD_PARSER, header);
+    assertThat(loadedIndex.size()).isEqualTo(index.size()).isGreaterThan(100);
+    try (BlockLogReader<Integer, Integer> reader = newReader(blockSize, loadedIndex))
+    {
+      for (int key : new int[] { 1, 2, 3, 5000, 5001, 19999, 20000 })
+      {
+        final int expectedKey = key % 2 == 0 ? key : key - 1;
+        final Pair<Boolean, Record<Integer, Integer>> result =
+            reader.seekToRecord(key, LESS_THAN_OR_EQUAL_TO_KEY, ON_MATCHING_KEY);
+        assertThat(result.getFirst()).isEqualTo(expectedKey > 0);
+        assertThat(result.getSecond()).isEqualTo(expectedKey > 0 ? record(expectedKey) : null);
+      }
+    }
+
+    // index written for another block size does not match the log file
+    final LogFileHeader otherHeader = LogFileHeader.newV1Header(blockSize * 2);
+    assertThat(LogFileIndex.load(TEST_FILE, RECORD_PARSER, otherHeader).size()).isEqualTo(0);
+    // index written for another format version does not match the log file
+    assertThat(LogFileIndex.load(TEST_FILE, RECORD_PARSER, LogFileHeader.newV2Header(blockSize)).size()).isEqualTo(0);
+    LogFileIndex.getIndexFile(TEST_FILE).delete();
+    assertThat(LogFileIndex.load(TEST_FILE, RECORD_PARSER, header).size()).isEqualTo(0);
+  }
+
+  @Test(dataProvider = "recordsForSeek")
+  public void testSeekToRecordInBlockCompressedLog(int blockSize, List<Record<Integer, Integer>> records, int key,
+      KeyMatchingStrategy matchingStrategy, PositionStrategy positionStrategy, Record<Integer, Integer> expectedRecord,
+      boolean shouldBeFound) throws Exception
+  {
+    final LogFileHeader header = LogFileHeader.newV2Header(blockSize);
+    final LogFileIndex<Integer, Integer> index = LogFileIndex.newIndexForTests(RECORD_PARSER, header, blockSize);
+    writeBlockRecords(header, records, index);
+    assertSeekToRecord(header, index, key, matchingStrategy, positionStrategy, expectedRecord, shouldBeFound);
+
+    if (!records.isEmpty())
+    {
+      BlockLogWriter.compressLogFile(TEST_FILE, header);
+      assertSeekToRecord(header, index, key, matchingStrategy, positionStrategy, expectedRecord, shouldBeFound);
+    }
+  }
+
+  private void assertSeekToRecord(LogFileHeader header, LogFileIndex<Integer, Integer> index, int key,
+      KeyMatchingStrategy matchingStrategy, PositionStrategy positionStrategy, Record<Integer, Integer> expectedRecord,
+      boolean shouldBeFound) throws Exception
+  {
+    for (LogFileIndex<Integer, Integer> searchIndex : Arrays.asList(null, index))
+    {
+      try (BlockLogReader<Integer, Integer> reader = newBlockReader(header, searchIndex))
+      {
+        Pair<Boolean, Record<Integer, Integer>> result = reader.seekToRecord(key, matchingStrategy, positionStrategy);
+
+        final SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(result.getFirst()).isEqualTo(shouldBeFound);
+        softly.assertThat(result.getSecond()).isEqualTo(expectedRecord);
+        softly.assertAll();
+      }
+    }
+  }
+
+  @Test
+  public void testBlockCompressedLogKeepsPositionsWhenCompressed() throws Exception
+  {
+    final LogFileHeader header = LogFileHeader.newV2Header(100);
+    final int numberOfRecords = 1000;
+    writeBlockRecords(header, records(keys(numberOfRecords)), null);
+
+    final List<Long> positions = new ArrayList<>();
+    try (BlockLogReader<Integer, Integer> reader = newBlockReader(header, null))
+    {
+      for (int key = 1; key <= numberOfRecords; key++)
+      {
+        positions.add(reader.getFilePosition());
+        assertThat(reader.readRecord()).isEqualTo(record(key));
+      }
+      assertThat(reader.readRecord()).isNull();
+      assertThat(reader.getFilePosition()).isEqualTo(reader.getEndPosition());
+    }
+
+    final long uncompressedLength = TEST_FILE.length();
+    BlockLogWriter.compressLogFile(TEST_FILE, header);
+    assertThat(TEST_FILE.length()).isLessThan(uncompressedLength);
+    assertThat(LogFileHeader.read(TEST_FILE).getBlockSize()).isEqualTo(100);
+
+    try (BlockLogReader<Integer, Integer> reader = newBlockReader(header, null))
+    {
+      for (int key = 1; key <= numberOfRecords; key++)
+      {
+        assertThat(reader.getFilePosition()).isEqualTo(positions.get(key - 1));
+        assertThat(reader.readRecord()).isEqualTo(record(key));
+      }
+      assertThat(reader.readRecord()).isNull();
+      for (int key = numberOfRecords; key >= 1; key -= 7)
+      {
+        reader.seekToPosition(positions.get(key - 1));
+        assertThat(reader.readRecord()).isEqualTo(record(key));
+      }
+      assertThat(reader.getNewestRecord()).isEqualTo(record(numberOfRecords));
+    }
+  }
+
+  @Test
+  public void testCheckBlockCompressedLogWithTruncatedBlock() throws Exception
+  {
+    final LogFileHeader header = LogFileHeader.newV2Header(100);
+    writeBlockRecords(header, records(1, 2, 3, 4, 5, 6, 7, 8, 9), null);
+    final long lengthOfValidLog = TEST_FILE.length();
+    writeBlockRecords(header, records(10), null);
+    truncateTestFile(TEST_FILE.length() - 3);
+
+    try (BlockLogReader<Integer, Integer> reader = newBlockReader(header, null))
+    {
+      assertThat(reader.checkLogIsValid()).isEqualTo(lengthOfValidLog);
+      assertThat(reader.getNewestRecord()).isEqualTo(record(9));
+    }
+
+    truncateTestFile(lengthOfValidLog);
+    try (BlockLogReader<Integer, Integer> reader = newBlockReader(header, null))
+    {
+      assertThat(reader.checkLogIsValid()).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  public void testLogFileHeader() throws Exception
+  {
+    // an empty log file is read as a log file of format version 1
+    TEST_FILE.createNewFile();
+    assertThat(LogFileHeader.read(TEST_FILE)).isSameAs(LogFileHeader.V1);
+
+    writeRecords(BLOCK_SIZE, records(1, 2, 3));
+    assertThat(LogFileHeader.read(TEST_FILE).getVersion()).isEqualTo(LogFileHeader.VERSION_1);
+
+    StaticUtils.recursiveDelete(TEST_FILE);
+    writeBlockRecords(LogFileHeader.newV2Header(1024), records(1, 2, 3), null);
+    final LogFileHeader header = LogFileHeader.read(TEST_FILE);
+    assertThat(header.getVersion()).isEqualTo(LogFileHeader.VERSION_2);
+    assertThat(header.getBlockSize()).isEqualTo(1024);
+
+    // a partially written header can't be read
+    truncateTestFile(LogFileHeader.HEADER_SIZE - 1);
+    assertThat(LogFileHeader.read(TEST_FILE)).isNull();
+  }
+
+  @Test(expectedExceptions = ChangelogException.class)
+  public void testLogFileHeaderWithUnsupportedVersion() throws Exception
+  {
+    try (RandomAccessFile output = new RandomAccessFile(TEST_FILE, "rw"))
+    {
+      output.writeInt(LogFileHeader.MAGIC_NUMBER);
+      output.writeInt(LogFileHeader.VERSION_2 + 1);
+      output.writeInt(1024);
+    }
+    LogFileHeader.read(TEST_FILE);
+  }
+
   @Test
   public void testGetClosestBlockStartBeforeOrAtPosition() throws Exception
   {
@@ -482,7 +674,37 @@ public class BlockLogReaderWriterTest extends DirectoryServerTestCase
   /** Write provided records with the provided block size. */
   private void writeRecords(int blockSize, List<Record<Integer, Integer>> records) throws ChangelogException
   {
-    try (BlockLogWriter<Integer, Integer> writer = newWriter(blockSize))
+    writeRecords(blockSize, records, null);
+  }
+
+  /** Write provided records with the provided block size, adding them to the provided index. */
+  private void writeRecords(int blockSize, List<Record<Integer, Integer>> records,
+      LogFileIndex<Integer, Integer> index) throws ChangelogException
+  {
+    try (BlockLogWriter<Integer, Integer> writer = newWriter(blockSize, index))
+    {
+      for (Record<Integer, Integer> record : records)
+      {
+        writer.write(record);
+      }
+    }
+  }
+
+  /** Write provided records with format version 2, adding them to the provided index. */
+  private void writeBlockRecords(LogFileHeader header, List<Record<Integer, Integer>> records,
+      LogFileIndex<Integer, Integer> index) throws ChangelogException
+  {
+    final long position;
+    try (BlockLogReader<Integer, Integer> reader = newBlockReader(header, null))
+    {
+      position = reader.getEndPosition();
+    }
+    catch (IOException e)
+    {
+      throw new ChangelogException(e);
+    }
+    try (BlockLogWriter<Integer, Integer> writer =
+        BlockLogWriter.newWriter(new LogWriter(TEST_FILE), RECORD_PARSER, header, position, index))
     {
       for (Record<Integer, Integer> record : records)
       {
@@ -491,6 +713,14 @@ public class BlockLogReaderWriterTest extends DirectoryServerTestCase
     }
   }
 
+  private void truncateTestFile(long length) throws IOException
+  {
+    try (RandomAccessFile output = new RandomAccessFile(TEST_FILE, "rw"))
+    {
+      output.setLength(length);
+    }
+  }
+
   /** Write as many records as needed to reach provided file size. Records goes from 1 up to N. */
   private void writeRecordsToReachFileSize(int blockSize, long sizeInBytes) throws Exception
   {
@@ -516,9 +746,10 @@ public class BlockLogReaderWriterTest extends DirectoryServerTestCase
     return values.subList(0, numberOfKeys);
   }
 
-  private BlockLogWriter<Integer, Integer> newWriter(int sizeOfBlock) throws ChangelogException
+  private BlockLogWriter<Integer, Integer> newWriter(int sizeOfBlock, LogFileIndex<Integer, Integer> index)
+      throws ChangelogException
   {
-    return BlockLogWriter.newWriterForTests(new LogWriter(TEST_FILE), RECORD_PARSER, sizeOfBlock);
+    return BlockLogWriter.newWriterForTests(new LogWriter(TEST_FILE), RECORD_PARSER, sizeOfBlock, index);
   }
 
   private BlockLogReader<Integer, Integer> newReader(int blockSize) throws FileNotFoundException
@@ -527,6 +758,29 @@ public class BlockLogReaderWriterTest extends DirectoryServerTestCase
         RECORD_PARSER, blockSize);
   }
 
+  private BlockLogReader<Integer, Integer> newReader(int blockSize, LogFileIndex<Integer, Integer> index)
+      throws FileNotFoundException
+  {
+    return BlockLogReader.newReaderForTests(TEST_FILE, new RandomAccessFile(TEST_FILE, "r"),
+        RECORD_PARSER, blockSize, index);
+  }
+
+  /** Returns a reader on the test file of format version 2, with block starts kept for each block. */
+  private BlockLogReader<Integer, Integer> newBlockReader(LogFileHeader header, LogFileIndex<Integer, Integer> index)
+      throws ChangelogException
+  {
+    try
+    {
+      TEST_FILE.createNewFile();
+      return BlockLogReader.newReader(TEST_FILE, new RandomAccessFile(TEST_FILE, "r"), RECORD_PARSER, header, index,
+          new LogFileBlocks(1));
+    }
+    catch (IOException e)
+    {
+      throw new ChangelogException(e);
+    }
+  }
+
   private BlockLogReader<Integer, Integer> newReaderWithNullFile(int blockSize) throws FileNotFoundException
   {
     return BlockLogReader.newReaderForTests(null, null, RECORD_PARSER, blockSize);
@@ -543,6 +797,17 @@ public class BlockLogReaderWriterTest extends DirectoryServerTestCase
     return records;
   }
 
+  /** Helper to build the keys from 1 up to N. */
+  private int[] keys(int numberOfKeys)
+  {
+    final int[] keys = new int[numberOfKeys];
+    for (int i = 0; i < numberOfKeys; i++)
+    {
+      keys[i] = i + 1;
+    }
+    return keys;
+  }
+
   /** Helper to build a record. */
   private Record<Integer, Integer> record(int key)
   {
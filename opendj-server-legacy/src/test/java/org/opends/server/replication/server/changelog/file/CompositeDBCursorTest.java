@@ -30,6 +30,7 @@ import static org.testng.Assert.*;
 
 import org.forgerock.util.Pair;
 import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.replication.common.CSN;
 import org.opends.server.replication.protocol.UpdateMsg;
 import org.opends.server.replication.server.changelog.api.ChangelogException;
 import org.opends.server.replication.server.changelog.api.DBCursor;
@@ -220,6 +221,144 @@ public class CompositeDBCursorTest extends DirectoryServerTestCase
         of(msg6, baseDN1));
   }
 
+  @Test
+  public void equalCSNsAreOrderedByData() throws Exception
+  {
+    final UpdateMsg msg1bis = new FakeUpdateMsg(1);
+    final CompositeDBCursor<String> compCursor = newCompositeDBCursor(
+        of(new SequentialDBCursor(msg1, msg2), baseDN1),
+        of(new SequentialDBCursor(msg1bis, msg3), baseDN2));
+    assertInOrder(compCursor,
+        of(msg1bis, baseDN2),
+        of(msg1, baseDN1),
+        of(msg2, baseDN1),
+        of(msg3, baseDN2));
+  }
+
+  @Test
+  public void manyInterleavedCursors() throws Exception
+  {
+    final int nbCursors = 37;
+    final int nbMsgs = 1000;
+    final SequentialDBCursor[] cursors = new SequentialDBCursor[nbCursors];
+    for (int i = 0; i < nbCursors; i++)
+    {
+      cursors[i] = new SequentialDBCursor();
+    }
+    final Pair<UpdateMsg, String>[] expecteds = new Pair[nbMsgs];
+    for (int t = 1; t <= nbMsgs; t++)
+    {
+      // spread messages unevenly across the cursors
+      final int cursorIndex = (t * t) % nbCursors;
+      final UpdateMsg msg = new FakeUpdateMsg(t);
+      cursors[cursorIndex].add(msg);
+      expecteds[t - 1] = of(msg, "cursor" + cursorIndex);
+    }
+    final CompositeDBCursor<String> compCursor = new ConcreteCompositeDBCursor();
+    for (int i = 0; i < nbCursors; i++)
+    {
+      compCursor.addCursor(cursors[i], "cursor" + i);
+    }
+    assertInOrder(compCursor, expecteds);
+  }
+
+  @Test
+  public void removeCursor() throws Exception
+  {
+    final String baseDN3 = "dc=example,dc=org";
+    final CompositeDBCursor<String> compCursor = newCompositeDBCursor(
+        of(new SequentialDBCursor(msg1, msg4), baseDN1),
+        of(new SequentialDBCursor(msg2, msg5), baseDN2),
+        of(new SequentialDBCursor(msg3, msg6), baseDN3));
+    assertNextRecord(compCursor, of(msg1, baseDN1));
+    assertNextRecord(compCursor, of(msg2, baseDN2));
+
+    compCursor.removeCursor(baseDN1);
+    assertSame(compCursor.getRecord(), msg2);
+    assertInOrder(compCursor,
+        of(msg3, baseDN3),
+        of(msg5, baseDN2),
+        of(msg6, baseDN3));
+  }
+
+  /**
+   * This test should be disabled.
+   * Enable it locally when you need to have a rough idea of the merge performance
+   * over many replicas.
+   */
+  @Test(enabled = false)
+  public void mergeSpeed() throws Exception
+  {
+    // You may change these values
+    final int nbReplicas = 500;
+    final int nbChangesPerReplica = 2000;
+
+    for (int run = 0; run < 5; run++)
+    {
+      final CompositeDBCursor<String> compCursor = new ConcreteCompositeDBCursor();
+      for (int serverId = 1; serverId <= nbReplicas; serverId++)
+      {
+        compCursor.addCursor(new SyntheticReplicaDBCursor(serverId, nbChangesPerReplica), "replica" + serverId);
+      }
+      final long t0 = System.nanoTime();
+      int nbChanges = 0;
+      while (compCursor.next())
+      {
+        nbChanges++;
+      }
+      final long elapsedMillis = (System.nanoTime() - t0) / 1000000;
+      compCursor.close();
+      System.out.println("Merged " + nbChanges + " changes from " + nbReplicas + " replicas in "
+          + elapsedMillis + " ms");
+    }
+  }
+
+  /** Cursor over the changes of a replica, interleaved in time with the changes of the other replicas. */
+  private static final class SyntheticReplicaDBCursor implements DBCursor<UpdateMsg>
+  {
+    private final int serverId;
+    private final int nbChanges;
+    private int index;
+    private UpdateMsg current;
+
+    private SyntheticReplicaDBCursor(int serverId, int nbChanges)
+    {
+      this.serverId = serverId;
+      this.nbChanges = nbChanges;
+    }
+
+    @Override
+    public UpdateMsg getRecord()
+    {
+      return current;
+    }
+
+    @Override
+    public boolean next()
+    {
+      if (index < nbChanges)
+      {
+        index++;
+        current = new UpdateMsg(new CSN(index * 1000L + serverId % 1000, 0, serverId), new byte[1]);
+        return true;
+      }
+      current = null;
+      return false;
+    }
+
+    @Override
+    public void close()
+    {
+      current = null;
+    }
+
+    @Override
+    public String toString()
+    {
+      return getClass().getSimpleName() + "(serverId=" + serverId + ")";
+    }
+  }
+
   private CompositeDBCursor<String> newCompositeDBCursor(
       Pair<? extends DBCursor<UpdateMsg>, String>... pairs) throws Exception
   {
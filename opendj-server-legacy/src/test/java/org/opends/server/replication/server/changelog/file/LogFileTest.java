@@ -198,6 +198,88 @@ public class LogFileTest extends DirectoryServerTestCase
     }
   }
 
+  /** Same test as {@link #testCursorPositionTo}, once the log file has been compressed as done on rotation. */
+  @Test(dataProvider="cursorPositionTo")
+  public void testCursorPositionToInCompressedLogFile(String key, KeyMatchingStrategy matchingStrategy,
+      PositionStrategy positionStrategy, boolean positionShouldBeFound, int cursorShouldStartAt,
+      int cursorShouldEndAt) throws Exception
+  {
+    compressTestLogFile();
+
+    try (LogFile<String, String> changelog = LogFile.newReadOnlyLogFile(TEST_LOG_FILE, RECORD_PARSER);
+        LogFileCursor<String, String> cursor = changelog.getCursor())
+    {
+      boolean success = cursor.positionTo(key, matchingStrategy, positionStrategy);
+
+      assertThat(success).isEqualTo(positionShouldBeFound);
+      if (cursorShouldStartAt >= 0)
+      {
+        assertThatCursorCanBeFullyRead(cursor, cursorShouldStartAt, cursorShouldEndAt);
+      }
+      else
+      {
+        assertThatCursorIsExhausted(cursor);
+      }
+    }
+  }
+
+  /** Positions of cursors on the head log file must remain valid once the log file is rotated. */
+  @Test
+  public void testCursorInitialisedToPositionReadBeforeCompression() throws Exception
+  {
+    final Record<String, String> record;
+    final long position;
+    try (LogFile<String, String> changelog = getLogFile(RECORD_PARSER);
+        LogFileCursor<String, String> cursor = changelog.getCursor())
+    {
+      cursor.positionTo("key05", EQUAL_TO_KEY, ON_MATCHING_KEY);
+      assertThat(cursor.next()).isTrue();
+      record = cursor.getRecord();
+      position = cursor.getFilePosition();
+    }
+    compressTestLogFile();
+
+    try (LogFile<String, String> changelog = LogFile.newReadOnlyLogFile(TEST_LOG_FILE, RECORD_PARSER);
+        LogFileCursor<String, String> cursor = changelog.getCursorInitialisedTo(record, position))
+    {
+      assertThat(cursor.getRecord()).isEqualTo(Record.from("key05", "value5"));
+      assertThat(cursor.next()).isTrue();
+      assertThat(cursor.getRecord()).isEqualTo(Record.from("key06", "value6"));
+      assertThat(changelog.getNewestRecord()).isEqualTo(Record.from("key10", "value10"));
+    }
+  }
+
+  @Test
+  public void testLogFileOfVersion1IsReadAndAppended() throws Exception
+  {
+    TEST_LOG_FILE.delete();
+    try (BlockLogWriter<String, String> writer = BlockLogWriter.newWriterForTests(
+        new LogWriter(TEST_LOG_FILE), RECORD_PARSER, BlockLogReader.BLOCK_SIZE, null))
+    {
+      for (int i = 1; i <= 10; i++)
+      {
+        writer.write(Record.from(String.format("key%02d", i), "value"+i));
+      }
+    }
+
+    try (LogFile<String, String> logFile = getLogFile(RECORD_PARSER))
+    {
+      logFile.append(Record.from("key11", "value11"));
+      try (DBCursor<Record<String, String>> cursor = logFile.getCursor())
+      {
+        assertThatCursorCanBeFullyRead(cursor, 1, 11);
+      }
+    }
+    // the log file keeps its format version until it is rotated, and is not compressed
+    compressTestLogFile();
+    assertThat(LogFileHeader.read(TEST_LOG_FILE).getVersion()).isEqualTo(LogFileHeader.VERSION_1);
+    try (LogFile<String, String> logFile = LogFile.newReadOnlyLogFile(TEST_LOG_FILE, RECORD_PARSER);
+        DBCursor<Record<String, String>> cursor = logFile.getCursor())
+    {
+      assertThatCursorCanBeFullyRead(cursor, 1, 11);
+    }
+  }
+
   @Test
   public void testGetOldestRecord() throws Exception
   {
@@ -261,6 +343,14 @@ public class LogFileTest extends DirectoryServerTestCase
     }
   }
 
+  /** Compress the TEST_LOG_FILE, as done when the head log file is rotated. */
+  private void compressTestLogFile() throws Exception
+  {
+    final LogFile<String, String> logFile = getLogFile(RECORD_PARSER);
+    logFile.close();
+    logFile.compress(TEST_LOG_FILE);
+  }
+
   /** Append some raw data to the TEST_LOG_FILE. Intended to corrupt the log file. */
   private void corruptTestLogFile(ByteStringBuilder corruptedRecordData) throws Exception
   {
@@ -0,0 +1,182 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License, Version 1.0 only
+ * (the "License").  You may not use this file except in compliance
+ * with the License.
+ *
+ * You can obtain a copy of the license at legal-notices/CDDLv1_0.txt
+ * or http://forgerock.org/license/CDDLv1.0.html.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at legal-notices/CDDLv1_0.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information:
+ *      Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ *
+ *      Copyright 2026 Open Source Solution Technology Corporation
+ */
+package org.opends.server.tools;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.testng.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+import org.opends.server.TestCaseUtils;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.tasks.TaskUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class ExportLDIFTestCase extends ToolsTestCase
+{
+  private static final int NB_USERS = 5;
+
+  private File tempDir;
+  private String configFilePath;
+  private String beID;
+
+  /**
+   * Imports a few entries in the backend to export.
+   */
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.restartServer();
+    beID = "userRoot";
+    configFilePath = DirectoryServer.getConfigFile();
+    TaskUtils.disableBackend(beID);
+
+    tempDir = TestCaseUtils.createTemporaryDirectory("exportLDIFtest");
+    String ldifFilePath = tempDir.getAbsolutePath() + File.separator + "entries.ldif";
+    try (PrintStream writer = new PrintStream(new FileOutputStream(ldifFilePath)))
+    {
+      writer.println("dn: dc=example,dc=com");
+      writer.println("objectclass: domain");
+      writer.println("objectclass: top");
+      writer.println("dc: example");
+      for (int i = 0; i < NB_USERS; i++)
+      {
+        writer.println();
+        writer.println("dn: uid=user." + i + ",dc=example,dc=com");
+        writer.println("objectClass: person");
+        writer.println("objectClass: inetorgperson");
+        writer.println("objectClass: organizationalPerson");
+        writer.println("objectClass: top");
+        writer.println("sn: User");
+        writer.println("cn: User " + i);
+        writer.println("uid: user." + i);
+      }
+    }
+
+    String[] args =
+    {
+        "-f", configFilePath,
+        "--noPropertiesFile",
+        "-l", ldifFilePath,
+        "-F",
+        "-n", beID
+    };
+    assertEquals(ImportLDIF.mainImportLDIF(args, false, System.out, System.err), 0);
+  }
+
+  /**
+   * Tests that a multi-threaded export writes the entries in the same order
+   * as a single-threaded export, which remains the default.
+   */
+  @Test
+  public void testMultiThreadedExportMatchesSingleThreadedExport() throws Exception
+  {
+    String singleThreadedLDIF = exportLDIF("single.ldif");
+    for (int i = 0; i < NB_USERS; i++)
+    {
+      assertThat(singleThreadedLDIF).contains("dn: uid=user." + i + ",dc=example,dc=com");
+    }
+
+    assertThat(exportLDIF("multi.ldif", "--threadCount", "4")).isEqualTo(singleThreadedLDIF);
+    assertThat(exportLDIF("all-cpus.ldif", "--threadCount", "0")).isEqualTo(singleThreadedLDIF);
+  }
+
+  /**
+   * Tests that the split LDIF files, read in file number order, hold the same
+   * entries as a single LDIF file.
+   */
+  @Test
+  public void testExportSplitLDIF() throws Exception
+  {
+    String singleThreadedLDIF = exportLDIF("unsplit.ldif");
+
+    String ldifFilePath = exportLDIFFilePath("split.ldif");
+    assertEquals(exportLDIFTool(ldifFilePath, "--splitLDIF", "--threadCount", "2"), 0);
+
+    StringBuilder splitLDIF = new StringBuilder();
+    for (int part = 1; part <= 2; part++)
+    {
+      File partFile = new File(ldifFilePath + "." + part);
+      assertThat(partFile).exists();
+      splitLDIF.append(new String(Files.readAllBytes(partFile.toPath())));
+    }
+    assertThat(new File(ldifFilePath + ".3")).doesNotExist();
+    assertThat(splitLDIF.toString()).isEqualTo(singleThreadedLDIF);
+  }
+
+  /**
+   * Tests that a negative thread count is rejected.
+   */
+  @Test
+  public void testExportRejectsNegativeThreadCount() throws Exception
+  {
+    String ldifFilePath = exportLDIFFilePath("negative.ldif");
+    assertThat(exportLDIFTool(ldifFilePath, "--threadCount", "-1")).isNotEqualTo(0);
+    assertThat(new File(ldifFilePath)).doesNotExist();
+  }
+
+  private String exportLDIFFilePath(String fileName)
+  {
+    return tempDir.getAbsolutePath() + File.separator + fileName;
+  }
+
+  private String exportLDIF(String fileName, String... extraArgs) throws Exception
+  {
+    String ldifFilePath = exportLDIFFilePath(fileName);
+    assertEquals(exportLDIFTool(ldifFilePath, extraArgs), 0);
+    assertThat(new File(ldifFilePath + ".1")).doesNotExist();
+    return new String(Files.readAllBytes(new File(ldifFilePath).toPath()));
+  }
+
+  private int exportLDIFTool(String ldifFilePath, String... extraArgs)
+  {
+    String[] args =
+    {
+        "-f", configFilePath,
+        "--noPropertiesFile",
+        "-l", ldifFilePath,
+        "-n", beID
+    };
+    String[] allArgs = new String[args.length + extraArgs.length];
+    System.arraycopy(args, 0, allArgs, 0, args.length);
+    System.arraycopy(extraArgs, 0, allArgs, args.length, extraArgs.length);
+    return ExportLDIF.mainExportLDIF(allArgs, false, System.out, System.err);
+  }
+
+  @AfterClass
+  public void cleanUp() throws Exception
+  {
+    // reinstate the backend.
+    TaskUtils.enableBackend(beID);
+    TestCaseUtils.deleteDirectory(tempDir);
+  }
+}
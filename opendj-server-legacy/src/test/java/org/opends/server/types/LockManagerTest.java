@@ -38,6 +38,7 @@ import java.util.concurrent.TimeoutException;
 
 import org.opends.server.TestCaseUtils;
 import org.opends.server.types.LockManager.DNLock;
+import org.opends.server.types.LockManager.LockTableImplementation;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -237,10 +238,37 @@ public class LockManagerTest extends TypesTestCase
     assertThat(lockManager.getLockTableRefCountFor(dnA)).isGreaterThan(0);
   }
 
-  @Test
-  public void testThreadLocalCacheEviction() throws Exception
+  @DataProvider
+  private Object[][] lockTableImplementations()
   {
-    final LockManager lockManager = new LockManager();
+    return new Object[][] { { LockTableImplementation.BUCKETS }, { LockTableImplementation.CONCURRENT } };
+  }
+
+  @Test(dataProvider = "lockTableImplementations")
+  public void testLockTimeoutStatistics(final LockTableImplementation implementation) throws Exception
+  {
+    final LockManager lockManager = new LockManager(100, TimeUnit.MILLISECONDS, implementation, 16);
+    DNLock lock1 = lockUsingThread(thread1, lockManager, LockType.WRITE_SUBTREE, dnAB).get();
+    DNLock lock2 = lockUsingThread(thread2, lockManager, LockType.WRITE_ENTRY, dnABC).get();
+    assertThat(lock1).isNotNull();
+    assertThat(lock2).isNull(); // Timed out.
+    unlockUsingThread(thread1, lock1);
+
+    final LockManager.LockType writeSubtree = LockManager.LockType.WRITE_SUBTREE;
+    final LockManager.LockType writeEntry = LockManager.LockType.WRITE_ENTRY;
+    assertThat(lockManager.getLocksAcquired(writeSubtree)).isEqualTo(1);
+    assertThat(lockManager.getLockTimeouts(writeSubtree)).isEqualTo(0);
+    assertThat(lockManager.getLocksAcquired(writeEntry)).isEqualTo(0);
+    assertThat(lockManager.getLockTimeouts(writeEntry)).isEqualTo(1);
+    assertThat(lockManager.getTotalLockWaitTimeNanos(writeEntry))
+        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    assertThat(lockManager.getTotalLockHoldTimeNanos(writeSubtree)).isGreaterThan(0);
+  }
+
+  @Test(dataProvider = "lockTableImplementations")
+  public void testThreadLocalCacheEviction(final LockTableImplementation implementation) throws Exception
+  {
+    final LockManager lockManager = new LockManager(implementation);
 
     // Acquire 100 different locks. The first few locks should be evicted from the cache.
     final LinkedList<DNLock> locks = new LinkedList<>();
@@ -275,10 +303,10 @@ public class LockManagerTest extends TypesTestCase
     assertThat(lockManager.getLockTableRefCountFor(dn(99))).isGreaterThan(0);
   }
 
-  @Test(description = "OPENDJ-1984")
-  public void stressTestForDeadlocks() throws Exception
+  @Test(description = "OPENDJ-1984", dataProvider = "lockTableImplementations")
+  public void stressTestForDeadlocks(final LockTableImplementation implementation) throws Exception
   {
-    final LockManager lockManager = new LockManager();
+    final LockManager lockManager = new LockManager(implementation);
     final int threadCount = Runtime.getRuntime().availableProcessors();
     final ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
     for (int i = 0; i < threadCount; i++)
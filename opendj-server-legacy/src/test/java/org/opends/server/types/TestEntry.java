@@ -36,10 +36,13 @@ import org.assertj.core.api.Assertions;
 import org.forgerock.i18n.LocalizableMessageBuilder;
 import org.forgerock.i18n.LocalizedIllegalArgumentException;
 import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.opends.server.api.CompressedSchema;
 import org.opends.server.TestCaseUtils;
 import org.opends.server.core.DirectoryServer;
 import org.opends.server.schema.AttributeTypeSyntax;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import static org.opends.server.util.CollectionUtils.*;
@@ -982,5 +985,59 @@ public final class TestEntry extends TypesTestCase {
     attrs = e.getOperationalAttribute(mnType, options);
     assertNull(attrs);
   }
-}
 
+  @DataProvider
+  public Object[][] encodeConfigs()
+  {
+    return new Object[][] {
+      { new EntryEncodeConfig() },
+      { new EntryEncodeConfig(false, true, true) },
+    };
+  }
+
+  /**
+   * Tests that the attribute values of a lazily decoded entry are only decoded
+   * when accessed, and that the entry is the same as an eagerly decoded one.
+   *
+   * @param config
+   *          The configuration used to encode the entry.
+   * @throws Exception
+   *           If an unexpected problem occurs.
+   */
+  @Test(dataProvider = "encodeConfigs")
+  public void testDecodeLazily(EntryEncodeConfig config) throws Exception
+  {
+    Entry entry = TestCaseUtils.makeEntry(
+        "dn: cn=Lazy Entry,o=test",
+        "objectClass: top",
+        "objectClass: person",
+        "cn: Lazy Entry",
+        "cn;lang-fr: Paresseux",
+        "sn: Entry",
+        "description: first",
+        "description: second");
+    ByteStringBuilder buffer = new ByteStringBuilder();
+    entry.encode(buffer, config);
+    ByteString encodedEntry = buffer.toByteString();
+    CompressedSchema compressedSchema = DirectoryServer.getDefaultCompressedSchema();
+
+    Entry lazyEntry = Entry.decodeLazily(encodedEntry, compressedSchema);
+    AttributeType snType = DirectoryServer.getAttributeTypeOrNull("sn");
+    AttributeType descriptionType = DirectoryServer.getAttributeTypeOrNull("description");
+    assertFalse(isDecoded(lazyEntry, snType));
+    assertFalse(isDecoded(lazyEntry, descriptionType));
+
+    assertTrue(lazyEntry.hasValue(snType, null, ByteString.valueOfUtf8("Entry")));
+    assertTrue(isDecoded(lazyEntry, snType));
+    assertFalse(isDecoded(lazyEntry, descriptionType));
+
+    Entry eagerEntry = Entry.decode(encodedEntry.asReader(), compressedSchema);
+    assertEquals(lazyEntry.toLDIFString(), eagerEntry.toLDIFString());
+    assertTrue(isDecoded(lazyEntry, descriptionType));
+  }
+
+  private boolean isDecoded(Entry entry, AttributeType attributeType)
+  {
+    return ((LazyAttributeList) entry.getUserAttributes().get(attributeType)).isDecoded();
+  }
+}
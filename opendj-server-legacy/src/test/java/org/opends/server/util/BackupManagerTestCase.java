@@ -36,8 +36,10 @@ import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Random;
 
 import org.opends.server.DirectoryServerTestCase;
 import org.opends.server.TestCaseUtils;
@@ -228,6 +230,119 @@ public class BackupManagerTestCase extends DirectoryServerTestCase
     cleanDirectories(sourceDirectory, backupPath);
   }
 
+  /**
+   * This test encompasses creation, restore and remove of block-level backups.
+   *
+   * It allows to ensure that a file changed since the previous backup only adds its changed chunks.
+   */
+  @Test
+  public void testCreateBlockLevelIncrementalBackupThenRestoreThenRemove() throws Exception
+  {
+    Path sourceDirectory = createSourceDirectory("blockLevel");
+    BackupDirectory backupDir = buildBackupDir("blockLevel");
+    BackupManager backupManager = new BackupManager(BACKEND_ID, true);
+    Path file = sourceDirectory.resolve(FILE_NAME_PREFIX + 0);
+    byte[] content = new byte[2 * 1024 * 1024];
+    new Random(0).nextBytes(content);
+    createFile(file, content);
+
+    String initialBackupId = BACKUP_ID + "_0";
+    BackupConfig backupConfig0 = newBlockLevelBackupConfig(backupDir, initialBackupId, true);
+    backupConfig0.setCompressData(true);
+    backupManager.createBackup(buildBackupable(sourceDirectory, file), backupConfig0);
+    File chunksDir = new File(backupDir.getPath(), BackupChunkStore.CHUNKS_DIRECTORY_NAME);
+    int initialNbChunks = countFiles(chunksDir);
+    assertThat(initialNbChunks).isGreaterThan(1);
+
+    // change a few bytes in the middle and append data
+    content[content.length / 2] ^= 1;
+    byte[] newContent = Arrays.copyOf(content, content.length + 1000);
+    createFile(file, newContent);
+
+    BackupConfig backupConfig1 = newBlockLevelBackupConfig(backupDir, BACKUP_ID, true);
+    backupManager.createBackup(buildBackupable(sourceDirectory, file), backupConfig1);
+    assertThat(countFiles(chunksDir) - initialNbChunks).isBetween(1, 5);
+
+    Files.delete(file);
+    RestoreConfig restoreConfig = new RestoreConfig(backupDir, BACKUP_ID, false);
+    Backupable backupable = buildBackupable(sourceDirectory, file);
+    backupManager.restoreBackup(backupable, restoreConfig);
+    assertThat(Files.readAllBytes(file)).isEqualTo(newContent);
+
+    backupManager.removeBackup(backupDir, BACKUP_ID);
+    assertThat(countFiles(chunksDir)).isEqualTo(initialNbChunks);
+    backupManager.removeBackup(backupDir, initialBackupId);
+    assertThat(countFiles(chunksDir)).isEqualTo(0);
+
+    cleanDirectories(sourceDirectory, backupDir.getPath());
+  }
+
+  /** Chunks corrupted since a previous backup must be rewritten rather than reused by a new backup. */
+  @Test
+  public void testCreateBlockLevelBackupRewritesCorruptedChunks() throws Exception
+  {
+    Path sourceDirectory = createSourceDirectory("corruptedChunks");
+    BackupDirectory backupDir = buildBackupDir("corruptedChunks");
+    BackupManager backupManager = new BackupManager(BACKEND_ID, true);
+    Path file = sourceDirectory.resolve(FILE_NAME_PREFIX + 0);
+    byte[] content = new byte[512 * 1024];
+    new Random(0).nextBytes(content);
+    createFile(file, content);
+
+    String initialBackupId = BACKUP_ID + "_0";
+    backupManager.createBackup(buildBackupable(sourceDirectory, file),
+        newBlockLevelBackupConfig(backupDir, initialBackupId, false));
+    File chunksDir = new File(backupDir.getPath(), BackupChunkStore.CHUNKS_DIRECTORY_NAME);
+    int nbChunks = countFiles(chunksDir);
+    assertThat(nbChunks).isGreaterThan(1);
+    corruptFiles(chunksDir);
+
+    backupManager.createBackup(buildBackupable(sourceDirectory, file),
+        newBlockLevelBackupConfig(backupDir, BACKUP_ID, false));
+    assertThat(countFiles(chunksDir)).isEqualTo(nbChunks);
+
+    Files.delete(file);
+    Backupable backupable = buildBackupable(sourceDirectory, file);
+    backupManager.restoreBackup(backupable, new RestoreConfig(backupDir, BACKUP_ID, false));
+    assertThat(Files.readAllBytes(file)).isEqualTo(content);
+
+    backupManager.removeBackup(backupDir, BACKUP_ID);
+    backupManager.removeBackup(backupDir, initialBackupId);
+    assertThat(countFiles(chunksDir)).isEqualTo(0);
+
+    cleanDirectories(sourceDirectory, backupDir.getPath());
+  }
+
+  /** Backups are only block-level when requested, even by a backup manager supporting them. */
+  @Test
+  public void testCreateBackupIsNotBlockLevelByDefault() throws Exception
+  {
+    Path sourceDirectory = createSourceDirectory("notBlockLevel");
+    BackupDirectory backupDir = buildBackupDir("notBlockLevel");
+    BackupManager backupManager = new BackupManager(BACKEND_ID, true);
+    Path file = sourceDirectory.resolve(FILE_NAME_PREFIX + 0);
+    byte[] content = new byte[512 * 1024];
+    new Random(0).nextBytes(content);
+    createFile(file, content);
+
+    backupManager.createBackup(buildBackupable(sourceDirectory, file), new BackupConfig(backupDir, BACKUP_ID, false));
+    assertThat(new File(backupDir.getPath(), BackupChunkStore.CHUNKS_DIRECTORY_NAME)).doesNotExist();
+
+    Files.delete(file);
+    backupManager.restoreBackup(buildBackupable(sourceDirectory, file), new RestoreConfig(backupDir, BACKUP_ID, false));
+    assertThat(Files.readAllBytes(file)).isEqualTo(content);
+
+    backupManager.removeBackup(backupDir, BACKUP_ID);
+    cleanDirectories(sourceDirectory, backupDir.getPath());
+  }
+
+  private BackupConfig newBlockLevelBackupConfig(BackupDirectory backupDir, String backupID, boolean isIncremental)
+  {
+    BackupConfig backupConfig = new BackupConfig(backupDir, backupID, isIncremental);
+    backupConfig.setBlockLevel(true);
+    return backupConfig;
+  }
+
   @Test
   public void testCreateDirectoryWithNumericSuffix() throws Exception
   {
@@ -320,6 +435,49 @@ public class BackupManagerTestCase extends DirectoryServerTestCase
     return backupable;
   }
 
+  private Backupable buildBackupable(Path sourceDirectory, Path file) throws Exception
+  {
+    Backupable backupable = mock(Backupable.class);
+    when(backupable.getDirectory()).thenReturn(sourceDirectory.toFile());
+    when(backupable.getFilesToBackup()).thenReturn(new ArrayList<>(Arrays.asList(file)).listIterator());
+    when(backupable.isDirectRestore()).thenReturn(true);
+    return backupable;
+  }
+
+  private int countFiles(File directory)
+  {
+    int count = 0;
+    File[] files = directory.listFiles();
+    if (files != null)
+    {
+      for (File file : files)
+      {
+        count += file.isDirectory() ? countFiles(file) : 1;
+      }
+    }
+    return count;
+  }
+
+  /** Truncates the files of the provided directory, and of its sub-directories, to a single byte. */
+  private void corruptFiles(File directory) throws Exception
+  {
+    File[] files = directory.listFiles();
+    if (files != null)
+    {
+      for (File file : files)
+      {
+        if (file.isDirectory())
+        {
+          corruptFiles(file);
+        }
+        else
+        {
+          createFile(file.toPath(), new byte[] { 0 });
+        }
+      }
+    }
+  }
+
   /**
    * Create files in source directory + additional files under a subdirectory of source directory
    */